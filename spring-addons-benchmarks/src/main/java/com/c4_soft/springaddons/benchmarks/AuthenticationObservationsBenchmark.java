@@ -0,0 +1,154 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
+import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.DefaultSpringAddonsReactiveJwtDecoder;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.ReactiveJWTClaimsSetAuthenticationManager;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.ReactiveJwtAuthenticationManagerRegistry;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.DefaultSpringAddonsJwtDecoder;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JwtAuthenticationManagerRegistry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.JWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * Cost of {@link AuthenticationObservations} for an end-to-end authentication by {@link JWTClaimsSetAuthenticationManager} and
+ * {@link ReactiveJWTClaimsSetAuthenticationManager} (spring-addons decoders and the default authentication converter).
+ * </p>
+ * <p>
+ * "DISABLED" is the default, "ENABLED" records the observations of each stage as Micrometer timers (in a {@link SimpleMeterRegistry}, with a
+ * {@link DefaultMeterObservationHandler}, as Spring Boot actuator does). Run with <code>-prof gc</code> to compare allocations.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationObservationsBenchmark {
+
+	public enum Observations {
+		DISABLED, ENABLED
+	}
+
+	@Param
+	Observations observations;
+
+	private AuthenticationManager authenticationManager;
+	private ReactiveAuthenticationManager reactiveAuthenticationManager;
+	private BearerTokenAuthenticationToken bearer;
+	private HttpServer jwkSetServer;
+
+	@Setup
+	public void setUp() {
+		final var tokens = new BenchmarkTokens();
+		bearer = new BearerTokenAuthenticationToken(tokens.keycloakAccessToken());
+		jwkSetServer = tokens.serveJwkSet();
+		final var jwkSetLocation = BenchmarkTokens.jwkSetUri(jwkSetServer);
+
+		final var authenticationObservations = observations == Observations.DISABLED
+				? AuthenticationObservations.DISABLED
+				: new AuthenticationObservations(observationRegistry());
+
+		final var opPropertiesResolver = JWTClaimsSetAuthenticationManagerBenchmark.opPropertiesResolver(jwkSetLocation);
+		final var authoritiesConverter = new ConfigurableClaimSetAuthoritiesConverter(opPropertiesResolver);
+		// same as the default jwtAuthenticationConverter bean
+		final Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter = jwt -> {
+			final var claims = jwt.getClaims();
+			final var opProperties = opPropertiesResolver.resolve(claims).get();
+			final var authorities = authenticationObservations
+					.observe(Stage.AUTHORITIES_MAPPING, opProperties.getIss(), () -> authoritiesConverter.convert(claims));
+			return authenticationObservations
+					.observe(
+							Stage.PRINCIPAL_BUILDING,
+							opProperties.getIss(),
+							() -> new JwtAuthenticationToken(jwt, authorities, OpenidClaimSet.resolveName(claims, opProperties.getUsernameClaimPath())));
+		};
+		final var validator = JwtValidators.createDefaultWithIssuer(BenchmarkTokens.ISSUER.toString());
+
+		final var jwtProcessor = new AtomicReference<JWTProcessor<SecurityContext>>();
+		NimbusJwtDecoder.withJwkSetUri(jwkSetLocation.toString()).jwtProcessorCustomizer(jwtProcessor::set).build();
+		authenticationManager = new JWTClaimsSetAuthenticationManager(opPropertiesResolver, (jwkSetUri, issuer, audience) -> {
+			final var decoder = new DefaultSpringAddonsJwtDecoder(jwtProcessor.get());
+			decoder.setJwtValidator(validator);
+			return decoder;
+		}, jwtAuthenticationConverter, Optional.empty(), JwtAuthenticationManagerRegistry.unbounded(), authenticationObservations);
+		reactiveAuthenticationManager = new ReactiveJWTClaimsSetAuthenticationManager(opPropertiesResolver, (jwkSetUri, issuer, audience) -> {
+			final var decoder = new DefaultSpringAddonsReactiveJwtDecoder(jwt -> {
+				try {
+					return Mono.just(jwtProcessor.get().process(jwt, null));
+				} catch (BadJOSEException | JOSEException e) {
+					return Mono.error(e);
+				}
+			});
+			decoder.setJwtValidator(validator);
+			return decoder;
+		},
+				jwt -> Mono.just(jwtAuthenticationConverter.convert(jwt)),
+				Optional.empty(),
+				ReactiveJwtAuthenticationManagerRegistry.unbounded(),
+				authenticationObservations);
+	}
+
+	@TearDown
+	public void tearDown() {
+		jwkSetServer.stop(0);
+	}
+
+	@Benchmark
+	public Authentication servlet() {
+		return authenticationManager.authenticate(bearer);
+	}
+
+	@Benchmark
+	public Authentication reactive() {
+		return reactiveAuthenticationManager.authenticate(bearer).block();
+	}
+
+	static ObservationRegistry observationRegistry() {
+		final var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new DefaultMeterObservationHandler(new SimpleMeterRegistry()));
+		return registry;
+	}
+}
@@ -0,0 +1,128 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Locally signed access tokens and the matching JWK-set (which can be served over HTTP on the loopback interface), so that benchmarks do not depend on a
+ * running authorization server.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class BenchmarkTokens {
+	public static final URI ISSUER = URI.create("https://localhost:8443/realms/benchmarks");
+	public static final String KEY_ID = "benchmarks";
+	public static final String JWK_SET_PATH = "/protocol/openid-connect/certs";
+
+	private final RSAKey rsaKey;
+
+	public BenchmarkTokens() {
+		try {
+			final var generator = KeyPairGenerator.getInstance("RSA");
+			generator.initialize(2048);
+			final var keyPair = generator.generateKeyPair();
+			this.rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic()).privateKey((RSAPrivateKey) keyPair.getPrivate()).keyID(KEY_ID).build();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public RSAPublicKey publicKey() {
+		try {
+			return rsaKey.toRSAPublicKey();
+		} catch (JOSEException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public JWKSet publicJwkSet() {
+		return new JWKSet(rsaKey.toPublicJWK());
+	}
+
+	/**
+	 * @return a started HTTP server exposing the public JWK-set at {@value #JWK_SET_PATH} on a random port of the loopback interface (to be stopped by
+	 *         the caller)
+	 */
+	public HttpServer serveJwkSet() {
+		final var body = publicJwkSet().toString().getBytes(StandardCharsets.UTF_8);
+		try {
+			final var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext(JWK_SET_PATH, exchange -> {
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, body.length);
+				try (var out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			});
+			server.start();
+			return server;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param  server started by {@link #serveJwkSet()}
+	 * @return        the URI of the JWK-set it exposes
+	 */
+	public static URI jwkSetUri(HttpServer server) {
+		return URI.create("http://localhost:%d%s".formatted(server.getAddress().getPort(), JWK_SET_PATH));
+	}
+
+	/**
+	 * @return a Keycloak like access token, valid for an hour
+	 */
+	public String keycloakAccessToken() {
+		final var now = Instant.now();
+		// @formatter:off
+		return sign(new JWTClaimsSet.Builder()
+				.issuer(ISSUER.toString())
+				.subject("0b16e8ba-5c79-4c05-9b4a-7d8b0d5f3e51")
+				.audience("account")
+				.issueTime(Date.from(now))
+				.expirationTime(Date.from(now.plusSeconds(3600)))
+				.claim("typ", "Bearer")
+				.claim("azp", "benchmarks")
+				.claim("scope", "openid profile email")
+				.claim("preferred_username", "ch4mp")
+				.claim("email", "ch4mp@c4-soft.com")
+				.claim("email_verified", true)
+				.claim("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "default-roles-benchmarks", "NICE")))
+				.claim("resource_access", Map.of(
+						"account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile")),
+						"benchmarks", Map.of("roles", List.of("AUTHOR", "REVIEWER"))))
+				.build());
+		// @formatter:on
+	}
+
+	public String sign(JWTClaimsSet claims) {
+		try {
+			final var jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(KEY_ID).build(), claims);
+			jwt.sign(new RSASSASigner(rsaKey));
+			return jwt.serialize();
+		} catch (JOSEException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
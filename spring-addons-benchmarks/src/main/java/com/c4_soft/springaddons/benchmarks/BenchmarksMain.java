@@ -0,0 +1,46 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * <p>
+ * Entry point of benchmarks.jar: runs JMH with the command line options. Unless a result format (-rf) or file (-rff) is given, results are written as JSON
+ * to jmh-results/spring-addons-benchmarks-{version}.json, next to the jar. These files contain the scores, errors and parameters of each benchmark, as well
+ * as the JVM and JMH options used, so that the results of two releases can be compared.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class BenchmarksMain {
+	private BenchmarksMain() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		final var options = new ArrayList<>(List.of(args));
+		if (!options.contains("-rf") && !options.contains("-rff")) {
+			final var resultFile = defaultResultFile();
+			Files.createDirectories(resultFile.getParent());
+			options.addAll(List.of("-rf", "json", "-rff", resultFile.toString()));
+		}
+		Main.main(options.toArray(String[]::new));
+	}
+
+	static Path defaultResultFile() throws IOException {
+		final var version = Optional.ofNullable(BenchmarksMain.class.getPackage().getImplementationVersion()).orElse("SNAPSHOT");
+		try {
+			final var jar = Path.of(BenchmarksMain.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			final var baseDir = Files.isDirectory(jar) ? jar : jar.getParent();
+			return baseDir.resolve("jmh-results").resolve("spring-addons-benchmarks-%s.json".formatted(version));
+		} catch (URISyntaxException e) {
+			throw new IOException(e);
+		}
+	}
+}
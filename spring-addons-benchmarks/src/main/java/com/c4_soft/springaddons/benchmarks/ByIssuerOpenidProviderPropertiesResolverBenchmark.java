@@ -0,0 +1,86 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.IssuerMatching;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+
+/**
+ * <p>
+ * Resolution of OpenID Provider properties by {@link ByIssuerOpenidProviderPropertiesResolver} in multi-tenant configurations (one Keycloak realm per
+ * tenant), outside of any request (the per-request memoization does not apply).
+ * </p>
+ * <p>
+ * "hit" resolves the issuer of the last configured realm, "miss" an issuer which is not configured. Scores should not depend on the number of issuers.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ByIssuerOpenidProviderPropertiesResolverBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	int issuers;
+
+	@Param
+	IssuerMatching matching;
+
+	private ByIssuerOpenidProviderPropertiesResolver resolver;
+	private Map<String, Object> configuredIssuerClaims;
+	private Map<String, Object> unknownIssuerClaims;
+
+	@Setup
+	public void setUp() {
+		final var ops = new ArrayList<OpenidProviderProperties>(issuers);
+		for (int i = 0; i < issuers; ++i) {
+			final var op = new OpenidProviderProperties();
+			op.setIss(realm(i));
+			ops.add(op);
+		}
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(ops);
+		properties.setOpsIssuerMatching(matching);
+		resolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+
+		configuredIssuerClaims = Map.of(JwtClaimNames.ISS, realm(issuers - 1), JwtClaimNames.SUB, "ch4mp");
+		unknownIssuerClaims = Map.of(JwtClaimNames.ISS, URI.create("https://localhost:8443/realms/unknown"), JwtClaimNames.SUB, "ch4mp");
+	}
+
+	@Benchmark
+	public Optional<OpenidProviderProperties> hit() {
+		return resolver.resolve(configuredIssuerClaims);
+	}
+
+	@Benchmark
+	public Optional<OpenidProviderProperties> miss() {
+		return resolver.resolve(unknownIssuerClaims);
+	}
+
+	private static URI realm(int i) {
+		return URI.create("https://localhost:8443/realms/tenant-%04d".formatted(i));
+	}
+}
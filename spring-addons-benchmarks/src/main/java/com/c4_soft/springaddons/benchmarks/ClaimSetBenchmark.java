@@ -0,0 +1,150 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.c4_soft.springaddons.security.oidc.ClaimPath;
+import com.c4_soft.springaddons.security.oidc.ClaimSet;
+import com.c4_soft.springaddons.security.oidc.DelegatingMap;
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.UnmodifiableClaimSet;
+
+/**
+ * <p>
+ * Creation of claim-sets from the claims of a Keycloak access token and lookups of standard claims in it.
+ * </p>
+ * <p>
+ * "DELEGATING_HASH_MAP" is the former implementation of {@link UnmodifiableClaimSet} (claims copied in a {@link HashMap}, wrapped in an unmodifiable map,
+ * wrapped in a {@link DelegatingMap}), "COMPACT" is the current one. See {@link ClaimSetFootprint} for the memory footprint of each.
+ * </p>
+ * <p>
+ * "openidClaimSet" is the creation of an {@link OpenidClaimSet} (as done by authentication converters) with the resolution of its name from a
+ * preferred_username claim path.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimSetBenchmark {
+	private static final String[] LOOKED_UP_CLAIMS = { "iss", "sub", "exp", "preferred_username", "realm_access", "missing" };
+
+	public enum Implementation {
+		DELEGATING_HASH_MAP, COMPACT
+	}
+
+	@State(Scope.Benchmark)
+	public static class UnmodifiableClaimSets {
+		@Param
+		Implementation implementation;
+
+		Map<String, Object> claims;
+		Map<String, Object> claimSet;
+
+		@Setup
+		public void setUp() {
+			claims = keycloakAccessTokenClaims();
+			claimSet = claimSet(implementation, claims);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class OpenidClaimSets {
+		Map<String, Object> claims;
+		ClaimPath usernameClaim;
+
+		@Setup
+		public void setUp() {
+			claims = keycloakAccessTokenClaims();
+			usernameClaim = ClaimPath.compile("$.preferred_username");
+		}
+	}
+
+	@Benchmark
+	public Map<String, Object> create(UnmodifiableClaimSets state) {
+		return claimSet(state.implementation, state.claims);
+	}
+
+	@Benchmark
+	public void lookup(UnmodifiableClaimSets state, Blackhole blackhole) {
+		for (final var claim : LOOKED_UP_CLAIMS) {
+			blackhole.consume(state.claimSet.get(claim));
+		}
+	}
+
+	@Benchmark
+	public String openidClaimSet(OpenidClaimSets state) {
+		return new OpenidClaimSet(state.claims, state.usernameClaim).getName();
+	}
+
+	static Map<String, Object> claimSet(Implementation implementation, Map<String, Object> claims) {
+		return implementation == Implementation.COMPACT ? new UnmodifiableClaimSet(claims) : new DelegatingHashMapClaimSet(claims);
+	}
+
+	/**
+	 * @return claims of a Keycloak access token, as decoded by Spring Security (with {@link Instant} and {@link URI} values)
+	 */
+	static Map<String, Object> keycloakAccessTokenClaims() {
+		final var now = Instant.now();
+		final var claims = new LinkedHashMap<String, Object>();
+		claims.put("exp", now.plusSeconds(300));
+		claims.put("iat", now);
+		claims.put("auth_time", now.minusSeconds(60));
+		claims.put("jti", "8d4b7d5c-0a6e-4a8f-9d6b-5a2c1f4e3b70");
+		claims.put("iss", URI.create("https://localhost:8443/realms/benchmarks"));
+		claims.put("aud", List.of("account"));
+		claims.put("sub", "0b16e8ba-5c79-4c05-9b4a-7d8b0d5f3e51");
+		claims.put("typ", "Bearer");
+		claims.put("azp", "benchmarks");
+		claims.put("session_state", "6f1c8a3e-2b7d-4c9e-8f0a-1d2e3c4b5a69");
+		claims.put("acr", "1");
+		claims.put("allowed-origins", List.of("https://localhost:4200"));
+		claims.put("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "default-roles-benchmarks", "NICE")));
+		claims.put(
+				"resource_access",
+				Map.of(
+						"account",
+						Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile")),
+						"benchmarks",
+						Map.of("roles", List.of("AUTHOR", "REVIEWER"))));
+		claims.put("scope", "openid profile email");
+		claims.put("sid", "6f1c8a3e-2b7d-4c9e-8f0a-1d2e3c4b5a69");
+		claims.put("email_verified", true);
+		claims.put("name", "Jérôme Wacongne");
+		claims.put("preferred_username", "ch4mp");
+		claims.put("given_name", "Jérôme");
+		claims.put("family_name", "Wacongne");
+		claims.put("email", "ch4mp@c4-soft.com");
+		return claims;
+	}
+
+	static class DelegatingHashMapClaimSet extends DelegatingMap<String, Object> implements ClaimSet {
+		private static final long serialVersionUID = 1L;
+
+		DelegatingHashMapClaimSet(Map<String, Object> delegate) {
+			super(Collections.unmodifiableMap(new HashMap<>(delegate)));
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import com.c4_soft.springaddons.benchmarks.ClaimSetBenchmark.Implementation;
+
+/**
+ * <p>
+ * Retained size of the claim-sets compared in {@link ClaimSetBenchmark}, measured with <a href="https://github.com/openjdk/jol">JOL</a>. The claim values are
+ * shared with the source map (and by all the implementations): only the claim-set structure is accounted for.
+ * </p>
+ *
+ * <pre>
+ * java -Djdk.attach.allowAttachSelf -cp spring-addons-benchmarks/target/benchmarks.jar com.c4_soft.springaddons.benchmarks.ClaimSetFootprint
+ * </pre>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class ClaimSetFootprint {
+
+	public static void main(String[] args) {
+		final var claims = ClaimSetBenchmark.keycloakAccessTokenClaims();
+		final var claimValues = GraphLayout.parseInstance(claims.keySet().toArray(), claims.values().toArray());
+		for (final var implementation : Implementation.values()) {
+			final var claimSet = ClaimSetBenchmark.claimSet(implementation, claims);
+			final var layout = GraphLayout.parseInstance(claimSet).subtract(claimValues);
+			System.out.printf("%s (%d claims): %d bytes in %d objects%n", implementation, claimSet.size(), layout.totalSize(), layout.totalCount());
+			System.out.println(layout.toFootprint());
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.StringUtils;
+
+import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.ClaimSetAuthoritiesConverter;
+import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
+import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties.Case;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+/**
+ * <p>
+ * Authorities mapping from realistic Keycloak, Auth0 and Cognito access token claims.
+ * </p>
+ * <p>
+ * "JSON_PATH_STREAMS" is the former implementation of {@link ConfigurableClaimSetAuthoritiesConverter} (JsonPath evaluated on each conversion, streams with
+ * <code>String::split</code> and <code>String::format</code>, a new authority per role), "PRECOMPILED" is the current one.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigurableClaimSetAuthoritiesConverterBenchmark {
+
+	public enum Provider {
+		KEYCLOAK, AUTH0, COGNITO
+	}
+
+	public enum Implementation {
+		JSON_PATH_STREAMS, PRECOMPILED
+	}
+
+	@Param
+	Provider provider;
+
+	@Param
+	Implementation implementation;
+
+	private Map<String, Object> claims;
+	private ClaimSetAuthoritiesConverter converter;
+
+	@Setup
+	public void setUp() {
+		claims = claims(provider);
+		final var opPropertiesResolver = opPropertiesResolver(provider);
+		converter = implementation == Implementation.PRECOMPILED
+				? new ConfigurableClaimSetAuthoritiesConverter(opPropertiesResolver)
+				: new JsonPathStreamsAuthoritiesConverter(opPropertiesResolver);
+
+		final var expected = authorities(new JsonPathStreamsAuthoritiesConverter(opPropertiesResolver).convert(claims));
+		final var actual = authorities(converter.convert(claims));
+		if (expected.isEmpty() || !expected.equals(actual)) {
+			throw new IllegalStateException("Unexpected authorities for %s: %s instead of %s".formatted(provider, actual, expected));
+		}
+	}
+
+	@Benchmark
+	public Collection<? extends GrantedAuthority> convert() {
+		return converter.convert(claims);
+	}
+
+	static Map<String, Object> claims(Provider provider) {
+		// @formatter:off
+		return switch (provider) {
+		case KEYCLOAK -> Map.of(
+				"iss", "https://localhost:8443/realms/benchmarks",
+				"sub", "4a1e8e2c-6f1b-4f53-9d2e-3c1f4f0c6a52",
+				"preferred_username", "ch4mp",
+				"scope", "openid profile email",
+				"realm_access", Map.of("roles", List.of("default-roles-benchmarks", "offline_access", "uma_authorization", "NICE")),
+				"resource_access", Map.of(
+						"account", Map.of("roles", List.of("manage-account", "manage-account-links", "view-profile")),
+						"spring-addons-confidential", Map.of("roles", List.of("AUTHOR", "REVIEWER"))));
+		case AUTH0 -> Map.of(
+				"iss", "https://dev-ch4mpy.eu.auth0.com/",
+				"sub", "auth0|6436b8fc8a2d7b1a3d0c1b2f",
+				"https://c4-soft.com/user", Map.of("name", "ch4mp", "email", "ch4mp@c4-soft.com"),
+				"https://c4-soft.com/roles", List.of("NICE", "AUTHOR", "REVIEWER"),
+				"scope", "openid profile email offline_access read:messages write:messages",
+				"permissions", List.of("read:messages", "write:messages"));
+		case COGNITO -> Map.of(
+				"iss", "https://cognito-idp.us-west-2.amazonaws.com/us-west-2_RzhmgLwjl",
+				"sub", "8c7a3b24-2d1e-4a3f-b0e1-7f2d9c4e5a61",
+				"username", "ch4mp",
+				"cognito:groups", List.of("NICE", "AUTHOR", "REVIEWER"),
+				"scope", "openid profile email aws.cognito.signin.user.admin");
+		};
+		// @formatter:on
+	}
+
+	static OpenidProviderPropertiesResolver opPropertiesResolver(Provider provider) {
+		final var op = new OpenidProviderProperties();
+		switch (provider) {
+		case KEYCLOAK:
+			op.setIss(URI.create("https://localhost:8443/realms/benchmarks"));
+			op.setAuthorities(List.of(mapping("$.realm_access.roles", "ROLE_", Case.UNCHANGED), mapping("$.resource_access.*.roles", "", Case.UPPER)));
+			break;
+		case AUTH0:
+			op.setIss(URI.create("https://dev-ch4mpy.eu.auth0.com/"));
+			op.setAuthorities(List.of(mapping("$['https://c4-soft.com/roles']", "ROLE_", Case.UNCHANGED), mapping("$.permissions", "", Case.UNCHANGED)));
+			break;
+		case COGNITO:
+			op.setIss(URI.create("https://cognito-idp.us-west-2.amazonaws.com/us-west-2_RzhmgLwjl"));
+			op.setAuthorities(List.of(mapping("$.cognito:groups", "ROLE_", Case.UNCHANGED), mapping("$.scope", "SCOPE_", Case.UNCHANGED)));
+			break;
+		}
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(op));
+		return new ByIssuerOpenidProviderPropertiesResolver(properties);
+	}
+
+	private static SimpleAuthoritiesMappingProperties mapping(String path, String prefix, Case caze) {
+		final var mapping = new SimpleAuthoritiesMappingProperties();
+		mapping.setPath(path);
+		mapping.setPrefix(prefix);
+		mapping.setCaze(caze);
+		return mapping;
+	}
+
+	private static HashSet<String> authorities(Collection<? extends GrantedAuthority> authorities) {
+		final var result = new HashSet<String>();
+		authorities.forEach(a -> result.add(a.getAuthority()));
+		return result;
+	}
+
+	/**
+	 * Former implementation of {@link ConfigurableClaimSetAuthoritiesConverter}, kept as a baseline
+	 */
+	static class JsonPathStreamsAuthoritiesConverter implements ClaimSetAuthoritiesConverter {
+		private final OpenidProviderPropertiesResolver opPropertiesResolver;
+
+		JsonPathStreamsAuthoritiesConverter(OpenidProviderPropertiesResolver opPropertiesResolver) {
+			this.opPropertiesResolver = opPropertiesResolver;
+		}
+
+		@Override
+		public Collection<? extends GrantedAuthority> convert(Map<String, Object> source) {
+			final var opProperties = opPropertiesResolver.resolve(source).orElseThrow();
+			// @formatter:off
+			return opProperties.getAuthorities().stream()
+					.flatMap(authoritiesMappingProps -> getAuthorities(source, authoritiesMappingProps))
+					.map(r -> (GrantedAuthority) new SimpleGrantedAuthority(r)).toList();
+			// @formatter:on
+		}
+
+		private static String processCase(String role, Case caze) {
+			switch (caze) {
+			case UPPER: {
+				return role.toUpperCase();
+			}
+			case LOWER: {
+				return role.toLowerCase();
+			}
+			default:
+				return role;
+			}
+		}
+
+		private static Stream<String> getAuthorities(Map<String, Object> claims, SimpleAuthoritiesMappingProperties props) {
+			// @formatter:off
+			return getClaims(claims, props.getPath())
+					.flatMap(claim -> Stream.of(claim.split(",")))
+					.flatMap(claim -> Stream.of(claim.split(" ")))
+					.filter(StringUtils::hasText)
+					.map(String::trim)
+					.map(r -> processCase(r, props.getCaze()))
+					.map(r -> String.format("%s%s", props.getPrefix(), r));
+			// @formatter:on
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private static Stream<String> getClaims(Map<String, Object> claims, String path) {
+			try {
+				final var res = JsonPath.read(claims, path);
+				if (res instanceof String r) {
+					return Stream.of(r);
+				}
+				if (res instanceof List l) {
+					if (l.size() == 0) {
+						return Stream.empty();
+					}
+					if (l.get(0) instanceof String) {
+						return l.stream();
+					}
+					if (l.get(0) instanceof List) {
+						return l.stream().flatMap(o -> ((List) o).stream());
+					}
+				}
+				return Stream.empty();
+			} catch (PathNotFoundException e) {
+				return Stream.empty();
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.DeleteExchange;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+import org.springframework.web.service.annotation.PostExchange;
+
+import com.c4_soft.springaddons.rest.DefaultBearerProvider;
+import com.c4_soft.springaddons.rest.SpringAddonsRestClientSupport;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties;
+import com.c4_soft.springaddons.rest.SystemProxyProperties;
+
+/**
+ * <p>
+ * Cost of getting {@link HttpExchange @HttpExchange} proxies from {@link SpringAddonsRestClientSupport}:
+ * </p>
+ * <ul>
+ * <li>perCall: getting a proxy, as application code calling service(clientName, serviceClass) in a request path does. "REBUILD" is the former behavior
+ * (client, interceptors, proxy factory and proxy built on each call), "REGISTRY" the current one (proxies created once per client name and interface)</li>
+ * <li>startup: creating a support bean and the proxies for four interfaces, as done at startup for the "services" of a client</li>
+ * </ul>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpServiceProxyBenchmark {
+	private static final String CLIENT_NAME = "users";
+
+	private static final List<Class<?>> SERVICES = List.of(UsersApi.class, GroupsApi.class, RolesApi.class, SessionsApi.class);
+
+	public enum Strategy {
+		REBUILD, REGISTRY
+	}
+
+	@State(Scope.Benchmark)
+	public static class PerCall {
+		@Param
+		Strategy strategy;
+
+		SpringAddonsRestClientSupport support;
+
+		@Setup
+		public void setUp() {
+			support = support();
+		}
+	}
+
+	@Benchmark
+	public UsersApi perCall(PerCall state) {
+		if (state.strategy == Strategy.REBUILD) {
+			return state.support.service(state.support.client(CLIENT_NAME).build(), UsersApi.class);
+		}
+		return state.support.service(CLIENT_NAME, UsersApi.class);
+	}
+
+	@Benchmark
+	public void startup(Blackhole blackhole) {
+		final var support = support();
+		for (final var service : SERVICES) {
+			blackhole.consume(support.service(CLIENT_NAME, service));
+		}
+	}
+
+	static SpringAddonsRestClientSupport support() {
+		final var restProperties = new SpringAddonsRestProperties();
+		restProperties.getProxy().setEnabled(false);
+		final var clientProperties = new SpringAddonsRestProperties.RestClientProperties();
+		clientProperties.setBaseUrl(Optional.of("http://localhost:8080/admin/realms/master"));
+		clientProperties.getAuthorization().getBasic().setUsername(Optional.of("admin"));
+		clientProperties.getAuthorization().getBasic().setPassword(Optional.of("secret"));
+		clientProperties.setServices(SERVICES);
+		restProperties.getClient().put(CLIENT_NAME, clientProperties);
+		return new SpringAddonsRestClientSupport(new SystemProxyProperties(), restProperties, new DefaultBearerProvider(), Optional.empty());
+	}
+
+	@HttpExchange("/users")
+	public interface UsersApi {
+		@GetExchange("/{id}")
+		String get(@PathVariable("id") String id);
+
+		@GetExchange("/count")
+		Long count();
+
+		@PostExchange
+		void create(@RequestBody String user);
+
+		@DeleteExchange("/{id}")
+		void delete(@PathVariable("id") String id);
+	}
+
+	@HttpExchange("/groups")
+	public interface GroupsApi {
+		@GetExchange("/{id}")
+		String get(@PathVariable("id") String id);
+
+		@GetExchange("/{id}/members")
+		List<String> members(@PathVariable("id") String id);
+	}
+
+	@HttpExchange("/roles")
+	public interface RolesApi {
+		@GetExchange
+		List<String> list();
+
+		@PostExchange
+		void create(@RequestBody String role);
+	}
+
+	@HttpExchange("/sessions")
+	public interface SessionsApi {
+		@GetExchange("/{id}")
+		String get(@PathVariable("id") String id);
+
+		@DeleteExchange("/{id}")
+		void revoke(@PathVariable("id") String id);
+	}
+}
@@ -0,0 +1,149 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenAuthenticationConverter;
+
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
+import com.c4_soft.springaddons.security.oidc.starter.SpringAddonsOpaqueTokenAuthenticationConverter;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties;
+
+/**
+ * <p>
+ * Conversion of a successful introspection result (Keycloak access token attributes) into a {@link BearerTokenAuthentication} by the default
+ * introspectionAuthenticationConverter bean (the reactive one wraps the same conversion in a Mono).
+ * </p>
+ * <p>
+ * "PER_REQUEST_RESOLUTION" is the former converter: for each request, the OpenID Provider is looked up in the properties by introspection URI (for the
+ * username claim) and by issuer (for the authorities mappings). "RESOLVED_AT_CONFIGURATION" is {@link SpringAddonsOpaqueTokenAuthenticationConverter}: the
+ * OpenID Provider is resolved when the bean is created. Run with <code>-prof gc</code> to compare allocations.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntrospectionAuthenticationConverterBenchmark {
+	private static final String INTROSPECTION_URI = BenchmarkTokens.ISSUER + "/protocol/openid-connect/token/introspect";
+
+	private static final String TOKEN = "opaque-access-token";
+
+	public enum Implementation {
+		PER_REQUEST_RESOLUTION, RESOLVED_AT_CONFIGURATION
+	}
+
+	@Param
+	Implementation implementation;
+
+	private OpaqueTokenAuthenticationConverter converter;
+	private OAuth2AuthenticatedPrincipal principal;
+
+	@Setup
+	public void setUp() {
+		final var properties = properties();
+		final var authoritiesConverter = new ConfigurableClaimSetAuthoritiesConverter(new ByIssuerOpenidProviderPropertiesResolver(properties));
+		converter = implementation == Implementation.PER_REQUEST_RESOLUTION
+				? perRequestResolutionConverter(authoritiesConverter, properties)
+				: new SpringAddonsOpaqueTokenAuthenticationConverter(
+						authoritiesConverter,
+						SpringAddonsOpaqueTokenAuthenticationConverter.getIntrospectionOpenidProvider(properties, INTROSPECTION_URI));
+
+		final var attributes = ClaimSetBenchmark.keycloakAccessTokenClaims();
+		attributes.put(OAuth2TokenIntrospectionClaimNames.ACTIVE, true);
+		principal = new OAuth2IntrospectionAuthenticatedPrincipal(attributes, List.of());
+	}
+
+	@Benchmark
+	public Authentication convert() {
+		return converter.convert(TOKEN, principal);
+	}
+
+	static SpringAddonsOidcProperties properties() {
+		final var realmRoles = new SimpleAuthoritiesMappingProperties();
+		realmRoles.setPath("$.realm_access.roles");
+		final var clientRoles = new SimpleAuthoritiesMappingProperties();
+		clientRoles.setPath("$.resource_access.*.roles");
+
+		final var op = new OpenidProviderProperties();
+		op.setIss(BenchmarkTokens.ISSUER);
+		op.setUsernameClaim("$.preferred_username");
+		op.setAuthorities(List.of(realmRoles, clientRoles));
+
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(op));
+		return properties;
+	}
+
+	/**
+	 * The introspectionAuthenticationConverter bean before OpenID Provider resolution was moved to configuration time
+	 */
+	@SuppressWarnings("unchecked")
+	static OpaqueTokenAuthenticationConverter perRequestResolutionConverter(
+			Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
+			SpringAddonsOidcProperties addonsProperties) {
+		return (String introspectedToken, OAuth2AuthenticatedPrincipal authenticatedPrincipal) -> {
+			final var iatClaim = authenticatedPrincipal.getAttribute(OAuth2TokenIntrospectionClaimNames.IAT);
+			final var expClaim = authenticatedPrincipal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP);
+			return new BearerTokenAuthentication(
+					new OAuth2IntrospectionAuthenticatedPrincipal(
+							OpenidClaimSet.resolveName(
+									authenticatedPrincipal.getAttributes(),
+									addonsProperties
+											.getOps()
+											.stream()
+											.filter(openidProvider -> INTROSPECTION_URI.contains(openidProvider.getIss().toString()))
+											.findAny()
+											.orElse(addonsProperties.getOps().get(0))
+											.getUsernameClaimPath()),
+							authenticatedPrincipal.getAttributes(),
+							(Collection<GrantedAuthority>) authenticatedPrincipal.getAuthorities()),
+					new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, introspectedToken, toInstant(iatClaim), toInstant(expClaim)),
+					authoritiesConverter.convert(authenticatedPrincipal.getAttributes()));
+		};
+	}
+
+	private static Instant toInstant(Object claim) {
+		if (claim instanceof Instant i) {
+			return i;
+		}
+		if (claim instanceof Date d) {
+			return d.toInstant();
+		}
+		if (claim instanceof Long l) {
+			return Instant.ofEpochSecond(l);
+		}
+		return null;
+	}
+}
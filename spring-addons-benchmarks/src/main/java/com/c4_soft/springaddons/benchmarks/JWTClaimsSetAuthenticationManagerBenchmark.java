@@ -0,0 +1,163 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
+import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.DefaultSpringAddonsReactiveJwtDecoder;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.ReactiveJWTClaimsSetAuthenticationManager;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.DefaultSpringAddonsJwtDecoder;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.JWTProcessor;
+import com.sun.net.httpserver.HttpServer;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * End-to-end authentication of a locally signed access token by {@link JWTClaimsSetAuthenticationManager} and
+ * {@link ReactiveJWTClaimsSetAuthenticationManager}. Signature keys are fetched from a JWK-set served on the loopback interface (and then cached by the
+ * decoders, as in production).
+ * </p>
+ * <p>
+ * "PARSE_TWICE" uses Spring Security Nimbus decoders, which parse the token string a second time after the authentication manager parsed it to resolve the
+ * issuer. "PARSE_ONCE" uses spring-addons decoders, which are given the already parsed JWT. Run with <code>-prof gc</code> to compare allocations.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTClaimsSetAuthenticationManagerBenchmark {
+
+	public enum Pipeline {
+		PARSE_TWICE, PARSE_ONCE
+	}
+
+	@Param
+	Pipeline pipeline;
+
+	private AuthenticationManager authenticationManager;
+	private ReactiveAuthenticationManager reactiveAuthenticationManager;
+	private BearerTokenAuthenticationToken bearer;
+	private HttpServer jwkSetServer;
+
+	@Setup
+	public void setUp() {
+		final var tokens = new BenchmarkTokens();
+		bearer = new BearerTokenAuthenticationToken(tokens.keycloakAccessToken());
+		jwkSetServer = tokens.serveJwkSet();
+		final var jwkSetLocation = BenchmarkTokens.jwkSetUri(jwkSetServer);
+
+		final var opPropertiesResolver = opPropertiesResolver(jwkSetLocation);
+		final var authoritiesConverter = new ConfigurableClaimSetAuthoritiesConverter(opPropertiesResolver);
+		final Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter = jwt -> new JwtAuthenticationToken(
+				jwt,
+				authoritiesConverter.convert(jwt.getClaims()),
+				OpenidClaimSet.resolveName(jwt.getClaims(), opPropertiesResolver.resolve(jwt.getClaims()).get().getUsernameClaimPath()));
+		final var validator = JwtValidators.createDefaultWithIssuer(BenchmarkTokens.ISSUER.toString());
+
+		if (pipeline == Pipeline.PARSE_TWICE) {
+			authenticationManager = new JWTClaimsSetAuthenticationManager(opPropertiesResolver, (jwkSetUri, issuer, audience) -> {
+				final var decoder = NimbusJwtDecoder.withJwkSetUri(jwkSetUri.get().toString()).build();
+				decoder.setJwtValidator(validator);
+				return decoder;
+			}, jwtAuthenticationConverter);
+			reactiveAuthenticationManager = new ReactiveJWTClaimsSetAuthenticationManager(opPropertiesResolver, (jwkSetUri, issuer, audience) -> {
+				final var decoder = NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri.get().toString()).build();
+				decoder.setJwtValidator(validator);
+				return decoder;
+			}, jwt -> Mono.just(jwtAuthenticationConverter.convert(jwt)));
+		} else {
+			final var jwtProcessor = new AtomicReference<JWTProcessor<SecurityContext>>();
+			NimbusJwtDecoder.withJwkSetUri(jwkSetLocation.toString()).jwtProcessorCustomizer(jwtProcessor::set).build();
+			authenticationManager = new JWTClaimsSetAuthenticationManager(opPropertiesResolver, (jwkSetUri, issuer, audience) -> {
+				final var decoder = new DefaultSpringAddonsJwtDecoder(jwtProcessor.get());
+				decoder.setJwtValidator(validator);
+				return decoder;
+			}, jwtAuthenticationConverter);
+			reactiveAuthenticationManager = new ReactiveJWTClaimsSetAuthenticationManager(opPropertiesResolver, (jwkSetUri, issuer, audience) -> {
+				final var decoder = new DefaultSpringAddonsReactiveJwtDecoder(jwt -> {
+					try {
+						return Mono.just(jwtProcessor.get().process(jwt, null));
+					} catch (BadJOSEException | JOSEException e) {
+						return Mono.error(e);
+					}
+				});
+				decoder.setJwtValidator(validator);
+				return decoder;
+			}, jwt -> Mono.just(jwtAuthenticationConverter.convert(jwt)));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		jwkSetServer.stop(0);
+	}
+
+	@Benchmark
+	public Authentication servlet() {
+		return authenticationManager.authenticate(bearer);
+	}
+
+	@Benchmark
+	public Authentication reactive() {
+		return reactiveAuthenticationManager.authenticate(bearer).block();
+	}
+
+	static OpenidProviderPropertiesResolver opPropertiesResolver(URI jwkSetUri) {
+		final var realmRoles = new SimpleAuthoritiesMappingProperties();
+		realmRoles.setPath("$.realm_access.roles");
+		final var clientRoles = new SimpleAuthoritiesMappingProperties();
+		clientRoles.setPath("$.resource_access.*.roles");
+
+		final var op = new OpenidProviderProperties();
+		op.setIss(BenchmarkTokens.ISSUER);
+		op.setJwkSetUri(jwkSetUri);
+		op.setUsernameClaim("$.preferred_username");
+		op.setAuthorities(List.of(realmRoles, clientRoles));
+
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(op));
+		return new ByIssuerOpenidProviderPropertiesResolver(properties);
+	}
+}
@@ -0,0 +1,168 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.c4_soft.springaddons.security.oidc.starter.PathPatternTrie;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * <p>
+ * Decision of the authorization filter about the "permit-all" and CORS pre-flight paths, for a request to a permitted path and for a request to a secured one
+ * (which has to be checked against all the configured patterns).
+ * </p>
+ * <p>
+ * "ANT_PATH_REQUEST_MATCHERS" is the former servlet configuration (an {@link AntPathRequestMatcher} per path, evaluated one after the other),
+ * "PATH_PATTERNS" is the former reactive one (a {@link PathPattern} per path, evaluated one after the other against the parsed request path),
+ * "PATH_PATTERN_TRIE" is the current {@link PathPatternTrie} used by both.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermitAllMatcherBenchmark {
+
+	public enum Implementation {
+		ANT_PATH_REQUEST_MATCHERS, PATH_PATTERNS, PATH_PATTERN_TRIE
+	}
+
+	@Param
+	Implementation implementation;
+
+	@Param({ "10", "100", "1000" })
+	int routes;
+
+	private RequestMatcher matcher;
+	private HttpServletRequest permittedRequest;
+	private HttpServletRequest securedRequest;
+
+	@Setup
+	public void setUp() {
+		final var permitAll = permitAll(routes);
+		final var corsPaths = List.of("/api/**", "/graphql");
+
+		matcher = switch (implementation) {
+		case ANT_PATH_REQUEST_MATCHERS -> {
+			final var matchers = new ArrayList<RequestMatcher>();
+			permitAll.stream().map(AntPathRequestMatcher::new).forEach(matchers::add);
+			corsPaths.stream().map(path -> new AntPathRequestMatcher(path, "OPTIONS")).forEach(matchers::add);
+			yield request -> {
+				for (final var m : matchers) {
+					if (m.matches(request)) {
+						return true;
+					}
+				}
+				return false;
+			};
+		}
+		case PATH_PATTERNS -> {
+			final var patterns = permitAll.stream().map(PathPatternParser.defaultInstance::parse).toList();
+			final var corsPatterns = corsPaths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+			yield request -> {
+				final var path = PathContainer.parsePath(request.getServletPath());
+				for (final var pattern : patterns) {
+					if (pattern.matches(path)) {
+						return true;
+					}
+				}
+				if ("OPTIONS".equals(request.getMethod())) {
+					for (final var pattern : corsPatterns) {
+						if (pattern.matches(path)) {
+							return true;
+						}
+					}
+				}
+				return false;
+			};
+		}
+		case PATH_PATTERN_TRIE -> {
+			final var trie = new PathPatternTrie().addAll(permitAll, null).addAll(corsPaths, HttpMethod.OPTIONS);
+			yield request -> trie.matches(request.getServletPath(), request.getMethod());
+		}
+		};
+
+		permittedRequest = request("GET", "/resources/%d/items/42".formatted(routes - 1));
+		securedRequest = request("GET", "/api/v1/orders/42");
+	}
+
+	@Benchmark
+	public boolean permitted() {
+		return matcher.matches(permittedRequest);
+	}
+
+	@Benchmark
+	public boolean secured() {
+		return matcher.matches(securedRequest);
+	}
+
+	/**
+	 * @param count the number of patterns
+	 * @return literal paths, literal prefixes followed by "/**" and patterns with a wildcard segment, as found in permit-all properties
+	 */
+	static List<String> permitAll(int count) {
+		final var patterns = new ArrayList<String>(count);
+		for (var i = 0; i < count; ++i) {
+			patterns.add(switch (i % 3) {
+			case 0 -> "/public/pages/%d".formatted(i);
+			case 1 -> "/static/%d/**".formatted(i);
+			default -> "/resources/%d/items/*".formatted(i);
+			});
+		}
+		// make sure that the permitted request matches the last pattern
+		patterns.set(count - 1, "/resources/%d/items/*".formatted(count - 1));
+		return patterns;
+	}
+
+	/**
+	 * A request exposing only what path matchers read (any other method throws)
+	 */
+	static HttpServletRequest request(String method, String servletPath) {
+		final var unsupported = (HttpServletRequest) Proxy
+				.newProxyInstance(PermitAllMatcherBenchmark.class.getClassLoader(), new Class<?>[] { HttpServletRequest.class }, (proxy, m, args) -> {
+					throw new UnsupportedOperationException(m.getName());
+				});
+		return new HttpServletRequestWrapper(unsupported) {
+			@Override
+			public String getMethod() {
+				return method;
+			}
+
+			@Override
+			public String getServletPath() {
+				return servletPath;
+			}
+
+			@Override
+			public String getPathInfo() {
+				return null;
+			}
+		};
+	}
+}
@@ -0,0 +1,131 @@
+package com.c4_soft.springaddons.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import com.c4_soft.springaddons.rest.ClientHttpRequestFactorySupport;
+import com.c4_soft.springaddons.rest.ProxySupport;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties.Transport;
+import com.c4_soft.springaddons.rest.SystemProxyProperties;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * Load test of the {@link RestClient} HTTP transports against a local server: 16 threads sending GET requests concurrently. Connections are almost free
+ * on the loopback interface: this measures the per-request overhead of each transport, not the cost of connection churn over a real network (TCP and TLS
+ * handshakes).
+ * </p>
+ * <p>
+ * "LEGACY" is the former spring-addons request factory (a {@link SimpleClientHttpRequestFactory} which proxy is set on each request), the others are the
+ * transports built by {@link ClientHttpRequestFactorySupport}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class RestClientTransportBenchmark {
+	private static final byte[] RESPONSE = """
+			{"id": 42, "name": "ch4mp", "roles": ["USER", "ADMIN"]}""".getBytes(StandardCharsets.UTF_8);
+
+	public enum Implementation {
+		LEGACY, URL_CONNECTION, JDK, APACHE
+	}
+
+	@Param
+	Implementation implementation;
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private RestClient restClient;
+
+	@Setup
+	public void setUp() throws IOException {
+		// without TCP_NODELAY, the JDK server response is delayed by Nagle's algorithm and the server becomes the bottleneck
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		serverExecutor = Executors.newFixedThreadPool(32);
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 512);
+		server.createContext("/users/42", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, RESPONSE.length);
+			try (var out = exchange.getResponseBody()) {
+				out.write(RESPONSE);
+			}
+		});
+		server.setExecutor(serverExecutor);
+		server.start();
+
+		final var builder = RestClient.builder().baseUrl("http://localhost:%d".formatted(server.getAddress().getPort()));
+		if (implementation == Implementation.LEGACY) {
+			builder.requestFactory(new LegacyClientHttpRequestFactory());
+		} else {
+			final var httpProperties = new HttpProperties();
+			httpProperties.setTransport(Transport.valueOf(implementation.name()));
+			httpProperties.setHttp2(false);
+			httpProperties.setMaxConnectionsPerRoute(Optional.of(32));
+			final var restProperties = new SpringAddonsRestProperties();
+			restProperties.getProxy().setEnabled(false);
+			builder.requestFactory(ClientHttpRequestFactorySupport.create(new ProxySupport(new SystemProxyProperties(), restProperties), httpProperties));
+		}
+		restClient = builder.build();
+	}
+
+	@TearDown
+	public void tearDown() {
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	public String get() {
+		return restClient.get().uri("/users/42").retrieve().body(String.class);
+	}
+
+	/**
+	 * Same behavior as the request factory spring-addons used before transports were pooled and configurable: the shared factory is mutated on each request
+	 */
+	static class LegacyClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
+		LegacyClientHttpRequestFactory() {
+			setConnectTimeout(10000);
+		}
+
+		@Override
+		public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+			super.setProxy(Proxy.NO_PROXY);
+			return super.createRequest(uri, httpMethod);
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package com.c4_soft.springaddons.security.oidc;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.PathNotFoundException;
+
+/**
+ * <p>
+ * A JSON path to a claim, compiled once to be read many times.
+ * </p>
+ * <p>
+ * Simple paths (a claim name, a dotted path like <code>$.realm_access.roles</code> or a bracket notation like
+ * <code>$['https://c4-soft.com/user']['roles']</code>) are resolved by walking nested maps, without JsonPath. Any other path (wildcards, filters, array
+ * indexes, deep scan, ...) is compiled with {@link JsonPath#compile(String, com.jayway.jsonpath.Predicate...)}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class ClaimPath implements Serializable {
+	private static final long serialVersionUID = 4216571337254296373L;
+
+	private final String path;
+	private final @Nullable String[] segments;
+	private transient @Nullable JsonPath jsonPath;
+
+	private ClaimPath(String path, @Nullable String[] segments) {
+		this.path = path;
+		this.segments = segments;
+	}
+
+	/**
+	 * @param path a JSON path, as accepted by {@link JsonPath}
+	 * @return the compiled path
+	 */
+	public static ClaimPath compile(String path) {
+		Assert.hasText(path, "claim path can't be empty");
+		return new ClaimPath(path, parseSimplePath(path));
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return true if this path is resolved by walking nested maps (without JsonPath)
+	 */
+	public boolean isSimple() {
+		return segments != null;
+	}
+
+	/**
+	 * @param <T> the expected claim type
+	 * @param claims the claims to read
+	 * @return the claim value, or null if it is absent (or if the path is not found)
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> @Nullable T read(Map<String, Object> claims) {
+		if (segments == null) {
+			try {
+				return getJsonPath().read(claims);
+			} catch (PathNotFoundException e) {
+				return null;
+			}
+		}
+		Object current = claims;
+		for (var segment : segments) {
+			if (!(current instanceof Map<?, ?> map)) {
+				return null;
+			}
+			current = map.get(segment);
+		}
+		return (T) current;
+	}
+
+	/**
+	 * @param claims the claims to read
+	 * @return true if the path is found in the claims, even if the value it points to is null
+	 */
+	public boolean isPresent(Map<String, Object> claims) {
+		if (segments == null) {
+			try {
+				getJsonPath().read(claims);
+				return true;
+			} catch (PathNotFoundException e) {
+				return false;
+			}
+		}
+		Object current = claims;
+		for (var segment : segments) {
+			if (!(current instanceof Map<?, ?> map) || !map.containsKey(segment)) {
+				return false;
+			}
+			current = map.get(segment);
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return path;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof ClaimPath other && path.equals(other.path);
+	}
+
+	@Override
+	public int hashCode() {
+		return path.hashCode();
+	}
+
+	private JsonPath getJsonPath() {
+		var compiled = jsonPath;
+		if (compiled == null) {
+			compiled = JsonPath.compile(path);
+			jsonPath = compiled;
+		}
+		return compiled;
+	}
+
+	/**
+	 * @param path a JSON path
+	 * @return the successive claim names in the path, or null if the path is not a simple one
+	 */
+	static @Nullable String[] parseSimplePath(String path) {
+		final var segments = new ArrayList<String>();
+		var i = 0;
+		if (path.charAt(0) == '$') {
+			i = 1;
+			if (path.length() == 1) {
+				return null;
+			}
+		} else if (!isNameChar(path.charAt(0))) {
+			return null;
+		} else {
+			// like JsonPath does, consider that a path which does not start with "$" is relative to the root
+			i = readName(path, 0, segments);
+		}
+		while (i > 0 && i < path.length()) {
+			final var c = path.charAt(i);
+			if (c == '.') {
+				i = readName(path, i + 1, segments);
+			} else if (c == '[') {
+				i = readBracketName(path, i + 1, segments);
+			} else {
+				return null;
+			}
+		}
+		return i < 0 ? null : segments.toArray(String[]::new);
+	}
+
+	private static int readName(String path, int start, List<String> segments) {
+		var end = start;
+		while (end < path.length() && isNameChar(path.charAt(end))) {
+			++end;
+		}
+		if (end == start) {
+			return -1;
+		}
+		segments.add(path.substring(start, end));
+		return end;
+	}
+
+	private static int readBracketName(String path, int start, List<String> segments) {
+		if (start >= path.length() || path.charAt(start) != '\'') {
+			return -1;
+		}
+		final var end = path.indexOf('\'', start + 1);
+		if (end < 0 || end + 1 >= path.length() || path.charAt(end + 1) != ']' || path.indexOf('\\', start) >= 0 && path.indexOf('\\', start) < end) {
+			return -1;
+		}
+		segments.add(path.substring(start + 1, end));
+		return end + 2;
+	}
+
+	private static boolean isNameChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == ':';
+	}
+}
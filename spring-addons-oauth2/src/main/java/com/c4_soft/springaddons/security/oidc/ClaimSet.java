@@ -34,6 +34,14 @@ import com.jayway.jsonpath.JsonPath;
  */
 public interface ClaimSet extends Map<String, Object>, Serializable {
 
+	/**
+	 * @return a view of this claim-set converting each claim at most once (see {@link TypedClaims}). This default implementation returns a new view on
+	 *         each call: keep a reference to it for the time the claim-set is not modified.
+	 */
+	default TypedClaims typed() {
+		return new TypedClaims(this);
+	}
+
 	default <T> T getByJsonPath(String jsonPath) {
 		return JsonPath.read(this, jsonPath);
 	}
@@ -3,12 +3,24 @@ package com.c4_soft.springaddons.security.oidc;
 import java.security.Principal;
 import java.util.Map;
 
+import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.core.oidc.IdTokenClaimAccessor;
 import org.springframework.security.oauth2.core.oidc.StandardClaimNames;
 import org.springframework.security.oauth2.jwt.JwtClaimNames;
 
 import com.jayway.jsonpath.PathNotFoundException;
 
+/**
+ * <p>
+ * OpenID claims (from an access or ID token, or introspection / userinfo response) which are also a {@link Principal}.
+ * </p>
+ * <p>
+ * The name is read with a {@link ClaimPath} (falling back to the subject if the username claim is missing) the first time it is requested, and then
+ * memoized (see {@link #resolveName(Map, ClaimPath)}).
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
 public class OpenidClaimSet extends UnmodifiableClaimSet implements IdTokenClaimAccessor, Principal {
 	private static final long serialVersionUID = -5149299350697429528L;
 
@@ -17,9 +29,27 @@ public class OpenidClaimSet extends UnmodifiableClaimSet implements IdTokenClaim
 	 */
 	private final String usernameClaim;
 
-	public OpenidClaimSet(Map<String, Object> claims, String usernameClaim) {
+	private transient @Nullable ClaimPath usernameClaimPath;
+
+	private transient @Nullable String name;
+
+	/**
+	 * @param claims        the claims, copied
+	 * @param usernameClaim JSON path for the claim to use as "name" source, compiled once for all (see {@link ClaimPath#compile(String)})
+	 */
+	public OpenidClaimSet(Map<String, Object> claims, ClaimPath usernameClaim) {
 		super(claims);
-		this.usernameClaim = usernameClaim;
+		this.usernameClaim = usernameClaim.getPath();
+		this.usernameClaimPath = usernameClaim;
+	}
+
+	/**
+	 * @param claims        the claims, copied
+	 * @param usernameClaim JSON path for the claim to use as "name" source. Prefer {@link #OpenidClaimSet(Map, ClaimPath)} with a path compiled once
+	 *                      for all when creating claim-sets on each request.
+	 */
+	public OpenidClaimSet(Map<String, Object> claims, String usernameClaim) {
+		this(claims, ClaimPath.compile(usernameClaim));
 	}
 
 	public OpenidClaimSet(Map<String, Object> claims) {
@@ -33,11 +63,39 @@ public class OpenidClaimSet extends UnmodifiableClaimSet implements IdTokenClaim
 
 	@Override
 	public String getName() {
-		try {
-			return getByJsonPath(usernameClaim);
-		} catch (PathNotFoundException e) {
-			return getByJsonPath(JwtClaimNames.SUB);
+		var resolved = name;
+		if (resolved == null) {
+			var path = usernameClaimPath;
+			if (path == null) {
+				// transient, not restored on deserialization
+				path = ClaimPath.compile(usernameClaim);
+				usernameClaimPath = path;
+			}
+			resolved = resolveName(this, path);
+			name = resolved;
+		}
+		return resolved;
+	}
+
+	/**
+	 * Resolves a name from claims without building a claim-set
+	 *
+	 * @param  claims        the claims to read
+	 * @param  usernameClaim JSON path for the claim to use as "name" source
+	 * @return                       the value of the username claim (null if this claim is present with a null value), or of the subject if the
+	 *                               username claim is absent
+	 * @throws ClassCastException    if the resolved claim is not a String
+	 * @throws PathNotFoundException if neither the username claim nor the subject is present
+	 */
+	public static @Nullable String resolveName(Map<String, Object> claims, ClaimPath usernameClaim) {
+		final Object username = usernameClaim.read(claims);
+		if (username != null || usernameClaim.isPresent(claims)) {
+			return (String) username;
+		}
+		if (!claims.containsKey(JwtClaimNames.SUB)) {
+			throw new PathNotFoundException("No results for path: $['%s']".formatted(JwtClaimNames.SUB));
 		}
+		return (String) claims.get(JwtClaimNames.SUB);
 	}
 
 }
@@ -0,0 +1,135 @@
+package com.c4_soft.springaddons.security.oidc;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * <p>
+ * Typed view over a {@link ClaimSet}: each claim is converted (with the {@link ClaimSet} getAsXxx methods) at most once per requested type, and the
+ * result is cached. String sets are unmodifiable (and keep null elements, if any) and time claims can be read as primitive epoch seconds.
+ * </p>
+ * <p>
+ * Conversion failures are not cached (the exception is thrown again on the next call). The view assumes that the claim-set is not modified after the
+ * first read: it is memoized by {@link UnmodifiableClaimSet#typed()}, but a new one is returned each time for other claim-sets.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class TypedClaims {
+	private static final Object ABSENT = new Object();
+
+	private final ClaimSet claims;
+
+	/**
+	 * Converted claims by type and name. A single map for all types: most views serve only a few conversions (ConcurrentHashMap allocates its table on first
+	 * insertion).
+	 */
+	private final Map<Conversion, Object> conversions = new ConcurrentHashMap<>();
+
+	public TypedClaims(ClaimSet claims) {
+		this.claims = claims;
+	}
+
+	public ClaimSet getClaims() {
+		return claims;
+	}
+
+	/**
+	 * @param  name                     the claim name
+	 * @return                          the claim as an instant, or null if it is absent
+	 * @throws UnparsableClaimException if the claim is neither a {@link Long}, an {@link Instant}, nor an ISO-8601 string
+	 */
+	public @Nullable Instant getAsInstant(String name) {
+		return unwrap(conversions.computeIfAbsent(new Conversion(Type.INSTANT, name), c -> wrap(claims.getAsInstant(name))));
+	}
+
+	/**
+	 * @param  name                     the claim name
+	 * @param  defaultValue             returned if the claim is absent
+	 * @return                          the claim as seconds since the epoch
+	 * @throws UnparsableClaimException if the claim is neither a {@link Long}, an {@link Instant}, nor an ISO-8601 string
+	 */
+	public long getAsEpochSecond(String name, long defaultValue) {
+		final var instant = getAsInstant(name);
+		return instant == null ? defaultValue : instant.getEpochSecond();
+	}
+
+	/**
+	 * @param  name the claim name
+	 * @return      an immutable set with the claim elements (or the claim value) split on spaces, or null if the claim is absent
+	 */
+	public @Nullable Set<String> getAsStringSet(String name) {
+		return unwrap(conversions.computeIfAbsent(new Conversion(Type.STRING_SET, name), c -> {
+			final var values = claims.getAsStringSet(name);
+			return values == null ? ABSENT : Collections.unmodifiableSet(new LinkedHashSet<>(values));
+		}));
+	}
+
+	/**
+	 * @param  name  the claim name
+	 * @param  value the value to look for
+	 * @return       true if the claim, as a string set, contains the value (false if the claim is absent)
+	 */
+	public boolean containsString(String name, String value) {
+		final var values = getAsStringSet(name);
+		return values != null && values.contains(value);
+	}
+
+	/**
+	 * @param  name               the claim name
+	 * @return                    the claim as an URI, or null if it is absent
+	 * @throws URISyntaxException if the claim is not a valid URI
+	 */
+	public @Nullable URI getAsUri(String name) throws URISyntaxException {
+		final var conversion = new Conversion(Type.URI, name);
+		final var cached = conversions.get(conversion);
+		if (cached != null) {
+			return unwrap(cached);
+		}
+		final var uri = claims.getAsUri(name);
+		conversions.putIfAbsent(conversion, wrap(uri));
+		return uri;
+	}
+
+	/**
+	 * @param  name the claim name
+	 * @return      the claim as a boolean, or null if it is absent
+	 */
+	public @Nullable Boolean getAsBoolean(String name) {
+		return unwrap(conversions.computeIfAbsent(new Conversion(Type.BOOLEAN, name), c -> wrap(claims.getAsBoolean(name))));
+	}
+
+	/**
+	 * @param  name         the claim name
+	 * @param  defaultValue returned if the claim is absent
+	 * @return              the claim as a boolean
+	 */
+	public boolean getAsBoolean(String name, boolean defaultValue) {
+		final var value = getAsBoolean(name);
+		return value == null ? defaultValue : value;
+	}
+
+	private static Object wrap(@Nullable Object value) {
+		return value == null ? ABSENT : value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> @Nullable T unwrap(Object cached) {
+		return cached == ABSENT ? null : (T) cached;
+	}
+
+	private static enum Type {
+		INSTANT, STRING_SET, URI, BOOLEAN
+	}
+
+	private static record Conversion(Type type, String name) {
+	}
+}
@@ -11,23 +11,254 @@
  */
 package com.c4_soft.springaddons.security.oidc;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
+ * <p>
+ * Immutable claim-set stored in a single array: keys and values are interleaved in an open-addressing hash table (linear probing). There is no entry object
+ * and no wrapper around another map, which makes instances much smaller than a {@link java.util.HashMap} wrapped in an unmodifiable map, with equivalent
+ * lookup speed.
+ * </p>
+ * <p>
+ * Like {@link java.util.HashMap}, it accepts null values (but not null keys) and the iteration order is not specified. All mutating operations throw an
+ * {@link UnsupportedOperationException}.
+ * </p>
+ *
  * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
  */
-public class UnmodifiableClaimSet extends DelegatingMap<String, Object> implements ClaimSet {
-	private static final long serialVersionUID = 5103156342740420106L;
+public class UnmodifiableClaimSet extends AbstractMap<String, Object> implements ClaimSet {
+	private static final long serialVersionUID = -2478398306946463349L;
+
+	/**
+	 * Keys at even indexes, values at the following odd ones. Its length is a power of two with at least one free slot, so that probing always terminates.
+	 */
+	private final Object[] table;
+
+	private final int size;
+
+	private transient volatile TypedClaims typed;
 
 	public UnmodifiableClaimSet(Map<String, Object> delegate) {
-		super(Collections.unmodifiableMap(new HashMap<>(delegate)));
+		final var capacity = tableSizeFor(delegate.size() + delegate.size() / 3 + 1);
+		final var entries = new Object[2 * capacity];
+		var count = 0;
+		for (final var e : delegate.entrySet()) {
+			final var key = Objects.requireNonNull(e.getKey(), "claim names can't be null");
+			var i = indexOf(entries, key);
+			if (i < 0) {
+				i = -(i + 1);
+				entries[i] = key;
+				++count;
+			}
+			entries[i + 1] = e.getValue();
+		}
+		this.table = entries;
+		this.size = count;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key != null && indexOf(table, key) >= 0;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (key == null) {
+			return null;
+		}
+		final var i = indexOf(table, key);
+		return i < 0 ? null : table[i + 1];
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		if (key == null) {
+			return defaultValue;
+		}
+		final var i = indexOf(table, key);
+		return i < 0 ? defaultValue : table[i + 1];
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		for (var i = 0; i < table.length; i += 2) {
+			if (table[i] != null) {
+				action.accept((String) table[i], table[i + 1]);
+			}
+		}
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		throw unsupported();
+	}
+
+	@Override
+	public Object remove(Object key) {
+		throw unsupported();
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		throw unsupported();
+	}
+
+	@Override
+	public void putAll(Map<? extends String, ? extends Object> m) {
+		throw unsupported();
+	}
+
+	@Override
+	public void clear() {
+		throw unsupported();
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		throw unsupported();
+	}
+
+	@Override
+	public boolean replace(String key, Object oldValue, Object newValue) {
+		throw unsupported();
+	}
+
+	@Override
+	public Object replace(String key, Object value) {
+		throw unsupported();
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Object, ? extends Object> function) {
+		throw unsupported();
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+		throw unsupported();
+	}
+
+	@Override
+	public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		throw unsupported();
+	}
+
+	@Override
+	public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+		throw unsupported();
+	}
+
+	@Override
+	public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+		throw unsupported();
+	}
+
+	/**
+	 * @return a view converting each claim at most once, memoized for the lifetime of this claim-set
+	 */
+	@Override
+	public TypedClaims typed() {
+		var view = typed;
+		if (view == null) {
+			view = new TypedClaims(this);
+			typed = view;
+		}
+		return view;
 	}
 
 	@Override
 	public String toString() {
 		return this.entrySet().stream().map(e -> String.format("%s => %s", e.getKey(), e.getValue())).collect(Collectors.joining(", ", "[", "]"));
 	}
+
+	/**
+	 * @param  entries interleaved keys and values
+	 * @param  key     a non null key
+	 * @return         the index of the key if present, (-(insertion index) - 1) otherwise
+	 */
+	private static int indexOf(Object[] entries, Object key) {
+		final var h = key.hashCode();
+		final var mask = entries.length - 2;
+		var i = ((h ^ (h >>> 16)) << 1) & mask;
+		while (true) {
+			final var k = entries[i];
+			if (k == null) {
+				return -(i + 1);
+			}
+			if (k == key || k.hashCode() == h && k.equals(key)) {
+				return i;
+			}
+			i = (i + 2) & mask;
+		}
+	}
+
+	private static UnsupportedOperationException unsupported() {
+		return new UnsupportedOperationException("claim-set is unmodifiable");
+	}
+
+	private static int tableSizeFor(int minCapacity) {
+		return minCapacity <= 1 ? 1 : Integer.highestOneBit(minCapacity - 1) << 1;
+	}
+
+	private class EntryIterator implements Iterator<Entry<String, Object>> {
+		private int next = advance(0);
+
+		private int advance(int from) {
+			var i = from;
+			while (i < table.length && table[i] == null) {
+				i += 2;
+			}
+			return i;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < table.length;
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final var entry = new SimpleImmutableEntry<>((String) table[next], table[next + 1]);
+			next = advance(next + 2);
+			return entry;
+		}
+	}
 }
@@ -0,0 +1,56 @@
+package com.c4_soft.springaddons.security.oidc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.jayway.jsonpath.PathNotFoundException;
+
+public class OpenidClaimSetTest {
+
+	@Test
+	public void givenUsernameClaimIsPresent_whenGetName_thenUsernameClaimIsReturned() {
+		final var claims = new OpenidClaimSet(Map.of("sub", "0b16e8ba", "user", Map.of("name", "ch4mp")), "$.user.name");
+
+		assertThat(claims.getName()).isEqualTo("ch4mp");
+	}
+
+	@Test
+	public void givenUsernameClaimIsAbsent_whenGetName_thenSubjectIsReturned() {
+		assertThat(new OpenidClaimSet(Map.of("sub", "0b16e8ba"), "$.user.name").getName()).isEqualTo("0b16e8ba");
+		assertThat(new OpenidClaimSet(Map.of("sub", "0b16e8ba", "user", "ch4mp"), "$.user.name").getName()).isEqualTo("0b16e8ba");
+		assertThat(new OpenidClaimSet(Map.of("sub", "0b16e8ba"), "$['preferred_username']").getName()).isEqualTo("0b16e8ba");
+	}
+
+	@Test
+	public void givenUsernameClaimIsNull_whenGetName_thenNullIsReturned() {
+		final var simplePathClaims = new HashMap<String, Object>();
+		simplePathClaims.put("sub", "0b16e8ba");
+		simplePathClaims.put("preferred_username", null);
+		assertThat(new OpenidClaimSet(simplePathClaims, "preferred_username").getName()).isNull();
+
+		final var jsonPathClaims = new HashMap<String, Object>();
+		jsonPathClaims.put("sub", "0b16e8ba");
+		jsonPathClaims.put("names", Arrays.asList((String) null));
+		assertThat(new OpenidClaimSet(jsonPathClaims, "$.names[0]").getName()).isNull();
+	}
+
+	@Test
+	public void givenUsernameClaimIsNotAString_whenGetName_thenThrows() {
+		final var claims = new OpenidClaimSet(Map.of("sub", "0b16e8ba", "user_id", 42), "user_id");
+
+		assertThatThrownBy(claims::getName).isInstanceOf(ClassCastException.class);
+	}
+
+	@Test
+	public void givenNeitherUsernameClaimNorSubject_whenGetName_thenThrows() {
+		final var claims = new OpenidClaimSet(Map.of("iss", "https://localhost:8443/realms/test"), "preferred_username");
+
+		assertThatThrownBy(claims::getName).isInstanceOf(PathNotFoundException.class);
+	}
+}
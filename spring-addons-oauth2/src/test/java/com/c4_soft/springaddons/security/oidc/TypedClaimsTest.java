@@ -0,0 +1,73 @@
+package com.c4_soft.springaddons.security.oidc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TypedClaimsTest {
+
+	@Test
+	public void givenStringSetWithNullElement_whenGetAsStringSet_thenNullIsKeptAndSetIsUnmodifiable() {
+		final var typed = new TypedClaims(new UnmodifiableClaimSet(Map.of("roles", "NICE")) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Set<String> getAsStringSet(String name) {
+				return new HashSet<>(Arrays.asList("NICE", null));
+			}
+		});
+
+		final var roles = typed.getAsStringSet("roles");
+
+		assertThat(roles).containsExactlyInAnyOrder("NICE", null);
+		assertThat(typed.containsString("roles", "NICE")).isTrue();
+		assertThatThrownBy(() -> roles.add("AUTHOR")).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void givenClaimIsReadTwice_whenGetAs_thenItIsConvertedOnce() {
+		final var conversions = new AtomicInteger();
+		final var typed = new TypedClaims(new UnmodifiableClaimSet(Map.of("roles", "NICE AUTHOR", "exp", 1_800_000_000L)) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Set<String> getAsStringSet(String name) {
+				conversions.incrementAndGet();
+				return super.getAsStringSet(name);
+			}
+
+			@Override
+			public Instant getAsInstant(String name) {
+				conversions.incrementAndGet();
+				return super.getAsInstant(name);
+			}
+		});
+
+		final var roles = typed.getAsStringSet("roles");
+		assertThat(typed.getAsStringSet("roles")).isSameAs(roles).containsExactlyInAnyOrder("NICE", "AUTHOR");
+		assertThat(typed.getAsEpochSecond("exp", 0L)).isEqualTo(1_800_000_000L);
+		assertThat(typed.getAsInstant("exp")).isEqualTo(Instant.ofEpochSecond(1_800_000_000L));
+		assertThat(typed.getAsStringSet("missing")).isNull();
+		assertThat(typed.getAsStringSet("missing")).isNull();
+
+		assertThat(conversions.get()).isEqualTo(3);
+	}
+
+	@Test
+	public void givenSameClaimIsReadAsDifferentTypes_whenGetAs_thenEachTypeIsCachedSeparately() throws Exception {
+		final var typed = new TypedClaims(new UnmodifiableClaimSet(Map.of("claim", "true")));
+
+		assertThat(typed.getAsBoolean("claim")).isTrue();
+		assertThat(typed.getAsStringSet("claim")).containsExactly("true");
+		assertThat(typed.getAsUri("claim")).hasToString("true");
+		assertThat(typed.getAsBoolean("missing", false)).isFalse();
+	}
+}
@@ -0,0 +1,196 @@
+package com.c4_soft.springaddons.security.oidc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+public class UnmodifiableClaimSetTest {
+
+	@Test
+	public void givenSameEntriesAsAHashMap_whenCompared_thenEqualsAndHashCodeMatch() {
+		final var expected = claims(100);
+
+		final var actual = new UnmodifiableClaimSet(expected);
+
+		assertThat(actual).hasSize(100);
+		assertThat(actual).isEqualTo(expected);
+		assertThat(expected).isEqualTo(actual);
+		assertThat(actual.hashCode()).isEqualTo(expected.hashCode());
+		assertThat(actual.entrySet()).isEqualTo(expected.entrySet());
+		assertThat(actual.keySet()).isEqualTo(expected.keySet());
+		for (var e : expected.entrySet()) {
+			assertThat(actual.get(e.getKey())).isEqualTo(e.getValue());
+			assertThat(actual.containsKey(e.getKey())).isTrue();
+		}
+		assertThat(actual.get("missing")).isNull();
+		assertThat(actual.containsKey("missing")).isFalse();
+		assertThat(actual.getOrDefault("missing", "default")).isEqualTo("default");
+	}
+
+	@Test
+	public void givenDifferentValue_whenCompared_thenNotEqual() {
+		final var claims = claims(10);
+		final var other = new HashMap<>(claims);
+		other.put("claim-3", "other");
+
+		assertThat(new UnmodifiableClaimSet(claims)).isNotEqualTo(other);
+		assertThat(new UnmodifiableClaimSet(claims)).isNotEqualTo(new UnmodifiableClaimSet(other));
+	}
+
+	@Test
+	public void givenNullValue_whenRead_thenBehavesLikeAHashMap() {
+		final var expected = new HashMap<String, Object>();
+		expected.put("sub", "ch4mp");
+		expected.put("nickname", null);
+
+		final var actual = new UnmodifiableClaimSet(expected);
+
+		assertThat(actual).hasSize(2);
+		assertThat(actual.containsKey("nickname")).isTrue();
+		assertThat(actual.get("nickname")).isNull();
+		assertThat(actual.getOrDefault("nickname", "default")).isNull();
+		assertThat(actual.containsValue(null)).isTrue();
+		assertThat(actual).isEqualTo(expected);
+		assertThat(actual.hashCode()).isEqualTo(expected.hashCode());
+	}
+
+	@Test
+	public void givenNullKey_whenConstructed_thenThrows() {
+		final var claims = new HashMap<String, Object>();
+		claims.put("sub", "ch4mp");
+		claims.put(null, "anonymous");
+
+		assertThatThrownBy(() -> new UnmodifiableClaimSet(claims)).isInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	public void givenNullKey_whenRead_thenAbsent() {
+		final var actual = new UnmodifiableClaimSet(Map.of("sub", "ch4mp"));
+
+		assertThat(actual.get(null)).isNull();
+		assertThat(actual.containsKey(null)).isFalse();
+		assertThat(actual.getOrDefault(null, "default")).isEqualTo("default");
+	}
+
+	@Test
+	public void givenEmptyMap_whenRead_thenIsEmpty() {
+		final var actual = new UnmodifiableClaimSet(Map.of());
+
+		assertThat(actual.isEmpty()).isTrue();
+		assertThat(actual.size()).isZero();
+		assertThat(actual.get("sub")).isNull();
+		assertThat(actual).isEqualTo(Map.of());
+		assertThat(actual.hashCode()).isZero();
+		assertThat(actual.toString()).isEqualTo("[]");
+		final var iterator = actual.entrySet().iterator();
+		assertThat(iterator.hasNext()).isFalse();
+		assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	public void givenIteratorIsExhausted_whenNext_thenThrows() {
+		final var expected = claims(5);
+		final var iterator = new UnmodifiableClaimSet(expected).entrySet().iterator();
+
+		final var iterated = new HashMap<String, Object>();
+		while (iterator.hasNext()) {
+			final var e = iterator.next();
+			iterated.put(e.getKey(), e.getValue());
+		}
+
+		assertThat(iterated).isEqualTo(expected);
+		assertThat(iterator.hasNext()).isFalse();
+		assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+	}
+
+	@Test
+	public void givenClaimSet_whenMutated_thenThrows() {
+		final var actual = new UnmodifiableClaimSet(claims(3));
+		final var empty = new UnmodifiableClaimSet(Map.of());
+
+		assertThatThrownBy(() -> actual.put("sub", "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.putAll(Map.of("sub", "other"))).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.putIfAbsent("sub", "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.remove("claim-1")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.remove("missing")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.remove("claim-1", "value-1")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.replace("claim-1", "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.replace("claim-1", "value-1", "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.replaceAll((k, v) -> v)).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.computeIfAbsent("sub", k -> "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.computeIfPresent("claim-1", (k, v) -> "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.compute("claim-1", (k, v) -> "other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.merge("claim-1", "other", (a, b) -> b)).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(actual::clear).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(empty::clear).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.entrySet().iterator().next().setValue("other")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> {
+			final var iterator = actual.entrySet().iterator();
+			iterator.next();
+			iterator.remove();
+		}).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.keySet().remove("claim-1")).isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> actual.values().clear()).isInstanceOf(UnsupportedOperationException.class);
+		assertThat(actual).isEqualTo(claims(3));
+	}
+
+	@Test
+	public void givenUnmodifiableClaimSet_whenSerializedAndDeserialized_thenEqualsTheOriginal() throws Exception {
+		final var claims = claims(20);
+		claims.put("nickname", null);
+		claims.put("roles", new ArrayList<>(List.of("NICE", "AUTHOR")));
+		claims.put("address", new HashMap<>(Map.of("country", "FR")));
+		final var original = new UnmodifiableClaimSet(claims);
+
+		final var deserialized = roundTrip(original);
+
+		assertThat(deserialized).isInstanceOf(UnmodifiableClaimSet.class).isEqualTo(original).isEqualTo(claims);
+		assertThat(deserialized.hashCode()).isEqualTo(original.hashCode());
+		assertThat(deserialized.getAsStringSet("roles")).containsExactlyInAnyOrder("NICE", "AUTHOR");
+	}
+
+	@Test
+	public void givenOpenidClaimSet_whenSerializedAndDeserialized_thenClaimsAndNameArePreserved() throws Exception {
+		final var original = new OpenidClaimSet(
+				Map.of("sub", "0b16e8ba", "preferred_username", "ch4mp", "iss", "https://localhost:8443/realms/test"),
+				"$.preferred_username");
+		assertThat(original.getName()).isEqualTo("ch4mp");
+
+		final var deserialized = roundTrip(original);
+
+		assertThat(deserialized).isInstanceOf(OpenidClaimSet.class).isEqualTo(original);
+		assertThat(deserialized.getName()).isEqualTo("ch4mp");
+		assertThat(deserialized.getSubject()).isEqualTo("0b16e8ba");
+		assertThat(deserialized.getIssuer().toString()).isEqualTo("https://localhost:8443/realms/test");
+	}
+
+	private static HashMap<String, Object> claims(int count) {
+		final var claims = new HashMap<String, Object>();
+		for (var i = 0; i < count; ++i) {
+			claims.put("claim-%d".formatted(i), "value-%d".formatted(i));
+		}
+		return claims;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T original) throws Exception {
+		final var bytes = new ByteArrayOutputStream();
+		try (var out = new ObjectOutputStream(bytes)) {
+			out.writeObject(original);
+		}
+		try (var in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (T) in.readObject();
+		}
+	}
+}
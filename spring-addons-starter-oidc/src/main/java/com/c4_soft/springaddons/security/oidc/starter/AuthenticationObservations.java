@@ -0,0 +1,194 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.util.function.Supplier;
+
+import org.springframework.lang.Nullable;
+
+import com.c4_soft.springaddons.security.oidc.starter.jfr.AuthenticationStageEvent;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * Micrometer {@link Observation observations} of the stages of the resource server authentication pipeline (token parsing, OpenID Provider properties
+ * resolution, decoder creation, token decoding, authorities mapping and principal building), for servlet and reactive applications. Enabled with
+ * "com.c4-soft.springaddons.oidc.resourceserver.observations.enabled".
+ * </p>
+ * <p>
+ * All stages are recorded as "{@value #OBSERVATION_NAME}" observations with low cardinality "stage", "issuer" and "outcome" tags. The issuer tag is the
+ * issuer of the OpenID Provider properties resolved for the token ("none" when not resolved yet or unresolvable), so that its values are bounded by the
+ * configuration and not by the tokens received.
+ * </p>
+ * <p>
+ * When disabled (or with a no-op registry), stages are run directly, without creating observations.
+ * </p>
+ * <p>
+ * Whatever the Micrometer configuration, each stage is also recorded as an {@link AuthenticationStageEvent} when this JFR event is enabled in a running
+ * recording.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class AuthenticationObservations {
+    public static final String OBSERVATION_NAME = "spring-addons.authentication";
+
+    public static final AuthenticationObservations DISABLED = new AuthenticationObservations(ObservationRegistry.NOOP);
+
+    private static final String NO_ISSUER = "none";
+
+    private static final KeyValue SUCCESS = KeyValue.of("outcome", "success");
+    private static final KeyValue FAILURE = KeyValue.of("outcome", "failure");
+    private static final KeyValue CANCELLED = KeyValue.of("outcome", "cancelled");
+
+    private final ObservationRegistry observationRegistry;
+    private final boolean enabled;
+
+    public AuthenticationObservations(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+        this.enabled = !observationRegistry.isNoop();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param <T> the stage result type
+     * @param stage the observed stage
+     * @param issuer the issuer of the resolved OpenID Provider properties, if any
+     * @param operation the stage implementation
+     * @return the operation result
+     */
+    public <T> T observe(Stage stage, @Nullable Object issuer, Supplier<T> operation) {
+        final var event = new AuthenticationStageEvent();
+        if (!event.isEnabled()) {
+            return micrometerObserve(stage, issuer, operation);
+        }
+        event.begin();
+        try {
+            final var result = micrometerObserve(stage, issuer, operation);
+            event.setSuccess(true);
+            return result;
+        } finally {
+            commit(event, stage, issuer);
+        }
+    }
+
+    /**
+     * @param <T> the stage result type
+     * @param stage the observed stage
+     * @param issuer the issuer of the resolved OpenID Provider properties, if any
+     * @param operation the stage implementation, observed from subscription to completion
+     * @return the operation result
+     */
+    public <T> Mono<T> observeMono(Stage stage, @Nullable Object issuer, Supplier<Mono<T>> operation) {
+        if (!new AuthenticationStageEvent().isEnabled()) {
+            return micrometerObserveMono(stage, issuer, operation);
+        }
+        return Mono.defer(() -> {
+            final var event = new AuthenticationStageEvent();
+            event.begin();
+            return micrometerObserveMono(stage, issuer, operation).doOnSuccess(result -> {
+                event.setSuccess(true);
+                commit(event, stage, issuer);
+            }).doOnError(e -> commit(event, stage, issuer));
+        });
+    }
+
+    private <T> T micrometerObserve(Stage stage, @Nullable Object issuer, Supplier<T> operation) {
+        if (!enabled) {
+            return operation.get();
+        }
+        final var observation = start(stage, issuer);
+        try (var scope = observation.openScope()) {
+            final var result = operation.get();
+            observation.lowCardinalityKeyValue(SUCCESS);
+            return result;
+        } catch (RuntimeException e) {
+            observation.lowCardinalityKeyValue(FAILURE);
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private <T> Mono<T> micrometerObserveMono(Stage stage, @Nullable Object issuer, Supplier<Mono<T>> operation) {
+        if (!enabled) {
+            return operation.get();
+        }
+        return Mono.defer(() -> {
+            final var observation = start(stage, issuer);
+            return Mono
+                .defer(operation)
+                .doOnSuccess(result -> observation.lowCardinalityKeyValue(SUCCESS).stop())
+                .doOnError(e -> observation.lowCardinalityKeyValue(FAILURE).error(e).stop())
+                .doOnCancel(() -> observation.lowCardinalityKeyValue(CANCELLED).stop())
+                .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+        });
+    }
+
+    private Observation start(Stage stage, @Nullable Object issuer) {
+        return Observation
+            .createNotStarted(OBSERVATION_NAME, observationRegistry)
+            .contextualName(stage.getContextualName())
+            .lowCardinalityKeyValue(stage.getTag())
+            .lowCardinalityKeyValue("issuer", issuerTag(issuer))
+            .start();
+    }
+
+    private static void commit(AuthenticationStageEvent event, Stage stage, @Nullable Object issuer) {
+        event.setStage(stage.getTag().getValue());
+        event.setIssuer(issuerTag(issuer));
+        event.commit();
+    }
+
+    private static String issuerTag(@Nullable Object issuer) {
+        return issuer == null ? NO_ISSUER : issuer.toString();
+    }
+
+    public static enum Stage {
+        /**
+         * Parsing of the token to read the issuer (before its signature is checked)
+         */
+        TOKEN_PARSING("token-parsing"),
+        /**
+         * Resolution of the OpenID Provider properties matching the token issuer
+         */
+        OP_PROPERTIES_RESOLUTION("op-properties-resolution"),
+        /**
+         * Creation of the decoder for an issuer (once per issuer, unless the authentication managers registry evicts it)
+         */
+        DECODER_CREATION("decoder-creation"),
+        /**
+         * Decoding of the token: signature validation (including the JWK set download when it is not cached or prefetched) and claims validation
+         */
+        TOKEN_DECODING("token-decoding"),
+        /**
+         * Conversion of the token claims (or introspection attributes) into Spring authorities
+         */
+        AUTHORITIES_MAPPING("authorities-mapping"),
+        /**
+         * Resolution of the username and creation of the {@link org.springframework.security.core.Authentication}
+         */
+        PRINCIPAL_BUILDING("principal-building");
+
+        private final KeyValue tag;
+
+        private Stage(String value) {
+            this.tag = KeyValue.of("stage", value);
+        }
+
+        public KeyValue getTag() {
+            return tag;
+        }
+
+        public String getContextualName() {
+            return "authentication " + tag.getValue();
+        }
+    }
+}
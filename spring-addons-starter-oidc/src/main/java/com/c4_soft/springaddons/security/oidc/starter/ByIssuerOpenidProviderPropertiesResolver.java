@@ -1,28 +1,107 @@
 package com.c4_soft.springaddons.security.oidc.starter;
 
 import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.IssuerMatching;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
 
-import lombok.RequiredArgsConstructor;
-
-@RequiredArgsConstructor
+/**
+ * <p>
+ * Resolves OpenID Provider properties using the "iss" claim. Depending on "com.c4-soft.springaddons.oidc.ops-issuer-matching", the token issuer must be equal
+ * to ops[].iss (EXACT, the default) or start with it (PREFIX, the longest match wins). PREFIX matching requires the same scheme, host and port, and then
+ * compares whole path segments: "https://idp/realms/special" matches "https://idp/realms/special/tenant" but neither "https://idp/realms/special-tenant" nor
+ * "https://idp.attacker.net/realms/special".
+ * </p>
+ * <p>
+ * Configured issuers are indexed (a hash map for EXACT matching, a trie of origins and path segments for PREFIX matching) so that resolution does not depend on the number of
+ * configured OpenID Providers. The index is rebuilt if the ops list is replaced. In servlet applications, the resolution result is also memoized as a request
+ * attribute, which saves the lookups for the several resolutions of a single request (authentication manager, authorities converter, username claim, ...).
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
 public class ByIssuerOpenidProviderPropertiesResolver implements OpenidProviderPropertiesResolver {
+	private static final String RESOLVED_ATTRIBUTE = ByIssuerOpenidProviderPropertiesResolver.class.getName() + ".resolved";
+
 	private final SpringAddonsOidcProperties properties;
+	private volatile Index index;
+
+	public ByIssuerOpenidProviderPropertiesResolver(SpringAddonsOidcProperties properties) {
+		this.properties = properties;
+		this.index = new Index(properties.getOps(), properties.getOpsIssuerMatching());
+	}
 
 	@Override
 	public Optional<OpenidProviderProperties> resolve(Map<String, Object> claimSet) {
-		final var iss = Optional.ofNullable(claimSet.get(JwtClaimNames.ISS)).map(Object::toString).orElse(null);
-		return properties
-				.getOps()
-				.stream()
-				.filter(issuerProps -> Objects.equals(Optional.ofNullable(issuerProps.getIss()).map(URI::toString).orElse(null), iss))
-				.findAny();
+		final var issClaim = claimSet.get(JwtClaimNames.ISS);
+		final var requestAttributes = RequestContextHolder.getRequestAttributes();
+		final var memoized = requestAttributes == null ? null : (Resolution) requestAttributes.getAttribute(RESOLVED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (memoized != null && memoized.issClaim() == issClaim) {
+			return memoized.opProperties();
+		}
+
+		final var iss = issClaim == null ? null : issClaim.toString();
+		if (memoized != null && Objects.equals(memoized.iss(), iss)) {
+			return memoized.opProperties();
+		}
+
+		final var opProperties = getIndex().resolve(iss);
+		if (requestAttributes != null) {
+			requestAttributes.setAttribute(RESOLVED_ATTRIBUTE, new Resolution(issClaim, iss, opProperties), RequestAttributes.SCOPE_REQUEST);
+		}
+		return opProperties;
+	}
+
+	private Index getIndex() {
+		final var current = index;
+		if (current.ops == properties.getOps() && current.matching == properties.getOpsIssuerMatching()) {
+			return current;
+		}
+		final var rebuilt = new Index(properties.getOps(), properties.getOpsIssuerMatching());
+		index = rebuilt;
+		return rebuilt;
+	}
+
+	private static record Resolution(Object issClaim, String iss, Optional<OpenidProviderProperties> opProperties) {
+	}
+
+	private static final class Index {
+		private final List<OpenidProviderProperties> ops;
+		private final IssuerMatching matching;
+		private final Map<String, OpenidProviderProperties> byIssuer = new HashMap<>();
+		private final IssuerPrefixTrie<OpenidProviderProperties> byIssuerPrefix = new IssuerPrefixTrie<>();
+
+		Index(List<OpenidProviderProperties> ops, IssuerMatching matching) {
+			this.ops = ops;
+			this.matching = matching;
+			for (var op : ops) {
+				final var iss = Optional.ofNullable(op.getIss()).map(URI::toString).orElse(null);
+				if (matching == IssuerMatching.PREFIX) {
+					if (StringUtils.hasText(iss)) {
+						byIssuerPrefix.put(iss, op);
+					}
+				} else {
+					byIssuer.putIfAbsent(iss, op);
+				}
+			}
+		}
+
+		Optional<OpenidProviderProperties> resolve(String iss) {
+			if (matching == IssuerMatching.PREFIX) {
+				return iss == null ? Optional.empty() : byIssuerPrefix.longestPrefixOf(iss);
+			}
+			return Optional.ofNullable(byIssuer.get(iss));
+		}
 	}
 }
@@ -0,0 +1,125 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import com.c4_soft.springaddons.security.oidc.ClaimPath;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties;
+
+/**
+ * <p>
+ * A {@link SimpleAuthoritiesMappingProperties} compiled once for all: the JSON path is compiled into a {@link ClaimPath} and claim values are turned into
+ * authorities in a single pass (split on commas and spaces, trim, case transformation and prefix).
+ * </p>
+ * <p>
+ * Authorities are interned: a given role in a given claim always maps to the same {@link GrantedAuthority} instance (up to {@link #MAX_INTERNED_AUTHORITIES}
+ * distinct roles per mapping, further ones being created for each conversion).
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+final class CompiledAuthoritiesMapping {
+	static final int MAX_INTERNED_AUTHORITIES = 4096;
+
+	private final String sourcePath;
+	private final String sourcePrefix;
+	private final ClaimPath path;
+	private final String prefix;
+	private final SimpleAuthoritiesMappingProperties.Case caze;
+	private final Map<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+
+	CompiledAuthoritiesMapping(SimpleAuthoritiesMappingProperties properties) {
+		this.sourcePath = properties.getPath();
+		this.sourcePrefix = properties.getPrefix();
+		this.path = ClaimPath.compile(sourcePath);
+		// same as the former String.format("%s%s", prefix, role): a null prefix is written "null"
+		this.prefix = String.valueOf(sourcePrefix);
+		this.caze = properties.getCaze();
+	}
+
+	/**
+	 * @param  properties authorities mapping properties, which are mutable
+	 * @return            true if this mapping was compiled from the current values of the properties
+	 */
+	boolean isCompiledFrom(SimpleAuthoritiesMappingProperties properties) {
+		return Objects.equals(sourcePath, properties.getPath()) && Objects.equals(sourcePrefix, properties.getPrefix()) && caze == properties.getCaze();
+	}
+
+	/**
+	 * @param claims the claims to extract authorities from
+	 * @param result where to add the authorities found in the claims
+	 */
+	void addAuthorities(Map<String, Object> claims, Collection<GrantedAuthority> result) {
+		final Object claim = path.read(claims);
+		if (claim instanceof String str) {
+			addAuthorities(str, result);
+		} else if (claim instanceof Collection<?> collection) {
+			for (var element : collection) {
+				if (element instanceof String str) {
+					addAuthorities(str, result);
+				} else if (element instanceof Collection<?> nested) {
+					// indefinite paths (like "$.resource_access.*.roles") result in lists of lists
+					for (var nestedElement : nested) {
+						if (nestedElement instanceof String str) {
+							addAuthorities(str, result);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void addAuthorities(String claim, Collection<GrantedAuthority> result) {
+		final var length = claim.length();
+		var start = 0;
+		while (start < length) {
+			var end = start;
+			while (end < length && claim.charAt(end) != ',' && claim.charAt(end) != ' ') {
+				++end;
+			}
+			// same as String::trim
+			var first = start;
+			var last = end;
+			while (first < last && claim.charAt(first) <= ' ') {
+				++first;
+			}
+			while (last > first && claim.charAt(last - 1) <= ' ') {
+				--last;
+			}
+			if (first < last) {
+				result.add(authority(first == 0 && last == length ? claim : claim.substring(first, last)));
+			}
+			start = end + 1;
+		}
+	}
+
+	private GrantedAuthority authority(String role) {
+		final var interned = authorities.get(role);
+		if (interned != null) {
+			return interned;
+		}
+		final var authority = new SimpleGrantedAuthority(prefix + processCase(role));
+		if (authorities.size() < MAX_INTERNED_AUTHORITIES) {
+			authorities.putIfAbsent(role, authority);
+		}
+		return authority;
+	}
+
+	private String processCase(String role) {
+		switch (caze) {
+		case UPPER: {
+			return role.toUpperCase();
+		}
+		case LOWER: {
+			return role.toLowerCase();
+		}
+		default:
+			return role;
+		}
+	}
+}
@@ -1,19 +1,18 @@
 package com.c4_soft.springaddons.security.oidc.starter;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.lang.NonNull;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.util.StringUtils;
 
 import com.c4_soft.springaddons.security.oidc.starter.properties.NotAConfiguredOpenidProviderException;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.PathNotFoundException;
 
 import lombok.RequiredArgsConstructor;
 
@@ -30,69 +29,79 @@ import lombok.RequiredArgsConstructor;
  * <li>for each claim: prefix (should anything like "ROLE_" or "PREFIX_" be pre-pended to authorities)</li>
  * <li>for each claim: case transformation (should be authorities be forced to uppercase, lowercase or be left untouched)</li>
  * </ul>
+ * <p>
+ * Each authorities mapping is compiled the first time it is used (JSON path compiled, simple paths resolved without JsonPath) and the resulting
+ * {@link GrantedAuthority} instances are interned. Compiled mappings are cached by properties instance (not by value, properties being mutable) and
+ * compiled again if the properties were modified since (up to {@link #MAX_COMPILED_MAPPINGS} instances, mappings for further ones being compiled for
+ * each conversion).
+ * </p>
  *
  * @author ch4mp
  */
 @RequiredArgsConstructor
 public class ConfigurableClaimSetAuthoritiesConverter implements ClaimSetAuthoritiesConverter {
+	static final int MAX_COMPILED_MAPPINGS = 1024;
+
 	private final OpenidProviderPropertiesResolver opPropertiesResolver;
+	private final Map<MappingIdentity, CompiledAuthoritiesMapping> compiledMappings = new ConcurrentHashMap<>();
 
 	@Override
 	public Collection<? extends GrantedAuthority> convert(@NonNull Map<String, Object> source) {
 		final var opProperties = opPropertiesResolver.resolve(source).orElseThrow(() -> new NotAConfiguredOpenidProviderException(source));
-		// @formatter:off
-	    return opProperties.getAuthorities().stream()
-	            .flatMap(authoritiesMappingProps -> getAuthorities(source, authoritiesMappingProps))
-	            .map(r -> (GrantedAuthority) new SimpleGrantedAuthority(r)).toList();
-	    // @formatter:on
+		final var authorities = new ArrayList<GrantedAuthority>();
+		for (var authoritiesMappingProps : opProperties.getAuthorities()) {
+			compiled(authoritiesMappingProps).addAuthorities(source, authorities);
+		}
+		return Collections.unmodifiableList(authorities);
 	}
 
-	private static String processCase(String role, SimpleAuthoritiesMappingProperties.Case caze) {
-		switch (caze) {
-		case UPPER: {
-			return role.toUpperCase();
-		}
-		case LOWER: {
-			return role.toLowerCase();
+	/**
+	 * For use when the OpenID Provider is known in advance (like the one exposing the introspection endpoint): the properties are not resolved from the
+	 * claims and the mappings are compiled once, when this method is called.
+	 *
+	 * @param  opProperties the OpenID Provider which issued the claims to convert
+	 * @return              a converter applying the authorities mappings of this OpenID Provider
+	 */
+	public ClaimSetAuthoritiesConverter forOpenidProvider(OpenidProviderProperties opProperties) {
+		final List<CompiledAuthoritiesMapping> mappings = opProperties
+				.getAuthorities()
+				.stream()
+				.map(this::compiled)
+				.toList();
+		return source -> {
+			final var authorities = new ArrayList<GrantedAuthority>();
+			for (var mapping : mappings) {
+				mapping.addAuthorities(source, authorities);
+			}
+			return Collections.unmodifiableList(authorities);
+		};
+	}
+
+	private CompiledAuthoritiesMapping compiled(SimpleAuthoritiesMappingProperties properties) {
+		final var key = new MappingIdentity(properties);
+		final var cached = compiledMappings.get(key);
+		if (cached != null && cached.isCompiledFrom(properties)) {
+			return cached;
 		}
-		default:
-			return role;
+		final var compiled = new CompiledAuthoritiesMapping(properties);
+		if (cached != null || compiledMappings.size() < MAX_COMPILED_MAPPINGS) {
+			compiledMappings.put(key, compiled);
 		}
+		return compiled;
 	}
 
-	private static Stream<String> getAuthorities(Map<String, Object> claims, SimpleAuthoritiesMappingProperties props) {
-		// @formatter:off
-	    return getClaims(claims, props.getPath())
-	    		.flatMap(claim -> Stream.of(claim.split(",")))
-	    		.flatMap(claim -> Stream.of(claim.split(" ")))
-	    		.filter(StringUtils::hasText)
-	    		.map(String::trim)
-	            .map(r -> processCase(r, props.getCaze()))
-	            .map(r -> String.format("%s%s", props.getPrefix(), r));
-	    // @formatter:on
-	}
+	/**
+	 * {@link SimpleAuthoritiesMappingProperties} is mutable and has value-based equals and hashCode: it can't be used as a map key.
+	 */
+	private static record MappingIdentity(SimpleAuthoritiesMappingProperties properties) {
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof MappingIdentity identity && identity.properties == properties;
+		}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private static Stream<String> getClaims(Map<String, Object> claims, String path) {
-		try {
-			final var res = JsonPath.read(claims, path);
-			if (res instanceof String r) {
-				return Stream.of(r);
-			}
-			if (res instanceof List l) {
-				if (l.size() == 0) {
-					return Stream.empty();
-				}
-				if (l.get(0) instanceof String) {
-					return l.stream();
-				}
-				if (l.get(0) instanceof List) {
-					return l.stream().flatMap(o -> ((List) o).stream());
-				}
-			}
-			return Stream.empty();
-		} catch (PathNotFoundException e) {
-			return Stream.empty();
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(properties);
 		}
 	}
 }
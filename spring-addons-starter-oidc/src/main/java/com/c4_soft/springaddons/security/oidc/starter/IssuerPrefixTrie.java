@@ -0,0 +1,121 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A trie of issuer URIs, to find the longest configured issuer which is a prefix of a token issuer in a time proportional to the number of path segments of
+ * the token issuer (and independent of the number of configured issuers).
+ * </p>
+ * <p>
+ * Issuers are not compared character by character: the scheme, host and port must be equal, and then the configured issuer path must be made of whole
+ * segments of the token issuer path. As a consequence, "https://idp.example.com/realms/special" matches "https://idp.example.com/realms/special" and
+ * "https://idp.example.com/realms/special/tenant", but neither "https://idp.example.com/realms/special-tenant" nor
+ * "https://idp.example.com.attacker.net/realms/special".
+ * </p>
+ *
+ * @param <T> the type of the values associated to issuers
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+final class IssuerPrefixTrie<T> {
+	private final Map<String, Node<T>> byOrigin = new HashMap<>();
+
+	/**
+	 * @param prefix an issuer prefix (ignored if it is not an absolute URI with a host)
+	 * @param value the value to associate with it (a value already associated with the same prefix is kept)
+	 */
+	void put(String prefix, T value) {
+		final var uri = parse(prefix);
+		if (uri == null) {
+			return;
+		}
+		var node = byOrigin.computeIfAbsent(origin(uri), o -> new Node<>());
+		for (var segment : segments(uri)) {
+			node = node.children.computeIfAbsent(segment, s -> new Node<>());
+		}
+		if (node.value == null) {
+			node.value = value;
+		}
+	}
+
+	/**
+	 * @param issuer a token issuer
+	 * @return the value associated with the longest prefix of the issuer, if any
+	 */
+	Optional<T> longestPrefixOf(String issuer) {
+		final var uri = parse(issuer);
+		if (uri == null) {
+			return Optional.empty();
+		}
+		var node = byOrigin.get(origin(uri));
+		if (node == null) {
+			return Optional.empty();
+		}
+		var match = node.value;
+		for (var segment : segments(uri)) {
+			node = node.children.get(segment);
+			if (node == null) {
+				break;
+			}
+			if (node.value != null) {
+				match = node.value;
+			}
+		}
+		return Optional.ofNullable(match);
+	}
+
+	private static URI parse(String issuer) {
+		try {
+			final var uri = new URI(issuer);
+			return uri.getScheme() == null || uri.getHost() == null || uri.getRawUserInfo() != null ? null : uri;
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	private static String origin(URI uri) {
+		final var scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+		final var port = uri.getPort() >= 0 ? uri.getPort() : defaultPort(scheme);
+		return "%s://%s:%d".formatted(scheme, uri.getHost().toLowerCase(Locale.ROOT), port);
+	}
+
+	private static int defaultPort(String scheme) {
+		return switch (scheme) {
+		case "http" -> 80;
+		case "https" -> 443;
+		default -> -1;
+		};
+	}
+
+	/**
+	 * @return the raw (still encoded) path segments, without the empty ones produced by leading and trailing slashes
+	 */
+	private static List<String> segments(URI uri) {
+		final var path = uri.getRawPath();
+		final var segments = new ArrayList<String>();
+		if (path == null || path.isEmpty()) {
+			return segments;
+		}
+		final var start = path.startsWith("/") ? 1 : 0;
+		final var end = path.endsWith("/") ? path.length() - 1 : path.length();
+		if (start >= end) {
+			return segments;
+		}
+		for (var segment : path.substring(start, end).split("/", -1)) {
+			segments.add(segment);
+		}
+		return segments;
+	}
+
+	private static final class Node<T> {
+		private final Map<String, Node<T>> children = new HashMap<>(4);
+		private T value;
+	}
+}
@@ -0,0 +1,88 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+
+/**
+ * Helpers to discover an OpenID Provider JWK-set URI from its issuer URI and the signature algorithms of its keys (same rules as Spring Security).
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class OpenidProviderMetadataSupport {
+    private static final String OIDC_METADATA_PATH = "/.well-known/openid-configuration";
+    private static final String OAUTH_METADATA_PATH = "/.well-known/oauth-authorization-server";
+
+    private OpenidProviderMetadataSupport() {
+    }
+
+    /**
+     * @param issuer an issuer URI
+     * @return the URIs to try, in order, to retrieve the OpenID configuration or the authorization server metadata
+     */
+    public static List<URI> metadataUris(URI issuer) {
+        final var issuerPath = Objects.requireNonNullElse(issuer.getPath(), "").replaceFirst("/$", "");
+        // @formatter:off
+        return List.of(
+                UriComponentsBuilder.fromUri(issuer).replacePath(issuerPath + OIDC_METADATA_PATH).build(Map.of()),
+                UriComponentsBuilder.fromUri(issuer).replacePath(OIDC_METADATA_PATH + issuerPath).build(Map.of()),
+                UriComponentsBuilder.fromUri(issuer).replacePath(OAUTH_METADATA_PATH + issuerPath).build(Map.of()));
+        // @formatter:on
+    }
+
+    /**
+     * @param configuration OpenID configuration or authorization server metadata
+     * @param issuer the issuer URI the configuration was retrieved for
+     * @return the JWK-set URI in the configuration
+     * @throws IllegalStateException if the issuer in the configuration is not the expected one
+     * @throws IllegalArgumentException if the configuration contains no JWK-set URI
+     */
+    public static String jwkSetUri(Map<String, Object> configuration, URI issuer) {
+        final var metadataIssuer = Objects.toString(configuration.get("issuer"), null);
+        if (!Objects.equals(issuer.toString(), metadataIssuer)) {
+            throw new IllegalStateException(
+                "The Issuer \"%s\" provided in the configuration did not match the requested issuer \"%s\"".formatted(metadataIssuer, issuer));
+        }
+        final var uri = configuration.get("jwks_uri");
+        if (uri == null) {
+            throw new IllegalArgumentException("The public JWK set URI must not be null");
+        }
+        return uri.toString();
+    }
+
+    /**
+     * @param jwkSet a JWK set
+     * @return the signature algorithms of the JWK-set keys
+     * @throws IllegalStateException if no signature algorithm could be found
+     */
+    public static Set<JWSAlgorithm> jwsAlgorithms(JWKSet jwkSet) {
+        final var algorithms = new HashSet<JWSAlgorithm>();
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse())) {
+                continue;
+            }
+            if (jwk.getAlgorithm() != null) {
+                algorithms.add(JWSAlgorithm.parse(jwk.getAlgorithm().getName()));
+            } else if (KeyType.RSA.equals(jwk.getKeyType())) {
+                algorithms.addAll(JWSAlgorithm.Family.RSA);
+            } else if (KeyType.EC.equals(jwk.getKeyType())) {
+                algorithms.addAll(JWSAlgorithm.Family.EC);
+            }
+        }
+        if (algorithms.isEmpty()) {
+            throw new IllegalStateException("Failed to find any algorithms from the JWK set");
+        }
+        return algorithms;
+    }
+}
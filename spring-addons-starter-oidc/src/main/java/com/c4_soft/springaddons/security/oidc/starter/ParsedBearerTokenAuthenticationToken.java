@@ -0,0 +1,44 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+
+import com.nimbusds.jwt.JWT;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * <p>
+ * A {@link BearerTokenAuthenticationToken} carrying the {@link JWT} which was parsed from the bearer string to resolve the authentication manager for its
+ * issuer.
+ * </p>
+ * <p>
+ * Authentication managers unaware of this type just see a {@link BearerTokenAuthenticationToken}. The ones built around spring-addons JWT decoders use the
+ * parsed JWT instead of parsing the token string a second time, and keep track of the {@link Jwt} they decode, so that it can be cached.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class ParsedBearerTokenAuthenticationToken extends BearerTokenAuthenticationToken {
+    private static final long serialVersionUID = -2389764515932470281L;
+
+    /**
+     * Not serialized: the token string is enough to parse it again if ever needed
+     */
+    @Getter
+    private final transient JWT jwt;
+
+    /**
+     * The JWT decoded and validated by the authentication manager, if it is a spring-addons one. Not serialized either.
+     */
+    @Getter
+    @Setter
+    private transient Jwt decodedJwt;
+
+    public ParsedBearerTokenAuthenticationToken(BearerTokenAuthenticationToken bearer, JWT jwt) {
+        super(bearer.getToken());
+        this.jwt = jwt;
+        setDetails(bearer.getDetails());
+    }
+}
@@ -0,0 +1,192 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.springframework.web.util.pattern.PatternParseException;
+
+/**
+ * <p>
+ * Request path patterns, each optionally restricted to an HTTP method, compiled into a trie of literal path segments. A request is matched against all the
+ * patterns in a single walk down its path, instead of evaluating the patterns one after the other:
+ * </p>
+ * <ul>
+ * <li>literal patterns (like "/actuator/health") and literal prefixes followed by "/**" (like "/public/**") are resolved by the walk itself</li>
+ * <li>other patterns are parsed with {@link PathPatternParser} and attached to the node of their longest literal prefix: they are evaluated only for the
+ * requests going through this node</li>
+ * <li>patterns rejected by {@link PathPatternParser} (like "/**&#47;public", which Ant matchers accept) are evaluated with an {@link AntPathMatcher} for all
+ * requests</li>
+ * </ul>
+ * <p>
+ * Paths containing encoded characters or matrix parameters are matched against all the parsed patterns (which decode the path and ignore the parameters).
+ * </p>
+ * <p>
+ * Instances are to be populated at configuration time and then only read (safe for concurrent reads).
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class PathPatternTrie {
+    private static final AntPathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+
+    private final Node root = new Node();
+    private final List<Candidate<PathPattern>> pathPatterns = new ArrayList<>();
+    private final List<Candidate<String>> antPatterns = new ArrayList<>();
+
+    /**
+     * @param pattern a path pattern, preferably with the {@link PathPattern} syntax
+     * @param method the HTTP method to restrict the pattern to (any method if null)
+     * @return this trie
+     */
+    public PathPatternTrie add(String pattern, @Nullable HttpMethod method) {
+        final PathPattern pathPattern;
+        try {
+            pathPattern = PathPatternParser.defaultInstance.parse(pattern);
+        } catch (PatternParseException e) {
+            antPatterns.add(new Candidate<>(pattern, method));
+            return this;
+        }
+        final var candidate = new Candidate<>(pathPattern, method);
+        pathPatterns.add(candidate);
+
+        final var segments = segments(pattern);
+        var node = root;
+        for (var i = 0; i < segments.size(); ++i) {
+            final var segment = segments.get(i);
+            if (isLiteral(segment)) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            } else if (i == segments.size() - 1 && "**".equals(segment)) {
+                node.catchAll.add(method);
+                return this;
+            } else {
+                node.pathPatterns.add(candidate);
+                return this;
+            }
+        }
+        node.exact.add(method);
+        return this;
+    }
+
+    /**
+     * @param patterns path patterns, preferably with the {@link PathPattern} syntax
+     * @param method the HTTP method to restrict the patterns to (any method if null)
+     * @return this trie
+     */
+    public PathPatternTrie addAll(List<String> patterns, @Nullable HttpMethod method) {
+        patterns.forEach(pattern -> add(pattern, method));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return pathPatterns.isEmpty() && antPatterns.isEmpty();
+    }
+
+    /**
+     * @param path the request path (within the application)
+     * @param method the request method
+     * @return whether any of the patterns matches the request
+     */
+    public boolean matches(String path, String method) {
+        for (final var candidate : antPatterns) {
+            if (candidate.allows(method) && ANT_PATH_MATCHER.match(candidate.pattern(), path)) {
+                return true;
+            }
+        }
+        if (path.indexOf('%') >= 0 || path.indexOf(';') >= 0) {
+            final var pathContainer = PathContainer.parsePath(path);
+            for (final var candidate : pathPatterns) {
+                if (candidate.allows(method) && candidate.pattern().matches(pathContainer)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        PathContainer pathContainer = null;
+        var node = root;
+        var segmentStart = path.startsWith("/") ? 1 : 0;
+        while (true) {
+            if (node.catchAll.allows(method)) {
+                return true;
+            }
+            for (final var candidate : node.pathPatterns) {
+                if (pathContainer == null) {
+                    pathContainer = PathContainer.parsePath(path);
+                }
+                if (candidate.allows(method) && candidate.pattern().matches(pathContainer)) {
+                    return true;
+                }
+            }
+            if (segmentStart > path.length()) {
+                return node.exact.allows(method);
+            }
+            var segmentEnd = path.indexOf('/', segmentStart);
+            if (segmentEnd < 0) {
+                segmentEnd = path.length();
+            }
+            node = node.children.get(path.substring(segmentStart, segmentEnd));
+            if (node == null) {
+                return false;
+            }
+            segmentStart = segmentEnd + 1;
+        }
+    }
+
+    private static List<String> segments(String pattern) {
+        final var segments = new ArrayList<String>();
+        var segmentStart = pattern.startsWith("/") ? 1 : 0;
+        while (segmentStart <= pattern.length()) {
+            var segmentEnd = pattern.indexOf('/', segmentStart);
+            if (segmentEnd < 0) {
+                segmentEnd = pattern.length();
+            }
+            segments.add(pattern.substring(segmentStart, segmentEnd));
+            segmentStart = segmentEnd + 1;
+        }
+        return segments;
+    }
+
+    private static boolean isLiteral(String segment) {
+        return segment.indexOf('*') < 0 && segment.indexOf('?') < 0 && segment.indexOf('{') < 0;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private final Methods exact = new Methods();
+        private final Methods catchAll = new Methods();
+        private final List<Candidate<PathPattern>> pathPatterns = new ArrayList<>(0);
+    }
+
+    private static final class Methods {
+        private boolean any;
+        private final Set<String> names = new HashSet<>(2);
+
+        void add(@Nullable HttpMethod method) {
+            if (method == null) {
+                any = true;
+            } else {
+                names.add(method.name());
+            }
+        }
+
+        boolean allows(String method) {
+            return any || (!names.isEmpty() && names.contains(method));
+        }
+    }
+
+    private static record Candidate<T>(T pattern, @Nullable HttpMethod method) {
+        boolean allows(String requestMethod) {
+            return method == null || method.name().equals(requestMethod);
+        }
+    }
+}
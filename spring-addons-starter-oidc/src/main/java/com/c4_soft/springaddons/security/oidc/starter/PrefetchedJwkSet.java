@@ -0,0 +1,214 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.net.URI;
+import java.security.Key;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+import lombok.Getter;
+
+/**
+ * <p>
+ * The JWK set of an OpenID Provider, retrieved and refreshed by {@link PrefetchedJwkSets} outside of requests processing.
+ * </p>
+ * <p>
+ * {@link #getJwtProcessor()} verifies signatures with the keys of the last successful refresh only: it never triggers a download itself. When a token is
+ * signed with an unknown key, or while no JWK set could be retrieved yet, it is rejected and an early refresh is requested (the key might have just been
+ * rotated). Accepted signature algorithms follow
+ * Spring Security rules: RS256 only when a JWK-set URI is configured, the algorithms of the JWK-set keys when the JWK-set URI is discovered from the issuer.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class PrefetchedJwkSet implements JWSKeySelector<SecurityContext> {
+    @Getter
+    private final String id;
+    private final Optional<URI> configuredJwkSetUri;
+    private final Optional<URI> issuer;
+    private final RestClient restClient;
+    private final Consumer<PrefetchedJwkSet> earlyRefreshRequester;
+    private final Clock clock;
+    private final ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+    private final AtomicLong lastRefreshStart = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private volatile Optional<URI> resolvedJwkSetUri;
+    private volatile Keys keys;
+    private volatile Duration lastRefreshDuration = Duration.ZERO;
+    private volatile Optional<Instant> lastSuccess = Optional.empty();
+
+    PrefetchedJwkSet(Optional<URI> jwkSetUri, Optional<URI> issuer, RestClient restClient, Consumer<PrefetchedJwkSet> earlyRefreshRequester, Clock clock) {
+        this.id = id(jwkSetUri, issuer);
+        this.configuredJwkSetUri = jwkSetUri;
+        this.issuer = issuer;
+        this.restClient = restClient;
+        this.earlyRefreshRequester = earlyRefreshRequester;
+        this.clock = clock;
+        this.resolvedJwkSetUri = jwkSetUri;
+        this.jwtProcessor = new DefaultJWTProcessor<>();
+        this.jwtProcessor.setJWSKeySelector(this);
+        // claims are validated by Spring Security OAuth2TokenValidator
+        this.jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {});
+    }
+
+    static String id(Optional<URI> jwkSetUri, Optional<URI> issuer) {
+        return jwkSetUri.or(() -> issuer).map(URI::toString).orElseThrow(() -> new IllegalArgumentException("At least one of jwkSetUri or issuer must be provided"));
+    }
+
+    /**
+     * @return a processor verifying signatures with the keys of the last successful refresh
+     */
+    public JWTProcessor<SecurityContext> getJwtProcessor() {
+        return jwtProcessor;
+    }
+
+    /**
+     * Same as {@link #getJwtProcessor()} but with Spring Security exceptions
+     *
+     * @param jwt a parsed token
+     * @return the claims of the token if its signature is valid
+     * @throws BadJwtException if the token is not signed with one of the keys of the last successful refresh (or if no JWK set could be retrieved yet)
+     * @throws JwtException if the signature could not be verified for another reason
+     */
+    public JWTClaimsSet process(JWT jwt) {
+        try {
+            return jwtProcessor.process(jwt, null);
+        } catch (BadJOSEException e) {
+            throw new BadJwtException("Failed to validate the token", e);
+        } catch (JOSEException e) {
+            throw new JwtException("Failed to validate the token", e);
+        }
+    }
+
+    @Override
+    public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context) throws KeySourceException {
+        final var current = keys;
+        if (current == null) {
+            // no key, the token is rejected as one signed with an unknown key would be
+            earlyRefreshRequester.accept(this);
+            return List.of();
+        }
+        final var selected = current.keySelector().selectJWSKeys(header, context);
+        if (selected.isEmpty() && current.algorithms().contains(header.getAlgorithm())) {
+            earlyRefreshRequester.accept(this);
+        }
+        return selected;
+    }
+
+    /**
+     * Downloads the JWK set (after OpenID configuration discovery if only the issuer is known). Blocking: called by {@link PrefetchedJwkSets} from its own
+     * thread or at startup only. In case of failure, the keys of the previous successful refresh are kept.
+     *
+     * @throws IllegalStateException if the JWK set could not be retrieved
+     */
+    void refresh() {
+        final var start = System.nanoTime();
+        lastRefreshStart.set(start);
+        try {
+            final var jwkSetUri = resolvedJwkSetUri.orElseGet(this::discoverJwkSetUri);
+            resolvedJwkSetUri = Optional.of(jwkSetUri);
+            final var jwkSet = JWKSet.parse(restClient.get().uri(jwkSetUri).retrieve().body(String.class));
+            final var algorithms = configuredJwkSetUri.isPresent() ? Set.of(JWSAlgorithm.RS256) : OpenidProviderMetadataSupport.jwsAlgorithms(jwkSet);
+            keys = new Keys(algorithms, new JWSVerificationKeySelector<>(algorithms, new ImmutableJWKSet<>(jwkSet)));
+            lastSuccess = Optional.of(clock.instant());
+            successCount.increment();
+        } catch (ParseException e) {
+            failureCount.increment();
+            throw new IllegalStateException("Malformed JWK set for %s".formatted(id), e);
+        } catch (RuntimeException e) {
+            failureCount.increment();
+            throw new IllegalStateException("Could not retrieve the JWK set for %s".formatted(id), e);
+        } finally {
+            lastRefreshDuration = Duration.ofNanos(System.nanoTime() - start);
+        }
+    }
+
+    private URI discoverJwkSetUri() {
+        final var iss = issuer.orElseThrow();
+        for (var metadataUri : OpenidProviderMetadataSupport.metadataUris(iss)) {
+            try {
+                final var configuration = restClient.get().uri(metadataUri).retrieve().body(String.class);
+                if (configuration != null) {
+                    return URI.create(OpenidProviderMetadataSupport.jwkSetUri(JSONObjectUtils.parse(configuration), iss));
+                }
+            } catch (HttpClientErrorException e) {
+                // try next metadata location
+            } catch (ParseException e) {
+                throw new IllegalStateException("Malformed OpenID configuration at %s".formatted(metadataUri), e);
+            }
+        }
+        throw new IllegalArgumentException("Unable to resolve the Configuration with the provided Issuer of \"%s\"".formatted(iss));
+    }
+
+    /**
+     * @param minInterval minimum delay since the start of the last refresh
+     * @return true if the caller won the right to refresh now
+     */
+    boolean tryStartEarlyRefresh(Duration minInterval) {
+        final var previous = lastRefreshStart.get();
+        final var now = System.nanoTime();
+        return (previous == Long.MIN_VALUE || now - previous >= minInterval.toNanos()) && lastRefreshStart.compareAndSet(previous, now);
+    }
+
+    /**
+     * @return true if keys were successfully retrieved at least once
+     */
+    public boolean isAvailable() {
+        return keys != null;
+    }
+
+    public long getSuccessCount() {
+        return successCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * @return how long the last refresh (successful or not) took
+     */
+    public Duration getLastRefreshDuration() {
+        return lastRefreshDuration;
+    }
+
+    /**
+     * @return how long ago the keys in use were retrieved (empty if never)
+     */
+    public Optional<Duration> getAge() {
+        return lastSuccess.map(instant -> Duration.between(instant, clock.instant()));
+    }
+
+    private static record Keys(Set<JWSAlgorithm> algorithms, JWSKeySelector<SecurityContext> keySelector) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.RestClient;
+
+import com.c4_soft.springaddons.rest.ClientHttpRequestFactorySupport;
+import com.c4_soft.springaddons.rest.ProxySupport;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties;
+import com.c4_soft.springaddons.rest.SystemProxyProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcResourceServerProperties.JwkSetPrefetchProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Retrieves the JWK sets of all the configured OpenID Providers at startup and keeps them fresh in the background, so that JWT decoders never block a
+ * request on a JWK set download.
+ * </p>
+ * <p>
+ * There is a refresh thread per JWK set: an OpenID Provider which does not respond delays neither the startup nor the refreshes of the other ones. The
+ * {@link RestClient} should have connect and read timeouts (see {@link #restClient(JwkSetPrefetchProperties, BeanFactory)}): the startup waits for the
+ * slowest warm-up.
+ * </p>
+ * <p>
+ * Each JWK set is refreshed every "refreshInterval". A token signed with an unknown key, or a failed refresh, triggers an early refresh, at most once every
+ * "minRefreshInterval" per JWK set. When a refresh fails, the keys of the previous successful one are kept.
+ * </p>
+ * <p>
+ * Only the JWK sets of the configured OpenID Providers are prefetched: {@link #find(Optional, Optional)} returns nothing for the issuers resolved at
+ * runtime (PREFIX issuer matching, dynamic multi-tenancy), and decoders then fall back to a regular remote JWK source. This keeps the number of JWK sets
+ * and background tasks bounded by the configuration.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Slf4j
+public class PrefetchedJwkSets implements InitializingBean, DisposableBean {
+    private static final boolean IS_SPRING_ADDONS_REST_PRESENT = ClassUtils
+        .isPresent("com.c4_soft.springaddons.rest.ClientHttpRequestFactorySupport", PrefetchedJwkSets.class.getClassLoader());
+
+    private final List<OpenidProviderProperties> ops;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final RestClient restClient;
+    private final Clock clock;
+    private final Map<String, PrefetchedJwkSet> jwkSets = new ConcurrentHashMap<>();
+    private final List<Consumer<PrefetchedJwkSet>> registrationListeners = new CopyOnWriteArrayList<>();
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    public PrefetchedJwkSets(List<OpenidProviderProperties> ops, Duration refreshInterval, Duration minRefreshInterval, RestClient restClient, Clock clock) {
+        this.ops = ops;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.restClient = restClient;
+        this.clock = clock;
+        final var threadCount = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(Math.max(1, ops.size()), runnable -> {
+            final var thread = new Thread(runnable, "spring-addons-jwk-sets-refresh-%d".formatted(threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param properties the prefetch properties, for the connect and read timeouts
+     * @param beanFactory used to get the spring-addons-starter-rest proxy configuration, if it is on the class-path
+     * @return a {@link RestClient} with the prefetch timeouts and the spring-addons proxy configuration (the JVM one if spring-addons-starter-rest is not
+     *         on the class-path)
+     */
+    public static RestClient restClient(JwkSetPrefetchProperties properties, BeanFactory beanFactory) {
+        return RestClient.builder().requestFactory(requestFactory(properties, beanFactory)).build();
+    }
+
+    static ClientHttpRequestFactory requestFactory(JwkSetPrefetchProperties properties, BeanFactory beanFactory) {
+        if (IS_SPRING_ADDONS_REST_PRESENT) {
+            final var requestFactory = SpringAddonsRest.requestFactory(properties, beanFactory);
+            if (requestFactory.isPresent()) {
+                return requestFactory.get();
+            }
+        }
+        final var requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(properties.getConnectTimeout());
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+        return requestFactory;
+    }
+
+    /**
+     * Warm-up: retrieves the JWK sets of all the configured OpenID Providers, in parallel, and waits for the result. Failures (including timeouts) are logged
+     * and retried in the background, they do not prevent the application from starting.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        for (var op : ops) {
+            final var jwkSetUri = Optional.ofNullable(op.getJwkSetUri());
+            final var issuer = Optional.ofNullable(op.getIss());
+            if (jwkSetUri.isEmpty() && issuer.isEmpty()) {
+                continue;
+            }
+            jwkSets.computeIfAbsent(PrefetchedJwkSet.id(jwkSetUri, issuer), id -> create(jwkSetUri, issuer));
+        }
+        CompletableFuture
+            .allOf(jwkSets.values().stream().map(jwkSet -> CompletableFuture.runAsync(() -> refresh(jwkSet), scheduler)).toArray(CompletableFuture[]::new))
+            .join();
+        log.info("Prefetched {} JWK set(s)", jwkSets.values().stream().filter(PrefetchedJwkSet::isAvailable).count());
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @param jwkSetUri the JWK-set URI, if known
+     * @param issuer the issuer URI, used for OpenID configuration discovery when the JWK-set URI is not known
+     * @return the prefetched JWK set if it belongs to a configured OpenID Provider, empty otherwise
+     */
+    public Optional<PrefetchedJwkSet> find(Optional<URI> jwkSetUri, Optional<URI> issuer) {
+        if (jwkSetUri.isEmpty() && issuer.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(jwkSets.get(PrefetchedJwkSet.id(jwkSetUri, issuer)));
+    }
+
+    /**
+     * @return the JWK sets of the configured OpenID Providers
+     */
+    public Collection<PrefetchedJwkSet> getJwkSets() {
+        return Collections.unmodifiableCollection(jwkSets.values());
+    }
+
+    /**
+     * @param listener called for each JWK set already registered and for the ones registered later (at startup)
+     */
+    public void onRegistration(Consumer<PrefetchedJwkSet> listener) {
+        registrationListeners.add(listener);
+        jwkSets.values().forEach(listener);
+    }
+
+    private PrefetchedJwkSet create(Optional<URI> jwkSetUri, Optional<URI> issuer) {
+        final var jwkSet = new PrefetchedJwkSet(jwkSetUri, issuer, restClient, this::requestEarlyRefresh, clock);
+        scheduler.scheduleWithFixedDelay(() -> refresh(jwkSet), refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        registrationListeners.forEach(listener -> listener.accept(jwkSet));
+        return jwkSet;
+    }
+
+    private void requestEarlyRefresh(PrefetchedJwkSet jwkSet) {
+        if (jwkSet.tryStartEarlyRefresh(minRefreshInterval)) {
+            scheduler.execute(() -> refresh(jwkSet));
+        }
+    }
+
+    private void refresh(PrefetchedJwkSet jwkSet) {
+        try {
+            jwkSet.refresh();
+            log.debug("Refreshed JWK set for {} in {}", jwkSet.getId(), jwkSet.getLastRefreshDuration());
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the JWK set for {}, retrying in {}: {}", jwkSet.getId(), minRefreshInterval, e.getMessage());
+            scheduler.schedule(() -> requestEarlyRefresh(jwkSet), minRefreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Isolates spring-addons-starter-rest classes so that nothing fails when it is not on the class-path
+     */
+    private static final class SpringAddonsRest {
+        static Optional<ClientHttpRequestFactory> requestFactory(JwkSetPrefetchProperties properties, BeanFactory beanFactory) {
+            final var restProperties = beanFactory.getBeanProvider(SpringAddonsRestProperties.class).getIfAvailable();
+            final var systemProxyProperties = beanFactory.getBeanProvider(SystemProxyProperties.class).getIfAvailable();
+            if (restProperties == null || systemProxyProperties == null) {
+                return Optional.empty();
+            }
+            final var httpProperties = new HttpProperties();
+            httpProperties.setTransport(HttpProperties.Transport.URL_CONNECTION);
+            httpProperties.setConnectTimeout(Optional.of(properties.getConnectTimeout()));
+            httpProperties.setReadTimeout(Optional.of(properties.getReadTimeout()));
+            return Optional.of(ClientHttpRequestFactorySupport.create(new ProxySupport(systemProxyProperties, restProperties), httpProperties));
+        }
+    }
+}
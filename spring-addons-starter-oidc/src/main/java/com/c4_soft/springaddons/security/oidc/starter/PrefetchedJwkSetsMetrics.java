@@ -0,0 +1,51 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Binds {@link PrefetchedJwkSets} statistics to Micrometer, for each JWK set (including the ones registered after binding), tagged with the JWK-set URI or
+ * issuer: "spring-addons.jwk-set.refreshes" (counter tagged with the outcome), "spring-addons.jwk-set.refresh.duration" (duration of the last refresh) and
+ * "spring-addons.jwk-set.age" (time since the keys in use were retrieved).
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class PrefetchedJwkSetsMetrics implements MeterBinder {
+    private final PrefetchedJwkSets jwkSets;
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        jwkSets.onRegistration(jwkSet -> bindTo(meterRegistry, jwkSet));
+    }
+
+    private static void bindTo(MeterRegistry meterRegistry, PrefetchedJwkSet jwkSet) {
+        FunctionCounter
+            .builder("spring-addons.jwk-set.refreshes", jwkSet, PrefetchedJwkSet::getSuccessCount)
+            .tag("jwk-set", jwkSet.getId())
+            .tag("outcome", "success")
+            .description("The number of JWK set refreshes")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("spring-addons.jwk-set.refreshes", jwkSet, PrefetchedJwkSet::getFailureCount)
+            .tag("jwk-set", jwkSet.getId())
+            .tag("outcome", "failure")
+            .description("The number of JWK set refreshes")
+            .register(meterRegistry);
+        TimeGauge
+            .builder("spring-addons.jwk-set.refresh.duration", jwkSet, TimeUnit.MILLISECONDS, s -> s.getLastRefreshDuration().toMillis())
+            .tag("jwk-set", jwkSet.getId())
+            .description("How long the last JWK set refresh took")
+            .register(meterRegistry);
+        TimeGauge
+            .builder("spring-addons.jwk-set.age", jwkSet, TimeUnit.MILLISECONDS, s -> s.getAge().map(age -> (double) age.toMillis()).orElse(Double.NaN))
+            .tag("jwk-set", jwkSet.getId())
+            .description("Time since the JWK set keys in use were retrieved")
+            .register(meterRegistry);
+    }
+}
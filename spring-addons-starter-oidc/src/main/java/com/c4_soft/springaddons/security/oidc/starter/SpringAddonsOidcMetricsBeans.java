@@ -0,0 +1,65 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.ExpiringCacheMetrics;
+import com.c4_soft.springaddons.security.oidc.starter.cache.IssuerRegistry;
+import com.c4_soft.springaddons.security.oidc.starter.cache.IssuerRegistryMetrics;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.ReactiveSpringAddonsOidcBeans;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.ReactiveSpringAddonsOidcResourceServerBeans;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.SpringAddonsOidcBeans;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.SpringAddonsOidcResourceServerBeans;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Binds spring-addons caches, registries and prefetched JWK sets to Micrometer, when it is on the classpath.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@ConditionalOnClass(MeterBinder.class)
+@AutoConfiguration(after = {
+    SpringAddonsOidcBeans.class,
+    ReactiveSpringAddonsOidcBeans.class,
+    SpringAddonsOidcResourceServerBeans.class,
+    ReactiveSpringAddonsOidcResourceServerBeans.class })
+public class SpringAddonsOidcMetricsBeans {
+
+    @ConditionalOnBean(JwtAuthenticationCache.class)
+    @Bean
+    MeterBinder jwtAuthenticationCacheMetrics(JwtAuthenticationCache jwtAuthenticationCache) {
+        return new ExpiringCacheMetrics(jwtAuthenticationCache);
+    }
+
+    @ConditionalOnBean(OpaqueTokenIntrospectionCache.class)
+    @Bean
+    MeterBinder opaqueTokenIntrospectionCacheMetrics(OpaqueTokenIntrospectionCache opaqueTokenIntrospectionCache) {
+        return new ExpiringCacheMetrics(opaqueTokenIntrospectionCache);
+    }
+
+    @ConditionalOnBean(CorsPreflightCache.class)
+    @Bean
+    MeterBinder corsPreflightCacheMetrics(CorsPreflightCache corsPreflightCache) {
+        return new ExpiringCacheMetrics(corsPreflightCache);
+    }
+
+    @ConditionalOnBean(IssuerRegistry.class)
+    @Bean
+    MeterBinder issuerRegistriesMetrics(List<IssuerRegistry<?>> issuerRegistries) {
+        return meterRegistry -> issuerRegistries.forEach(registry -> new IssuerRegistryMetrics(registry).bindTo(meterRegistry));
+    }
+
+    @ConditionalOnBean(PrefetchedJwkSets.class)
+    @Bean
+    MeterBinder prefetchedJwkSetsMetrics(PrefetchedJwkSets prefetchedJwkSets) {
+        return new PrefetchedJwkSetsMetrics(prefetchedJwkSets);
+    }
+}
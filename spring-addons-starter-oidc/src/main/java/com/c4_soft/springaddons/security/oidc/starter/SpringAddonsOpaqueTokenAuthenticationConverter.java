@@ -0,0 +1,135 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenAuthenticationConverter;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import com.c4_soft.springaddons.security.oidc.ClaimPath;
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+
+/**
+ * <p>
+ * Default converter from a successful introspection result to a {@link BearerTokenAuthentication} (used by servlet and reactive resource servers).
+ * </p>
+ * <p>
+ * The OpenID Provider behind the introspection endpoint is resolved once, when the converter is created: its username claim is compiled and, if the
+ * authorities converter is exactly a {@link ConfigurableClaimSetAuthoritiesConverter} (not a sub-class, which might override convert), its authorities
+ * mappings are bound. Converting an introspection result is
+ * then a few lookups in the introspected attributes, without copying them.
+ * </p>
+ * <p>
+ * When {@link AuthenticationObservations} are enabled, authorities mapping and principal building are observed.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class SpringAddonsOpaqueTokenAuthenticationConverter implements OpaqueTokenAuthenticationConverter {
+    private final ClaimPath usernameClaim;
+    private final Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter;
+    private final @Nullable URI issuer;
+    private final AuthenticationObservations observations;
+
+    /**
+     * @param authoritiesConverter converts introspected attributes into Spring authorities
+     * @param opProperties the properties of the OpenID Provider exposing the introspection endpoint, if any
+     */
+    public SpringAddonsOpaqueTokenAuthenticationConverter(
+            Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
+            Optional<OpenidProviderProperties> opProperties) {
+        this(authoritiesConverter, opProperties, AuthenticationObservations.DISABLED);
+    }
+
+    /**
+     * @param authoritiesConverter converts introspected attributes into Spring authorities
+     * @param opProperties the properties of the OpenID Provider exposing the introspection endpoint, if any
+     * @param observations observes authorities mapping and principal building
+     */
+    public SpringAddonsOpaqueTokenAuthenticationConverter(
+            Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
+            Optional<OpenidProviderProperties> opProperties,
+            AuthenticationObservations observations) {
+        this.issuer = opProperties.map(OpenidProviderProperties::getIss).orElse(null);
+        this.observations = observations;
+        this.usernameClaim = opProperties.map(OpenidProviderProperties::getUsernameClaimPath).orElseGet(() -> ClaimPath.compile(JwtClaimNames.SUB));
+        this.authoritiesConverter = opProperties
+            .filter(op -> authoritiesConverter.getClass() == ConfigurableClaimSetAuthoritiesConverter.class)
+            .<Converter<Map<String, Object>, Collection<? extends GrantedAuthority>>>map(
+                op -> ((ConfigurableClaimSetAuthoritiesConverter) authoritiesConverter).forOpenidProvider(op))
+            .orElse(authoritiesConverter);
+    }
+
+    /**
+     * @param addonsProperties spring-addons OIDC properties
+     * @param introspectionUri the URI of the introspection endpoint
+     * @return the properties of the OpenID Provider which issuer is contained in the introspection URI, or the first configured one
+     */
+    public static Optional<OpenidProviderProperties> getIntrospectionOpenidProvider(
+            SpringAddonsOidcProperties addonsProperties,
+            @Nullable String introspectionUri) {
+        return addonsProperties
+            .getOps()
+            .stream()
+            .filter(opProperties -> introspectionUri != null && opProperties.getIss() != null)
+            .filter(opProperties -> introspectionUri.contains(opProperties.getIss().toString()))
+            .findAny()
+            .or(() -> addonsProperties.getOps().stream().findFirst());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public BearerTokenAuthentication convert(String introspectedToken, OAuth2AuthenticatedPrincipal authenticatedPrincipal) {
+        final var attributes = authenticatedPrincipal.getAttributes();
+        final var authorities = observations.observe(Stage.AUTHORITIES_MAPPING, issuer, () -> authoritiesConverter.convert(attributes));
+        return observations
+            .observe(
+                Stage.PRINCIPAL_BUILDING,
+                issuer,
+                () -> new BearerTokenAuthentication(
+                    new OAuth2IntrospectionAuthenticatedPrincipal(
+                        OpenidClaimSet.resolveName(attributes, usernameClaim),
+                        attributes,
+                        (Collection<GrantedAuthority>) authenticatedPrincipal.getAuthorities()),
+                    new OAuth2AccessToken(
+                        OAuth2AccessToken.TokenType.BEARER,
+                        introspectedToken,
+                        toInstant(attributes.get(OAuth2TokenIntrospectionClaimNames.IAT)),
+                        toInstant(attributes.get(OAuth2TokenIntrospectionClaimNames.EXP))),
+                    authorities));
+    }
+
+    private static @Nullable Instant toInstant(@Nullable Object claim) {
+        if (claim == null) {
+            return null;
+        }
+        if (claim instanceof Instant i) {
+            return i;
+        }
+        if (claim instanceof Date d) {
+            return d.toInstant();
+        }
+        if (claim instanceof Integer i) {
+            return Instant.ofEpochSecond((i).longValue());
+        } else if (claim instanceof Long l) {
+            return Instant.ofEpochSecond(l);
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.cors.CorsConfiguration;
+
+import com.c4_soft.springaddons.security.oidc.starter.reactive.CachingReactiveCorsProcessor;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.CachingCorsProcessor;
+
+/**
+ * <p>
+ * Decisions of the CORS filter about pre-flight requests, used by {@link CachingCorsProcessor} and {@link CachingReactiveCorsProcessor} when
+ * "com.c4-soft.springaddons.oidc.cors-preflight-cache.enabled" is true.
+ * </p>
+ * <p>
+ * Keys are the CORS configuration matched for the request path (one instance per cors[].path entry, compared by identity), the origin, the requested method
+ * and the requested headers. Values are whether the pre-flight was accepted and the headers the CORS processor added to the response.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class CorsPreflightCache extends ExpiringCache<CorsPreflightCache.Key, CorsPreflightCache.Decision> {
+    public static final String CACHE_NAME = "spring-addons.cors-preflights";
+
+    private final Duration timeToLive;
+
+    /**
+     * @param maxSize maximum number of entries
+     * @param timeToLive how long a decision is cached
+     * @param clock the clock to use for entries expiry
+     */
+    public CorsPreflightCache(int maxSize, Duration timeToLive, Clock clock) {
+        super(CACHE_NAME, maxSize, Optional.empty(), clock);
+        this.timeToLive = timeToLive;
+    }
+
+    public void put(Key key, Decision decision) {
+        put(key, decision, now().plus(timeToLive));
+    }
+
+    /**
+     * @param configuration the CORS configuration matched for the request path
+     * @param origin the "Origin" request header
+     * @param method the "Access-Control-Request-Method" request header
+     * @param headers the "Access-Control-Request-Headers" request header
+     */
+    public static record Key(CorsConfiguration configuration, @Nullable String origin, @Nullable String method, @Nullable String headers) {
+    }
+
+    /**
+     * @param allowed whether the pre-flight request was accepted
+     * @param headers the "Vary" values and the "Access-Control-*" headers the CORS processor added to the response
+     */
+    public static record Decision(boolean allowed, HttpHeaders headers) {
+
+        /**
+         * @param allowed whether the pre-flight request was accepted
+         * @param varyBefore the "Vary" response header values before the CORS processor ran
+         * @param responseHeaders the response headers after the CORS processor ran
+         * @return the decision to replay for the next pre-flight requests with the same key
+         */
+        public static Decision of(boolean allowed, List<String> varyBefore, HttpHeaders responseHeaders) {
+            final var headers = new HttpHeaders();
+            for (final var header : responseHeaders.entrySet()) {
+                if (HttpHeaders.VARY.equalsIgnoreCase(header.getKey())) {
+                    final var added = new ArrayList<>(header.getValue());
+                    varyBefore.forEach(added::remove);
+                    headers.addAll(HttpHeaders.VARY, added);
+                } else if (header.getKey().regionMatches(true, 0, "Access-Control-", 0, 15)) {
+                    headers.addAll(header.getKey(), header.getValue());
+                }
+            }
+            return new Decision(allowed, HttpHeaders.readOnlyHttpHeaders(headers));
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+
+/**
+ * <p>
+ * A size-bounded, thread-safe cache which entries expire at a given instant.
+ * </p>
+ * <p>
+ * Eviction policy: expired entries are removed when read or when reached while evicting. When the maximum size is exceeded, the oldest inserted entries are
+ * evicted first. This is a cheap approximation of "earliest expiry first" when entries have about the same life span (like access tokens from a given
+ * authorization server).
+ * </p>
+ * <p>
+ * Reads are lock-free. Hit, miss, put and eviction counts are kept for monitoring (see {@link ExpiringCacheMetrics}).
+ * </p>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class ExpiringCache<K, V> {
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int maxSize;
+
+    private final Optional<Duration> maxTimeToLive;
+    private final Clock clock;
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger insertionOrderSize = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param name a name for this cache, used to tag metrics
+     * @param maxSize maximum number of entries
+     * @param maxTimeToLive optional cap on entries life span (otherwise, entries live until the instant provided when putting it)
+     * @param clock the clock to use for entries expiry
+     */
+    public ExpiringCache(String name, int maxSize, Optional<Duration> maxTimeToLive, Clock clock) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        this.name = name;
+        this.maxSize = maxSize;
+        this.maxTimeToLive = maxTimeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * @param key the entry key
+     * @return the value for this key or null if there is no such entry or if it is expired
+     */
+    public @Nullable V get(K key) {
+        final var entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(clock.instant())) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * @param key the entry key
+     * @param value the entry value
+     * @param expiresAt when the entry should expire (capped by the max time to live if one was provided)
+     */
+    public void put(K key, V value, Instant expiresAt) {
+        final var now = clock.instant();
+        final var expiry = maxTimeToLive.map(now::plus).filter(max -> max.isBefore(expiresAt)).orElse(expiresAt);
+        if (!expiry.isAfter(now)) {
+            return;
+        }
+        final var entry = new Entry<>(key, value, expiry);
+        entries.put(key, entry);
+        insertionOrder.add(entry);
+        insertionOrderSize.incrementAndGet();
+        puts.increment();
+        evictIfNeeded(now);
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+        insertionOrder.clear();
+        insertionOrderSize.set(0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the current instant, according to this cache clock
+     */
+    protected Instant now() {
+        return clock.instant();
+    }
+
+    private void evictIfNeeded(Instant now) {
+        // the insertion queue may also hold entries already replaced or removed from the map: keep it bounded too
+        while (entries.size() > maxSize || insertionOrderSize.get() > 2 * maxSize) {
+            final var eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            insertionOrderSize.decrementAndGet();
+            if (entries.remove(eldest.key, eldest) && !eldest.isExpired(now)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static record Entry<K, V>(K key, V value, Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+
+        // identity semantics: an entry must not be removed from the map by an equal one put later
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+import lombok.Getter;
+
+/**
+ * <p>
+ * A bounded registry of per-issuer components (like authentication managers) which are expensive to create (OpenID configuration discovery, JWK set
+ * retrieval and cache, ...).
+ * </p>
+ * <ul>
+ * <li>creation is single-flight: concurrent requests for a new issuer result in a single call to the factory (other issuers are not blocked meanwhile)</li>
+ * <li>when more than max-size issuers are registered, the least recently used is evicted</li>
+ * <li>if an idle-timeout is set, issuers not used for that long are evicted</li>
+ * </ul>
+ * <p>
+ * Evicting an issuer has no other impact than having its component created again if a token from that issuer is received later.
+ * </p>
+ *
+ * @param <V> the type of the components
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class IssuerRegistry<V> {
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int maxSize;
+
+    private final Optional<Duration> idleTimeout;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder creations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long nextIdleSweep;
+
+    /**
+     * @param name a name for this registry, used to tag metrics
+     * @param maxSize maximum number of issuers
+     * @param idleTimeout optional delay after which unused issuers are evicted
+     * @param clock the clock to use for idle eviction
+     */
+    public IssuerRegistry(String name, int maxSize, Optional<Duration> idleTimeout, Clock clock) {
+        Assert.isTrue(maxSize > 0, "maxSize must be positive");
+        this.name = name;
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.clock = clock;
+        this.nextIdleSweep = clock.millis();
+    }
+
+    /**
+     * @param issuer an issuer URI
+     * @param factory creates the component for an issuer which is not registered yet
+     * @return the component registered for the issuer (created if needed)
+     */
+    public V computeIfAbsent(String issuer, Function<String, ? extends V> factory) {
+        final var now = clock.millis();
+        var entry = entries.get(issuer);
+        if (entry == null) {
+            entry = entries.computeIfAbsent(issuer, Entry::new);
+        }
+        entry.lastAccess = now;
+
+        var value = entry.value;
+        if (value == null) {
+            value = create(entry, factory);
+        }
+        evictIdle(now, entry);
+        return value;
+    }
+
+    public void remove(String issuer) {
+        entries.remove(issuer);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long creationCount() {
+        return creations.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private V create(Entry<V> entry, Function<String, ? extends V> factory) {
+        synchronized (entry) {
+            if (entry.value != null) {
+                return entry.value;
+            }
+            final V value;
+            try {
+                value = factory.apply(entry.issuer);
+            } catch (RuntimeException e) {
+                // let the next request retry
+                entries.remove(entry.issuer, entry);
+                throw e;
+            }
+            Assert.notNull(value, () -> "No component created for " + entry.issuer);
+            entry.value = value;
+            creations.increment();
+        }
+        evictLeastRecentlyUsed(entry);
+        return entry.value;
+    }
+
+    private void evictLeastRecentlyUsed(Entry<V> current) {
+        while (entries.size() > maxSize) {
+            Entry<V> eldest = null;
+            for (var entry : entries.values()) {
+                if (entry != current && (eldest == null || entry.lastAccess < eldest.lastAccess)) {
+                    eldest = entry;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            if (entries.remove(eldest.issuer, eldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private void evictIdle(long now, Entry<V> current) {
+        if (idleTimeout.isEmpty() || now < nextIdleSweep) {
+            return;
+        }
+        final var timeout = idleTimeout.get().toMillis();
+        nextIdleSweep = now + Math.max(1, timeout / 2);
+        for (var entry : entries.values()) {
+            if (entry != current && now - entry.lastAccess >= timeout && entries.remove(entry.issuer, entry)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final String issuer;
+        private volatile V value;
+        private volatile long lastAccess;
+
+        Entry(String issuer) {
+            this.issuer = issuer;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Binds {@link IssuerRegistry} statistics to Micrometer: "spring-addons.issuers.live" (gauge), "spring-addons.issuers.creations" and
+ * "spring-addons.issuers.evictions" (counters), all tagged with the registry name.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class IssuerRegistryMetrics implements MeterBinder {
+    private final IssuerRegistry<?> registry;
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        Gauge
+            .builder("spring-addons.issuers.live", registry, IssuerRegistry::size)
+            .tag("registry", registry.getName())
+            .description("The number of issuers with a live component")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("spring-addons.issuers.creations", registry, IssuerRegistry::creationCount)
+            .tag("registry", registry.getName())
+            .description("The number of per-issuer components created")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("spring-addons.issuers.evictions", registry, IssuerRegistry::evictionCount)
+            .tag("registry", registry.getName())
+            .description("The number of issuers evicted (least recently used or idle)")
+            .register(meterRegistry);
+    }
+}
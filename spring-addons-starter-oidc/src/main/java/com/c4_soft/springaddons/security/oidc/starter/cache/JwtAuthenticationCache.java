@@ -0,0 +1,39 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.ReactiveJWTClaimsSetAuthenticationManager;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager;
+
+/**
+ * <p>
+ * The JWTs decoded and validated while successfully authenticating bearer tokens, cached until the token expires, so that a token sent many times is parsed,
+ * decoded and validated only once. Used by {@link JWTClaimsSetAuthenticationManager} and {@link ReactiveJWTClaimsSetAuthenticationManager} when
+ * "com.c4-soft.springaddons.oidc.resourceserver.authentication-cache.enabled" is true.
+ * </p>
+ * <p>
+ * Keys are SHA-256 digests of the tokens (signature included, so that an altered token can't hit the cache). Authentications are not cached: on a hit, the
+ * {@link Jwt} is converted again and the resulting token gets the details of the current request (remote address, session ID, etc.).
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class JwtAuthenticationCache extends ExpiringCache<String, Jwt> {
+    public static final String CACHE_NAME = "spring-addons.jwt-authentications";
+
+    public JwtAuthenticationCache(int maxSize, Optional<Duration> maxTimeToLive, Clock clock) {
+        super(CACHE_NAME, maxSize, maxTimeToLive, clock);
+    }
+
+    /**
+     * @param token a serialized JWT
+     * @return the cache key for this token
+     */
+    public static String key(String token) {
+        return TokenDigest.sha256(token);
+    }
+}
@@ -0,0 +1,157 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.CachingReactiveOpaqueTokenIntrospector;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.CachingOpaqueTokenIntrospector;
+
+/**
+ * <p>
+ * Opaque tokens introspection results, used by {@link CachingOpaqueTokenIntrospector} and {@link CachingReactiveOpaqueTokenIntrospector} when
+ * "com.c4-soft.springaddons.oidc.resourceserver.introspection-cache.enabled" is true.
+ * </p>
+ * <p>
+ * Active tokens are cached until the introspected "exp" (or the max time-to-live, if one is set). An empty value is cached for inactive tokens, for a (short)
+ * negative time-to-live. Keys are SHA-256 digests of the tokens.
+ * </p>
+ * <p>
+ * Memory is bounded by both the number of entries and the weight of each entry: principals which attributes weigh more than the max attributes weight are not
+ * cached (they are introspected each time). The weight is a cheap estimate of the attributes size in bytes: the length of strings, keys included, summed
+ * through maps, collections and arrays, plus {@value #SCALAR_WEIGHT} for any other value. So, the memory used by attributes is roughly bounded by
+ * max-size &times; max-attributes-weight.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class OpaqueTokenIntrospectionCache extends ExpiringCache<String, Optional<OAuth2AuthenticatedPrincipal>> {
+    public static final String CACHE_NAME = "spring-addons.opaque-token-introspections";
+    public static final long DEFAULT_MAX_ATTRIBUTES_WEIGHT = 16 * 1024;
+    static final long SCALAR_WEIGHT = 16;
+
+    private final boolean isTimeToLiveCapped;
+    private final Duration negativeTimeToLive;
+    private final long maxAttributesWeight;
+
+    /**
+     * @param maxSize maximum number of entries
+     * @param maxTimeToLive optional cap on how long an active token introspection is cached (mandatory to cache introspection results without "exp")
+     * @param negativeTimeToLive how long inactive tokens are remembered
+     * @param clock the clock to use for entries expiry
+     */
+    public OpaqueTokenIntrospectionCache(int maxSize, Optional<Duration> maxTimeToLive, Duration negativeTimeToLive, Clock clock) {
+        this(maxSize, maxTimeToLive, negativeTimeToLive, DEFAULT_MAX_ATTRIBUTES_WEIGHT, clock);
+    }
+
+    /**
+     * @param maxSize maximum number of entries
+     * @param maxTimeToLive optional cap on how long an active token introspection is cached (mandatory to cache introspection results without "exp")
+     * @param negativeTimeToLive how long inactive tokens are remembered
+     * @param maxAttributesWeight estimated size, in bytes, above which the attributes of a principal are not cached
+     * @param clock the clock to use for entries expiry
+     */
+    public OpaqueTokenIntrospectionCache(int maxSize, Optional<Duration> maxTimeToLive, Duration negativeTimeToLive, long maxAttributesWeight, Clock clock) {
+        super(CACHE_NAME, maxSize, maxTimeToLive, clock);
+        this.isTimeToLiveCapped = maxTimeToLive.isPresent();
+        this.negativeTimeToLive = negativeTimeToLive;
+        this.maxAttributesWeight = maxAttributesWeight;
+    }
+
+    /**
+     * @param token an opaque token
+     * @return the cache key for this token
+     */
+    public static String key(String token) {
+        return TokenDigest.sha256(token);
+    }
+
+    /**
+     * Caches a successful introspection until the "exp" attribute. Principals without "exp" are cached only if a max time-to-live is set, and principals
+     * which attributes weigh more than the max attributes weight are not cached.
+     *
+     * @param key the token key
+     * @param principal the introspection result
+     */
+    public void putActive(String key, OAuth2AuthenticatedPrincipal principal) {
+        final var exp = toInstant(principal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP));
+        if ((exp.isPresent() || isTimeToLiveCapped) && weight(principal.getAttributes(), maxAttributesWeight) <= maxAttributesWeight) {
+            put(key, Optional.of(principal), exp.orElse(Instant.MAX));
+        }
+    }
+
+    /**
+     * Caches that a token is not active for the negative time-to-live
+     *
+     * @param key the token key
+     */
+    public void putInactive(String key) {
+        put(key, Optional.empty(), now().plus(negativeTimeToLive));
+    }
+
+    /**
+     * @param value an attribute value (or the attributes map itself)
+     * @param limit the weight above which there is no need to go on weighing
+     * @return the estimated weight of the value, possibly truncated to a bit more than the limit
+     */
+    static long weight(Object value, long limit) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof CharSequence chars) {
+            return chars.length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            var weight = 0L;
+            for (var entry : map.entrySet()) {
+                weight += weight(entry.getKey(), limit - weight);
+                weight += weight(entry.getValue(), limit - weight);
+                if (weight > limit) {
+                    return weight;
+                }
+            }
+            return weight;
+        }
+        if (value instanceof Collection<?> collection) {
+            var weight = 0L;
+            for (var element : collection) {
+                weight += weight(element, limit - weight);
+                if (weight > limit) {
+                    return weight;
+                }
+            }
+            return weight;
+        }
+        if (value instanceof Object[] array) {
+            var weight = 0L;
+            for (var element : array) {
+                weight += weight(element, limit - weight);
+                if (weight > limit) {
+                    return weight;
+                }
+            }
+            return weight;
+        }
+        return SCALAR_WEIGHT;
+    }
+
+    private static Optional<Instant> toInstant(Object claim) {
+        if (claim instanceof Instant instant) {
+            return Optional.of(instant);
+        }
+        if (claim instanceof Date date) {
+            return Optional.of(date.toInstant());
+        }
+        if (claim instanceof Number epochSecond) {
+            return Optional.of(Instant.ofEpochSecond(epochSecond.longValue()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,42 @@
+package com.c4_soft.springaddons.security.oidc.starter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * <p>
+ * JFR event recorded for each stage of the resource server authentication pipeline (see
+ * {@link com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage}), independently of Micrometer observations being enabled or not.
+ * </p>
+ * <p>
+ * Disabled by default (there are up to six per request): enable it with the settings file shipped with this starter when profiling authentication.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Name(AuthenticationStageEvent.NAME)
+@Label("Authentication Stage")
+@Category({ "Spring Addons", "Resource Server" })
+@Description("A stage of the authentication of a bearer token by a spring-addons resource server")
+@StackTrace(false)
+@Enabled(false)
+@Setter
+public class AuthenticationStageEvent extends Event {
+    public static final String NAME = "com.c4_soft.springaddons.oidc.AuthenticationStage";
+
+    @Label("Stage")
+    private String stage;
+
+    @Label("Issuer")
+    @Description("The issuer of the OpenID Provider properties resolved for the token (none when not resolved yet)")
+    private String issuer;
+
+    @Label("Success")
+    private boolean success;
+}
@@ -0,0 +1,33 @@
+package com.c4_soft.springaddons.security.oidc.starter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for each opaque token introspection request sent to the authorization server (introspections served from the introspection cache are
+ * not recorded).
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Name(IntrospectionEvent.NAME)
+@Label("Token Introspection")
+@Category({ "Spring Addons", "Resource Server" })
+@Description("Opaque token introspection request to the authorization server")
+@StackTrace(false)
+@Setter
+public class IntrospectionEvent extends Event {
+    public static final String NAME = "com.c4_soft.springaddons.oidc.Introspection";
+
+    public static final String ACTIVE = "active";
+    public static final String INACTIVE = "inactive";
+    public static final String ERROR = "error";
+
+    @Label("Result")
+    @Description("active, inactive or error (authorization server unreachable, for instance)")
+    private String result;
+}
@@ -0,0 +1,45 @@
+package com.c4_soft.springaddons.security.oidc.starter.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * <p>
+ * JFR event recorded for each bearer token authenticated by the spring-addons JWT authentication managers (servlet and reactive), from token reception to
+ * the {@link org.springframework.security.core.Authentication} creation.
+ * </p>
+ * <p>
+ * Enabled without threshold by default: it is committed once per request with a few pooled strings, which is cheap enough for the default JFR settings.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Name(TokenAuthenticationEvent.NAME)
+@Label("Token Authentication")
+@Category({ "Spring Addons", "Resource Server" })
+@Description("Authentication of a bearer token by a spring-addons resource server")
+@StackTrace(false)
+@Setter
+public class TokenAuthenticationEvent extends Event {
+    public static final String NAME = "com.c4_soft.springaddons.oidc.TokenAuthentication";
+
+    public static final String CACHE_HIT = "hit";
+    public static final String CACHE_MISS = "miss";
+    public static final String CACHE_DISABLED = "disabled";
+
+    @Label("Issuer")
+    @Description("The token issuer (not set when the authentication was served from the cache)")
+    private String issuer;
+
+    @Label("Cache")
+    @Description("Authentication cache usage: hit, miss or disabled")
+    private String cache;
+
+    @Label("Success")
+    private boolean success;
+}
@@ -271,6 +271,22 @@ public class SpringAddonsOidcClientProperties {
         private Optional<String> internalLogoutUri = Optional.empty();
     }
 
+    /**
+     * Compact binary serialization of the OAuth2 client state in sessions persisted by Spring Session Redis
+     */
+    private SessionSerializerProperties sessionSerializer = new SessionSerializerProperties();
+
+    @Data
+    @ConfigurationProperties
+    public static class SessionSerializerProperties {
+        /**
+         * If true, a "springSessionDefaultRedisSerializer" bean writing authorized clients, OAuth2 authentications and the principals by client
+         * registration ID in a compact binary format is registered (other session attributes are still Java-serialized). Sessions written before this is
+         * enabled can still be read.
+         */
+        private boolean enabled = false;
+    }
+
     /**
      * Request parameter
      *
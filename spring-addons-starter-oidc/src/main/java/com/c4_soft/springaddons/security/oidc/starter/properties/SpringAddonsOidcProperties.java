@@ -1,6 +1,7 @@
 package com.c4_soft.springaddons.security.oidc.starter.properties;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -8,7 +9,14 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.security.oauth2.core.oidc.StandardClaimNames;
 
+import com.c4_soft.springaddons.security.oidc.ClaimPath;
+
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * <p>
@@ -37,6 +45,12 @@ public class SpringAddonsOidcProperties {
      */
     private List<OpenidProviderProperties> ops = List.of();
 
+    /**
+     * How the "iss" claim of tokens is matched against ops[].iss: EXACT (the default) or PREFIX (the token issuer must have the same scheme, host and port as
+     * ops[].iss, and its path must start with the whole path segments of ops[].iss, the longest match wins). PREFIX is handy when many issuers share the same configuration, like all the realms of a Keycloak instance.
+     */
+    private IssuerMatching opsIssuerMatching = IssuerMatching.EXACT;
+
     /**
      * Auto-configuration for an OAuth2 client (secured with session, not access token) Security(Web)FilterChain with &#64;Order(Ordered.LOWEST_PRECEDENCE - 1).
      * Typical use-cases are spring-cloud-gateway used as BFF and applications with Thymeleaf or another server-side rendering framework. Default configuration
@@ -57,6 +71,38 @@ public class SpringAddonsOidcProperties {
 
     private List<CorsProperties> cors = List.of();
 
+    /**
+     * Cache for CORS pre-flight decisions (disabled by default)
+     */
+    private CorsPreflightCacheProperties corsPreflightCache = new CorsPreflightCacheProperties();
+
+    public static enum IssuerMatching {
+        EXACT, PREFIX
+    }
+
+    /**
+     * Cache for the decisions of the CORS filter about pre-flight requests: the response to a pre-flight with the same origin, requested method and requested
+     * headers as a previous one on the same cors[].path is replayed, without evaluating the CORS configuration again.
+     */
+    @Data
+    public static class CorsPreflightCacheProperties {
+
+        /**
+         * Whether to cache the CORS pre-flight decisions
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of cached decisions. When exceeded, the oldest entries are evicted first.
+         */
+        private int maxSize = 1_000;
+
+        /**
+         * How long a decision is cached
+         */
+        private Duration timeToLive = Duration.ofMinutes(30);
+    }
+
     /**
      * OpenID Providers configuration. A minimum of one issuer is required. <b>Properties defined here are a replacement for
      * spring.security.oauth2.resourceserver.jwt.*</b> (which will be ignored). Authorities mapping defined here is used by both client and resource server
@@ -95,6 +141,27 @@ public class SpringAddonsOidcProperties {
          */
         private String usernameClaim = StandardClaimNames.SUB;
 
+        /**
+         * Derived from usernameClaim (not a configuration property)
+         */
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        @EqualsAndHashCode.Exclude
+        @ToString.Exclude
+        private ClaimPath usernameClaimPath = ClaimPath.compile(StandardClaimNames.SUB);
+
+        public void setUsernameClaim(String usernameClaim) {
+            this.usernameClaimPath = ClaimPath.compile(usernameClaim);
+            this.usernameClaim = usernameClaim;
+        }
+
+        /**
+         * @return the username claim JSON path, compiled when the username claim is set
+         */
+        public ClaimPath getUsernameClaimPath() {
+            return usernameClaimPath;
+        }
+
         @Data
         @ConfigurationProperties
         public static class SimpleAuthoritiesMappingProperties {
@@ -1,8 +1,11 @@
 package com.c4_soft.springaddons.security.oidc.starter.properties;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import lombok.Data;
 
@@ -45,4 +48,154 @@ public class SpringAddonsOidcResourceServerProperties {
     @Deprecated(forRemoval = true)
     private List<CorsProperties> cors = List.of();
 
+    /**
+     * Cache for successful JWT authentications (disabled by default)
+     */
+    private AuthenticationCacheProperties authenticationCache = new AuthenticationCacheProperties();
+
+    /**
+     * Cache for opaque tokens introspection (disabled by default)
+     */
+    private IntrospectionCacheProperties introspectionCache = new IntrospectionCacheProperties();
+
+    /**
+     * Bounds for the per-issuer authentication managers created by the default JWT authentication manager resolver
+     */
+    private AuthenticationManagersProperties authenticationManagers = new AuthenticationManagersProperties();
+
+    /**
+     * Startup retrieval and background refresh of the JWK sets of all configured OpenID Providers (disabled by default)
+     */
+    private JwkSetPrefetchProperties jwkSetPrefetch = new JwkSetPrefetchProperties();
+
+    /**
+     * Micrometer observations of the authentication pipeline stages (disabled by default)
+     */
+    private ObservationsProperties observations = new ObservationsProperties();
+
+    /**
+     * Cache for successful JWT authentications: a token sent many times is parsed, decoded and validated only once. The decoded JWT is cached, and turned
+     * into an Authentication for each request. Entries are kept until the token expires (or the time-to-live is reached, if one is set).
+     */
+    @Data
+    public static class AuthenticationCacheProperties {
+
+        /**
+         * Whether to cache the authentications built from JWTs
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of cached JWTs. When exceeded, the oldest entries are evicted first.
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Optional cap on how long a JWT is cached (by default, it is cached until the token expires)
+         */
+        private Optional<Duration> timeToLive = Optional.empty();
+    }
+
+    /**
+     * Cache for opaque tokens introspection: active tokens are remembered until they expire, inactive ones for a short time, and concurrent introspections of
+     * the same token result in a single call to the authorization server.
+     */
+    @Data
+    public static class IntrospectionCacheProperties {
+
+        /**
+         * Whether to cache the results of opaque tokens introspection
+         */
+        private boolean enabled = false;
+
+        /**
+         * Maximum number of cached introspection results. When exceeded, the oldest entries are evicted first.
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * Optional cap on how long an active token introspection is cached (by default, it is cached until the introspected "exp"). Introspection results
+         * without "exp" are cached only when this is set.
+         */
+        private Optional<Duration> timeToLive = Optional.empty();
+
+        /**
+         * How long an inactive token is remembered
+         */
+        private Duration negativeTimeToLive = Duration.ofSeconds(10);
+
+        /**
+         * Estimated size above which the attributes of an active token are not cached (it is introspected each time). With max-size, this bounds the memory
+         * used by the cache.
+         */
+        private DataSize maxAttributesWeight = DataSize.ofKilobytes(16);
+    }
+
+    /**
+     * The default JWT authentication manager resolver creates an authentication manager (and a JWT decoder with its JWK set cache) for each issuer it receives
+     * tokens from. When issuers are dynamic (one realm per customer, for instance), these properties keep the number of live authentication managers bounded.
+     */
+    @Data
+    public static class AuthenticationManagersProperties {
+
+        /**
+         * Maximum number of issuers with a live authentication manager. When exceeded, the least recently used is evicted.
+         */
+        private int maxSize = 1_000;
+
+        /**
+         * Optional delay after which the authentication manager of an issuer which didn't emit any token is evicted
+         */
+        private Optional<Duration> idleTimeout = Optional.empty();
+    }
+
+    /**
+     * When enabled, the JWK sets of all the configured OpenID Providers are retrieved at startup (after OpenID configuration discovery for the providers
+     * defined with an issuer URI only) and then refreshed in the background. Requests never wait for a JWK set download: a token signed with an unknown key is
+     * rejected and triggers an early background refresh. When spring-addons-starter-rest is on the class-path, downloads go through its proxy configuration
+     * (com.c4-soft.springaddons.rest.proxy), otherwise through the JVM one.
+     */
+    @Data
+    public static class JwkSetPrefetchProperties {
+
+        /**
+         * Whether to prefetch and refresh JWK sets in the background
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay between two refreshes of a JWK set
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * Minimum delay between two refreshes triggered by a token signed with an unknown key (or by a failed refresh)
+         */
+        private Duration minRefreshInterval = Duration.ofSeconds(10);
+
+        /**
+         * Timeout for establishing connections to the OpenID Providers (OpenID configuration discovery and JWK set download)
+         */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        /**
+         * Timeout for reading the OpenID configuration and JWK set responses
+         */
+        private Duration readTimeout = Duration.ofSeconds(5);
+    }
+
+    /**
+     * When enabled (and an ObservationRegistry bean is available, as provided by Spring Boot actuator), the stages of the authentication pipeline (token
+     * parsing, OpenID Provider properties resolution, decoder creation, token decoding, authorities mapping and principal building) are observed as
+     * "spring-addons.authentication" observations tagged with the stage, the issuer and the outcome.
+     */
+    @Data
+    public static class ObservationsProperties {
+
+        /**
+         * Whether to observe the stages of the authentication pipeline
+         */
+        private boolean enabled = false;
+    }
+
 }
@@ -0,0 +1,22 @@
+package com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean;
+
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+
+public class IsCorsPreflightCacheEnabledCondition extends AllNestedConditions {
+
+	IsCorsPreflightCacheEnabledCondition() {
+		super(ConfigurationPhase.REGISTER_BEAN);
+	}
+
+	@SuppressWarnings("removal")
+	@Conditional(BackwardCompatibleCorsPropertiesCondition.class)
+	static class HasCorsProperties {
+	}
+
+	@ConditionalOnProperty(prefix = "com.c4-soft.springaddons.oidc.cors-preflight-cache", name = "enabled", matchIfMissing = false)
+	static class IsCorsPreflightCacheEnabled {
+	}
+
+}
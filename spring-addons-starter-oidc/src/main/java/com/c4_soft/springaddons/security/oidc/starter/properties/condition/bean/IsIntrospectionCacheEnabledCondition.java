@@ -0,0 +1,21 @@
+package com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean;
+
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Conditional;
+
+public class IsIntrospectionCacheEnabledCondition extends AllNestedConditions {
+
+	IsIntrospectionCacheEnabledCondition() {
+		super(ConfigurationPhase.REGISTER_BEAN);
+	}
+
+	@Conditional(IsIntrospectingResourceServerCondition.class)
+	static class IsIntrospectingResourceServer {
+	}
+
+	@ConditionalOnProperty(prefix = "com.c4-soft.springaddons.oidc.resourceserver.introspection-cache", name = "enabled", matchIfMissing = false)
+	static class IsIntrospectionCacheEnabled {
+	}
+
+}
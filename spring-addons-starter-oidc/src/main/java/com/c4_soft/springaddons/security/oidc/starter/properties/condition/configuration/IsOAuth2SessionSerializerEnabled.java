@@ -0,0 +1,16 @@
+package com.c4_soft.springaddons.security.oidc.starter.properties.condition.configuration;
+
+import org.springframework.boot.autoconfigure.condition.AllNestedConditions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+public class IsOAuth2SessionSerializerEnabled extends AllNestedConditions {
+
+	public IsOAuth2SessionSerializerEnabled() {
+		super(ConfigurationPhase.PARSE_CONFIGURATION);
+	}
+
+	@ConditionalOnProperty(prefix = "com.c4-soft.springaddons.oidc.client.session-serializer", name = "enabled", matchIfMissing = false)
+	static class IsSessionSerializerEnabled {
+	}
+
+}
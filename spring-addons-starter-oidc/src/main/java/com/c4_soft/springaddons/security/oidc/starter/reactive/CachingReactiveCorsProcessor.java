@@ -0,0 +1,83 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive;
+
+import java.util.ArrayList;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsProcessor;
+import org.springframework.web.cors.reactive.CorsUtils;
+import org.springframework.web.cors.reactive.DefaultCorsProcessor;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache.Decision;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache.Key;
+
+/**
+ * <p>
+ * A reactive {@link CorsProcessor} answering pre-flight requests from a {@link CorsPreflightCache}: the first pre-flight with a given path configuration,
+ * origin, requested method and requested headers is processed by the delegate (a {@link DefaultCorsProcessor} by default) and the next ones are answered with
+ * the same status and CORS headers, without evaluating the origin patterns, methods and headers again.
+ * </p>
+ * <p>
+ * Actual (non pre-flight) CORS requests are always processed by the delegate.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class CachingReactiveCorsProcessor implements CorsProcessor {
+    private final CorsProcessor delegate;
+    private final CorsPreflightCache cache;
+
+    public CachingReactiveCorsProcessor(CorsPreflightCache cache) {
+        this(new DefaultCorsProcessor(), cache);
+    }
+
+    public CachingReactiveCorsProcessor(CorsProcessor delegate, CorsPreflightCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean process(@Nullable CorsConfiguration config, ServerWebExchange exchange) {
+        final var request = exchange.getRequest();
+        final var responseHeaders = exchange.getResponse().getHeaders();
+        if (config == null || !CorsUtils.isPreFlightRequest(request) || responseHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN) != null) {
+            return delegate.process(config, exchange);
+        }
+
+        final var requestHeaders = request.getHeaders();
+        final var key = new Key(
+            config,
+            requestHeaders.getOrigin(),
+            requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD),
+            requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS));
+        final var cached = cache.get(key);
+        if (cached != null) {
+            return replay(cached, exchange);
+        }
+
+        final var varyBefore = new ArrayList<>(responseHeaders.getOrEmpty(HttpHeaders.VARY));
+        final var allowed = delegate.process(config, exchange);
+        cache.put(key, Decision.of(allowed, varyBefore, responseHeaders));
+        return allowed;
+    }
+
+    private static boolean replay(Decision decision, ServerWebExchange exchange) {
+        final var responseHeaders = exchange.getResponse().getHeaders();
+        final var vary = new ArrayList<>(responseHeaders.getOrEmpty(HttpHeaders.VARY));
+        decision.headers().forEach((name, values) -> {
+            if (HttpHeaders.VARY.equalsIgnoreCase(name)) {
+                values.stream().filter(value -> !vary.contains(value)).forEach(value -> responseHeaders.add(HttpHeaders.VARY, value));
+            } else {
+                responseHeaders.addAll(name, values);
+            }
+        });
+        if (!decision.allowed()) {
+            exchange.getResponse().setStatusCode(HttpStatus.FORBIDDEN);
+        }
+        return decision.allowed();
+    }
+}
@@ -16,11 +16,14 @@ import org.springframework.security.web.server.csrf.CookieServerCsrfTokenReposit
 import org.springframework.security.web.server.csrf.CsrfToken;
 import org.springframework.security.web.server.csrf.ServerCsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.server.csrf.XorServerCsrfTokenRequestAttributeHandler;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.reactive.CorsWebFilter;
 import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.c4_soft.springaddons.security.oidc.starter.PathPatternTrie;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.CorsProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.Csrf;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
@@ -106,20 +109,34 @@ public class ReactiveConfigurationSupport {
             http.anonymous(withDefaults());
         }
 
-        if (permitAll.size() > 0) {
-            http.authorizeExchange(authorizeExchange -> authorizeExchange.pathMatchers(permitAll.toArray(new String[] {})).permitAll());
-        }
-
-        if (permittedCorsOptions.size() > 0) {
+        // permit-all and CORS pre-flight paths are compiled into a single matcher, evaluated in one walk down the request path
+        final var permitted = new PathPatternTrie().addAll(permitAll, null).addAll(permittedCorsOptions, HttpMethod.OPTIONS);
+        if (!permitted.isEmpty()) {
             http
                 .authorizeExchange(
-                    authorizeExchange -> authorizeExchange.pathMatchers(HttpMethod.OPTIONS, permittedCorsOptions.toArray(new String[] {})).permitAll());
+                    authorizeExchange -> authorizeExchange
+                        .matchers(
+                            exchange -> permitted
+                                .matches(exchange.getRequest().getPath().pathWithinApplication().value(), exchange.getRequest().getMethod().name())
+                                    ? MatchResult.match()
+                                    : MatchResult.notMatch())
+                        .permitAll());
         }
 
         return http;
     }
 
     public static CorsWebFilter getCorsFilterBean(List<CorsProperties> corsProperties) {
+        return getCorsFilterBean(corsProperties, Optional.empty());
+    }
+
+    /**
+     * @param corsProperties the CORS configuration for each path
+     * @param preflightCache if present, pre-flight requests are answered from this cache when a request with the same path configuration, origin, requested
+     *            method and requested headers was already processed
+     * @return a CORS filter for the given configuration
+     */
+    public static CorsWebFilter getCorsFilterBean(List<CorsProperties> corsProperties, Optional<CorsPreflightCache> preflightCache) {
         final var source = new UrlBasedCorsConfigurationSource();
         for (final var corsProps : corsProperties) {
             final var configuration = new CorsConfiguration();
@@ -131,7 +148,7 @@ public class ReactiveConfigurationSupport {
             configuration.setMaxAge(corsProps.getMaxAge());
             source.registerCorsConfiguration(corsProps.getPath(), configuration);
         }
-        return new CorsWebFilter(source);
+        return preflightCache.map(cache -> new CorsWebFilter(source, new CachingReactiveCorsProcessor(cache))).orElseGet(() -> new CorsWebFilter(source));
     }
 
     public static ServerHttpSecurity configureState(ServerHttpSecurity http, boolean isStatless, Csrf csrfEnum) {
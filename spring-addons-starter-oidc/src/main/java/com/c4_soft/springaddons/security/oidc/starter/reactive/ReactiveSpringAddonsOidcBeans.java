@@ -1,5 +1,7 @@
 package com.c4_soft.springaddons.security.oidc.starter.reactive;
 
+import java.time.Clock;
+
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -10,7 +12,9 @@ import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderProp
 import com.c4_soft.springaddons.security.oidc.starter.ClaimSetAuthoritiesConverter;
 import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsCorsPreflightCacheEnabledCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.configuration.IsNotServlet;
 
 import lombok.extern.slf4j.Slf4j;
@@ -42,4 +46,16 @@ public class ReactiveSpringAddonsOidcBeans {
     ClaimSetAuthoritiesConverter authoritiesConverter(OpenidProviderPropertiesResolver authoritiesMappingPropertiesProvider) {
         return new ConfigurableClaimSetAuthoritiesConverter(authoritiesMappingPropertiesProvider);
     }
+
+    /**
+     * @param addonsProperties spring-addons configuration properties
+     * @return the cache for the CORS filter decisions about pre-flight requests
+     */
+    @Conditional(IsCorsPreflightCacheEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    CorsPreflightCache corsPreflightCache(SpringAddonsOidcProperties addonsProperties) {
+        final var cacheProperties = addonsProperties.getCorsPreflightCache();
+        return new CorsPreflightCache(cacheProperties.getMaxSize(), cacheProperties.getTimeToLive(), Clock.systemUTC());
+    }
 }
@@ -1,33 +1,78 @@
 package com.c4_soft.springaddons.security.oidc.starter.reactive.client;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.web.server.WebSession;
 
+/**
+ * <p>
+ * Keeps track, in the web session, of the principal authenticated with each client registration (a user can be logged in with several OpenID Providers at
+ * the same time).
+ * </p>
+ * <p>
+ * Each session holds its own {@link ConcurrentMap}, created atomically in the session attributes: there is no global lock. The session attribute is put
+ * again (so that distributed session stores persist the change) only when a principal was actually added, replaced or removed.
+ * </p>
+ */
 public class ReactiveMultiTenantOAuth2PrincipalSupport {
 	private static final String OAUTH2_USERS_KEY = "com.c4-soft.spring-addons.oauth2.client.principal-by-client-registration-id";
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * @param session the web session
+	 * @return a read-only view of the principals by client registration ID
+	 */
 	public static Map<String, Authentication> getAuthenticationsByClientRegistrationId(WebSession session) {
-		return Optional.ofNullable((Map<String, Authentication>) session.getAttribute(OAUTH2_USERS_KEY)).orElse(new HashMap<String, Authentication>());
+		return getIdentities(session).map(Collections::unmodifiableMap).orElse(Map.of());
 	}
 
 	public static Optional<Authentication> getAuthentication(WebSession session, String clientRegistrationId) {
-		return Optional.ofNullable(getAuthenticationsByClientRegistrationId(session).get(clientRegistrationId));
+		return getIdentities(session).map(identities -> identities.get(clientRegistrationId));
+	}
+
+	public static void add(WebSession session, String clientRegistrationId, Authentication auth) {
+		final var identities = getOrCreateIdentities(session);
+		final var previous = identities.put(clientRegistrationId, auth);
+		if (!Objects.equals(previous, auth)) {
+			session.getAttributes().put(OAUTH2_USERS_KEY, identities);
+		}
 	}
 
-	public static synchronized void add(WebSession session, String clientRegistrationId, Authentication auth) {
-		final var identities = getAuthenticationsByClientRegistrationId(session);
-		identities.put(clientRegistrationId, auth);
-		session.getAttributes().put(OAUTH2_USERS_KEY, identities);
+	public static void remove(WebSession session, String clientRegistrationId) {
+		getIdentities(session).ifPresent(identities -> {
+			if (identities.remove(clientRegistrationId) != null) {
+				session.getAttributes().put(OAUTH2_USERS_KEY, identities);
+			}
+		});
 	}
 
-	public static synchronized void remove(WebSession session, String clientRegistrationId) {
-		final var identities = getAuthenticationsByClientRegistrationId(session);
-		identities.remove(clientRegistrationId);
-		session.getAttributes().put(OAUTH2_USERS_KEY, identities);
+	@SuppressWarnings("unchecked")
+	private static Optional<ConcurrentMap<String, Authentication>> getIdentities(WebSession session) {
+		final var attribute = session.getAttributes().get(OAUTH2_USERS_KEY);
+		if (attribute == null || attribute instanceof ConcurrentMap) {
+			return Optional.ofNullable((ConcurrentMap<String, Authentication>) attribute);
+		}
+		// attribute stored by a previous version (plain HashMap): migrate it
+		return Optional.of(getOrCreateIdentities(session));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ConcurrentMap<String, Authentication> getOrCreateIdentities(WebSession session) {
+		// WebSession attributes are a ConcurrentMap in the default implementation: compute is atomic for a given session
+		return (ConcurrentMap<String, Authentication>) session.getAttributes().compute(OAUTH2_USERS_KEY, (key, attribute) -> {
+			if (attribute instanceof ConcurrentMap) {
+				return attribute;
+			}
+			final var identities = new ConcurrentHashMap<String, Authentication>();
+			if (attribute instanceof Map legacy) {
+				identities.putAll(legacy);
+			}
+			return identities;
+		});
 	}
-}
\ No newline at end of file
+}
@@ -37,6 +37,7 @@ import com.c4_soft.springaddons.security.oidc.starter.ClaimSetAuthoritiesConvert
 import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
 import com.c4_soft.springaddons.security.oidc.starter.LogoutRequestUriBuilder;
 import com.c4_soft.springaddons.security.oidc.starter.SpringAddonsOAuth2LogoutRequestUriBuilder;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.CookieCsrfCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultAuthenticationFailureHandlerCondition;
@@ -299,11 +300,11 @@ public class ReactiveSpringAddonsOidcClientWithLoginBeans {
      */
     @Conditional(DefaultCorsWebFilterCondition.class)
     @Bean
-    CorsWebFilter corsFilter(SpringAddonsOidcProperties addonsProperties) {
+    CorsWebFilter corsFilter(SpringAddonsOidcProperties addonsProperties, Optional<CorsPreflightCache> corsPreflightCache) {
         final var corsProps = new ArrayList<>(addonsProperties.getCors());
         final var deprecatedClientCorsProps = addonsProperties.getClient().getCors();
         corsProps.addAll(deprecatedClientCorsProps);
 
-        return ReactiveConfigurationSupport.getCorsFilterBean(corsProps);
+        return ReactiveConfigurationSupport.getCorsFilterBean(corsProps, corsPreflightCache);
     }
 }
\ No newline at end of file
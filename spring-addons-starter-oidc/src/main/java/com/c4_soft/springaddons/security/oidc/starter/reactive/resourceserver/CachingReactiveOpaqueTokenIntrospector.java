@@ -0,0 +1,55 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * A {@link ReactiveOpaqueTokenIntrospector} decorator saving round-trips to the authorization server:
+ * </p>
+ * <ul>
+ * <li>introspection results are stored in an {@link OpaqueTokenIntrospectionCache} (until the token expires for active ones, for a short time for inactive
+ * ones)</li>
+ * <li>concurrent introspections of the same token are coalesced: the delegate is subscribed once and all the subscribers get its result</li>
+ * </ul>
+ * <p>
+ * Errors other than {@link BadOpaqueTokenException} (authorization server unreachable, for instance) are not cached.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class CachingReactiveOpaqueTokenIntrospector implements ReactiveOpaqueTokenIntrospector {
+    private final ReactiveOpaqueTokenIntrospector delegate;
+    private final OpaqueTokenIntrospectionCache cache;
+    private final Map<String, Mono<OAuth2AuthenticatedPrincipal>> introspections = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<OAuth2AuthenticatedPrincipal> introspect(String token) {
+        return Mono.defer(() -> {
+            final var key = OpaqueTokenIntrospectionCache.key(token);
+            final var cached = cache.get(key);
+            if (cached != null) {
+                return cached.map(Mono::just).orElseGet(() -> Mono.error(new BadOpaqueTokenException("Provided token isn't active")));
+            }
+            return introspections
+                .computeIfAbsent(
+                    key,
+                    k -> delegate
+                        .introspect(token)
+                        .doOnNext(principal -> cache.putActive(k, principal))
+                        .doOnError(BadOpaqueTokenException.class, e -> cache.putInactive(k))
+                        .doFinally(signal -> introspections.remove(k))
+                        .cache());
+        });
+    }
+}
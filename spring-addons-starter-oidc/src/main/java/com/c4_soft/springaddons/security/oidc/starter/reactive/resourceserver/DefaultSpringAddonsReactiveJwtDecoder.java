@@ -0,0 +1,122 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * A {@link SpringAddonsReactiveJwtDecoder} behaving like {@link NimbusReactiveJwtDecoder}, but which can also process a {@link JWT} that was already parsed.
+ * </p>
+ * <p>
+ * Signature verification is delegated to a {@link Converter Converter&lt;JWT, Mono&lt;JWTClaimsSet&gt;&gt;}, like for {@link NimbusReactiveJwtDecoder}.
+ * {@link RemoteJwkSetReactiveJwtProcessor} is the one used by {@link DefaultSpringAddonsReactiveJwtDecoderFactory}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class DefaultSpringAddonsReactiveJwtDecoder implements SpringAddonsReactiveJwtDecoder {
+    private static final String DECODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to decode the Jwt: %s";
+
+    private final Converter<JWT, Mono<JWTClaimsSet>> jwtProcessor;
+
+    private Converter<Map<String, Object>, Map<String, Object>> claimSetConverter = MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+
+    private OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+
+    public DefaultSpringAddonsReactiveJwtDecoder(Converter<JWT, Mono<JWTClaimsSet>> jwtProcessor) {
+        Assert.notNull(jwtProcessor, "jwtProcessor cannot be null");
+        this.jwtProcessor = jwtProcessor;
+    }
+
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> jwtValidator) {
+        Assert.notNull(jwtValidator, "jwtValidator cannot be null");
+        this.jwtValidator = jwtValidator;
+    }
+
+    public void setClaimSetConverter(Converter<Map<String, Object>, Map<String, Object>> claimSetConverter) {
+        Assert.notNull(claimSetConverter, "claimSetConverter cannot be null");
+        this.claimSetConverter = claimSetConverter;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        final JWT jwt;
+        try {
+            jwt = JWTParser.parse(token);
+        } catch (Exception ex) {
+            return Mono.error(new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex));
+        }
+        return decode(jwt);
+    }
+
+    @Override
+    public Mono<Jwt> decode(JWT jwt) {
+        if (jwt instanceof PlainJWT) {
+            return Mono.error(new BadJwtException("Unsupported algorithm of " + jwt.getHeader().getAlgorithm()));
+        }
+        try {
+            // @formatter:off
+            return jwtProcessor.convert(jwt)
+                    .map(jwtClaimsSet -> createJwt(jwt, jwtClaimsSet))
+                    .map(this::validateJwt)
+                    .onErrorMap(
+                            e -> !(e instanceof IllegalStateException) && !(e instanceof JwtException),
+                            e -> new JwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, e.getMessage()), e));
+            // @formatter:on
+        } catch (JwtException ex) {
+            return Mono.error(ex);
+        } catch (RuntimeException ex) {
+            return Mono.error(new JwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex));
+        }
+    }
+
+    private Jwt createJwt(JWT parsedJwt, JWTClaimsSet jwtClaimsSet) {
+        try {
+            final Map<String, Object> headers = new LinkedHashMap<>(parsedJwt.getHeader().toJSONObject());
+            final Map<String, Object> claims = claimSetConverter.convert(jwtClaimsSet.getClaims());
+            return Jwt.withTokenValue(parsedJwt.getParsedString()).headers(h -> h.putAll(headers)).claims(c -> c.putAll(claims)).build();
+        } catch (Exception ex) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex);
+        }
+    }
+
+    private Jwt validateJwt(Jwt jwt) {
+        final var result = jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            final Collection<OAuth2Error> errors = result.getErrors();
+            throw new JwtValidationException(getJwtValidationExceptionMessage(errors), errors);
+        }
+        return jwt;
+    }
+
+    private static String getJwtValidationExceptionMessage(Collection<OAuth2Error> errors) {
+        for (OAuth2Error oAuth2Error : errors) {
+            if (StringUtils.hasLength(oAuth2Error.getDescription())) {
+                return String.format(DECODING_ERROR_MESSAGE_TEMPLATE, oAuth2Error.getDescription());
+            }
+        }
+        return "Unable to validate Jwt";
+    }
+}
@@ -4,6 +4,7 @@ import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.core.convert.converter.Converter;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.core.OAuth2TokenValidator;
@@ -11,14 +12,19 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimNames;
 import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtValidators;
-import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
 import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.PrefetchedJwkSet;
+import com.c4_soft.springaddons.security.oidc.starter.PrefetchedJwkSets;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
 
 import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
 
 /**
  * <p>
@@ -28,18 +34,40 @@ import lombok.RequiredArgsConstructor;
  * Uses {@link OpenidProviderPropertiesResolver} to resolve the matching OpenID Provider configuration properties and throws an exception if none are found (the
  * token issuer is not trusted).
  * </p>
+ * <p>
+ * The decoders it builds are {@link DefaultSpringAddonsReactiveJwtDecoder} instances: {@link ReactiveJWTClaimsSetAuthenticationManager} can hand them the
+ * token it already parsed to resolve the issuer.
+ * </p>
+ * <p>
+            prefetchedJwkSets
+                .flatMap(jwkSets -> jwkSets.find(jwkSetUri, issuer))
+                .map(DefaultSpringAddonsReactiveJwtDecoderFactory::prefetchedJwtProcessor)
+                .orElseGet(() -> remoteJwtProcessor(jwkSetUri, issuer)));
  */
 @RequiredArgsConstructor
 public class DefaultSpringAddonsReactiveJwtDecoderFactory implements SpringAddonsReactiveJwtDecoderFactory {
+    private final WebClient webClient;
+    private final Optional<PrefetchedJwkSets> prefetchedJwkSets;
+
+    public DefaultSpringAddonsReactiveJwtDecoderFactory() {
+        this(Optional.empty());
+    }
+
+    public DefaultSpringAddonsReactiveJwtDecoderFactory(Optional<PrefetchedJwkSets> prefetchedJwkSets) {
+        this(WebClient.create(), prefetchedJwkSets);
+    }
 
     @Override
     public ReactiveJwtDecoder create(Optional<URI> jwkSetUri, Optional<URI> issuer, Optional<String> audience) {
+        if (jwkSetUri.isEmpty() && issuer.isEmpty()) {
+            throw new InvalidReactiveJwtDecoderCreationParametersException();
+        }
 
-        final var decoder = jwkSetUri.isPresent()
-            ? NimbusReactiveJwtDecoder.withJwkSetUri(jwkSetUri.get().toString()).build()
-            : NimbusReactiveJwtDecoder
-                .withIssuerLocation(issuer.orElseThrow(() -> new InvalidReactiveJwtDecoderCreationParametersException()).toString())
-                .build();
+        final var decoder = new DefaultSpringAddonsReactiveJwtDecoder(
+            prefetchedJwkSets
+                .flatMap(jwkSets -> jwkSets.find(jwkSetUri, issuer))
+                .map(DefaultSpringAddonsReactiveJwtDecoderFactory::prefetchedJwtProcessor)
+                .orElseGet(() -> remoteJwtProcessor(jwkSetUri, issuer)));
 
         final OAuth2TokenValidator<Jwt> defaultValidator = issuer
             .map(URI::toString)
@@ -61,6 +89,17 @@ public class DefaultSpringAddonsReactiveJwtDecoderFactory implements SpringAddon
         return decoder;
     }
 
+    private Converter<JWT, Mono<JWTClaimsSet>> remoteJwtProcessor(Optional<URI> jwkSetUri, Optional<URI> issuer) {
+        return jwkSetUri.isPresent()
+            ? RemoteJwkSetReactiveJwtProcessor.withJwkSetUri(jwkSetUri.get(), webClient)
+            : RemoteJwkSetReactiveJwtProcessor.withIssuerLocation(issuer.get(), webClient);
+    }
+
+    private static Converter<JWT, Mono<JWTClaimsSet>> prefetchedJwtProcessor(PrefetchedJwkSet jwkSet) {
+        // keys are already in memory: signature verification does not block on I/O
+        return jwt -> Mono.fromCallable(() -> jwkSet.process(jwt));
+    }
+
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     static class InvalidReactiveJwtDecoderCreationParametersException extends RuntimeException {
         private static final long serialVersionUID = 3575615882241560832L;
@@ -0,0 +1,39 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
+
+import com.c4_soft.springaddons.security.oidc.starter.jfr.IntrospectionEvent;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ReactiveOpaqueTokenIntrospector} decorator recording an {@link IntrospectionEvent} JFR event for each call to the delegate (from subscription to
+ * completion). Wrapped by the {@link CachingReactiveOpaqueTokenIntrospector} when the introspection cache is enabled, so that only the requests actually sent
+ * to the authorization server are recorded.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class FlightRecordingReactiveOpaqueTokenIntrospector implements ReactiveOpaqueTokenIntrospector {
+    private final ReactiveOpaqueTokenIntrospector delegate;
+
+    @Override
+    public Mono<OAuth2AuthenticatedPrincipal> introspect(String token) {
+        return Mono.defer(() -> {
+            final var event = new IntrospectionEvent();
+            event.begin();
+            return delegate
+                .introspect(token)
+                .doOnSuccess(principal -> commit(event, IntrospectionEvent.ACTIVE))
+                .doOnError(e -> commit(event, e instanceof BadOpaqueTokenException ? IntrospectionEvent.INACTIVE : IntrospectionEvent.ERROR));
+        });
+    }
+
+    private static void commit(IntrospectionEvent event, String result) {
+        event.setResult(result);
+        event.commit();
+    }
+}
@@ -2,9 +2,7 @@ package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
 
 import java.net.URI;
 import java.text.ParseException;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
@@ -14,18 +12,25 @@ import org.springframework.security.authentication.ReactiveAuthenticationManager
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
 import org.springframework.util.Assert;
 
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.ParsedBearerTokenAuthenticationToken;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.jfr.TokenAuthenticationEvent;
 import com.c4_soft.springaddons.security.oidc.starter.properties.NotAConfiguredOpenidProviderException;
 import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager.JWTClaimsSetAuthenticationManagerResolver;
+import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.JWTParser;
 
-import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
 
 /**
@@ -37,40 +42,135 @@ import reactor.core.publisher.Mono;
  * {@link DefaultSpringAddonsReactiveJwtDecoderFactory}, the default {@link SpringAddonsReactiveJwtDecoderFactory} throws an exception if the OpenID Provider
  * configuration properties could not be resolved from the JWT claims.
  * </p>
+ * <p>
+ * The token is parsed only once: when the decoder is a {@link SpringAddonsReactiveJwtDecoder} (which is the case of the ones built by
+ * {@link DefaultSpringAddonsReactiveJwtDecoderFactory}), the {@link JWT} parsed here to resolve the issuer is passed to it with a
+ * {@link ParsedBearerTokenAuthenticationToken}.
+ * </p>
+ * <p>
+ * When a {@link JwtAuthenticationCache} is provided, the JWTs of successful authentications are cached until the token expires and a token already
+ * authenticated is neither parsed nor decoded again. Only the conversion to an {@link AbstractAuthenticationToken} is run for each request, so that
+ * authentications are never shared between requests.
+ * </p>
+ * <p>
+ * When {@link AuthenticationObservations} are enabled, token parsing, OpenID Provider properties resolution, decoder creation and token decoding are
+ * observed.
+ * </p>
+ * <p>
+ * Each authentication is recorded as a {@link TokenAuthenticationEvent} JFR event (issuer, authentication cache hit or miss, and success).
+ * </p>
  *
  * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
  */
 public class ReactiveJWTClaimsSetAuthenticationManager implements ReactiveAuthenticationManager {
 
     private final ReactiveJWTClaimsSetAuthenticationManagerResolver jwtAuthenticationManagerResolver;
+    private final Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter;
+    private final Optional<JwtAuthenticationCache> authenticationCache;
+    private final AuthenticationObservations observations;
 
     public ReactiveJWTClaimsSetAuthenticationManager(
             OpenidProviderPropertiesResolver opPropertiesResolver,
             SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
             Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter) {
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, Optional.empty(), ReactiveJwtAuthenticationManagerRegistry.unbounded());
+    }
+
+    public ReactiveJWTClaimsSetAuthenticationManager(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            ReactiveJwtAuthenticationManagerRegistry authenticationManagers) {
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, authenticationCache, authenticationManagers, AuthenticationObservations.DISABLED);
+    }
+
+    public ReactiveJWTClaimsSetAuthenticationManager(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            ReactiveJwtAuthenticationManagerRegistry authenticationManagers,
+            AuthenticationObservations observations) {
         this.jwtAuthenticationManagerResolver = new ReactiveJWTClaimsSetAuthenticationManagerResolver(
             opPropertiesResolver,
             jwtDecoderFactory,
-            jwtAuthenticationConverter);
+            jwtAuthenticationConverter,
+            authenticationManagers,
+            observations);
+        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+        this.authenticationCache = authenticationCache;
+        this.observations = observations;
     }
 
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) throws AuthenticationException {
         Assert.isTrue(authentication instanceof BearerTokenAuthenticationToken, "Authentication must be of type BearerTokenAuthenticationToken");
-        JWTClaimsSet jwtClaimSet;
+        final var event = new TokenAuthenticationEvent();
+        event.begin();
         try {
-            jwtClaimSet = JWTParser.parse(((BearerTokenAuthenticationToken) authentication).getToken()).getJWTClaimsSet();
-        } catch (ParseException e) {
-            throw new InvalidBearerTokenException("Could not retrieve JWT claim-set");
+            return authenticate((BearerTokenAuthenticationToken) authentication, event).doOnSuccess(result -> {
+                event.setSuccess(true);
+                event.commit();
+            }).doOnError(e -> event.commit());
+        } catch (RuntimeException e) {
+            event.commit();
+            throw e;
         }
+    }
+
+    private Mono<Authentication> authenticate(BearerTokenAuthenticationToken bearer, TokenAuthenticationEvent event) {
+        final var cacheKey = authenticationCache.map(cache -> JwtAuthenticationCache.key(bearer.getToken()));
+        final var cached = cacheKey.map(key -> authenticationCache.get().get(key));
+        if (cached.isPresent()) {
+            event.setCache(TokenAuthenticationEvent.CACHE_HIT);
+            return jwtAuthenticationConverter.convert(cached.get()).cast(Authentication.class);
+        }
+        event.setCache(cacheKey.isPresent() ? TokenAuthenticationEvent.CACHE_MISS : TokenAuthenticationEvent.CACHE_DISABLED);
+
+        final var parsed = observations.observe(Stage.TOKEN_PARSING, null, () -> ParsedJwt.parse(bearer.getToken()));
+        final var jwtClaimSet = parsed.claims();
+        event.setIssuer(jwtClaimSet.getIssuer());
         return this.jwtAuthenticationManagerResolver.resolve(jwtClaimSet).flatMap(authenticationManager -> {
             if (authenticationManager == null) {
                 throw new InvalidBearerTokenException("Could not resolve the Authentication manager for the provided JWT");
             }
-            return authenticationManager.authenticate(authentication);
+            final var request = new ParsedBearerTokenAuthenticationToken(bearer, parsed.jwt());
+            return authenticationManager.authenticate(request).doOnNext(result -> {
+                if (result.isAuthenticated() && jwtClaimSet.getExpirationTime() != null) {
+                    cacheKey
+                        .ifPresent(
+                            key -> decodedJwt(request, result)
+                                .ifPresent(jwt -> authenticationCache.get().put(key, jwt, jwtClaimSet.getExpirationTime().toInstant())));
+                }
+            });
         });
     }
 
+    /**
+     * @return the JWT decoded by a spring-addons authentication manager, or the one held by a JWT authentication, if any
+     */
+    static Optional<Jwt> decodedJwt(ParsedBearerTokenAuthenticationToken request, Authentication result) {
+        if (request.getDecodedJwt() != null) {
+            return Optional.of(request.getDecodedJwt());
+        }
+        if (result instanceof AbstractOAuth2TokenAuthenticationToken<?> tokenAuthentication && tokenAuthentication.getToken() instanceof Jwt jwt) {
+            return Optional.of(jwt);
+        }
+        return Optional.empty();
+    }
+
+    static record ParsedJwt(JWT jwt, JWTClaimsSet claims) {
+        static ParsedJwt parse(String token) {
+            try {
+                final var jwt = JWTParser.parse(token);
+                return new ParsedJwt(jwt, jwt.getJWTClaimsSet());
+            } catch (ParseException e) {
+                throw new InvalidBearerTokenException("Could not retrieve JWT claim-set");
+            }
+        }
+    }
+
     /**
      * <p>
      * An {@link ReactiveAuthenticationManagerResolver} for resource servers using JWT decoder(s). It relies on a {@link SpringAddonsReactiveJwtDecoderFactory}
@@ -83,33 +183,92 @@ public class ReactiveJWTClaimsSetAuthenticationManager implements ReactiveAuthen
      *
      * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
      */
-    @RequiredArgsConstructor
     public static class ReactiveJWTClaimsSetAuthenticationManagerResolver implements ReactiveAuthenticationManagerResolver<JWTClaimsSet> {
 
         private final OpenidProviderPropertiesResolver opPropertiesResolver;
         private final SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory;
         private final Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter;
-        private final Map<String, ReactiveAuthenticationManager> jwtManagers = new ConcurrentHashMap<>();
+        private final ReactiveJwtAuthenticationManagerRegistry jwtManagers;
+        private final AuthenticationObservations observations;
+
+        public ReactiveJWTClaimsSetAuthenticationManagerResolver(
+                OpenidProviderPropertiesResolver opPropertiesResolver,
+                SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+                Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter) {
+            this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, ReactiveJwtAuthenticationManagerRegistry.unbounded());
+        }
+
+        public ReactiveJWTClaimsSetAuthenticationManagerResolver(
+                OpenidProviderPropertiesResolver opPropertiesResolver,
+                SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+                Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+                ReactiveJwtAuthenticationManagerRegistry jwtManagers) {
+            this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, jwtManagers, AuthenticationObservations.DISABLED);
+        }
+
+        public ReactiveJWTClaimsSetAuthenticationManagerResolver(
+                OpenidProviderPropertiesResolver opPropertiesResolver,
+                SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+                Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+                ReactiveJwtAuthenticationManagerRegistry jwtManagers,
+                AuthenticationObservations observations) {
+            this.opPropertiesResolver = opPropertiesResolver;
+            this.jwtDecoderFactory = jwtDecoderFactory;
+            this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+            this.jwtManagers = jwtManagers;
+            this.observations = observations;
+        }
 
         @Override
         public Mono<ReactiveAuthenticationManager> resolve(JWTClaimsSet jwt) {
-            final var issuer = jwt.getIssuer();
-            if (!jwtManagers.containsKey(issuer)) {
-                final var opProperties = opPropertiesResolver
-                    .resolve(jwt.getClaims())
-                    .orElseThrow(() -> new NotAConfiguredOpenidProviderException(jwt.getClaims()));
-
-                final var decoder = jwtDecoderFactory
-                    .create(
-                        Optional.ofNullable(opProperties.getJwkSetUri()),
-                        Optional.ofNullable(URI.create(jwt.getIssuer().toString())),
-                        Optional.ofNullable(opProperties.getAud()));
-
-                var provider = new JwtReactiveAuthenticationManager(decoder);
-                provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
-                jwtManagers.put(issuer, provider::authenticate);
+            final var manager = jwtManagers.computeIfAbsent(jwt.getIssuer(), issuer -> {
+                final var opProperties = observations
+                    .observe(
+                        Stage.OP_PROPERTIES_RESOLUTION,
+                        null,
+                        () -> opPropertiesResolver.resolve(jwt.getClaims()).orElseThrow(() -> new NotAConfiguredOpenidProviderException(jwt.getClaims())));
+
+                final var decoder = observations
+                    .observe(
+                        Stage.DECODER_CREATION,
+                        opProperties.getIss(),
+                        () -> jwtDecoderFactory
+                            .create(
+                                Optional.ofNullable(opProperties.getJwkSetUri()),
+                                Optional.ofNullable(URI.create(issuer)),
+                                Optional.ofNullable(opProperties.getAud())));
+
+                return authenticationManager(observed(decoder, opProperties.getIss()))::authenticate;
+            });
+            return Mono.just(manager);
+        }
+
+        private ReactiveJwtDecoder observed(ReactiveJwtDecoder decoder, URI issuer) {
+            // always decorated: the JFR stage event may be enabled after the decoder creation
+            if (decoder instanceof SpringAddonsReactiveJwtDecoder springAddonsJwtDecoder) {
+                return new SpringAddonsReactiveJwtDecoder() {
+                    @Override
+                    public Mono<Jwt> decode(String token) {
+                        return observations.observeMono(Stage.TOKEN_DECODING, issuer, () -> springAddonsJwtDecoder.decode(token));
+                    }
+
+                    @Override
+                    public Mono<Jwt> decode(JWT jwt) {
+                        return observations.observeMono(Stage.TOKEN_DECODING, issuer, () -> springAddonsJwtDecoder.decode(jwt));
+                    }
+                };
+            }
+            return token -> observations.observeMono(Stage.TOKEN_DECODING, issuer, () -> decoder.decode(token));
+        }
+
+        private ReactiveAuthenticationManager authenticationManager(ReactiveJwtDecoder decoder) {
+            if (decoder instanceof SpringAddonsReactiveJwtDecoder springAddonsJwtDecoder) {
+                // the JWT parsed by ReactiveJWTClaimsSetAuthenticationManager is processed without being parsed again
+                return new SpringAddonsJwtReactiveAuthenticationManager(springAddonsJwtDecoder, jwtAuthenticationConverter);
             }
-            return Mono.just(jwtManagers.get(issuer));
+            final var manager = new JwtReactiveAuthenticationManager(decoder);
+            manager.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+            return manager;
         }
     }
 
@@ -0,0 +1,30 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.IssuerRegistry;
+
+/**
+ * The per-issuer {@link ReactiveAuthenticationManager authentication managers} used by {@link ReactiveJWTClaimsSetAuthenticationManager}, bounded according to
+ * "com.c4-soft.springaddons.oidc.resourceserver.authentication-managers.*"
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class ReactiveJwtAuthenticationManagerRegistry extends IssuerRegistry<ReactiveAuthenticationManager> {
+    public static final String REGISTRY_NAME = "spring-addons.jwt-authentication-managers";
+
+    public ReactiveJwtAuthenticationManagerRegistry(int maxSize, Optional<Duration> idleTimeout, Clock clock) {
+        super(REGISTRY_NAME, maxSize, idleTimeout, clock);
+    }
+
+    /**
+     * @return a registry which never evicts issuers
+     */
+    public static ReactiveJwtAuthenticationManagerRegistry unbounded() {
+        return new ReactiveJwtAuthenticationManagerRegistry(Integer.MAX_VALUE, Optional.empty(), Clock.systemUTC());
+    }
+}
@@ -1,13 +1,13 @@
 package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
 
 import java.nio.charset.Charset;
-import java.time.Instant;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Date;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -28,13 +28,9 @@ import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
-import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
-import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
 import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.introspection.ReactiveOpaqueTokenIntrospector;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -48,7 +44,14 @@ import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 
 import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.PrefetchedJwkSets;
+import com.c4_soft.springaddons.security.oidc.starter.SpringAddonsOpaqueTokenAuthenticationConverter;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.NotAConfiguredOpenidProviderException;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.CookieCsrfCondition;
@@ -57,12 +60,16 @@ import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultJwtAbstractAuthenticationTokenConverterCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultOpaqueTokenAuthenticationConverterCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsIntrospectingResourceServerCondition;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsIntrospectionCacheEnabledCondition;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsJwkSetPrefetchEnabledCondition;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsJwtAuthenticationCacheEnabledCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsJwtDecoderResourceServerCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.configuration.IsNotServlet;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.configuration.IsOidcResourceServerCondition;
 import com.c4_soft.springaddons.security.oidc.starter.reactive.ReactiveConfigurationSupport;
 import com.c4_soft.springaddons.security.oidc.starter.reactive.ReactiveSpringAddonsOidcBeans;
 
+import io.micrometer.observation.ObservationRegistry;
 import reactor.core.publisher.Mono;
 
 /**
@@ -161,6 +168,9 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
      * @param authorizePostProcessor Hook to override access-control rules for all path that are not listed in "permit-all"
      * @param httpPostProcessor Hook to override all or part of HttpSecurity auto-configuration
      * @param introspectionAuthenticationConverter Converts successful introspection result into an {@link Authentication}
+     * @param opaqueTokenIntrospector the instrospector to use
+     * @param introspectionCache optional cache for the introspector (it is then decorated with a {@link CachingReactiveOpaqueTokenIntrospector}). Only the introspections
+     *            missing the cache are recorded as JFR events (see {@link FlightRecordingReactiveOpaqueTokenIntrospector})
      * @param authenticationEntryPoint The {@link AuthenticationEntryPoint} to use (defaults returns 401)
      * @param accessDeniedHandler An optional {@link AccessDeniedHandler} to use instead of Boot default one
      * @return A default {@link SecurityWebFilterChain} for reactive resource-servers with access-token introspection (matches all unmatched routes with lowest
@@ -177,10 +187,12 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
             ResourceServerReactiveHttpSecurityPostProcessor httpPostProcessor,
             ReactiveOpaqueTokenAuthenticationConverter introspectionAuthenticationConverter,
             ReactiveOpaqueTokenIntrospector opaqueTokenIntrospector,
+            Optional<OpaqueTokenIntrospectionCache> introspectionCache,
             ServerAuthenticationEntryPoint authenticationEntryPoint,
             Optional<ServerAccessDeniedHandler> accessDeniedHandler) {
         http.oauth2ResourceServer(server -> server.opaqueToken(ot -> {
-            ot.introspector(opaqueTokenIntrospector);
+            final var recordingIntrospector = new FlightRecordingReactiveOpaqueTokenIntrospector(opaqueTokenIntrospector);
+            ot.introspector(introspectionCache.<ReactiveOpaqueTokenIntrospector>map(cache -> new CachingReactiveOpaqueTokenIntrospector(recordingIntrospector, cache)).orElse(recordingIntrospector));
             ot.authenticationConverter(introspectionAuthenticationConverter);
         }));
 
@@ -220,10 +232,47 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
         return serverHttpSecurity -> serverHttpSecurity;
     }
 
+    /**
+     * Observations of the authentication pipeline stages, enabled with "com.c4-soft.springaddons.oidc.resourceserver.observations.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @param observationRegistry the registry to record observations in (provided by Spring Boot actuator)
+     * @return disabled observations, unless enabled in the properties and a registry is available
+     */
     @ConditionalOnMissingBean
     @Bean
-    SpringAddonsReactiveJwtDecoderFactory springAddonsJwtDecoderFactory() {
-        return new DefaultSpringAddonsReactiveJwtDecoderFactory();
+    AuthenticationObservations authenticationObservations(SpringAddonsOidcProperties addonsProperties, Optional<ObservationRegistry> observationRegistry) {
+        if (!addonsProperties.getResourceserver().getObservations().isEnabled()) {
+            return AuthenticationObservations.DISABLED;
+        }
+        return observationRegistry.map(AuthenticationObservations::new).orElse(AuthenticationObservations.DISABLED);
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    SpringAddonsReactiveJwtDecoderFactory springAddonsJwtDecoderFactory(Optional<PrefetchedJwkSets> prefetchedJwkSets) {
+        return new DefaultSpringAddonsReactiveJwtDecoderFactory(prefetchedJwkSets);
+    }
+
+    /**
+     * Startup retrieval and background refresh of the JWK sets of all the configured OpenID Providers, enabled with
+     * "com.c4-soft.springaddons.oidc.resourceserver.jwk-set-prefetch.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @param beanFactory to get the spring-addons-starter-rest proxy configuration, if it is on the class-path
+     * @return JWK sets for the default JWT decoder factory to use instead of downloading keys when processing requests
+     */
+    @Conditional(IsJwkSetPrefetchEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    PrefetchedJwkSets prefetchedJwkSets(SpringAddonsOidcProperties addonsProperties, BeanFactory beanFactory) {
+        final var prefetchProperties = addonsProperties.getResourceserver().getJwkSetPrefetch();
+        return new PrefetchedJwkSets(
+            addonsProperties.getOps(),
+            prefetchProperties.getRefreshInterval(),
+            prefetchProperties.getMinRefreshInterval(),
+            PrefetchedJwkSets.restClient(prefetchProperties, beanFactory),
+            Clock.systemUTC());
     }
 
     /**
@@ -232,6 +281,9 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
      * @param opPropertiesResolver "com.c4-soft.springaddons.oidc" configuration properties
      * @param jwtDecoderFactory something to build a JWT decoder from OpenID Provider configuration properties
      * @param jwtAuthenticationConverter converts from a {@link Jwt} to an {@link Authentication} implementation
+     * @param authenticationCache optional cache for successful JWT authentications
+     * @param authenticationManagers the registry for per-issuer authentication managers
+     * @param observations observes token parsing, OpenID Provider properties resolution, decoder creation and token decoding
      * @return Multi-tenant {@link ReactiveAuthenticationManagerResolver} (one for each configured issuer)
      */
     @Conditional(DefaultAuthenticationManagerResolverCondition.class)
@@ -239,8 +291,64 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
     ReactiveAuthenticationManagerResolver<ServerWebExchange> authenticationManagerResolver(
             OpenidProviderPropertiesResolver opPropertiesResolver,
             SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
-            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter) {
-        return new SpringAddonsReactiveJwtAuthenticationManagerResolver(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter);
+            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            ReactiveJwtAuthenticationManagerRegistry authenticationManagers,
+            AuthenticationObservations observations) {
+        return new SpringAddonsReactiveJwtAuthenticationManagerResolver(
+            opPropertiesResolver,
+            jwtDecoderFactory,
+            jwtAuthenticationConverter,
+            authenticationCache,
+            authenticationManagers,
+            observations);
+    }
+
+    /**
+     * Cache for opaque tokens introspection, enabled with "com.c4-soft.springaddons.oidc.resourceserver.introspection-cache.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @return a cache for the introspector used by the default introspecting filter-chain
+     */
+    @Conditional(IsIntrospectionCacheEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    OpaqueTokenIntrospectionCache opaqueTokenIntrospectionCache(SpringAddonsOidcProperties addonsProperties) {
+        final var cacheProperties = addonsProperties.getResourceserver().getIntrospectionCache();
+        return new OpaqueTokenIntrospectionCache(
+            cacheProperties.getMaxSize(),
+            cacheProperties.getTimeToLive(),
+            cacheProperties.getNegativeTimeToLive(),
+            cacheProperties.getMaxAttributesWeight().toBytes(),
+            Clock.systemUTC());
+    }
+
+    /**
+     * Registry for the authentication managers created by the default authenticationManagerResolver (one per issuer)
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @return a registry bounded according to "com.c4-soft.springaddons.oidc.resourceserver.authentication-managers.*"
+     */
+    @Conditional(IsJwtDecoderResourceServerCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    ReactiveJwtAuthenticationManagerRegistry jwtAuthenticationManagerRegistry(SpringAddonsOidcProperties addonsProperties) {
+        final var registryProperties = addonsProperties.getResourceserver().getAuthenticationManagers();
+        return new ReactiveJwtAuthenticationManagerRegistry(registryProperties.getMaxSize(), registryProperties.getIdleTimeout(), Clock.systemUTC());
+    }
+
+    /**
+     * Cache for successful JWT authentications, enabled with "com.c4-soft.springaddons.oidc.resourceserver.authentication-cache.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @return a cache for the JWTs decoded by the default authenticationManagerResolver
+     */
+    @Conditional(IsJwtAuthenticationCacheEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    JwtAuthenticationCache jwtAuthenticationCache(SpringAddonsOidcProperties addonsProperties) {
+        final var cacheProperties = addonsProperties.getResourceserver().getAuthenticationCache();
+        return new JwtAuthenticationCache(cacheProperties.getMaxSize(), cacheProperties.getTimeToLive(), Clock.systemUTC());
     }
 
     /**
@@ -279,24 +387,27 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
      *
      * @param authoritiesConverter converts access-token claims into Spring authorities
      * @param opPropertiesResolver "com.c4-soft.springaddons.oidc" configuration properties
+     * @param observations observes authorities mapping and principal building
      * @return a converter from {@link Jwt} to {@link AbstractAuthenticationToken}
      */
     @Conditional(DefaultJwtAbstractAuthenticationTokenConverterCondition.class)
     @Bean
     ReactiveJwtAbstractAuthenticationTokenConverter jwtAuthenticationConverter(
             Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
-            OpenidProviderPropertiesResolver opPropertiesResolver) {
-        return jwt -> Mono
-            .just(
-                new JwtAuthenticationToken(
-                    jwt,
-                    authoritiesConverter.convert(jwt.getClaims()),
-                    new OpenidClaimSet(
-                        jwt.getClaims(),
-                        opPropertiesResolver
-                            .resolve(jwt.getClaims())
-                            .orElseThrow(() -> new NotAConfiguredOpenidProviderException(jwt.getClaims()))
-                            .getUsernameClaim()).getName()));
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            AuthenticationObservations observations) {
+        return jwt -> {
+            final var claims = jwt.getClaims();
+            final var opProperties = opPropertiesResolver.resolve(claims).orElseThrow(() -> new NotAConfiguredOpenidProviderException(claims));
+            final var authorities = observations.observe(Stage.AUTHORITIES_MAPPING, opProperties.getIss(), () -> authoritiesConverter.convert(claims));
+            return Mono
+                .just(
+                    observations
+                        .observe(
+                            Stage.PRINCIPAL_BUILDING,
+                            opProperties.getIss(),
+                            () -> new JwtAuthenticationToken(jwt, authorities, OpenidClaimSet.resolveName(claims, opProperties.getUsernameClaimPath()))));
+        };
     }
 
     /**
@@ -305,36 +416,23 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
      * @param authoritiesConverter converts access-token claims into Spring authorities
      * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
      * @param resourceServerProperties Spring Boot standard resource server configuration properties
+     * @param observations observes authorities mapping and principal building
      * @return a converter from successful introspection result to {@link Authentication} instance
      */
     @Conditional(DefaultOpaqueTokenAuthenticationConverterCondition.class)
     @Bean
-    @SuppressWarnings("unchecked")
     ReactiveOpaqueTokenAuthenticationConverter introspectionAuthenticationConverter(
             Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
             SpringAddonsOidcProperties addonsProperties,
-            OAuth2ResourceServerProperties resourceServerProperties) {
+            OAuth2ResourceServerProperties resourceServerProperties,
+            AuthenticationObservations observations) {
+        final var converter = new SpringAddonsOpaqueTokenAuthenticationConverter(
+            authoritiesConverter,
+            SpringAddonsOpaqueTokenAuthenticationConverter
+                .getIntrospectionOpenidProvider(addonsProperties, resourceServerProperties.getOpaquetoken().getIntrospectionUri()),
+            observations);
         return (String introspectedToken, OAuth2AuthenticatedPrincipal authenticatedPrincipal) -> Mono
-            .just(
-                new BearerTokenAuthentication(
-                    new OAuth2IntrospectionAuthenticatedPrincipal(
-                        new OpenidClaimSet(
-                            authenticatedPrincipal.getAttributes(),
-                            addonsProperties
-                                .getOps()
-                                .stream()
-                                .filter(issProps -> resourceServerProperties.getOpaquetoken().getIntrospectionUri().contains(issProps.getIss().toString()))
-                                .findAny()
-                                .orElse(addonsProperties.getOps().get(0))
-                                .getUsernameClaim()).getName(),
-                        authenticatedPrincipal.getAttributes(),
-                        (Collection<GrantedAuthority>) authenticatedPrincipal.getAuthorities()),
-                    new OAuth2AccessToken(
-                        OAuth2AccessToken.TokenType.BEARER,
-                        introspectedToken,
-                        toInstant(authenticatedPrincipal.getAttribute(OAuth2TokenIntrospectionClaimNames.IAT)),
-                        toInstant(authenticatedPrincipal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP))),
-                    authoritiesConverter.convert(authenticatedPrincipal.getAttributes())));
+            .just(converter.convert(introspectedToken, authenticatedPrincipal));
     }
 
     /**
@@ -342,31 +440,12 @@ public class ReactiveSpringAddonsOidcResourceServerBeans {
      */
     @Conditional(DefaultCorsWebFilterCondition.class)
     @Bean
-    CorsWebFilter corsFilter(SpringAddonsOidcProperties addonsProperties) {
+    CorsWebFilter corsFilter(SpringAddonsOidcProperties addonsProperties, Optional<CorsPreflightCache> corsPreflightCache) {
         final var corsProps = new ArrayList<>(addonsProperties.getCors());
         final var deprecatedClientCorsProps = addonsProperties.getResourceserver().getCors();
         corsProps.addAll(deprecatedClientCorsProps);
 
-        return ReactiveConfigurationSupport.getCorsFilterBean(corsProps);
-    }
-
-    private static final Instant toInstant(Object claim) {
-        if (claim == null) {
-            return null;
-        }
-        if (claim instanceof Instant i) {
-            return i;
-        }
-        if (claim instanceof Date d) {
-            return d.toInstant();
-        }
-        if (claim instanceof Integer i) {
-            return Instant.ofEpochSecond((i).longValue());
-        } else if (claim instanceof Long l) {
-            return Instant.ofEpochSecond(l);
-        } else {
-            return null;
-        }
+        return ReactiveConfigurationSupport.getCorsFilterBean(corsProps, corsPreflightCache);
     }
 
 }
@@ -0,0 +1,171 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderMetadataSupport;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSecurityContextJWKSet;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWKSecurityContext;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * Verifies the signature of already parsed {@link JWT JWTs} with keys from a remote JWK-set, without blocking.
+ * </p>
+ * <p>
+ * This is what {@link NimbusReactiveJwtDecoder} does internally, but Spring Security does not expose it in a way which would allow to process a {@link JWT}
+ * instead of a String. The JWK-set is cached and fetched again only when a token is signed with a key which is not in the cache. When built with an issuer
+ * location, the JWK-set URI is resolved from the OpenID configuration (or the authorization server metadata) and the accepted signature algorithms are the
+ * ones of the JWK-set keys. When built with a JWK-set URI, only RS256 is accepted (same default as Spring Security).
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class RemoteJwkSetReactiveJwtProcessor implements Converter<JWT, Mono<JWTClaimsSet>> {
+    private static final ParameterizedTypeReference<Map<String, Object>> STRING_OBJECT_MAP = new ParameterizedTypeReference<>() {};
+
+    private final Mono<String> jwkSetUri;
+    private final WebClient webClient;
+    private final Function<JWKSet, Set<JWSAlgorithm>> jwsAlgorithms;
+    private final AtomicReference<Mono<JwkSetProcessor>> cachedProcessor = new AtomicReference<>();
+
+    private RemoteJwkSetReactiveJwtProcessor(Mono<String> jwkSetUri, WebClient webClient, Function<JWKSet, Set<JWSAlgorithm>> jwsAlgorithms) {
+        this.jwkSetUri = jwkSetUri;
+        this.webClient = webClient;
+        this.jwsAlgorithms = jwsAlgorithms;
+        this.cachedProcessor.set(fetch());
+    }
+
+    /**
+     * @param jwkSetUri where to fetch the JWK-set from
+     * @param webClient the client to use for fetching the JWK-set
+     * @return a processor accepting RS256 signed tokens only
+     */
+    public static RemoteJwkSetReactiveJwtProcessor withJwkSetUri(URI jwkSetUri, WebClient webClient) {
+        return new RemoteJwkSetReactiveJwtProcessor(Mono.just(jwkSetUri.toString()), webClient, jwkSet -> Set.of(JWSAlgorithm.RS256));
+    }
+
+    /**
+     * @param issuer the issuer to fetch OpenID configuration or authorization server metadata from
+     * @param webClient the client to use for fetching the configuration and the JWK-set
+     * @return a processor accepting tokens signed with one of the algorithms of the JWK-set keys
+     */
+    public static RemoteJwkSetReactiveJwtProcessor withIssuerLocation(URI issuer, WebClient webClient) {
+        return new RemoteJwkSetReactiveJwtProcessor(
+            cacheSuccess(resolveJwkSetUri(issuer, webClient)),
+            webClient,
+            OpenidProviderMetadataSupport::jwsAlgorithms);
+    }
+
+    @Override
+    public Mono<JWTClaimsSet> convert(JWT jwt) {
+        if (!(jwt instanceof SignedJWT signedJwt)) {
+            throw new BadJwtException("Unsupported algorithm of " + jwt.getHeader().getAlgorithm());
+        }
+        final var current = cachedProcessor.get();
+        // @formatter:off
+        return current
+                .flatMap(processor -> processor.hasKeyFor(signedJwt.getHeader()) ? Mono.just(processor) : refresh(current))
+                .onErrorMap(e -> !(e instanceof JwtException), e -> new IllegalStateException("Could not obtain the keys", e))
+                .map(processor -> processor.process(signedJwt));
+        // @formatter:on
+    }
+
+    /**
+     * Replaces the cached JWK-set with a fresh one, unless another subscriber already did it since "expected" was read
+     */
+    private Mono<JwkSetProcessor> refresh(Mono<JwkSetProcessor> expected) {
+        final var refreshed = fetch();
+        return cachedProcessor.compareAndSet(expected, refreshed) ? refreshed : cachedProcessor.get();
+    }
+
+    private Mono<JwkSetProcessor> fetch() {
+        // @formatter:off
+        return cacheSuccess(jwkSetUri
+                .flatMap(uri -> webClient.get().uri(uri).retrieve().bodyToMono(String.class))
+                .map(RemoteJwkSetReactiveJwtProcessor::parseJwkSet)
+                .map(jwkSet -> new JwkSetProcessor(jwkSet, jwsAlgorithms.apply(jwkSet))));
+        // @formatter:on
+    }
+
+    private static JWKSet parseJwkSet(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Malformed JWK set", e);
+        }
+    }
+
+    static <T> Mono<T> cacheSuccess(Mono<T> source) {
+        return source.cache(value -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    static Mono<String> resolveJwkSetUri(URI issuer, WebClient webClient) {
+        // @formatter:off
+        return Flux.fromIterable(OpenidProviderMetadataSupport.metadataUris(issuer))
+                .concatMap(uri -> webClient.get().uri(uri).retrieve().bodyToMono(STRING_OBJECT_MAP)
+                        .onErrorResume(WebClientResponseException.class, e -> e.getStatusCode().is4xxClientError() ? Mono.empty() : Mono.error(e)))
+                .next()
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Unable to resolve the Configuration with the provided Issuer of \"%s\"".formatted(issuer))))
+                .map(configuration -> OpenidProviderMetadataSupport.jwkSetUri(configuration, issuer));
+        // @formatter:on
+    }
+
+    private static class JwkSetProcessor {
+        private final JWKSet jwkSet;
+        private final JWKSecurityContext context;
+        private final ConfigurableJWTProcessor<JWKSecurityContext> processor;
+
+        JwkSetProcessor(JWKSet jwkSet, Set<JWSAlgorithm> jwsAlgorithms) {
+            this.jwkSet = jwkSet;
+            this.context = new JWKSecurityContext(jwkSet.getKeys());
+            this.processor = new DefaultJWTProcessor<>();
+            this.processor.setJWSKeySelector(new JWSVerificationKeySelector<>(jwsAlgorithms, new JWKSecurityContextJWKSet()));
+            // claims are validated by Spring Security OAuth2TokenValidator
+            this.processor.setJWTClaimsSetVerifier((claims, ctx) -> {});
+        }
+
+        boolean hasKeyFor(JWSHeader header) {
+            final var matcher = JWKMatcher.forJWSHeader(header);
+            return matcher == null || !new JWKSelector(matcher).select(jwkSet).isEmpty();
+        }
+
+        JWTClaimsSet process(SignedJWT jwt) {
+            try {
+                return processor.process(jwt, context);
+            } catch (BadJOSEException e) {
+                throw new BadJwtException("Failed to validate the token", e);
+            } catch (JOSEException e) {
+                throw new JwtException("Failed to validate the token", e);
+            }
+        }
+    }
+}
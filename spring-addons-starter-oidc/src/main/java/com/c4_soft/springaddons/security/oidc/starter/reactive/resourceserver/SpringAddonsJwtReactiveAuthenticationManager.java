@@ -0,0 +1,59 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtReactiveAuthenticationManager;
+
+import com.c4_soft.springaddons.security.oidc.starter.ParsedBearerTokenAuthenticationToken;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same as {@link JwtReactiveAuthenticationManager}, except that the {@link SpringAddonsReactiveJwtDecoder} is given the already parsed JWT when authenticating
+ * a {@link ParsedBearerTokenAuthenticationToken}.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class SpringAddonsJwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+    private final SpringAddonsReactiveJwtDecoder jwtDecoder;
+    private final Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter;
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        // @formatter:off
+        return Mono.justOrEmpty(authentication)
+                .filter(BearerTokenAuthenticationToken.class::isInstance)
+                .cast(BearerTokenAuthenticationToken.class)
+                .flatMap(this::decode)
+                .flatMap(jwtAuthenticationConverter::convert)
+                .cast(Authentication.class)
+                .onErrorMap(JwtException.class, this::onError);
+        // @formatter:on
+    }
+
+    private Mono<Jwt> decode(BearerTokenAuthenticationToken bearer) {
+        if (bearer instanceof ParsedBearerTokenAuthenticationToken parsed) {
+            final var decoded = parsed.getJwt() != null ? jwtDecoder.decode(parsed.getJwt()) : jwtDecoder.decode(bearer.getToken());
+            return decoded.doOnNext(parsed::setDecodedJwt);
+        }
+        return jwtDecoder.decode(bearer.getToken());
+    }
+
+    private AuthenticationException onError(JwtException e) {
+        if (e instanceof BadJwtException) {
+            return new InvalidBearerTokenException(e.getMessage(), e);
+        }
+        return new AuthenticationServiceException(e.getMessage(), e);
+    }
+}
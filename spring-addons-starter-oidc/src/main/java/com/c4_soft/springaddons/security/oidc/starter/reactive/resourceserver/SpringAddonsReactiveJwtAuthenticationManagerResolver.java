@@ -1,5 +1,7 @@
 package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
 
+import java.util.Optional;
+
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
@@ -7,7 +9,9 @@ import org.springframework.security.authentication.ReactiveAuthenticationManager
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
 import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager.JWTClaimsSetAuthenticationManagerResolver;
 
 import reactor.core.publisher.Mono;
@@ -32,7 +36,32 @@ public class SpringAddonsReactiveJwtAuthenticationManagerResolver implements Rea
             OpenidProviderPropertiesResolver opPropertiesResolver,
             SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
             Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter) {
-        authenticationManager = new ReactiveJWTClaimsSetAuthenticationManager(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter);
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, Optional.empty(), ReactiveJwtAuthenticationManagerRegistry.unbounded());
+    }
+
+    public SpringAddonsReactiveJwtAuthenticationManagerResolver(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            ReactiveJwtAuthenticationManagerRegistry authenticationManagers) {
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, authenticationCache, authenticationManagers, AuthenticationObservations.DISABLED);
+    }
+
+    public SpringAddonsReactiveJwtAuthenticationManagerResolver(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsReactiveJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, ? extends Mono<? extends AbstractAuthenticationToken>> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            ReactiveJwtAuthenticationManagerRegistry authenticationManagers,
+            AuthenticationObservations observations) {
+        this.authenticationManager = new ReactiveJWTClaimsSetAuthenticationManager(
+            opPropertiesResolver,
+            jwtDecoderFactory,
+            jwtAuthenticationConverter,
+            authenticationCache,
+            authenticationManagers,
+            observations);
     }
 
     @Override
@@ -0,0 +1,28 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+
+import com.nimbusds.jwt.JWT;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * A {@link ReactiveJwtDecoder} which can also decode a token that was already parsed by Nimbus.
+ * </p>
+ * <p>
+ * {@link ReactiveJWTClaimsSetAuthenticationManager} has to parse the token to resolve its issuer. When the decoder built by the
+ * {@link SpringAddonsReactiveJwtDecoderFactory} implements this interface, this parsed {@link JWT} is handed over to it instead of the raw token string.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public interface SpringAddonsReactiveJwtDecoder extends ReactiveJwtDecoder {
+
+    /**
+     * @param jwt a token already parsed by Nimbus (its {@link JWT#getParsedString() parsed string} is used as token value)
+     * @return the validated {@link Jwt}, or an error if the token signature or claims are invalid
+     */
+    Mono<Jwt> decode(JWT jwt);
+}
@@ -0,0 +1,44 @@
+package com.c4_soft.springaddons.security.oidc.starter.session;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Adapts an {@link OAuth2SessionSerializer} to Spring Data Redis. Exposed as "springSessionDefaultRedisSerializer", it is used by Spring Session Redis
+ * (servlet and reactive) to serialize session attributes.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class OAuth2SessionRedisSerializer implements RedisSerializer<Object> {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final OAuth2SessionSerializer delegate;
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return delegate.serializeToByteArray(value);
+        } catch (Exception e) {
+            throw new SerializationException("Cannot serialize %s".formatted(value.getClass().getName()), e);
+        }
+    }
+
+    @Override
+    public @Nullable Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return delegate.deserializeFromByteArray(bytes);
+        } catch (Exception e) {
+            throw new SerializationException("Cannot deserialize", e);
+        }
+    }
+}
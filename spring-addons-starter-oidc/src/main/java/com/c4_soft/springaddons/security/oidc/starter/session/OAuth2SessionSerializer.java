@@ -0,0 +1,577 @@
+package com.c4_soft.springaddons.security.oidc.starter.session;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.lang.Nullable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * <p>
+ * Compact, versioned, binary serialization of the OAuth2 client state stored in sessions: security context with an {@link OAuth2AuthenticationToken}
+ * (OIDC and OAuth2 users, their authorities and tokens), {@link OAuth2AuthorizedClient authorized clients} and the principals by client registration ID
+ * kept by the multi-tenant principal supports. Claims are written as tagged JSON-like values.
+ * </p>
+ * <p>
+ * Authorized clients are written with the ID of their client registration only: the registration is resolved when reading. An authorized client which
+ * registration can't be resolved anymore is dropped (the user is asked to authorize the client again).
+ * </p>
+ * <p>
+ * Any other value (or a subclass of the types above) is written with Java serialization, and payloads which are not in this format (like sessions
+ * written with Java serialization before this serializer was enabled) are read with Java serialization too.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class OAuth2SessionSerializer implements Serializer<Object>, Deserializer<Object> {
+    static final int MAGIC = 0xC4;
+    static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte TRUE = 2;
+    private static final byte FALSE = 3;
+    private static final byte INT = 4;
+    private static final byte LONG = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte INSTANT = 7;
+    private static final byte URL_VALUE = 8;
+    private static final byte URI_VALUE = 9;
+    private static final byte LIST = 10;
+    private static final byte SET = 11;
+    private static final byte MAP = 12;
+    private static final byte CONCURRENT_MAP = 13;
+    private static final byte SECURITY_CONTEXT = 20;
+    private static final byte OAUTH2_AUTHENTICATION_TOKEN = 21;
+    private static final byte OIDC_USER = 22;
+    private static final byte OAUTH2_USER = 23;
+    private static final byte SIMPLE_AUTHORITY = 24;
+    private static final byte OIDC_USER_AUTHORITY = 25;
+    private static final byte OAUTH2_USER_AUTHORITY = 26;
+    private static final byte ID_TOKEN = 27;
+    private static final byte USER_INFO = 28;
+    private static final byte AUTHORIZED_CLIENT = 29;
+    private static final byte ACCESS_TOKEN = 30;
+    private static final byte REFRESH_TOKEN = 31;
+    private static final byte WEB_AUTHENTICATION_DETAILS = 32;
+    private static final byte REFERENCE = 126;
+    private static final byte JAVA = 127;
+
+    /**
+     * Returned by the reader for authorized clients which registration can't be resolved
+     */
+    private static final Object UNRESOLVED = new Object();
+
+    private final Function<String, ClientRegistration> clientRegistrationResolver;
+    private final DefaultSerializer javaSerializer = new DefaultSerializer();
+    private final DefaultDeserializer javaDeserializer;
+
+    /**
+     * @param clientRegistrationResolver resolves client registrations by ID when reading authorized clients (may return null)
+     */
+    public OAuth2SessionSerializer(Function<String, ClientRegistration> clientRegistrationResolver) {
+        this(clientRegistrationResolver, null);
+    }
+
+    /**
+     * @param clientRegistrationResolver resolves client registrations by ID when reading authorized clients (may return null)
+     * @param classLoader the class loader to use for values read with Java serialization
+     */
+    public OAuth2SessionSerializer(Function<String, ClientRegistration> clientRegistrationResolver, @Nullable ClassLoader classLoader) {
+        this.clientRegistrationResolver = clientRegistrationResolver;
+        this.javaDeserializer = new DefaultDeserializer(classLoader);
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        final var out = new DataOutputStream(outputStream);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+        new Writer(out).write(object);
+        out.flush();
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        final var in = new PushbackInputStream(inputStream);
+        final var first = in.read();
+        if (first != MAGIC) {
+            if (first >= 0) {
+                in.unread(first);
+            }
+            return javaDeserializer.deserialize(in);
+        }
+        final var version = in.read();
+        if (version != VERSION) {
+            throw new IOException("Unsupported OAuth2 session serialization format version: %d".formatted(version));
+        }
+        final var value = new Reader(new DataInputStream(in)).read();
+        return value == UNRESOLVED ? null : value;
+    }
+
+    /**
+     * @param value a collection or map
+     * @return true if it can be read back as a plain {@link ArrayList}, {@link LinkedHashSet}, {@link LinkedHashMap} or {@link ConcurrentHashMap}
+     *         without breaking the code using it
+     */
+    private static boolean isPlainCollection(Object value) {
+        if (value instanceof SortedMap || value instanceof SortedSet) {
+            return false;
+        }
+        final var type = value.getClass();
+        if (type == HashMap.class
+            || type == LinkedHashMap.class
+            || type == ConcurrentHashMap.class
+            || type == ArrayList.class
+            || type == HashSet.class
+            || type == LinkedHashSet.class) {
+            return true;
+        }
+        final var name = type.getName();
+        return name.startsWith("java.util.ImmutableCollections$")
+            || name.startsWith("java.util.Collections$Unmodifiable")
+            || name.startsWith("java.util.Collections$Empty")
+            || name.startsWith("java.util.Collections$Singleton")
+            || name.equals("java.util.Arrays$ArrayList");
+    }
+
+    /**
+     * @param user an OAuth2 user
+     * @return an attribute which value is the user name (the name attribute key is private in {@link DefaultOAuth2User})
+     */
+    private static @Nullable String nameAttributeKey(OAuth2User user) {
+        final var name = user.getName();
+        for (final var attribute : user.getAttributes().entrySet()) {
+            if (attribute.getValue() != null && name.equals(attribute.getValue().toString())) {
+                return attribute.getKey();
+            }
+        }
+        return null;
+    }
+
+    private final class Writer {
+        private final DataOutputStream out;
+        private final Map<Object, Integer> references = new IdentityHashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void write(@Nullable Object value) throws IOException {
+            write(value, false);
+        }
+
+        /**
+         * @param value the value to write
+         * @param isClaim if true, any collection or map is written as a JSON array or object
+         * @throws IOException
+         */
+        void write(@Nullable Object value, boolean isClaim) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String str) {
+                out.writeByte(STRING);
+                writeString(str);
+            } else if (value instanceof Boolean bool) {
+                out.writeByte(bool ? TRUE : FALSE);
+            } else if (value.getClass() == Integer.class) {
+                out.writeByte(INT);
+                writeVarLong((Integer) value);
+            } else if (value.getClass() == Long.class) {
+                out.writeByte(LONG);
+                writeVarLong((Long) value);
+            } else if (value.getClass() == Double.class) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Instant instant) {
+                out.writeByte(INSTANT);
+                writeVarLong(instant.getEpochSecond());
+                writeVarLong(instant.getNano());
+            } else if (value instanceof URL url) {
+                out.writeByte(URL_VALUE);
+                writeString(url.toExternalForm());
+            } else if (value instanceof URI uri) {
+                out.writeByte(URI_VALUE);
+                writeString(uri.toString());
+            } else if (references.containsKey(value)) {
+                out.writeByte(REFERENCE);
+                writeVarLong(references.get(value));
+            } else if (value instanceof Collection<?> collection && (isClaim || isPlainCollection(collection))) {
+                out.writeByte(value instanceof Set ? SET : LIST);
+                writeVarLong(collection.size());
+                for (final var element : collection) {
+                    write(element, isClaim);
+                }
+            } else if (value instanceof Map<?, ?> map && (isClaim || isPlainCollection(map)) && map.keySet().stream().allMatch(String.class::isInstance)) {
+                out.writeByte(value instanceof ConcurrentHashMap ? CONCURRENT_MAP : MAP);
+                writeVarLong(map.size());
+                for (final var entry : map.entrySet()) {
+                    writeString((String) entry.getKey());
+                    write(entry.getValue(), isClaim);
+                }
+            } else if (!writeOAuth2Value(value)) {
+                final var bytes = javaSerializer.serializeToByteArray(value);
+                out.writeByte(JAVA);
+                writeVarLong(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        /**
+         * @param value a value which is neither null, a JSON value nor a collection
+         * @return true if the value is one of the supported OAuth2 types (and was written)
+         * @throws IOException
+         */
+        private boolean writeOAuth2Value(Object value) throws IOException {
+            final var type = value.getClass();
+            if (type == SecurityContextImpl.class) {
+                out.writeByte(SECURITY_CONTEXT);
+                write(((SecurityContextImpl) value).getAuthentication());
+            } else if (type == OAuth2AuthenticationToken.class && ((OAuth2AuthenticationToken) value).isAuthenticated()) {
+                final var token = (OAuth2AuthenticationToken) value;
+                out.writeByte(OAUTH2_AUTHENTICATION_TOKEN);
+                write(token.getPrincipal());
+                writeAuthorities(token.getAuthorities());
+                writeString(token.getAuthorizedClientRegistrationId());
+                write(token.getDetails());
+            } else if (type == DefaultOidcUser.class && nameAttributeKey((DefaultOidcUser) value) != null) {
+                final var user = (DefaultOidcUser) value;
+                out.writeByte(OIDC_USER);
+                writeAuthorities(user.getAuthorities());
+                write(user.getIdToken());
+                write(user.getUserInfo());
+                writeString(nameAttributeKey(user));
+            } else if (type == DefaultOAuth2User.class && nameAttributeKey((DefaultOAuth2User) value) != null) {
+                final var user = (DefaultOAuth2User) value;
+                out.writeByte(OAUTH2_USER);
+                writeAuthorities(user.getAuthorities());
+                writeClaims(user.getAttributes());
+                writeString(nameAttributeKey(user));
+            } else if (type == SimpleGrantedAuthority.class) {
+                out.writeByte(SIMPLE_AUTHORITY);
+                writeString(((SimpleGrantedAuthority) value).getAuthority());
+            } else if (type == OidcUserAuthority.class) {
+                final var authority = (OidcUserAuthority) value;
+                out.writeByte(OIDC_USER_AUTHORITY);
+                writeString(authority.getAuthority());
+                write(authority.getIdToken());
+                write(authority.getUserInfo());
+            } else if (type == OAuth2UserAuthority.class) {
+                final var authority = (OAuth2UserAuthority) value;
+                out.writeByte(OAUTH2_USER_AUTHORITY);
+                writeString(authority.getAuthority());
+                writeClaims(authority.getAttributes());
+            } else if (type == OidcIdToken.class) {
+                final var idToken = (OidcIdToken) value;
+                out.writeByte(ID_TOKEN);
+                writeString(idToken.getTokenValue());
+                write(idToken.getIssuedAt());
+                write(idToken.getExpiresAt());
+                writeClaims(idToken.getClaims());
+                references.put(value, references.size());
+            } else if (type == OidcUserInfo.class) {
+                out.writeByte(USER_INFO);
+                writeClaims(((OidcUserInfo) value).getClaims());
+                references.put(value, references.size());
+            } else if (type == OAuth2AuthorizedClient.class) {
+                final var authorizedClient = (OAuth2AuthorizedClient) value;
+                out.writeByte(AUTHORIZED_CLIENT);
+                writeString(authorizedClient.getClientRegistration().getRegistrationId());
+                writeString(authorizedClient.getPrincipalName());
+                write(authorizedClient.getAccessToken());
+                write(authorizedClient.getRefreshToken());
+            } else if (type == OAuth2AccessToken.class && OAuth2AccessToken.TokenType.BEARER.equals(((OAuth2AccessToken) value).getTokenType())) {
+                final var accessToken = (OAuth2AccessToken) value;
+                out.writeByte(ACCESS_TOKEN);
+                writeString(accessToken.getTokenValue());
+                write(accessToken.getIssuedAt());
+                write(accessToken.getExpiresAt());
+                write(accessToken.getScopes(), true);
+            } else if (type == OAuth2RefreshToken.class) {
+                final var refreshToken = (OAuth2RefreshToken) value;
+                out.writeByte(REFRESH_TOKEN);
+                writeString(refreshToken.getTokenValue());
+                write(refreshToken.getIssuedAt());
+                write(refreshToken.getExpiresAt());
+            } else if (type == WebAuthenticationDetails.class) {
+                final var details = (WebAuthenticationDetails) value;
+                out.writeByte(WEB_AUTHENTICATION_DETAILS);
+                write(details.getRemoteAddress());
+                write(details.getSessionId());
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private void writeAuthorities(Collection<? extends GrantedAuthority> authorities) throws IOException {
+            writeVarLong(authorities.size());
+            for (final var authority : authorities) {
+                write(authority);
+            }
+        }
+
+        private void writeClaims(Map<String, Object> claims) throws IOException {
+            writeVarLong(claims.size());
+            for (final var claim : claims.entrySet()) {
+                writeString(claim.getKey());
+                write(claim.getValue(), true);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            final var bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+        }
+
+        /**
+         * Variable length, zig-zag encoded, long: 1 byte for values in [-64, 63], 2 bytes in [-8192, 8191], etc.
+         */
+        private void writeVarLong(long value) throws IOException {
+            var zigZag = (value << 1) ^ (value >> 63);
+            while ((zigZag & ~0x7FL) != 0) {
+                out.writeByte((int) ((zigZag & 0x7F) | 0x80));
+                zigZag >>>= 7;
+            }
+            out.writeByte((int) zigZag);
+        }
+    }
+
+    private final class Reader {
+        private final DataInputStream in;
+        private final List<Object> references = new ArrayList<>();
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Nullable
+        Object read() throws IOException {
+            final var tag = in.readByte();
+            switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return (int) readVarLong();
+            case LONG:
+                return readVarLong();
+            case DOUBLE:
+                return in.readDouble();
+            case INSTANT:
+                return Instant.ofEpochSecond(readVarLong(), readVarLong());
+            case URL_VALUE:
+                return new URL(readString());
+            case URI_VALUE:
+                return URI.create(readString());
+            case LIST:
+                return readCollection(new ArrayList<>());
+            case SET:
+                return readCollection(new LinkedHashSet<>());
+            case MAP:
+                return readMap(new LinkedHashMap<>());
+            case CONCURRENT_MAP:
+                return readMap(new ConcurrentHashMap<>());
+            case REFERENCE:
+                return references.get(readSize());
+            case JAVA:
+                final var bytes = new byte[readSize()];
+                in.readFully(bytes);
+                return javaDeserializer.deserializeFromByteArray(bytes);
+            default:
+                return readOAuth2Value(tag);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object readOAuth2Value(byte tag) throws IOException {
+            switch (tag) {
+            case SECURITY_CONTEXT:
+                return new SecurityContextImpl((Authentication) read());
+            case OAUTH2_AUTHENTICATION_TOKEN: {
+                final var principal = (OAuth2User) read();
+                final var authorities = readAuthorities();
+                final var token = new OAuth2AuthenticationToken(principal, authorities, readString());
+                token.setDetails(read());
+                return token;
+            }
+            case OIDC_USER: {
+                final var authorities = readAuthorities();
+                final var idToken = (OidcIdToken) read();
+                final var userInfo = (OidcUserInfo) read();
+                return new DefaultOidcUser(authorities, idToken, userInfo, readString());
+            }
+            case OAUTH2_USER: {
+                final var authorities = readAuthorities();
+                final var attributes = readClaims();
+                return new DefaultOAuth2User(authorities, attributes, readString());
+            }
+            case SIMPLE_AUTHORITY:
+                return new SimpleGrantedAuthority(readString());
+            case OIDC_USER_AUTHORITY: {
+                final var authority = readString();
+                final var idToken = (OidcIdToken) read();
+                return new OidcUserAuthority(authority, idToken, (OidcUserInfo) read());
+            }
+            case OAUTH2_USER_AUTHORITY: {
+                final var authority = readString();
+                return new OAuth2UserAuthority(authority, readClaims());
+            }
+            case ID_TOKEN: {
+                final var tokenValue = readString();
+                final var issuedAt = (Instant) read();
+                final var expiresAt = (Instant) read();
+                final var idToken = new OidcIdToken(tokenValue, issuedAt, expiresAt, readClaims());
+                references.add(idToken);
+                return idToken;
+            }
+            case USER_INFO: {
+                final var userInfo = new OidcUserInfo(readClaims());
+                references.add(userInfo);
+                return userInfo;
+            }
+            case AUTHORIZED_CLIENT: {
+                final var registrationId = readString();
+                final var principalName = readString();
+                final var accessToken = (OAuth2AccessToken) read();
+                final var refreshToken = (OAuth2RefreshToken) read();
+                final var registration = clientRegistrationResolver.apply(registrationId);
+                return registration == null ? UNRESOLVED : new OAuth2AuthorizedClient(registration, principalName, accessToken, refreshToken);
+            }
+            case ACCESS_TOKEN: {
+                final var tokenValue = readString();
+                final var issuedAt = (Instant) read();
+                final var expiresAt = (Instant) read();
+                return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue, issuedAt, expiresAt, (Set<String>) read());
+            }
+            case REFRESH_TOKEN: {
+                final var tokenValue = readString();
+                final var issuedAt = (Instant) read();
+                return new OAuth2RefreshToken(tokenValue, issuedAt, (Instant) read());
+            }
+            case WEB_AUTHENTICATION_DETAILS: {
+                final var remoteAddress = (String) read();
+                return new WebAuthenticationDetails(remoteAddress, (String) read());
+            }
+            default:
+                throw new IOException("Unknown OAuth2 session serialization tag: %d".formatted(tag));
+            }
+        }
+
+        private Collection<Object> readCollection(Collection<Object> collection) throws IOException {
+            final var size = readSize();
+            for (var i = 0; i < size; ++i) {
+                final var element = read();
+                if (element != UNRESOLVED) {
+                    collection.add(element);
+                }
+            }
+            return collection;
+        }
+
+        private Map<String, Object> readMap(Map<String, Object> map) throws IOException {
+            final var size = readSize();
+            for (var i = 0; i < size; ++i) {
+                final var key = readString();
+                final var value = read();
+                if (value != UNRESOLVED) {
+                    map.put(key, value);
+                }
+            }
+            return map;
+        }
+
+        private List<GrantedAuthority> readAuthorities() throws IOException {
+            final var size = readSize();
+            final var authorities = new ArrayList<GrantedAuthority>(size);
+            for (var i = 0; i < size; ++i) {
+                authorities.add((GrantedAuthority) read());
+            }
+            return authorities;
+        }
+
+        private Map<String, Object> readClaims() throws IOException {
+            final var size = readSize();
+            final var claims = new LinkedHashMap<String, Object>(size * 4 / 3 + 1);
+            for (var i = 0; i < size; ++i) {
+                final var name = readString();
+                claims.put(name, read());
+            }
+            return claims;
+        }
+
+        private String readString() throws IOException {
+            final var bytes = new byte[readSize()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readSize() throws IOException {
+            final var size = readVarLong();
+            if (size < 0 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid size in OAuth2 session serialization: %d".formatted(size));
+            }
+            return (int) size;
+        }
+
+        private long readVarLong() throws IOException {
+            var zigZag = 0L;
+            for (var shift = 0; shift < 64; shift += 7) {
+                final var b = in.readByte();
+                zigZag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigZag >>> 1) ^ -(zigZag & 1);
+                }
+            }
+            throw new IOException("Malformed variable length long in OAuth2 session serialization");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.c4_soft.springaddons.security.oidc.starter.session;
+
+import java.util.function.Function;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
+
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.configuration.IsOAuth2SessionSerializerEnabled;
+
+/**
+ * <p>
+ * Registers an {@link OAuth2SessionSerializer} when com.c4-soft.springaddons.oidc.client.session-serializer.enabled is true and, when Spring Data Redis is
+ * on the classpath, exposes it as "springSessionDefaultRedisSerializer" for Spring Session Redis (servlet and reactive).
+ * </p>
+ * <p>
+ * Client registrations are resolved from the {@link ClientRegistrationRepository} or {@link ReactiveClientRegistrationRepository}. A reactive repository
+ * must provide registrations without actual I/O (like the in-memory one auto-configured by Spring Boot): authorized clients which registration is not
+ * immediately available are dropped.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Conditional(IsOAuth2SessionSerializerEnabled.class)
+@ConditionalOnClass(ClientRegistration.class)
+@AutoConfiguration
+public class SpringAddonsOAuth2SessionSerializerBeans {
+
+    @ConditionalOnMissingBean
+    @Bean
+    OAuth2SessionSerializer oauth2SessionSerializer(
+            ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository,
+            ObjectProvider<ReactiveClientRegistrationRepository> reactiveClientRegistrationRepository,
+            ResourceLoader resourceLoader) {
+        return new OAuth2SessionSerializer(
+            clientRegistrationResolver(clientRegistrationRepository, reactiveClientRegistrationRepository),
+            resourceLoader.getClassLoader());
+    }
+
+    static Function<String, ClientRegistration> clientRegistrationResolver(
+            ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository,
+            ObjectProvider<ReactiveClientRegistrationRepository> reactiveClientRegistrationRepository) {
+        return registrationId -> {
+            final var repository = clientRegistrationRepository.getIfAvailable();
+            if (repository != null) {
+                return repository.findByRegistrationId(registrationId);
+            }
+            final var reactiveRepository = reactiveClientRegistrationRepository.getIfAvailable();
+            if (reactiveRepository != null) {
+                // completes synchronously with in-memory repositories, and does not block otherwise
+                return reactiveRepository.findByRegistrationId(registrationId).toFuture().getNow(null);
+            }
+            return null;
+        };
+    }
+
+    @ConditionalOnClass(RedisSerializer.class)
+    @Configuration(proxyBeanMethods = false)
+    static class RedisSessionSerializerConfiguration {
+
+        @ConditionalOnMissingBean(name = "springSessionDefaultRedisSerializer")
+        @Bean("springSessionDefaultRedisSerializer")
+        RedisSerializer<Object> springSessionDefaultRedisSerializer(OAuth2SessionSerializer oauth2SessionSerializer) {
+            return new OAuth2SessionRedisSerializer(oauth2SessionSerializer);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.DefaultCorsProcessor;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache.Decision;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache.Key;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * <p>
+ * A {@link CorsProcessor} answering pre-flight requests from a {@link CorsPreflightCache}: the first pre-flight with a given path configuration, origin,
+ * requested method and requested headers is processed by the delegate (a {@link DefaultCorsProcessor} by default) and the next ones are answered with the same
+ * status and CORS headers, without evaluating the origin patterns, methods and headers again.
+ * </p>
+ * <p>
+ * Actual (non pre-flight) CORS requests are always processed by the delegate.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class CachingCorsProcessor implements CorsProcessor {
+    private static final byte[] REJECTION_BODY = "Invalid CORS request".getBytes(StandardCharsets.UTF_8);
+
+    private final CorsProcessor delegate;
+    private final CorsPreflightCache cache;
+
+    public CachingCorsProcessor(CorsPreflightCache cache) {
+        this(new DefaultCorsProcessor(), cache);
+    }
+
+    public CachingCorsProcessor(CorsProcessor delegate, CorsPreflightCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean processRequest(@Nullable CorsConfiguration config, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (config == null || !CorsUtils.isPreFlightRequest(request) || response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN) != null) {
+            return delegate.processRequest(config, request, response);
+        }
+
+        final var key = new Key(
+            config,
+            request.getHeader(HttpHeaders.ORIGIN),
+            request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD),
+            request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS));
+        final var cached = cache.get(key);
+        if (cached != null) {
+            return replay(cached, response);
+        }
+
+        final var varyBefore = new ArrayList<>(response.getHeaders(HttpHeaders.VARY));
+        final var allowed = delegate.processRequest(config, request, response);
+        final var responseHeaders = new HttpHeaders();
+        for (final var name : response.getHeaderNames()) {
+            responseHeaders.addAll(name, new ArrayList<>(response.getHeaders(name)));
+        }
+        cache.put(key, Decision.of(allowed, varyBefore, responseHeaders));
+        return allowed;
+    }
+
+    private static boolean replay(Decision decision, HttpServletResponse response) throws IOException {
+        final var vary = response.getHeaders(HttpHeaders.VARY);
+        decision.headers().forEach((name, values) -> {
+            if (HttpHeaders.VARY.equalsIgnoreCase(name)) {
+                values.stream().filter(value -> !vary.contains(value)).forEach(value -> response.addHeader(HttpHeaders.VARY, value));
+            } else {
+                values.forEach(value -> response.addHeader(name, value));
+            }
+        });
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.FORBIDDEN.value());
+            response.getOutputStream().write(REJECTION_BODY);
+            response.flushBuffer();
+        }
+        return decision.allowed();
+    }
+}
@@ -5,9 +5,11 @@ import static org.springframework.security.config.Customizer.withDefaults;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpMethod;
 import org.springframework.lang.NonNull;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -17,13 +19,14 @@ import org.springframework.security.web.csrf.CsrfToken;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.csrf.CsrfTokenRequestHandler;
 import org.springframework.security.web.csrf.XorCsrfTokenRequestAttributeHandler;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.util.StringUtils;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.c4_soft.springaddons.security.oidc.starter.PathPatternTrie;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.CorsProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.Csrf;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
@@ -106,28 +109,35 @@ public class ServletConfigurationSupport {
             http.anonymous(withDefaults());
         }
 
-        if (permitAll.size() > 0) {
-            http
-                .authorizeHttpRequests(
-                    registry -> registry.requestMatchers(permitAll.stream().map(AntPathRequestMatcher::new).toArray(AntPathRequestMatcher[]::new)).permitAll());
-        }
-
-        if (permittedCorsOptions.size() > 0) {
-            http
-                .authorizeHttpRequests(
-                    registry -> registry
-                        .requestMatchers(
-                            permittedCorsOptions
-                                .stream()
-                                .map(corsPathPattern -> new AntPathRequestMatcher(corsPathPattern, "OPTIONS"))
-                                .toArray(AntPathRequestMatcher[]::new))
-                        .permitAll());
+        // permit-all and CORS pre-flight paths are compiled into a single matcher, evaluated in one walk down the request path
+        final var permitted = new PathPatternTrie().addAll(permitAll, null).addAll(permittedCorsOptions, HttpMethod.OPTIONS);
+        if (!permitted.isEmpty()) {
+            http.authorizeHttpRequests(registry -> registry.requestMatchers(request -> permitted.matches(getRequestPath(request), request.getMethod())).permitAll());
         }
 
         return http.authorizeHttpRequests(registry -> authorizePostProcessor.authorizeHttpRequests(registry));
     }
 
+    /**
+     * @param request
+     * @return the request path within the application, as resolved by {@link org.springframework.security.web.util.matcher.AntPathRequestMatcher}
+     */
+    static String getRequestPath(HttpServletRequest request) {
+        final var pathInfo = request.getPathInfo();
+        return pathInfo == null ? request.getServletPath() : request.getServletPath() + pathInfo;
+    }
+
     public static CorsFilter getCorsFilterBean(List<CorsProperties> corsProperties) {
+        return getCorsFilterBean(corsProperties, Optional.empty());
+    }
+
+    /**
+     * @param corsProperties the CORS configuration for each path
+     * @param preflightCache if present, pre-flight requests are answered from this cache when a request with the same path configuration, origin, requested
+     *            method and requested headers was already processed
+     * @return a CORS filter for the given configuration
+     */
+    public static CorsFilter getCorsFilterBean(List<CorsProperties> corsProperties, Optional<CorsPreflightCache> preflightCache) {
         final var source = new UrlBasedCorsConfigurationSource();
         for (final var corsProps : corsProperties) {
             final var configuration = new CorsConfiguration();
@@ -139,7 +149,9 @@ public class ServletConfigurationSupport {
             configuration.setMaxAge(corsProps.getMaxAge());
             source.registerCorsConfiguration(corsProps.getPath(), configuration);
         }
-        return new CorsFilter(source);
+        final var filter = new CorsFilter(source);
+        preflightCache.ifPresent(cache -> filter.setCorsProcessor(new CachingCorsProcessor(cache)));
+        return filter;
     }
 
     public static HttpSecurity configureState(HttpSecurity http, boolean isStatless, Csrf csrfEnum) throws Exception {
@@ -1,17 +1,22 @@
 package com.c4_soft.springaddons.security.oidc.starter.synchronised;
 
+import java.time.Clock;
+
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 
 import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderPropertiesResolver;
 import com.c4_soft.springaddons.security.oidc.starter.ClaimSetAuthoritiesConverter;
 import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsCorsPreflightCacheEnabledCondition;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -42,4 +47,16 @@ public class SpringAddonsOidcBeans {
     ClaimSetAuthoritiesConverter authoritiesConverter(OpenidProviderPropertiesResolver authoritiesMappingPropertiesProvider) {
         return new ConfigurableClaimSetAuthoritiesConverter(authoritiesMappingPropertiesProvider);
     }
+
+    /**
+     * @param addonsProperties spring-addons configuration properties
+     * @return the cache for the CORS filter decisions about pre-flight requests
+     */
+    @Conditional(IsCorsPreflightCacheEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    CorsPreflightCache corsPreflightCache(SpringAddonsOidcProperties addonsProperties) {
+        final var cacheProperties = addonsProperties.getCorsPreflightCache();
+        return new CorsPreflightCache(cacheProperties.getMaxSize(), cacheProperties.getTimeToLive(), Clock.systemUTC());
+    }
 }
@@ -1,34 +1,85 @@
 package com.c4_soft.springaddons.security.oidc.starter.synchronised.client;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.security.core.Authentication;
+import org.springframework.web.util.WebUtils;
 
 import jakarta.servlet.http.HttpSession;
 
+/**
+ * <p>
+ * Keeps track, in the HTTP session, of the principal authenticated with each client registration (a user can be logged in with several OpenID Providers at
+ * the same time).
+ * </p>
+ * <p>
+ * Each session holds its own {@link ConcurrentMap}: there is no global lock, and the session mutex is taken only once per session, when this map is created.
+ * The session attribute is set again (so that distributed session stores persist the change) only when a principal was actually added, replaced or
+ * removed.
+ * </p>
+ */
 public class MultiTenantOAuth2PrincipalSupport {
 	private static final String OAUTH2_USERS_KEY = "com.c4-soft.spring-addons.oauth2.client.principal-by-client-registration-id";
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * @param session the HTTP session
+	 * @return a read-only view of the principals by client registration ID
+	 */
 	public static Map<String, Authentication> getAuthenticationsByClientRegistrationId(HttpSession session) {
-		return Optional.ofNullable((Map<String, Authentication>) session.getAttribute(OAUTH2_USERS_KEY)).orElse(new HashMap<String, Authentication>());
+		return getIdentities(session).map(Collections::unmodifiableMap).orElse(Map.of());
 	}
 
 	public static Optional<Authentication> getAuthentication(HttpSession session, String clientRegistrationId) {
-		return Optional.ofNullable(getAuthenticationsByClientRegistrationId(session).get(clientRegistrationId));
+		return getIdentities(session).map(identities -> identities.get(clientRegistrationId));
+	}
+
+	public static void add(HttpSession session, String clientRegistrationId, Authentication auth) {
+		final var identities = getOrCreateIdentities(session);
+		final var previous = identities.put(clientRegistrationId, auth);
+		if (!Objects.equals(previous, auth)) {
+			session.setAttribute(OAUTH2_USERS_KEY, identities);
+		}
 	}
 
-	public static synchronized void add(HttpSession session, String clientRegistrationId, Authentication auth) {
-		final var identities = getAuthenticationsByClientRegistrationId(session);
-		identities.put(clientRegistrationId, auth);
-		session.setAttribute(OAUTH2_USERS_KEY, identities);
+	public static void remove(HttpSession session, String clientRegistrationId) {
+		getIdentities(session).ifPresent(identities -> {
+			if (identities.remove(clientRegistrationId) != null) {
+				session.setAttribute(OAUTH2_USERS_KEY, identities);
+			}
+		});
 	}
 
-	public static synchronized void remove(HttpSession session, String clientRegistrationId) {
-		final var identities = getAuthenticationsByClientRegistrationId(session);
-		identities.remove(clientRegistrationId);
-		session.setAttribute(OAUTH2_USERS_KEY, identities);
+	@SuppressWarnings("unchecked")
+	private static Optional<ConcurrentMap<String, Authentication>> getIdentities(HttpSession session) {
+		final var attribute = session.getAttribute(OAUTH2_USERS_KEY);
+		if (attribute == null || attribute instanceof ConcurrentMap) {
+			return Optional.ofNullable((ConcurrentMap<String, Authentication>) attribute);
+		}
+		// attribute stored by a previous version (plain HashMap): migrate it
+		return Optional.of(getOrCreateIdentities(session));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ConcurrentMap<String, Authentication> getOrCreateIdentities(HttpSession session) {
+		if (session.getAttribute(OAUTH2_USERS_KEY) instanceof ConcurrentMap identities) {
+			return identities;
+		}
+		synchronized (WebUtils.getSessionMutex(session)) {
+			final var attribute = session.getAttribute(OAUTH2_USERS_KEY);
+			if (attribute instanceof ConcurrentMap identities) {
+				return identities;
+			}
+			final var identities = new ConcurrentHashMap<String, Authentication>();
+			if (attribute instanceof Map legacy) {
+				identities.putAll(legacy);
+			}
+			session.setAttribute(OAUTH2_USERS_KEY, identities);
+			return identities;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -29,6 +29,7 @@ import com.c4_soft.springaddons.security.oidc.starter.ClaimSetAuthoritiesConvert
 import com.c4_soft.springaddons.security.oidc.starter.ConfigurableClaimSetAuthoritiesConverter;
 import com.c4_soft.springaddons.security.oidc.starter.LogoutRequestUriBuilder;
 import com.c4_soft.springaddons.security.oidc.starter.SpringAddonsOAuth2LogoutRequestUriBuilder;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcClientProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultAuthenticationFailureHandlerCondition;
@@ -256,11 +257,11 @@ public class SpringAddonsOidcClientWithLoginBeans {
      */
     @Conditional(DefaultCorsFilterCondition.class)
     @Bean
-    CorsFilter corsFilter(SpringAddonsOidcProperties addonsProperties) {
+    CorsFilter corsFilter(SpringAddonsOidcProperties addonsProperties, Optional<CorsPreflightCache> corsPreflightCache) {
         final var corsProps = new ArrayList<>(addonsProperties.getCors());
         final var deprecatedClientCorsProps = addonsProperties.getClient().getCors();
         corsProps.addAll(deprecatedClientCorsProps);
 
-        return ServletConfigurationSupport.getCorsFilterBean(corsProps);
+        return ServletConfigurationSupport.getCorsFilterBean(corsProps, corsPreflightCache);
     }
 }
@@ -0,0 +1,78 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>
+ * An {@link OpaqueTokenIntrospector} decorator saving round-trips to the authorization server:
+ * </p>
+ * <ul>
+ * <li>introspection results are stored in an {@link OpaqueTokenIntrospectionCache} (until the token expires for active ones, for a short time for inactive
+ * ones)</li>
+ * <li>concurrent introspections of the same token are coalesced: a single call is made to the delegate and all the threads get its result</li>
+ * </ul>
+ * <p>
+ * Errors other than {@link BadOpaqueTokenException} (authorization server unreachable, for instance) are not cached.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class CachingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+    private final OpaqueTokenIntrospector delegate;
+    private final OpaqueTokenIntrospectionCache cache;
+    private final Map<String, CompletableFuture<OAuth2AuthenticatedPrincipal>> introspections = new ConcurrentHashMap<>();
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        final var key = OpaqueTokenIntrospectionCache.key(token);
+        final var cached = cache.get(key);
+        if (cached != null) {
+            return cached.orElseThrow(() -> new BadOpaqueTokenException("Provided token isn't active"));
+        }
+
+        final var introspection = new CompletableFuture<OAuth2AuthenticatedPrincipal>();
+        final var pending = introspections.putIfAbsent(key, introspection);
+        if (pending != null) {
+            return join(pending);
+        }
+
+        try {
+            final var principal = delegate.introspect(token);
+            cache.putActive(key, principal);
+            introspection.complete(principal);
+            return principal;
+        } catch (BadOpaqueTokenException e) {
+            cache.putInactive(key);
+            introspection.completeExceptionally(e);
+            throw e;
+        } catch (RuntimeException e) {
+            introspection.completeExceptionally(e);
+            throw e;
+        } finally {
+            introspections.remove(key, introspection);
+        }
+    }
+
+    private static OAuth2AuthenticatedPrincipal join(CompletableFuture<OAuth2AuthenticatedPrincipal> introspection) {
+        try {
+            return introspection.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.RemoteKeySourceException;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.JWTParser;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+/**
+ * <p>
+ * A {@link SpringAddonsJwtDecoder} behaving like {@link NimbusJwtDecoder}, but which can also process a {@link JWT} that was already parsed.
+ * </p>
+ * <p>
+ * The simplest way to get a {@link JWTProcessor} configured like Spring Security does is to capture it with a {@link NimbusJwtDecoder} builder
+ * "jwtProcessorCustomizer", as done in {@link DefaultSpringAddonsJwtDecoderFactory}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class DefaultSpringAddonsJwtDecoder implements SpringAddonsJwtDecoder {
+    private static final String DECODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to decode the Jwt: %s";
+
+    private final JWTProcessor<SecurityContext> jwtProcessor;
+
+    private Converter<Map<String, Object>, Map<String, Object>> claimSetConverter = MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+
+    private OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+
+    public DefaultSpringAddonsJwtDecoder(JWTProcessor<SecurityContext> jwtProcessor) {
+        Assert.notNull(jwtProcessor, "jwtProcessor cannot be null");
+        this.jwtProcessor = jwtProcessor;
+    }
+
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> jwtValidator) {
+        Assert.notNull(jwtValidator, "jwtValidator cannot be null");
+        this.jwtValidator = jwtValidator;
+    }
+
+    public void setClaimSetConverter(Converter<Map<String, Object>, Map<String, Object>> claimSetConverter) {
+        Assert.notNull(claimSetConverter, "claimSetConverter cannot be null");
+        this.claimSetConverter = claimSetConverter;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        final JWT jwt;
+        try {
+            jwt = JWTParser.parse(token);
+        } catch (Exception ex) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex);
+        }
+        return decode(jwt);
+    }
+
+    @Override
+    public Jwt decode(JWT jwt) throws JwtException {
+        if (jwt instanceof PlainJWT) {
+            throw new BadJwtException("Unsupported algorithm of " + jwt.getHeader().getAlgorithm());
+        }
+        return validateJwt(createJwt(jwt));
+    }
+
+    private Jwt createJwt(JWT parsedJwt) {
+        try {
+            final JWTClaimsSet jwtClaimsSet = jwtProcessor.process(parsedJwt, null);
+            final Map<String, Object> headers = new LinkedHashMap<>(parsedJwt.getHeader().toJSONObject());
+            final Map<String, Object> claims = claimSetConverter.convert(jwtClaimsSet.getClaims());
+            return Jwt.withTokenValue(parsedJwt.getParsedString()).headers(h -> h.putAll(headers)).claims(c -> c.putAll(claims)).build();
+        } catch (RemoteKeySourceException ex) {
+            if (ex.getCause() instanceof ParseException) {
+                throw new JwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed Jwk set"), ex);
+            }
+            throw new JwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex);
+        } catch (JOSEException ex) {
+            throw new JwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex);
+        } catch (Exception ex) {
+            if (ex.getCause() instanceof ParseException) {
+                throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed payload"), ex);
+            }
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, ex.getMessage()), ex);
+        }
+    }
+
+    private Jwt validateJwt(Jwt jwt) {
+        final var result = jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            final Collection<OAuth2Error> errors = result.getErrors();
+            throw new JwtValidationException(getJwtValidationExceptionMessage(errors), errors);
+        }
+        return jwt;
+    }
+
+    private static String getJwtValidationExceptionMessage(Collection<OAuth2Error> errors) {
+        for (OAuth2Error oAuth2Error : errors) {
+            if (StringUtils.hasLength(oAuth2Error.getDescription())) {
+                return String.format(DECODING_ERROR_MESSAGE_TEMPLATE, oAuth2Error.getDescription());
+            }
+        }
+        return "Unable to validate Jwt";
+    }
+}
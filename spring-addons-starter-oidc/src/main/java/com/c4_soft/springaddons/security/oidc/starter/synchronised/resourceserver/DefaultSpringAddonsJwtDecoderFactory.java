@@ -3,6 +3,7 @@ package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserv
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
@@ -17,6 +18,10 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.PrefetchedJwkSet;
+import com.c4_soft.springaddons.security.oidc.starter.PrefetchedJwkSets;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.JWTProcessor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,19 +30,37 @@ import lombok.RequiredArgsConstructor;
  * Provides with a JwtDecoder (configured with the required validators). Both JWK-set and issuer URIs are optional, but at least one must be provided.
  * </p>
  * <p>
+ * The decoders it builds are {@link DefaultSpringAddonsJwtDecoder} instances: {@link JWTClaimsSetAuthenticationManager} can hand them the token it already
+ * parsed to resolve the issuer.
+ * </p>
+ * <p>
  * Uses {@link OpenidProviderPropertiesResolver} to resolve the matching OpenID Provider configuration properties and throws an exception if none are found
  * (the token issuer is not trusted).
  * </p>
+ * <p>
+ * When {@link PrefetchedJwkSets} are provided, the decoders for configured OpenID Providers verify signatures with the keys they retrieve and refresh in
+ * the background instead of downloading JWK sets while processing requests. Other decoders use a regular remote JWK source.
+ * </p>
  */
 @RequiredArgsConstructor
 public class DefaultSpringAddonsJwtDecoderFactory implements SpringAddonsJwtDecoderFactory {
+    private final Optional<PrefetchedJwkSets> prefetchedJwkSets;
+
+    public DefaultSpringAddonsJwtDecoderFactory() {
+        this(Optional.empty());
+    }
 
     @Override
     public JwtDecoder create(Optional<URI> jwkSetUri, Optional<URI> issuer, Optional<String> audience) {
+        if (jwkSetUri.isEmpty() && issuer.isEmpty()) {
+            throw new InvalidJwtDecoderCreationParametersException();
+        }
 
-        final var decoder = jwkSetUri.isPresent()
-            ? NimbusJwtDecoder.withJwkSetUri(jwkSetUri.get().toString()).build()
-            : NimbusJwtDecoder.withIssuerLocation(issuer.orElseThrow(() -> new InvalidJwtDecoderCreationParametersException()).toString()).build();
+        final var decoder = new DefaultSpringAddonsJwtDecoder(
+            prefetchedJwkSets
+                .flatMap(jwkSets -> jwkSets.find(jwkSetUri, issuer))
+                .map(PrefetchedJwkSet::getJwtProcessor)
+                .orElseGet(() -> remoteJwtProcessor(jwkSetUri, issuer)));
 
         final OAuth2TokenValidator<Jwt> defaultValidator = issuer
             .map(URI::toString)
@@ -59,6 +82,17 @@ public class DefaultSpringAddonsJwtDecoderFactory implements SpringAddonsJwtDeco
         return decoder;
     }
 
+    private static JWTProcessor<SecurityContext> remoteJwtProcessor(Optional<URI> jwkSetUri, Optional<URI> issuer) {
+        final var builder = jwkSetUri.isPresent()
+            ? NimbusJwtDecoder.withJwkSetUri(jwkSetUri.get().toString())
+            : NimbusJwtDecoder.withIssuerLocation(issuer.get().toString());
+
+        // Capture the JWT processor configured by Spring Security to build a decoder accepting already parsed tokens
+        final var jwtProcessor = new AtomicReference<JWTProcessor<SecurityContext>>();
+        builder.jwtProcessorCustomizer(jwtProcessor::set).build();
+        return jwtProcessor.get();
+    }
+
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     static class InvalidJwtDecoderCreationParametersException extends RuntimeException {
         private static final long serialVersionUID = 3575615882241560832L;
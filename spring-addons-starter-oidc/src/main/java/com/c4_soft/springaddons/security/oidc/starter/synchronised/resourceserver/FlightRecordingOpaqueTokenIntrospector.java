@@ -0,0 +1,38 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
+
+import com.c4_soft.springaddons.security.oidc.starter.jfr.IntrospectionEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An {@link OpaqueTokenIntrospector} decorator recording an {@link IntrospectionEvent} JFR event for each call to the delegate. Wrapped by the
+ * {@link CachingOpaqueTokenIntrospector} when the introspection cache is enabled, so that only the requests actually sent to the authorization server are
+ * recorded.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class FlightRecordingOpaqueTokenIntrospector implements OpaqueTokenIntrospector {
+    private final OpaqueTokenIntrospector delegate;
+
+    @Override
+    public OAuth2AuthenticatedPrincipal introspect(String token) {
+        final var event = new IntrospectionEvent();
+        event.begin();
+        event.setResult(IntrospectionEvent.ERROR);
+        try {
+            final var principal = delegate.introspect(token);
+            event.setResult(IntrospectionEvent.ACTIVE);
+            return principal;
+        } catch (BadOpaqueTokenException e) {
+            event.setResult(IntrospectionEvent.INACTIVE);
+            throw e;
+        } finally {
+            event.commit();
+        }
+    }
+}
@@ -2,29 +2,34 @@ package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserv
 
 import java.net.URI;
 import java.text.ParseException;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationManagerResolver;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.AbstractOAuth2TokenAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.util.Assert;
 
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.ParsedBearerTokenAuthenticationToken;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.jfr.TokenAuthenticationEvent;
 import com.c4_soft.springaddons.security.oidc.starter.properties.NotAConfiguredOpenidProviderException;
+import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.JWTParser;
 
-import lombok.RequiredArgsConstructor;
-
 /**
  * <p>
  * An {@link AuthenticationManager} relying on {@link JWTClaimsSetAuthenticationManagerResolver}, itself using {@link SpringAddonsJwtDecoderFactory} and a
@@ -34,37 +39,137 @@ import lombok.RequiredArgsConstructor;
  * {@link DefaultSpringAddonsJwtDecoderFactory}, the default {@link SpringAddonsJwtDecoderFactory} throws an exception if the OpenID Provider configuration
  * properties could not be resolved from the JWT claims.
  * </p>
+ * <p>
+ * The token is parsed only once: when the decoder is a {@link SpringAddonsJwtDecoder} (which is the case of the ones built by
+ * {@link DefaultSpringAddonsJwtDecoderFactory}), the {@link JWT} parsed here to resolve the issuer is passed to it with a
+ * {@link ParsedBearerTokenAuthenticationToken}.
+ * </p>
+ * <p>
+ * When a {@link JwtAuthenticationCache} is provided, the JWTs of successful authentications are cached until the token expires and a token already
+ * authenticated is neither parsed nor decoded again. Only the conversion to an {@link AbstractAuthenticationToken} is run for each request, so that the
+ * authentication gets the details of the current request.
+ * </p>
+ * <p>
+ * When {@link AuthenticationObservations} are enabled, token parsing, OpenID Provider properties resolution, decoder creation and token decoding are
+ * observed.
+ * </p>
+ * <p>
+ * Each authentication is recorded as a {@link TokenAuthenticationEvent} JFR event (issuer, authentication cache hit or miss, and success).
+ * </p>
  *
  * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
  */
 public class JWTClaimsSetAuthenticationManager implements AuthenticationManager {
 
     private final JWTClaimsSetAuthenticationManagerResolver jwtAuthenticationManagerResolver;
+    private final Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter;
+    private final Optional<JwtAuthenticationCache> authenticationCache;
+    private final AuthenticationObservations observations;
 
     public JWTClaimsSetAuthenticationManager(
             OpenidProviderPropertiesResolver opPropertiesResolver,
             SpringAddonsJwtDecoderFactory jwtDecoderFactory,
             Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter) {
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, Optional.empty(), JwtAuthenticationManagerRegistry.unbounded());
+    }
+
+    public JWTClaimsSetAuthenticationManager(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            JwtAuthenticationManagerRegistry authenticationManagers) {
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, authenticationCache, authenticationManagers, AuthenticationObservations.DISABLED);
+    }
+
+    public JWTClaimsSetAuthenticationManager(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            JwtAuthenticationManagerRegistry authenticationManagers,
+            AuthenticationObservations observations) {
         this.jwtAuthenticationManagerResolver = new JWTClaimsSetAuthenticationManagerResolver(
             opPropertiesResolver,
             jwtDecoderFactory,
-            jwtAuthenticationConverter);
+            jwtAuthenticationConverter,
+            authenticationManagers,
+            observations);
+        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+        this.authenticationCache = authenticationCache;
+        this.observations = observations;
     }
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         Assert.isTrue(authentication instanceof BearerTokenAuthenticationToken, "Authentication must be of type BearerTokenAuthenticationToken");
-        JWTClaimsSet jwtClaimSet;
+        final var event = new TokenAuthenticationEvent();
+        event.begin();
         try {
-            jwtClaimSet = JWTParser.parse(((BearerTokenAuthenticationToken) authentication).getToken()).getJWTClaimsSet();
-        } catch (ParseException e) {
-            throw new InvalidBearerTokenException("Could not retrieve JWT claim-set");
+            final var result = authenticate((BearerTokenAuthenticationToken) authentication, event);
+            event.setSuccess(true);
+            return result;
+        } finally {
+            event.commit();
         }
+    }
+
+    private Authentication authenticate(BearerTokenAuthenticationToken bearer, TokenAuthenticationEvent event) {
+        final var cacheKey = authenticationCache.map(cache -> JwtAuthenticationCache.key(bearer.getToken()));
+        final var cached = cacheKey.map(key -> authenticationCache.get().get(key));
+        if (cached.isPresent()) {
+            event.setCache(TokenAuthenticationEvent.CACHE_HIT);
+            return convert(cached.get(), bearer);
+        }
+        event.setCache(cacheKey.isPresent() ? TokenAuthenticationEvent.CACHE_MISS : TokenAuthenticationEvent.CACHE_DISABLED);
+
+        final var parsed = observations.observe(Stage.TOKEN_PARSING, null, () -> ParsedJwt.parse(bearer.getToken()));
+        final var jwtClaimSet = parsed.claims();
+        event.setIssuer(jwtClaimSet.getIssuer());
         AuthenticationManager authenticationManager = this.jwtAuthenticationManagerResolver.resolve(jwtClaimSet);
         if (authenticationManager == null) {
             throw new InvalidBearerTokenException("Could not resolve the authentication manager for the provided JWT");
         }
-        return authenticationManager.authenticate(authentication);
+        final var request = new ParsedBearerTokenAuthenticationToken(bearer, parsed.jwt());
+        final var result = authenticationManager.authenticate(request);
+        if (result != null && result.isAuthenticated() && jwtClaimSet.getExpirationTime() != null) {
+            cacheKey
+                .ifPresent(key -> decodedJwt(request, result).ifPresent(jwt -> authenticationCache.get().put(key, jwt, jwtClaimSet.getExpirationTime().toInstant())));
+        }
+        return result;
+    }
+
+    private AbstractAuthenticationToken convert(Jwt jwt, BearerTokenAuthenticationToken bearer) {
+        final var token = jwtAuthenticationConverter.convert(jwt);
+        Assert.notNull(token, "token cannot be null");
+        if (token.getDetails() == null) {
+            token.setDetails(bearer.getDetails());
+        }
+        return token;
+    }
+
+    /**
+     * @return the JWT decoded by a spring-addons authentication provider, or the one held by a JWT authentication, if any
+     */
+    static Optional<Jwt> decodedJwt(ParsedBearerTokenAuthenticationToken request, Authentication result) {
+        if (request.getDecodedJwt() != null) {
+            return Optional.of(request.getDecodedJwt());
+        }
+        if (result instanceof AbstractOAuth2TokenAuthenticationToken<?> tokenAuthentication && tokenAuthentication.getToken() instanceof Jwt jwt) {
+            return Optional.of(jwt);
+        }
+        return Optional.empty();
+    }
+
+    static record ParsedJwt(JWT jwt, JWTClaimsSet claims) {
+        static ParsedJwt parse(String token) {
+            try {
+                final var jwt = JWTParser.parse(token);
+                return new ParsedJwt(jwt, jwt.getJWTClaimsSet());
+            } catch (ParseException e) {
+                throw new InvalidBearerTokenException("Could not retrieve JWT claim-set");
+            }
+        }
     }
 
     /**
@@ -79,33 +184,92 @@ public class JWTClaimsSetAuthenticationManager implements AuthenticationManager
      *
      * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
      */
-    @RequiredArgsConstructor
     public static class JWTClaimsSetAuthenticationManagerResolver implements AuthenticationManagerResolver<JWTClaimsSet> {
 
         private final OpenidProviderPropertiesResolver opPropertiesResolver;
         private final SpringAddonsJwtDecoderFactory jwtDecoderFactory;
         private final Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter;
-        private final Map<String, AuthenticationManager> jwtManagers = new ConcurrentHashMap<>();
+        private final JwtAuthenticationManagerRegistry jwtManagers;
+        private final AuthenticationObservations observations;
+
+        public JWTClaimsSetAuthenticationManagerResolver(
+                OpenidProviderPropertiesResolver opPropertiesResolver,
+                SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+                Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter) {
+            this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, JwtAuthenticationManagerRegistry.unbounded());
+        }
+
+        public JWTClaimsSetAuthenticationManagerResolver(
+                OpenidProviderPropertiesResolver opPropertiesResolver,
+                SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+                Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+                JwtAuthenticationManagerRegistry jwtManagers) {
+            this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, jwtManagers, AuthenticationObservations.DISABLED);
+        }
+
+        public JWTClaimsSetAuthenticationManagerResolver(
+                OpenidProviderPropertiesResolver opPropertiesResolver,
+                SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+                Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+                JwtAuthenticationManagerRegistry jwtManagers,
+                AuthenticationObservations observations) {
+            this.opPropertiesResolver = opPropertiesResolver;
+            this.jwtDecoderFactory = jwtDecoderFactory;
+            this.jwtAuthenticationConverter = jwtAuthenticationConverter;
+            this.jwtManagers = jwtManagers;
+            this.observations = observations;
+        }
 
         @Override
         public AuthenticationManager resolve(JWTClaimsSet jwt) {
-            final var issuer = jwt.getIssuer();
-            if (!jwtManagers.containsKey(issuer)) {
-                final var opProperties = opPropertiesResolver
-                    .resolve(jwt.getClaims())
-                    .orElseThrow(() -> new NotAConfiguredOpenidProviderException(jwt.getClaims()));
-
-                final var decoder = jwtDecoderFactory
-                    .create(
-                        Optional.ofNullable(opProperties.getJwkSetUri()),
-                        Optional.ofNullable(URI.create(jwt.getIssuer())),
-                        Optional.ofNullable(opProperties.getAud()));
-
-                var provider = new JwtAuthenticationProvider(decoder);
-                provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
-                jwtManagers.put(issuer, provider::authenticate);
+            final var manager = jwtManagers.computeIfAbsent(jwt.getIssuer(), issuer -> {
+                final var opProperties = observations
+                    .observe(
+                        Stage.OP_PROPERTIES_RESOLUTION,
+                        null,
+                        () -> opPropertiesResolver.resolve(jwt.getClaims()).orElseThrow(() -> new NotAConfiguredOpenidProviderException(jwt.getClaims())));
+
+                final var decoder = observations
+                    .observe(
+                        Stage.DECODER_CREATION,
+                        opProperties.getIss(),
+                        () -> jwtDecoderFactory
+                            .create(
+                                Optional.ofNullable(opProperties.getJwkSetUri()),
+                                Optional.ofNullable(URI.create(issuer)),
+                                Optional.ofNullable(opProperties.getAud())));
+
+                return authenticationProvider(observed(decoder, opProperties.getIss()))::authenticate;
+            });
+            return manager;
+        }
+
+        private JwtDecoder observed(JwtDecoder decoder, URI issuer) {
+            // always decorated: the JFR stage event may be enabled after the decoder creation
+            if (decoder instanceof SpringAddonsJwtDecoder springAddonsJwtDecoder) {
+                return new SpringAddonsJwtDecoder() {
+                    @Override
+                    public Jwt decode(String token) {
+                        return observations.observe(Stage.TOKEN_DECODING, issuer, () -> springAddonsJwtDecoder.decode(token));
+                    }
+
+                    @Override
+                    public Jwt decode(JWT jwt) {
+                        return observations.observe(Stage.TOKEN_DECODING, issuer, () -> springAddonsJwtDecoder.decode(jwt));
+                    }
+                };
+            }
+            return token -> observations.observe(Stage.TOKEN_DECODING, issuer, () -> decoder.decode(token));
+        }
+
+        private AuthenticationProvider authenticationProvider(JwtDecoder decoder) {
+            if (decoder instanceof SpringAddonsJwtDecoder springAddonsJwtDecoder) {
+                // the JWT parsed by JWTClaimsSetAuthenticationManager is processed without being parsed again
+                return new SpringAddonsJwtAuthenticationProvider(springAddonsJwtDecoder, jwtAuthenticationConverter);
             }
-            return jwtManagers.get(issuer);
+            final var provider = new JwtAuthenticationProvider(decoder);
+            provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+            return provider;
         }
     }
 
@@ -0,0 +1,30 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.security.authentication.AuthenticationManager;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.IssuerRegistry;
+
+/**
+ * The per-issuer {@link AuthenticationManager authentication managers} used by {@link JWTClaimsSetAuthenticationManager}, bounded according to
+ * "com.c4-soft.springaddons.oidc.resourceserver.authentication-managers.*"
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class JwtAuthenticationManagerRegistry extends IssuerRegistry<AuthenticationManager> {
+    public static final String REGISTRY_NAME = "spring-addons.jwt-authentication-managers";
+
+    public JwtAuthenticationManagerRegistry(int maxSize, Optional<Duration> idleTimeout, Clock clock) {
+        super(REGISTRY_NAME, maxSize, idleTimeout, clock);
+    }
+
+    /**
+     * @return a registry which never evicts issuers
+     */
+    public static JwtAuthenticationManagerRegistry unbounded() {
+        return new JwtAuthenticationManagerRegistry(Integer.MAX_VALUE, Optional.empty(), Clock.systemUTC());
+    }
+}
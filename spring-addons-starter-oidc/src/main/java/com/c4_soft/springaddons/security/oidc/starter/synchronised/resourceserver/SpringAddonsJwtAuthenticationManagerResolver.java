@@ -1,12 +1,16 @@
 package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
 
+import java.util.Optional;
+
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationManagerResolver;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
 import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager.JWTClaimsSetAuthenticationManagerResolver;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,7 +35,32 @@ public class SpringAddonsJwtAuthenticationManagerResolver implements Authenticat
             OpenidProviderPropertiesResolver opPropertiesResolver,
             SpringAddonsJwtDecoderFactory jwtDecoderFactory,
             Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter) {
-        this.authenticationManager = new JWTClaimsSetAuthenticationManager(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter);
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, Optional.empty(), JwtAuthenticationManagerRegistry.unbounded());
+    }
+
+    public SpringAddonsJwtAuthenticationManagerResolver(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            JwtAuthenticationManagerRegistry authenticationManagers) {
+        this(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter, authenticationCache, authenticationManagers, AuthenticationObservations.DISABLED);
+    }
+
+    public SpringAddonsJwtAuthenticationManagerResolver(
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            SpringAddonsJwtDecoderFactory jwtDecoderFactory,
+            Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            JwtAuthenticationManagerRegistry authenticationManagers,
+            AuthenticationObservations observations) {
+        this.authenticationManager = new JWTClaimsSetAuthenticationManager(
+            opPropertiesResolver,
+            jwtDecoderFactory,
+            jwtAuthenticationConverter,
+            authenticationCache,
+            authenticationManagers,
+            observations);
     }
 
     @Override
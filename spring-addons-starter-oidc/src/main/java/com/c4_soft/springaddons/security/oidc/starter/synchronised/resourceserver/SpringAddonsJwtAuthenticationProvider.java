@@ -0,0 +1,64 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.util.Assert;
+
+import com.c4_soft.springaddons.security.oidc.starter.ParsedBearerTokenAuthenticationToken;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Same as {@link JwtAuthenticationProvider}, except that the {@link SpringAddonsJwtDecoder} is given the already parsed JWT when authenticating a
+ * {@link ParsedBearerTokenAuthenticationToken}.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class SpringAddonsJwtAuthenticationProvider implements AuthenticationProvider {
+    private final SpringAddonsJwtDecoder jwtDecoder;
+    private final Converter<Jwt, ? extends AbstractAuthenticationToken> jwtAuthenticationConverter;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        final var bearer = (BearerTokenAuthenticationToken) authentication;
+        final var jwt = decode(bearer);
+        if (bearer instanceof ParsedBearerTokenAuthenticationToken parsed) {
+            parsed.setDecodedJwt(jwt);
+        }
+        final AbstractAuthenticationToken token = jwtAuthenticationConverter.convert(jwt);
+        Assert.notNull(token, "token cannot be null");
+        if (token.getDetails() == null) {
+            token.setDetails(bearer.getDetails());
+        }
+        return token;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return BearerTokenAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private Jwt decode(BearerTokenAuthenticationToken bearer) {
+        try {
+            if (bearer instanceof ParsedBearerTokenAuthenticationToken parsed && parsed.getJwt() != null) {
+                return jwtDecoder.decode(parsed.getJwt());
+            }
+            return jwtDecoder.decode(bearer.getToken());
+        } catch (BadJwtException failed) {
+            throw new InvalidBearerTokenException(failed.getMessage(), failed);
+        } catch (JwtException failed) {
+            throw new AuthenticationServiceException(failed.getMessage(), failed);
+        }
+    }
+}
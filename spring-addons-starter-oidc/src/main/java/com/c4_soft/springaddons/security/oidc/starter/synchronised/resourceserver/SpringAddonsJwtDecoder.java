@@ -0,0 +1,29 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.nimbusds.jwt.JWT;
+
+/**
+ * <p>
+ * A {@link JwtDecoder} which can also decode a token that was already parsed by Nimbus.
+ * </p>
+ * <p>
+ * {@link JWTClaimsSetAuthenticationManager} has to parse the token to resolve its issuer. When the decoder built by the {@link SpringAddonsJwtDecoderFactory}
+ * implements this interface, this parsed {@link JWT} is handed over to it instead of the raw token string, which saves a second Base64 decoding and JSON
+ * parsing of the token header and payload.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public interface SpringAddonsJwtDecoder extends JwtDecoder {
+
+    /**
+     * @param jwt a token already parsed by Nimbus (its {@link JWT#getParsedString() parsed string} is used as token value)
+     * @return the validated {@link Jwt}
+     * @throws JwtException if the token signature or claims are invalid
+     */
+    Jwt decode(JWT jwt) throws JwtException;
+}
@@ -1,13 +1,13 @@
 
 package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
 
-import java.sql.Date;
-import java.time.Instant;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -28,15 +28,10 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.oauth2.core.OAuth2AccessToken;
-import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
-import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
-import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
-import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.introspection.OpaqueTokenIntrospector;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -46,7 +41,14 @@ import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.web.filter.CorsFilter;
 
 import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
 import com.c4_soft.springaddons.security.oidc.starter.OpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.PrefetchedJwkSets;
+import com.c4_soft.springaddons.security.oidc.starter.SpringAddonsOpaqueTokenAuthenticationConverter;
+import com.c4_soft.springaddons.security.oidc.starter.cache.CorsPreflightCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
 import com.c4_soft.springaddons.security.oidc.starter.properties.NotAConfiguredOpenidProviderException;
 import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultAuthenticationManagerResolverCondition;
@@ -54,11 +56,15 @@ import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultJwtAbstractAuthenticationTokenConverterCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.DefaultOpaqueTokenAuthenticationConverterCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsIntrospectingResourceServerCondition;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsIntrospectionCacheEnabledCondition;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsJwkSetPrefetchEnabledCondition;
+import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsJwtAuthenticationCacheEnabledCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.bean.IsJwtDecoderResourceServerCondition;
 import com.c4_soft.springaddons.security.oidc.starter.properties.condition.configuration.IsOidcResourceServerCondition;
 import com.c4_soft.springaddons.security.oidc.starter.synchronised.ServletConfigurationSupport;
 import com.c4_soft.springaddons.security.oidc.starter.synchronised.SpringAddonsOidcBeans;
 
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 
 /**
@@ -149,6 +155,8 @@ public class SpringAddonsOidcResourceServerBeans {
      * @param httpPostProcessor Hook to override all or part of HttpSecurity auto-configuration
      * @param introspectionAuthenticationConverter Converts successful introspection result into an {@link Authentication}
      * @param opaqueTokenIntrospector the instrospector to use
+     * @param introspectionCache optional cache for the introspector (it is then decorated with a {@link CachingOpaqueTokenIntrospector}). Only the introspections
+     *            missing the cache are recorded as JFR events (see {@link FlightRecordingOpaqueTokenIntrospector})
      * @return A {@link SecurityWebFilterChain} for servlet resource-servers with access token introspection
      */
     @Conditional(IsIntrospectingResourceServerCondition.class)
@@ -162,11 +170,13 @@ public class SpringAddonsOidcResourceServerBeans {
             ResourceServerSynchronizedHttpSecurityPostProcessor httpPostProcessor,
             OpaqueTokenAuthenticationConverter introspectionAuthenticationConverter,
             OpaqueTokenIntrospector opaqueTokenIntrospector,
+            Optional<OpaqueTokenIntrospectionCache> introspectionCache,
             AuthenticationEntryPoint authenticationEntryPoint,
             Optional<AccessDeniedHandler> accessDeniedHandler)
             throws Exception {
         http.oauth2ResourceServer(server -> server.opaqueToken(ot -> {
-            ot.introspector(opaqueTokenIntrospector);
+            final var recordingIntrospector = new FlightRecordingOpaqueTokenIntrospector(opaqueTokenIntrospector);
+            ot.introspector(introspectionCache.<OpaqueTokenIntrospector>map(cache -> new CachingOpaqueTokenIntrospector(recordingIntrospector, cache)).orElse(recordingIntrospector));
             ot.authenticationConverter(introspectionAuthenticationConverter);
             server.authenticationEntryPoint(authenticationEntryPoint);
             accessDeniedHandler.ifPresent(server::accessDeniedHandler);
@@ -200,10 +210,47 @@ public class SpringAddonsOidcResourceServerBeans {
         return httpSecurity -> httpSecurity;
     }
 
+    /**
+     * Observations of the authentication pipeline stages, enabled with "com.c4-soft.springaddons.oidc.resourceserver.observations.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @param observationRegistry the registry to record observations in (provided by Spring Boot actuator)
+     * @return disabled observations, unless enabled in the properties and a registry is available
+     */
+    @ConditionalOnMissingBean
+    @Bean
+    AuthenticationObservations authenticationObservations(SpringAddonsOidcProperties addonsProperties, Optional<ObservationRegistry> observationRegistry) {
+        if (!addonsProperties.getResourceserver().getObservations().isEnabled()) {
+            return AuthenticationObservations.DISABLED;
+        }
+        return observationRegistry.map(AuthenticationObservations::new).orElse(AuthenticationObservations.DISABLED);
+    }
+
+    @ConditionalOnMissingBean
+    @Bean
+    SpringAddonsJwtDecoderFactory springAddonsJwtDecoderFactory(Optional<PrefetchedJwkSets> prefetchedJwkSets) {
+        return new DefaultSpringAddonsJwtDecoderFactory(prefetchedJwkSets);
+    }
+
+    /**
+     * Startup retrieval and background refresh of the JWK sets of all the configured OpenID Providers, enabled with
+     * "com.c4-soft.springaddons.oidc.resourceserver.jwk-set-prefetch.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @param beanFactory to get the spring-addons-starter-rest proxy configuration, if it is on the class-path
+     * @return JWK sets for the default JWT decoder factory to use instead of downloading keys when processing requests
+     */
+    @Conditional(IsJwkSetPrefetchEnabledCondition.class)
     @ConditionalOnMissingBean
     @Bean
-    SpringAddonsJwtDecoderFactory springAddonsJwtDecoderFactory() {
-        return new DefaultSpringAddonsJwtDecoderFactory();
+    PrefetchedJwkSets prefetchedJwkSets(SpringAddonsOidcProperties addonsProperties, BeanFactory beanFactory) {
+        final var prefetchProperties = addonsProperties.getResourceserver().getJwkSetPrefetch();
+        return new PrefetchedJwkSets(
+            addonsProperties.getOps(),
+            prefetchProperties.getRefreshInterval(),
+            prefetchProperties.getMinRefreshInterval(),
+            PrefetchedJwkSets.restClient(prefetchProperties, beanFactory),
+            Clock.systemUTC());
     }
 
     /**
@@ -212,6 +259,9 @@ public class SpringAddonsOidcResourceServerBeans {
      * @param opPropertiesResolver a resolver for OpenID Provider configuration properties
      * @param jwtDecoderFactory something to build a JWT decoder from OpenID Provider configuration properties
      * @param jwtAuthenticationConverter converts from a {@link Jwt} to an {@link Authentication} implementation
+     * @param authenticationCache optional cache for successful JWT authentications
+     * @param authenticationManagers the registry for per-issuer authentication managers
+     * @param observations observes token parsing, OpenID Provider properties resolution, decoder creation and token decoding
      * @return Multi-tenant {@link AuthenticationManagerResolver<HttpServletRequest>} (one for each configured issuer)
      */
     @Conditional(DefaultAuthenticationManagerResolverCondition.class)
@@ -219,8 +269,64 @@ public class SpringAddonsOidcResourceServerBeans {
     AuthenticationManagerResolver<HttpServletRequest> authenticationManagerResolver(
             OpenidProviderPropertiesResolver opPropertiesResolver,
             SpringAddonsJwtDecoderFactory jwtDecoderFactory,
-            Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter) {
-        return new SpringAddonsJwtAuthenticationManagerResolver(opPropertiesResolver, jwtDecoderFactory, jwtAuthenticationConverter);
+            Converter<Jwt, AbstractAuthenticationToken> jwtAuthenticationConverter,
+            Optional<JwtAuthenticationCache> authenticationCache,
+            JwtAuthenticationManagerRegistry authenticationManagers,
+            AuthenticationObservations observations) {
+        return new SpringAddonsJwtAuthenticationManagerResolver(
+            opPropertiesResolver,
+            jwtDecoderFactory,
+            jwtAuthenticationConverter,
+            authenticationCache,
+            authenticationManagers,
+            observations);
+    }
+
+    /**
+     * Cache for opaque tokens introspection, enabled with "com.c4-soft.springaddons.oidc.resourceserver.introspection-cache.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @return a cache for the introspector used by the default introspecting filter-chain
+     */
+    @Conditional(IsIntrospectionCacheEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    OpaqueTokenIntrospectionCache opaqueTokenIntrospectionCache(SpringAddonsOidcProperties addonsProperties) {
+        final var cacheProperties = addonsProperties.getResourceserver().getIntrospectionCache();
+        return new OpaqueTokenIntrospectionCache(
+            cacheProperties.getMaxSize(),
+            cacheProperties.getTimeToLive(),
+            cacheProperties.getNegativeTimeToLive(),
+            cacheProperties.getMaxAttributesWeight().toBytes(),
+            Clock.systemUTC());
+    }
+
+    /**
+     * Registry for the authentication managers created by the default authenticationManagerResolver (one per issuer)
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @return a registry bounded according to "com.c4-soft.springaddons.oidc.resourceserver.authentication-managers.*"
+     */
+    @Conditional(IsJwtDecoderResourceServerCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    JwtAuthenticationManagerRegistry jwtAuthenticationManagerRegistry(SpringAddonsOidcProperties addonsProperties) {
+        final var registryProperties = addonsProperties.getResourceserver().getAuthenticationManagers();
+        return new JwtAuthenticationManagerRegistry(registryProperties.getMaxSize(), registryProperties.getIdleTimeout(), Clock.systemUTC());
+    }
+
+    /**
+     * Cache for successful JWT authentications, enabled with "com.c4-soft.springaddons.oidc.resourceserver.authentication-cache.enabled"
+     *
+     * @param addonsProperties "com.c4-soft.springaddons.oidc" configuration properties
+     * @return a cache for the JWTs decoded by the default authenticationManagerResolver
+     */
+    @Conditional(IsJwtAuthenticationCacheEnabledCondition.class)
+    @ConditionalOnMissingBean
+    @Bean
+    JwtAuthenticationCache jwtAuthenticationCache(SpringAddonsOidcProperties addonsProperties) {
+        final var cacheProperties = addonsProperties.getResourceserver().getAuthenticationCache();
+        return new JwtAuthenticationCache(cacheProperties.getMaxSize(), cacheProperties.getTimeToLive(), Clock.systemUTC());
     }
 
     @ConditionalOnMissingBean
@@ -237,20 +343,25 @@ public class SpringAddonsOidcResourceServerBeans {
      *
      * @param authoritiesConverter converts access-token claims into Spring authorities
      * @param opPropertiesResolver spring-addons configuration properties
+     * @param observations observes authorities mapping and principal building
      * @return a converter from {@link Jwt} to {@link AbstractAuthenticationToken}
      */
     @Conditional(DefaultJwtAbstractAuthenticationTokenConverterCondition.class)
     @Bean
     JwtAbstractAuthenticationTokenConverter jwtAuthenticationConverter(
             Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
-            OpenidProviderPropertiesResolver opPropertiesResolver) {
-        return jwt -> new JwtAuthenticationToken(
-            jwt,
-            authoritiesConverter.convert(jwt.getClaims()),
-            new OpenidClaimSet(
-                jwt.getClaims(),
-                opPropertiesResolver.resolve(jwt.getClaims()).orElseThrow(() -> new NotAConfiguredOpenidProviderException(jwt.getClaims())).getUsernameClaim())
-                    .getName());
+            OpenidProviderPropertiesResolver opPropertiesResolver,
+            AuthenticationObservations observations) {
+        return jwt -> {
+            final var claims = jwt.getClaims();
+            final var opProperties = opPropertiesResolver.resolve(claims).orElseThrow(() -> new NotAConfiguredOpenidProviderException(claims));
+            final var authorities = observations.observe(Stage.AUTHORITIES_MAPPING, opProperties.getIss(), () -> authoritiesConverter.convert(claims));
+            return observations
+                .observe(
+                    Stage.PRINCIPAL_BUILDING,
+                    opProperties.getIss(),
+                    () -> new JwtAuthenticationToken(jwt, authorities, OpenidClaimSet.resolveName(claims, opProperties.getUsernameClaimPath())));
+        };
     }
 
     /**
@@ -259,35 +370,21 @@ public class SpringAddonsOidcResourceServerBeans {
      * @param authoritiesConverter converts access-token claims into Spring authorities
      * @param addonsProperties spring-addons configuration properties
      * @param resourceServerProperties Spring Boot standard resource server configuration properties
+     * @param observations observes authorities mapping and principal building
      * @return a converter from successful introspection result to an {@link Authentication} instance
      */
     @Conditional(DefaultOpaqueTokenAuthenticationConverterCondition.class)
     @Bean
-    @SuppressWarnings("unchecked")
     OpaqueTokenAuthenticationConverter introspectionAuthenticationConverter(
             Converter<Map<String, Object>, Collection<? extends GrantedAuthority>> authoritiesConverter,
             SpringAddonsOidcProperties addonsProperties,
-            OAuth2ResourceServerProperties resourceServerProperties) {
-        return (String introspectedToken, OAuth2AuthenticatedPrincipal authenticatedPrincipal) -> {
-            final var iatClaim = authenticatedPrincipal.getAttribute(OAuth2TokenIntrospectionClaimNames.IAT);
-            final var expClaim = authenticatedPrincipal.getAttribute(OAuth2TokenIntrospectionClaimNames.EXP);
-            return new BearerTokenAuthentication(
-                new OAuth2IntrospectionAuthenticatedPrincipal(
-                    new OpenidClaimSet(
-                        authenticatedPrincipal.getAttributes(),
-                        addonsProperties
-                            .getOps()
-                            .stream()
-                            .filter(
-                                openidProvider -> resourceServerProperties.getOpaquetoken().getIntrospectionUri().contains(openidProvider.getIss().toString()))
-                            .findAny()
-                            .orElse(addonsProperties.getOps().get(0))
-                            .getUsernameClaim()).getName(),
-                    authenticatedPrincipal.getAttributes(),
-                    (Collection<GrantedAuthority>) authenticatedPrincipal.getAuthorities()),
-                new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, introspectedToken, toInstant(iatClaim), toInstant(expClaim)),
-                authoritiesConverter.convert(authenticatedPrincipal.getAttributes()));
-        };
+            OAuth2ResourceServerProperties resourceServerProperties,
+            AuthenticationObservations observations) {
+        return new SpringAddonsOpaqueTokenAuthenticationConverter(
+            authoritiesConverter,
+            SpringAddonsOpaqueTokenAuthenticationConverter
+                .getIntrospectionOpenidProvider(addonsProperties, resourceServerProperties.getOpaquetoken().getIntrospectionUri()),
+            observations);
     }
 
     /**
@@ -295,31 +392,12 @@ public class SpringAddonsOidcResourceServerBeans {
      */
     @Conditional(DefaultCorsFilterCondition.class)
     @Bean
-    CorsFilter corsFilter(SpringAddonsOidcProperties addonsProperties) {
+    CorsFilter corsFilter(SpringAddonsOidcProperties addonsProperties, Optional<CorsPreflightCache> corsPreflightCache) {
         final var corsProps = new ArrayList<>(addonsProperties.getCors());
         final var deprecatedResourceServerCorsProps = addonsProperties.getResourceserver().getCors();
         corsProps.addAll(deprecatedResourceServerCorsProps);
 
-        return ServletConfigurationSupport.getCorsFilterBean(corsProps);
-    }
-
-    private static final Instant toInstant(Object claim) {
-        if (claim == null) {
-            return null;
-        }
-        if (claim instanceof Instant i) {
-            return i;
-        }
-        if (claim instanceof Date d) {
-            return d.toInstant();
-        }
-        if (claim instanceof Integer i) {
-            return Instant.ofEpochSecond((i).longValue());
-        } else if (claim instanceof Long l) {
-            return Instant.ofEpochSecond(l);
-        } else {
-            return null;
-        }
+        return ServletConfigurationSupport.getCorsFilterBean(corsProps, corsPreflightCache);
     }
 
 }
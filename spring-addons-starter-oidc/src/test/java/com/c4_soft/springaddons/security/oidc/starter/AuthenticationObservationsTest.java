@@ -0,0 +1,177 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations.Stage;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.DefaultSpringAddonsJwtDecoder;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JwtAuthenticationManagerRegistry;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+public class AuthenticationObservationsTest {
+	private static final URI ISSUER = URI.create("https://localhost:8443/realms/test");
+
+	private final List<Observation.Context> stopped = new CopyOnWriteArrayList<>();
+	private AuthenticationObservations observations;
+
+	@BeforeEach
+	public void setUp() {
+		final var registry = ObservationRegistry.create();
+		registry.observationConfig().observationHandler(new ObservationHandler<>() {
+			@Override
+			public void onStop(Observation.Context context) {
+				stopped.add(context);
+			}
+
+			@Override
+			public boolean supportsContext(Observation.Context context) {
+				return true;
+			}
+		});
+		observations = new AuthenticationObservations(registry);
+	}
+
+	@Test
+	public void givenRegistryIsNoop_whenObserve_thenOperationIsRunWithoutObservation() {
+		assertThat(AuthenticationObservations.DISABLED.isEnabled()).isFalse();
+		assertThat(AuthenticationObservations.DISABLED.observe(Stage.TOKEN_PARSING, null, () -> "parsed")).isEqualTo("parsed");
+		assertThat(AuthenticationObservations.DISABLED.observeMono(Stage.TOKEN_DECODING, ISSUER, () -> Mono.just("decoded")).block()).isEqualTo("decoded");
+		assertThat(stopped).isEmpty();
+	}
+
+	@Test
+	public void whenObserve_thenStageIssuerAndOutcomeAreTagged() {
+		assertThat(observations.observe(Stage.AUTHORITIES_MAPPING, ISSUER, () -> List.of("NICE"))).containsExactly("NICE");
+		assertThatThrownBy(() -> observations.observe(Stage.PRINCIPAL_BUILDING, null, () -> {
+			throw new IllegalStateException("failed");
+		})).isInstanceOf(IllegalStateException.class);
+
+		assertThat(stopped).hasSize(2);
+		assertThat(tags(stopped.get(0)))
+				.containsEntry("stage", "authorities-mapping")
+				.containsEntry("issuer", ISSUER.toString())
+				.containsEntry("outcome", "success");
+		assertThat(tags(stopped.get(1))).containsEntry("stage", "principal-building").containsEntry("issuer", "none").containsEntry("outcome", "failure");
+		assertThat(stopped.get(1).getError()).isInstanceOf(IllegalStateException.class);
+		assertThat(stopped.get(0).getName()).isEqualTo(AuthenticationObservations.OBSERVATION_NAME);
+	}
+
+	@Test
+	public void whenObserveMono_thenObservationStopsOnTermination() {
+		final var decoded = observations.observeMono(Stage.TOKEN_DECODING, ISSUER, () -> Mono.just("decoded"));
+		assertThat(stopped).isEmpty();
+
+		assertThat(decoded.block()).isEqualTo("decoded");
+		assertThat(observations.observeMono(Stage.TOKEN_DECODING, ISSUER, () -> Mono.error(new IllegalStateException("failed"))).onErrorComplete().block())
+				.isNull();
+
+		assertThat(stopped).hasSize(2);
+		assertThat(tags(stopped.get(0))).containsEntry("stage", "token-decoding").containsEntry("outcome", "success");
+		assertThat(tags(stopped.get(1))).containsEntry("stage", "token-decoding").containsEntry("outcome", "failure");
+	}
+
+	@Test
+	public void givenObservationsAreEnabled_whenJwtIsAuthenticated_thenEachStageIsObserved() throws Exception {
+		final var rsaKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+		final var op = new OpenidProviderProperties();
+		op.setIss(ISSUER);
+		op.setUsernameClaim("preferred_username");
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(op));
+		final var opPropertiesResolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+
+		final var jwtProcessor = new AtomicReference<JWTProcessor<SecurityContext>>();
+		NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).jwtProcessorCustomizer(jwtProcessor::set).build();
+		final var manager = new JWTClaimsSetAuthenticationManager(
+				opPropertiesResolver,
+				(jwkSetUri, issuer, audience) -> new DefaultSpringAddonsJwtDecoder(jwtProcessor.get()),
+				jwt -> {
+					final var authorities = observations.observe(Stage.AUTHORITIES_MAPPING, ISSUER, () -> AuthorityUtils.createAuthorityList("NICE"));
+					return observations
+							.observe(
+									Stage.PRINCIPAL_BUILDING,
+									ISSUER,
+									() -> new JwtAuthenticationToken(jwt, authorities, OpenidClaimSet.resolveName(jwt.getClaims(), op.getUsernameClaimPath())));
+				},
+				Optional.empty(),
+				JwtAuthenticationManagerRegistry.unbounded(),
+				observations);
+
+		final var authentication = manager.authenticate(new BearerTokenAuthenticationToken(sign(rsaKey)));
+
+		assertThat(authentication.getName()).isEqualTo("ch4mp");
+		assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities())).containsExactly("NICE");
+		assertThat(stopped.stream().map(context -> tags(context).get("stage")))
+				.containsExactly(
+						"token-parsing",
+						"op-properties-resolution",
+						"decoder-creation",
+						"token-decoding",
+						"authorities-mapping",
+						"principal-building");
+		assertThat(stopped.stream().map(context -> tags(context).get("issuer")))
+				.containsExactly("none", "none", ISSUER.toString(), ISSUER.toString(), ISSUER.toString(), ISSUER.toString());
+		assertThat(stopped.stream().map(context -> tags(context).get("outcome"))).containsOnly("success");
+
+		stopped.clear();
+		manager.authenticate(new BearerTokenAuthenticationToken(sign(rsaKey)));
+		assertThat(stopped.stream().map(context -> tags(context).get("stage")))
+				.as("the authentication manager for an issuer is created only once")
+				.containsExactly("token-parsing", "token-decoding", "authorities-mapping", "principal-building");
+	}
+
+	private static Map<String, String> tags(Observation.Context context) {
+		final var tags = new HashMap<String, String>();
+		context.getLowCardinalityKeyValues().forEach(keyValue -> tags.put(keyValue.getKey(), keyValue.getValue()));
+		return tags;
+	}
+
+	private static String sign(RSAKey rsaKey) throws Exception {
+		final var now = Instant.now();
+		final var jwt = new SignedJWT(
+				new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+				new JWTClaimsSet.Builder()
+						.issuer(ISSUER.toString())
+						.subject("0b16e8ba")
+						.claim("preferred_username", "ch4mp")
+						.issueTime(Date.from(now))
+						.expirationTime(Date.from(now.plusSeconds(300)))
+						.build());
+		jwt.sign(new RSASSASigner(rsaKey));
+		return jwt.serialize();
+	}
+}
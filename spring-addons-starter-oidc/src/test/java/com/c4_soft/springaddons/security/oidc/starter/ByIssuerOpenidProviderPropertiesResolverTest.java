@@ -0,0 +1,83 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.IssuerMatching;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+
+public class ByIssuerOpenidProviderPropertiesResolverTest {
+
+	@Test
+	public void givenExactMatching_whenResolve_thenOnlyEqualIssuerIsResolved() throws Exception {
+		final var properties = properties(IssuerMatching.EXACT, "https://localhost:8443/realms/master", "https://localhost:8443/realms/other");
+		final var resolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, new URL("https://localhost:8443/realms/other"))))
+				.contains(properties.getOps().get(1));
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/master"))).contains(properties.getOps().get(0));
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/master/"))).isEmpty();
+		assertThat(resolver.resolve(Map.of())).isEmpty();
+	}
+
+	@Test
+	public void givenPrefixMatching_whenResolve_thenLongestPrefixIsResolved() {
+		final var properties = properties(IssuerMatching.PREFIX, "https://localhost:8443/realms/", "https://localhost:8443/realms/special");
+		final var resolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/tenant-1"))).contains(properties.getOps().get(0));
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/special"))).contains(properties.getOps().get(1));
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/special/tenant"))).contains(properties.getOps().get(1));
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/"))).isEmpty();
+	}
+
+	@Test
+	public void givenPrefixMatching_whenTokenIssuerExtendsAPathSegment_thenSegmentIsNotMatched() {
+		final var properties = properties(IssuerMatching.PREFIX, "https://localhost:8443/realms/", "https://localhost:8443/realms/special");
+		final var resolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/special-tenant"))).contains(properties.getOps().get(0));
+	}
+
+	@Test
+	public void givenPrefixMatching_whenTokenIssuerHostExtendsConfiguredHost_thenIssuerIsNotResolved() {
+		final var properties = properties(IssuerMatching.PREFIX, "https://idp.example.com", "https://idp.example.com/realms/special");
+		final var resolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://idp.example.com/realms/other"))).contains(properties.getOps().get(0));
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://idp.example.com.attacker.net/realms/special"))).isEmpty();
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://idp.example.com:8443/realms/special"))).isEmpty();
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "http://idp.example.com/realms/special"))).isEmpty();
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://idp.example.com@attacker.net/realms/special"))).isEmpty();
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "not an URI"))).isEmpty();
+	}
+
+	@Test
+	public void givenOpsAreReplaced_whenResolve_thenNewOpsAreUsed() {
+		final var properties = properties(IssuerMatching.EXACT, "https://localhost:8443/realms/master");
+		final var resolver = new ByIssuerOpenidProviderPropertiesResolver(properties);
+		properties.setOps(properties(IssuerMatching.EXACT, "https://localhost:8443/realms/other").getOps());
+
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/master"))).isEmpty();
+		assertThat(resolver.resolve(Map.of(JwtClaimNames.ISS, "https://localhost:8443/realms/other"))).contains(properties.getOps().get(0));
+	}
+
+	private static SpringAddonsOidcProperties properties(IssuerMatching matching, String... issuers) {
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOpsIssuerMatching(matching);
+		properties.setOps(List.of(issuers).stream().map(iss -> {
+			final var op = new OpenidProviderProperties();
+			op.setIss(URI.create(iss));
+			return op;
+		}).toList());
+		return properties;
+	}
+}
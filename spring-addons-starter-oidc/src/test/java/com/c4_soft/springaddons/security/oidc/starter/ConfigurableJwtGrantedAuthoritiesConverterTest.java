@@ -70,6 +70,80 @@ public class ConfigurableJwtGrantedAuthoritiesConverterTest {
 				.containsExactlyInAnyOrder("TRUC_r11", "TRUC_r12", "CHOSE_R31", "CHOSE_R32", "MACHIN_r1", "MACHIN_r2");
 	}
 
+	@Test
+	public void givenIndefiniteOrBracketNotationPaths_whenConvert_thenAllRolesAreMapped() throws URISyntaxException {
+		final var issuer = new URI("https://authorisation-server");
+
+		// @formatter:off
+		final var claims = Map.<String, Object>of(
+				JwtClaimNames.ISS, issuer,
+				"resource_access", Map.of(
+						"client1", Map.of("roles", List.of("R11", "r12")),
+						"client2", Map.of("roles", List.of("R21"))),
+				"https://c4-soft.com/user", Map.of("roles", " a,b  c ,"));
+		// @formatter:on
+
+		final var issuerProperties = new OpenidProviderProperties();
+		issuerProperties.setIss(issuer);
+		issuerProperties.setAuthorities(
+				List.of(
+						simpleAuthoritiesMappingProperties("$.resource_access.*.roles", "", Case.UPPER),
+						simpleAuthoritiesMappingProperties("$['https://c4-soft.com/user']['roles']", "ROLE_", Case.UNCHANGED)));
+
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(issuerProperties));
+
+		final var converter = new ConfigurableClaimSetAuthoritiesConverter(new ByIssuerOpenidProviderPropertiesResolver(properties));
+
+		final var first = converter.convert(claims);
+		assertThat(first.stream().map(GrantedAuthority::getAuthority).toList())
+				.containsExactlyInAnyOrder("R11", "R12", "R21", "ROLE_a", "ROLE_b", "ROLE_c");
+
+		// authorities are interned
+		final var second = converter.convert(claims);
+		assertThat(second).hasSameSizeAs(first);
+		assertThat(second.iterator().next()).isSameAs(first.iterator().next());
+	}
+
+	@Test
+	public void whenPrefixIsNullThenItIsWrittenNull() {
+		final var issuer = URI.create("https://authorisation-server");
+		final var claims = Map.<String, Object>of(JwtClaimNames.ISS, issuer, "roles", List.of("a"));
+
+		final var issuerProperties = new OpenidProviderProperties();
+		issuerProperties.setIss(issuer);
+		issuerProperties.setAuthorities(List.of(simpleAuthoritiesMappingProperties("roles", null, Case.UNCHANGED)));
+
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(issuerProperties));
+
+		final var converter = new ConfigurableClaimSetAuthoritiesConverter(new ByIssuerOpenidProviderPropertiesResolver(properties));
+
+		assertThat(converter.convert(claims).stream().map(GrantedAuthority::getAuthority).toList()).containsExactly("nulla");
+	}
+
+	@Test
+	public void whenMappingPropertiesAreModifiedThenMappingIsCompiledAgain() {
+		final var issuer = URI.create("https://authorisation-server");
+		final var claims = Map.<String, Object>of(JwtClaimNames.ISS, issuer, "roles", List.of("a"), "groups", List.of("g"));
+
+		final var mappingProperties = simpleAuthoritiesMappingProperties("roles", "ROLE_", Case.UNCHANGED);
+		final var issuerProperties = new OpenidProviderProperties();
+		issuerProperties.setIss(issuer);
+		issuerProperties.setAuthorities(List.of(mappingProperties));
+
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(issuerProperties));
+
+		final var converter = new ConfigurableClaimSetAuthoritiesConverter(new ByIssuerOpenidProviderPropertiesResolver(properties));
+		assertThat(converter.convert(claims).stream().map(GrantedAuthority::getAuthority).toList()).containsExactly("ROLE_a");
+
+		mappingProperties.setPath("groups");
+		mappingProperties.setPrefix("GROUP_");
+		mappingProperties.setCaze(Case.UPPER);
+		assertThat(converter.convert(claims).stream().map(GrantedAuthority::getAuthority).toList()).containsExactly("GROUP_G");
+	}
+
 	private static SimpleAuthoritiesMappingProperties simpleAuthoritiesMappingProperties(String jsonPath, String prefix, Case caseTransformation) {
 		final var props = new SimpleAuthoritiesMappingProperties();
 		props.setCaze(caseTransformation);
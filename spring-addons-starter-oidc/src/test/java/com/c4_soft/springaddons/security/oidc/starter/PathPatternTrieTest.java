@@ -0,0 +1,76 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public class PathPatternTrieTest {
+	private static final List<String> PERMIT_ALL = List.of("/", "/actuator/health", "/actuator/health/**", "/public/**", "/users/*/avatar", "/v3/api-docs/**", "/**/*.css", "/static/{file}.js");
+	private static final List<String> CORS = List.of("/api/**", "/greet");
+
+	private final PathPatternTrie trie = new PathPatternTrie().addAll(PERMIT_ALL, null).addAll(CORS, HttpMethod.OPTIONS);
+
+	@Test
+	public void givenLiteralAndCatchAllPatterns_whenMatches_thenWholeSegmentsAreCompared() {
+		assertThat(trie.matches("/", "GET")).isTrue();
+		assertThat(trie.matches("/actuator/health", "GET")).isTrue();
+		assertThat(trie.matches("/actuator/health/liveness", "GET")).isTrue();
+		assertThat(trie.matches("/actuator/healthy", "GET")).isFalse();
+		assertThat(trie.matches("/actuator", "GET")).isFalse();
+		assertThat(trie.matches("/public", "POST")).isTrue();
+		assertThat(trie.matches("/public/a/b/c", "DELETE")).isTrue();
+		assertThat(trie.matches("/publications", "GET")).isFalse();
+	}
+
+	@Test
+	public void givenPatternsWithVariablesOrWildcards_whenMatches_thenPathPatternsAreEvaluated() {
+		assertThat(trie.matches("/users/ch4mp/avatar", "GET")).isTrue();
+		assertThat(trie.matches("/users/ch4mp/profile", "GET")).isFalse();
+		assertThat(trie.matches("/static/main.js", "GET")).isTrue();
+		assertThat(trie.matches("/static/main.css", "GET")).as("pattern rejected by PathPatternParser is evaluated with Ant syntax").isTrue();
+		assertThat(trie.matches("/static/main.map", "GET")).isFalse();
+		assertThat(trie.matches("/users/ch%34mp/avatar", "GET")).as("encoded path").isTrue();
+		assertThat(trie.matches("/users/ch4mp;v=1/avatar", "GET")).as("matrix parameters").isTrue();
+	}
+
+	@Test
+	public void givenMethodRestrictedPatterns_whenMatches_thenMethodIsChecked() {
+		assertThat(trie.matches("/api/greetings", "OPTIONS")).isTrue();
+		assertThat(trie.matches("/api/greetings", "GET")).isFalse();
+		assertThat(trie.matches("/greet", "OPTIONS")).isTrue();
+		assertThat(trie.matches("/greet", "POST")).isFalse();
+		assertThat(new PathPatternTrie().isEmpty()).isTrue();
+		assertThat(trie.isEmpty()).isFalse();
+	}
+
+	@Test
+	public void givenSamePatterns_whenMatches_thenDecisionIsTheSameAsAntPathRequestMatchers() {
+		final var antMatchers = PERMIT_ALL.stream().map(AntPathRequestMatcher::new).toList();
+		final var corsMatchers = CORS.stream().map(pattern -> new AntPathRequestMatcher(pattern, "OPTIONS")).toList();
+		for (final var path : List
+				.of("/", "/actuator/health", "/actuator/health/liveness", "/actuator", "/public", "/public/a", "/publications", "/users/a/avatar", "/users/a/b/avatar",
+						"/v3/api-docs", "/v3/api-docs/swagger-config", "/static/main.js", "/a/b/c.css", "/api", "/api/greetings", "/greet", "/greetings")) {
+			for (final var method : List.of("GET", "OPTIONS")) {
+				final var request = request(method, path);
+				final var expected = antMatchers.stream().anyMatch(matcher -> matcher.matches(request))
+						|| corsMatchers.stream().anyMatch(matcher -> matcher.matches(request));
+				assertThat(trie.matches(path, method)).as("%s %s", method, path).isEqualTo(expected);
+			}
+		}
+	}
+
+	private static HttpServletRequest request(String method, String path) {
+		final var request = mock(HttpServletRequest.class);
+		when(request.getMethod()).thenReturn(method);
+		when(request.getServletPath()).thenReturn(path);
+		return request;
+	}
+}
@@ -0,0 +1,220 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.web.client.RestClient;
+
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties;
+import com.c4_soft.springaddons.rest.SystemProxyProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcResourceServerProperties.JwkSetPrefetchProperties;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class PrefetchedJwkSetsTest {
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private final CountDownLatch stalledRelease = new CountDownLatch(1);
+	private URI issuer;
+	private final AtomicReference<RSAKey> currentKey = new AtomicReference<>();
+	private final AtomicInteger jwkSetDownloads = new AtomicInteger();
+
+	@BeforeEach
+	public void startServer() throws Exception {
+		currentKey.set(new RSAKeyGenerator(2048).keyID("key-1").generate());
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		issuer = URI.create("http://localhost:%d/realms/test".formatted(server.getAddress().getPort()));
+		server.createContext("/realms/test/.well-known/openid-configuration", exchange -> respond(exchange, """
+				{"issuer": "%s", "jwks_uri": "%s/certs"}""".formatted(issuer, issuer)));
+		server.createContext("/realms/test/certs", exchange -> {
+			jwkSetDownloads.incrementAndGet();
+			respond(exchange, new JWKSet(currentKey.get().toPublicJWK()).toString());
+		});
+		server.createContext("/realms/stalled", exchange -> {
+			try {
+				stalledRelease.await(30, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.close();
+		});
+		server.start();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		stalledRelease.countDown();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Test
+	public void givenIssuerOnlyOp_whenStarted_thenJwkSetIsPrefetchedAndTokensAreVerifiedWithoutDownload() throws Exception {
+		final var jwkSets = prefetchedJwkSets(Duration.ofSeconds(10));
+		try {
+			jwkSets.afterPropertiesSet();
+			assertThat(jwkSetDownloads).hasValue(1);
+
+			final var jwkSet = jwkSets.find(Optional.empty(), Optional.of(issuer)).orElseThrow();
+			assertThat(jwkSet.isAvailable()).isTrue();
+			assertThat(jwkSet.getSuccessCount()).isEqualTo(1L);
+			for (var i = 0; i < 10; ++i) {
+				assertThat(jwkSet.process(sign(currentKey.get())).getSubject()).isEqualTo("ch4mp");
+			}
+			assertThat(jwkSetDownloads).hasValue(1);
+		} finally {
+			jwkSets.destroy();
+		}
+	}
+
+	@Test
+	public void givenRotatedKey_whenTokenSignedWithUnknownKey_thenItIsRejectedAndKeysAreRefreshedInTheBackground() throws Exception {
+		final var jwkSets = prefetchedJwkSets(Duration.ZERO);
+		try {
+			jwkSets.afterPropertiesSet();
+			final var jwkSet = jwkSets.find(Optional.empty(), Optional.of(issuer)).orElseThrow();
+
+			final var rotated = new RSAKeyGenerator(2048).keyID("key-2").generate();
+			currentKey.set(rotated);
+			final var token = sign(rotated);
+			assertThatThrownBy(() -> jwkSet.process(token)).isInstanceOf(BadJwtException.class);
+
+			final var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+			while (jwkSet.getSuccessCount() < 2 && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(jwkSet.process(token).getSubject()).isEqualTo("ch4mp");
+		} finally {
+			jwkSets.destroy();
+		}
+	}
+
+	@Test
+	public void givenIssuerIsNotConfigured_whenFind_thenNothingIsRegistered() throws Exception {
+		final var jwkSets = prefetchedJwkSets(Duration.ofSeconds(10));
+		try {
+			jwkSets.afterPropertiesSet();
+
+			assertThat(jwkSets.find(Optional.empty(), Optional.of(URI.create("%s-tenant".formatted(issuer))))).isEmpty();
+			assertThat(jwkSets.find(Optional.of(URI.create("%s/other-certs".formatted(issuer))), Optional.of(issuer))).isEmpty();
+			assertThat(jwkSets.getJwkSets()).hasSize(1);
+			assertThat(jwkSetDownloads).hasValue(1);
+		} finally {
+			jwkSets.destroy();
+		}
+	}
+
+	@Test
+	public void givenJwkSetCouldNotBeRetrieved_whenProcess_thenTokenIsRejectedAsBadJwt() throws Exception {
+		final var unreachable = URI.create("http://localhost:%d/realms/down".formatted(server.getAddress().getPort()));
+		final var jwkSets = prefetchedJwkSets(Duration.ofSeconds(10), unreachable);
+		try {
+			jwkSets.afterPropertiesSet();
+			final var jwkSet = jwkSets.find(Optional.empty(), Optional.of(unreachable)).orElseThrow();
+			assertThat(jwkSet.isAvailable()).isFalse();
+
+			final var token = sign(currentKey.get());
+			assertThatThrownBy(() -> jwkSet.process(token)).isInstanceOf(BadJwtException.class);
+		} finally {
+			jwkSets.destroy();
+		}
+	}
+
+	@Test
+	public void givenAnOpDoesNotRespond_whenStarted_thenItsWarmUpTimesOutWithoutDelayingTheOtherOps() throws Exception {
+		final var stalled = URI.create("http://localhost:%d/realms/stalled".formatted(server.getAddress().getPort()));
+		final var properties = new JwkSetPrefetchProperties();
+		properties.setReadTimeout(Duration.ofMillis(300));
+		final var jwkSets = new PrefetchedJwkSets(
+			List.of(op(stalled), op(issuer)),
+			Duration.ofMinutes(5),
+			Duration.ofSeconds(10),
+			PrefetchedJwkSets.restClient(properties, new DefaultListableBeanFactory()),
+			Clock.systemUTC());
+		try {
+			final var start = System.nanoTime();
+			jwkSets.afterPropertiesSet();
+
+			assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+			assertThat(jwkSets.find(Optional.empty(), Optional.of(stalled)).orElseThrow().isAvailable()).isFalse();
+			assertThat(jwkSets.find(Optional.empty(), Optional.of(issuer)).orElseThrow().isAvailable()).isTrue();
+		} finally {
+			jwkSets.destroy();
+		}
+	}
+
+	@Test
+	public void givenSpringAddonsRestProperties_whenRequestFactory_thenSpringAddonsProxyConfigurationIsUsed() {
+		final var beanFactory = new DefaultListableBeanFactory();
+		assertThat(PrefetchedJwkSets.requestFactory(new JwkSetPrefetchProperties(), beanFactory))
+			.isExactlyInstanceOf(SimpleClientHttpRequestFactory.class);
+
+		beanFactory.registerSingleton("restProperties", new SpringAddonsRestProperties());
+		beanFactory.registerSingleton("systemProxyProperties", new SystemProxyProperties());
+		assertThat(PrefetchedJwkSets.requestFactory(new JwkSetPrefetchProperties(), beanFactory).getClass().getSimpleName())
+			.isEqualTo("UrlConnectionClientHttpRequestFactory");
+	}
+
+	private PrefetchedJwkSets prefetchedJwkSets(Duration minRefreshInterval) {
+		return prefetchedJwkSets(minRefreshInterval, issuer);
+	}
+
+	private PrefetchedJwkSets prefetchedJwkSets(Duration minRefreshInterval, URI iss) {
+		return new PrefetchedJwkSets(List.of(op(iss)), Duration.ofMinutes(5), minRefreshInterval, RestClient.create(), Clock.systemUTC());
+	}
+
+	private static OpenidProviderProperties op(URI iss) {
+		final var op = new OpenidProviderProperties();
+		op.setIss(iss);
+		return op;
+	}
+
+	private SignedJWT sign(RSAKey key) throws Exception {
+		final var jwt = new SignedJWT(
+			new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+			new JWTClaimsSet.Builder().issuer(issuer.toString()).subject("ch4mp").build());
+		jwt.sign(new RSASSASigner(key));
+		return jwt;
+	}
+
+	private static void respond(HttpExchange exchange, String body) throws IOException {
+		final var bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, bytes.length);
+		try (var out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
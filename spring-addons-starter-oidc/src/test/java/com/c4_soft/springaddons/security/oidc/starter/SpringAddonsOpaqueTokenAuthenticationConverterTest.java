@@ -0,0 +1,66 @@
+package com.c4_soft.springaddons.security.oidc.starter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties.SimpleAuthoritiesMappingProperties;
+
+public class SpringAddonsOpaqueTokenAuthenticationConverterTest {
+	private static final Map<String, Object> ATTRIBUTES = Map
+			.of(JwtClaimNames.ISS, "https://localhost:8443/realms/master", JwtClaimNames.SUB, "ch4mp", "roles", List.of("NICE"));
+
+	@Test
+	public void givenConfigurableClaimSetAuthoritiesConverter_whenConvert_thenAuthoritiesArePickedWithIntrospectionOpMappings() {
+		final var properties = properties();
+		final var converter = new SpringAddonsOpaqueTokenAuthenticationConverter(
+				new ConfigurableClaimSetAuthoritiesConverter(new ByIssuerOpenidProviderPropertiesResolver(properties)),
+				Optional.of(properties.getOps().get(0)));
+
+		final var authentication = converter.convert("token", new DefaultOAuth2AuthenticatedPrincipal(ATTRIBUTES, List.of()));
+
+		assertThat(authentication.getName()).isEqualTo("ch4mp");
+		assertThat(authentication.getAuthorities()).containsExactly(new SimpleGrantedAuthority("NICE"));
+	}
+
+	@Test
+	public void givenConfigurableClaimSetAuthoritiesConverterSubclass_whenConvert_thenOverrideIsUsed() {
+		final var properties = properties();
+		final var converter = new SpringAddonsOpaqueTokenAuthenticationConverter(
+				new ConfigurableClaimSetAuthoritiesConverter(new ByIssuerOpenidProviderPropertiesResolver(properties)) {
+					@Override
+					public Collection<? extends GrantedAuthority> convert(@NonNull Map<String, Object> source) {
+						return List.of(new SimpleGrantedAuthority("OVERRIDDEN"));
+					}
+				},
+				Optional.of(properties.getOps().get(0)));
+
+		final var authentication = converter.convert("token", new DefaultOAuth2AuthenticatedPrincipal(ATTRIBUTES, List.of()));
+
+		assertThat(authentication.getAuthorities()).containsExactly(new SimpleGrantedAuthority("OVERRIDDEN"));
+	}
+
+	private static SpringAddonsOidcProperties properties() {
+		final var authorities = new SimpleAuthoritiesMappingProperties();
+		authorities.setPath("$.roles");
+		final var op = new OpenidProviderProperties();
+		op.setIss(URI.create("https://localhost:8443/realms/master"));
+		op.setAuthorities(List.of(authorities));
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(op));
+		return properties;
+	}
+}
@@ -0,0 +1,122 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilter;
+
+import com.c4_soft.springaddons.security.oidc.starter.properties.CorsProperties;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.ReactiveConfigurationSupport;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.ServletConfigurationSupport;
+
+import jakarta.servlet.Filter;
+import reactor.core.publisher.Mono;
+
+public class CorsPreflightCacheTest {
+	private static final String ALLOWED_ORIGIN = "https://app.c4-soft.com";
+	private static final String DENIED_ORIGIN = "https://evil.com";
+
+	private static List<CorsProperties> corsProperties() {
+		final var api = new CorsProperties();
+		api.setPath("/api/**");
+		api.setAllowedOriginPatterns(List.of("https://*.c4-soft.com"));
+		api.setAllowedMethods(List.of("GET", "POST"));
+		api.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+		api.setMaxAge(3600L);
+		return List.of(api);
+	}
+
+	@Test
+	public void givenServletPreflightWasProcessed_whenSamePreflight_thenResponseIsReplayedFromCache() throws Exception {
+		final var cache = new CorsPreflightCache(10, Duration.ofMinutes(5), Clock.systemUTC());
+		final var filter = ServletConfigurationSupport.getCorsFilterBean(corsProperties(), Optional.of(cache));
+
+		final var first = servletPreflight(filter, "/api/greet", ALLOWED_ORIGIN);
+		final var second = servletPreflight(filter, "/api/users/42", ALLOWED_ORIGIN);
+
+		assertThat(cache.missCount()).isEqualTo(1);
+		assertThat(cache.hitCount()).as("same path configuration, origin, method and headers").isEqualTo(1);
+		assertThat(second.getStatus()).isEqualTo(first.getStatus()).isEqualTo(HttpStatus.OK.value());
+		for (final var header : first.getHeaderNames()) {
+			assertThat(second.getHeaders(header)).as(header).isEqualTo(first.getHeaders(header));
+		}
+		assertThat(second.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo(ALLOWED_ORIGIN);
+		assertThat(second.getHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE)).isEqualTo("3600");
+
+		final var rejected = servletPreflight(filter, "/api/greet", DENIED_ORIGIN);
+		final var rejectedAgain = servletPreflight(filter, "/api/greet", DENIED_ORIGIN);
+		assertThat(cache.hitCount()).isEqualTo(2);
+		assertThat(rejectedAgain.getStatus()).isEqualTo(rejected.getStatus()).isEqualTo(HttpStatus.FORBIDDEN.value());
+		assertThat(rejectedAgain.getContentAsString()).isEqualTo(rejected.getContentAsString());
+		assertThat(rejectedAgain.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isNull();
+	}
+
+	@Test
+	public void givenServletActualCorsRequest_whenProcessed_thenCacheIsNotUsed() throws Exception {
+		final var cache = new CorsPreflightCache(10, Duration.ofMinutes(5), Clock.systemUTC());
+		final var filter = ServletConfigurationSupport.getCorsFilterBean(corsProperties(), Optional.of(cache));
+
+		final var request = new MockHttpServletRequest("GET", "/api/greet");
+		request.addHeader(HttpHeaders.ORIGIN, ALLOWED_ORIGIN);
+		final var response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+
+		assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo(ALLOWED_ORIGIN);
+		assertThat(cache.missCount() + cache.hitCount()).isZero();
+	}
+
+	@Test
+	public void givenReactivePreflightWasProcessed_whenSamePreflight_thenResponseIsReplayedFromCache() {
+		final var cache = new CorsPreflightCache(10, Duration.ofMinutes(5), Clock.systemUTC());
+		final var filter = ReactiveConfigurationSupport.getCorsFilterBean(corsProperties(), Optional.of(cache));
+
+		final var first = reactivePreflight(filter, "/api/greet", ALLOWED_ORIGIN);
+		final var second = reactivePreflight(filter, "/api/users/42", ALLOWED_ORIGIN);
+
+		assertThat(cache.missCount()).isEqualTo(1);
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(second.getResponse().getStatusCode()).isEqualTo(first.getResponse().getStatusCode());
+		assertThat(second.getResponse().getHeaders()).isEqualTo(first.getResponse().getHeaders());
+		assertThat(second.getResponse().getHeaders().getAccessControlAllowOrigin()).isEqualTo(ALLOWED_ORIGIN);
+
+		final var rejected = reactivePreflight(filter, "/api/greet", DENIED_ORIGIN);
+		final var rejectedAgain = reactivePreflight(filter, "/api/greet", DENIED_ORIGIN);
+		assertThat(cache.hitCount()).isEqualTo(2);
+		assertThat(rejectedAgain.getResponse().getStatusCode()).isEqualTo(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(rejectedAgain.getResponse().getHeaders()).isEqualTo(rejected.getResponse().getHeaders());
+	}
+
+	private static MockHttpServletResponse servletPreflight(Filter filter, String path, String origin) throws Exception {
+		final var request = new MockHttpServletRequest("OPTIONS", path);
+		request.addHeader(HttpHeaders.ORIGIN, origin);
+		request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST");
+		request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization, content-type");
+		final var response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+
+	private static MockServerWebExchange reactivePreflight(WebFilter filter, String path, String origin) {
+		final var exchange = MockServerWebExchange
+				.from(
+						MockServerHttpRequest
+								.options("https://api.c4-soft.com" + path)
+								.header(HttpHeaders.ORIGIN, origin)
+								.header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST")
+								.header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization, content-type"));
+		filter.filter(exchange, e -> Mono.empty()).block();
+		return exchange;
+	}
+}
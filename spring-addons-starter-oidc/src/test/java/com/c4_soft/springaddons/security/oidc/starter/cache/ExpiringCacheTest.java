@@ -0,0 +1,81 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+public class ExpiringCacheTest {
+
+	public static class MutableClock extends Clock {
+		public Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+
+	@Test
+	public void givenEntryIsExpired_whenGet_thenNull() {
+		final var clock = new MutableClock();
+		final var cache = new ExpiringCache<String, String>("test", 10, Optional.empty(), clock);
+
+		cache.put("a", "A", clock.now.plusSeconds(60));
+		assertThat(cache.get("a")).isEqualTo("A");
+
+		clock.now = clock.now.plusSeconds(60);
+		assertThat(cache.get("a")).isNull();
+		assertThat(cache.size()).isZero();
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(cache.missCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void givenMaxTimeToLive_whenPutWithLaterExpiry_thenExpiryIsCapped() {
+		final var clock = new MutableClock();
+		final var cache = new ExpiringCache<String, String>("test", 10, Optional.of(Duration.ofSeconds(10)), clock);
+
+		cache.put("a", "A", clock.now.plusSeconds(60));
+		clock.now = clock.now.plusSeconds(10);
+		assertThat(cache.get("a")).isNull();
+	}
+
+	@Test
+	public void givenMaxSizeIsReached_whenPut_thenOldestEntryIsEvicted() {
+		final var clock = new MutableClock();
+		final var cache = new ExpiringCache<String, String>("test", 2, Optional.empty(), clock);
+
+		cache.put("a", "A", clock.now.plusSeconds(60));
+		cache.put("b", "B", clock.now.plusSeconds(60));
+		cache.put("a", "A2", clock.now.plusSeconds(60));
+		cache.put("c", "C", clock.now.plusSeconds(60));
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("b")).isNull();
+		assertThat(cache.get("a")).isEqualTo("A2");
+		assertThat(cache.get("c")).isEqualTo("C");
+		assertThat(cache.evictionCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void givenSameToken_whenKey_thenSameDigest() {
+		assertThat(JwtAuthenticationCache.key("a.b.c")).isEqualTo(JwtAuthenticationCache.key("a.b.c")).isNotEqualTo(JwtAuthenticationCache.key("a.b.d"));
+	}
+}
@@ -0,0 +1,81 @@
+package com.c4_soft.springaddons.security.oidc.starter.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.ExpiringCacheTest.MutableClock;
+
+public class IssuerRegistryTest {
+
+	@Test
+	public void givenConcurrentRequestsForNewIssuer_whenComputeIfAbsent_thenFactoryIsCalledOnce() throws Exception {
+		final var registry = new IssuerRegistry<String>("test", 10, Optional.empty(), new MutableClock());
+		final var calls = new AtomicInteger();
+		final var start = new CountDownLatch(1);
+
+		final var executor = Executors.newFixedThreadPool(8);
+		try {
+			final var tasks = new ArrayList<Callable<String>>();
+			for (var i = 0; i < 8; ++i) {
+				tasks.add(() -> {
+					start.await();
+					return registry.computeIfAbsent("https://issuer", iss -> {
+						calls.incrementAndGet();
+						return iss.toUpperCase();
+					});
+				});
+			}
+			final var results = tasks.stream().map(executor::submit).toList();
+			start.countDown();
+			for (var result : results) {
+				assertThat(result.get()).isEqualTo("HTTPS://ISSUER");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(calls.get()).isEqualTo(1);
+		assertThat(registry.creationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void givenMaxSizeIsReached_whenComputeIfAbsent_thenLeastRecentlyUsedIsEvicted() {
+		final var clock = new MutableClock();
+		final var registry = new IssuerRegistry<String>("test", 2, Optional.empty(), clock);
+
+		registry.computeIfAbsent("a", String::toUpperCase);
+		clock.now = clock.now.plusSeconds(1);
+		registry.computeIfAbsent("b", String::toUpperCase);
+		clock.now = clock.now.plusSeconds(1);
+		registry.computeIfAbsent("a", String::toUpperCase);
+		clock.now = clock.now.plusSeconds(1);
+		registry.computeIfAbsent("c", String::toUpperCase);
+
+		assertThat(registry.size()).isEqualTo(2);
+		assertThat(registry.evictionCount()).isEqualTo(1);
+		registry.computeIfAbsent("a", String::toUpperCase);
+		assertThat(registry.creationCount()).isEqualTo(3);
+	}
+
+	@Test
+	public void givenIdleTimeout_whenIssuerIsNotUsed_thenItIsEvicted() {
+		final var clock = new MutableClock();
+		final var registry = new IssuerRegistry<String>("test", 10, Optional.of(Duration.ofMinutes(10)), clock);
+
+		registry.computeIfAbsent("a", String::toUpperCase);
+		clock.now = clock.now.plus(Duration.ofMinutes(10));
+		registry.computeIfAbsent("b", String::toUpperCase);
+
+		assertThat(registry.size()).isEqualTo(1);
+		assertThat(registry.evictionCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,160 @@
+package com.c4_soft.springaddons.security.oidc.starter.jfr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+import org.springframework.security.oauth2.server.resource.introspection.OAuth2IntrospectionAuthenticatedPrincipal;
+
+import com.c4_soft.springaddons.security.oidc.OpenidClaimSet;
+import com.c4_soft.springaddons.security.oidc.starter.AuthenticationObservations;
+import com.c4_soft.springaddons.security.oidc.starter.ByIssuerOpenidProviderPropertiesResolver;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver.FlightRecordingReactiveOpaqueTokenIntrospector;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.DefaultSpringAddonsJwtDecoder;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.FlightRecordingOpaqueTokenIntrospector;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JWTClaimsSetAuthenticationManager;
+import com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver.JwtAuthenticationManagerRegistry;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.JWTProcessor;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import reactor.core.publisher.Mono;
+
+public class AuthenticationEventsTest {
+	private static final URI ISSUER = URI.create("https://localhost:8443/realms/test");
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	public void givenSpringAddonsSettings_whenJwtIsAuthenticatedTwice_thenAuthenticationsAndStagesAreRecorded() throws Exception {
+		final var rsaKey = new RSAKeyGenerator(2048).keyID("key-1").generate();
+		final var op = new OpenidProviderProperties();
+		op.setIss(ISSUER);
+		op.setUsernameClaim("preferred_username");
+		final var properties = new SpringAddonsOidcProperties();
+		properties.setOps(List.of(op));
+
+		final var jwtProcessor = new AtomicReference<JWTProcessor<SecurityContext>>();
+		NimbusJwtDecoder.withPublicKey(rsaKey.toRSAPublicKey()).jwtProcessorCustomizer(jwtProcessor::set).build();
+		final var manager = new JWTClaimsSetAuthenticationManager(
+				new ByIssuerOpenidProviderPropertiesResolver(properties),
+				(jwkSetUri, issuer, audience) -> new DefaultSpringAddonsJwtDecoder(jwtProcessor.get()),
+				jwt -> new JwtAuthenticationToken(
+						jwt,
+						AuthorityUtils.createAuthorityList("NICE"),
+						OpenidClaimSet.resolveName(jwt.getClaims(), op.getUsernameClaimPath())),
+				Optional.of(new JwtAuthenticationCache(16, Optional.empty(), Clock.systemUTC())),
+				JwtAuthenticationManagerRegistry.unbounded(),
+				AuthenticationObservations.DISABLED);
+		final var bearer = new BearerTokenAuthenticationToken(sign(rsaKey));
+
+		final var events = record(() -> {
+			manager.authenticate(bearer);
+			manager.authenticate(bearer);
+			assertThatThrownBy(() -> manager.authenticate(new BearerTokenAuthenticationToken("not-a-jwt"))).isNotNull();
+		});
+
+		final var authentications = events.stream().filter(e -> e.getEventType().getName().equals(TokenAuthenticationEvent.NAME)).toList();
+		assertThat(authentications).hasSize(3);
+		assertThat(authentications.get(0).getString("cache")).isEqualTo(TokenAuthenticationEvent.CACHE_MISS);
+		assertThat(authentications.get(0).getString("issuer")).isEqualTo(ISSUER.toString());
+		assertThat(authentications.get(0).getBoolean("success")).isTrue();
+		assertThat(authentications.get(1).getString("cache")).isEqualTo(TokenAuthenticationEvent.CACHE_HIT);
+		assertThat(authentications.get(1).getBoolean("success")).isTrue();
+		assertThat(authentications.get(2).getString("cache")).isEqualTo(TokenAuthenticationEvent.CACHE_MISS);
+		assertThat(authentications.get(2).getBoolean("success")).isFalse();
+
+		final var stages = events.stream().filter(e -> e.getEventType().getName().equals(AuthenticationStageEvent.NAME)).toList();
+		assertThat(stages.stream().map(e -> e.getString("stage")))
+				.as("stages are recorded even if Micrometer observations are disabled")
+				.containsExactly("token-parsing", "op-properties-resolution", "decoder-creation", "token-decoding", "token-parsing");
+		assertThat(stages.stream().map(e -> e.getBoolean("success"))).containsExactly(true, true, true, true, false);
+	}
+
+	@Test
+	public void givenSpringAddonsSettings_whenTokensAreIntrospected_thenIntrospectionsAreRecorded() throws Exception {
+		final var principal = new OAuth2IntrospectionAuthenticatedPrincipal(Map.of("sub", "ch4mp"), List.of());
+		final var introspector = new FlightRecordingOpaqueTokenIntrospector(token -> {
+			if ("active".equals(token)) {
+				return principal;
+			}
+			throw new BadOpaqueTokenException("Provided token isn't active");
+		});
+		final var reactiveIntrospector = new FlightRecordingReactiveOpaqueTokenIntrospector(token -> Mono.error(new IllegalStateException("unreachable")));
+
+		final var events = record(() -> {
+			introspector.introspect("active");
+			assertThatThrownBy(() -> introspector.introspect("inactive")).isInstanceOf(BadOpaqueTokenException.class);
+			assertThat(reactiveIntrospector.introspect("any").onErrorComplete().block()).isNull();
+		});
+
+		assertThat(
+				events
+						.stream()
+						.filter(e -> e.getEventType().getName().equals(IntrospectionEvent.NAME))
+						.map(e -> e.getString("result")))
+				.containsExactly(IntrospectionEvent.ACTIVE, IntrospectionEvent.INACTIVE, IntrospectionEvent.ERROR);
+	}
+
+	private List<RecordedEvent> record(Runnable scenario) throws Exception {
+		final Configuration configuration;
+		try (var settings = new InputStreamReader(getClass().getResourceAsStream("/jfr/spring-addons-oidc.jfc"), StandardCharsets.UTF_8)) {
+			configuration = Configuration.create(settings);
+		}
+		final var dump = tmp.resolve("recording.jfr");
+		try (var recording = new Recording(configuration)) {
+			recording.start();
+			scenario.run();
+			recording.stop();
+			recording.dump(dump);
+		}
+		return RecordingFile.readAllEvents(dump);
+	}
+
+	private static String sign(RSAKey rsaKey) throws Exception {
+		final var now = Instant.now();
+		final var jwt = new SignedJWT(
+				new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(rsaKey.getKeyID()).build(),
+				new JWTClaimsSet.Builder()
+						.issuer(ISSUER.toString())
+						.subject("0b16e8ba")
+						.claim("preferred_username", "ch4mp")
+						.issueTime(Date.from(now))
+						.expirationTime(Date.from(now.plusSeconds(300)))
+						.build());
+		jwt.sign(new RSASSASigner(rsaKey));
+		return jwt.serialize();
+	}
+}
@@ -0,0 +1,44 @@
+package com.c4_soft.springaddons.security.oidc.starter.properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+
+public class OpenidProviderPropertiesTest {
+
+	@Test
+	public void givenDefaultUsernameClaim_whenGetUsernameClaimPath_thenSubjectPathIsReturned() {
+		final var properties = new OpenidProviderProperties();
+
+		assertThat(properties.getUsernameClaimPath().getPath()).isEqualTo("sub");
+		assertThat(properties.getUsernameClaimPath().<String>read(Map.of("sub", "0b16e8ba"))).isEqualTo("0b16e8ba");
+	}
+
+	@Test
+	public void givenUsernameClaimIsSet_whenGetUsernameClaimPath_thenCompiledPathIsReturnedWithoutRecompiling() {
+		final var properties = new OpenidProviderProperties();
+		properties.setUsernameClaim("$.preferred_username");
+
+		final var path = properties.getUsernameClaimPath();
+
+		assertThat(path.getPath()).isEqualTo("$.preferred_username");
+		assertThat(properties.getUsernameClaimPath()).isSameAs(path);
+	}
+
+	@Test
+	public void givenSameUsernameClaim_whenCompared_thenCompiledPathIsIgnored() {
+		final var a = new OpenidProviderProperties();
+		a.setUsernameClaim("$.preferred_username");
+		final var b = new OpenidProviderProperties();
+		b.setUsernameClaim("$.preferred_username");
+		b.getUsernameClaimPath();
+
+		assertThat(a).isEqualTo(b);
+		assertThat(a.hashCode()).isEqualTo(b.hashCode());
+		assertThat(a.toString()).doesNotContain("usernameClaimPath");
+	}
+}
@@ -0,0 +1,70 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class CachingReactiveOpaqueTokenIntrospectorTest {
+
+	@Test
+	public void givenConcurrentIntrospectionsOfSameToken_whenIntrospect_thenDelegateIsSubscribedOnce() {
+		final var calls = new AtomicInteger();
+		final var introspector = new CachingReactiveOpaqueTokenIntrospector(token -> Mono.fromSupplier(() -> {
+			calls.incrementAndGet();
+			return principal(Instant.now().plusSeconds(60));
+		}).delayElement(Duration.ofMillis(200)), cache());
+
+		final var names = Flux
+			.range(0, 4)
+			.flatMap(i -> introspector.introspect("token"))
+			.map(OAuth2AuthenticatedPrincipal::getName)
+			.collectList()
+			.block(Duration.ofSeconds(5));
+
+		assertThat(names).hasSize(4).containsOnly("ch4mp");
+		assertThat(introspector.introspect("token").block().getName()).isEqualTo("ch4mp");
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void givenTokenIsInactive_whenIntrospectTwice_thenDelegateIsSubscribedOnce() {
+		final var calls = new AtomicInteger();
+		final var introspector = new CachingReactiveOpaqueTokenIntrospector(token -> Mono.defer(() -> {
+			calls.incrementAndGet();
+			return Mono.error(new BadOpaqueTokenException("Provided token isn't active"));
+		}), cache());
+
+		assertThatThrownBy(() -> introspector.introspect("token").block()).isInstanceOf(BadOpaqueTokenException.class);
+		assertThatThrownBy(() -> introspector.introspect("token").block()).isInstanceOf(BadOpaqueTokenException.class);
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	private static OpaqueTokenIntrospectionCache cache() {
+		return new OpaqueTokenIntrospectionCache(100, Optional.empty(), Duration.ofSeconds(10), Clock.systemUTC());
+	}
+
+	private static OAuth2AuthenticatedPrincipal principal(Instant exp) {
+		return new DefaultOAuth2AuthenticatedPrincipal(
+			"ch4mp",
+			Map.of(OAuth2TokenIntrospectionClaimNames.SUB, "ch4mp", OAuth2TokenIntrospectionClaimNames.EXP, exp),
+			List.of());
+	}
+}
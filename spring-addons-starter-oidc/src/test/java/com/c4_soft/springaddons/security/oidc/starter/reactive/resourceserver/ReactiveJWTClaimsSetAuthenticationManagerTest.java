@@ -0,0 +1,141 @@
+package com.c4_soft.springaddons.security.oidc.starter.reactive.resourceserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.text.ParseException;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.InvalidBearerTokenException;
+import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthenticationToken;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.ExpiringCacheTest.MutableClock;
+import com.c4_soft.springaddons.security.oidc.starter.cache.JwtAuthenticationCache;
+import com.c4_soft.springaddons.security.oidc.starter.properties.SpringAddonsOidcProperties.OpenidProviderProperties;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+
+import reactor.core.publisher.Mono;
+
+public class ReactiveJWTClaimsSetAuthenticationManagerTest {
+	private static final URI ISSUER = URI.create("https://localhost:8443/realms/test");
+
+	private final MutableClock clock = new MutableClock();
+	private final JwtAuthenticationCache cache = new JwtAuthenticationCache(16, Optional.empty(), clock);
+	private final CountingDecoder decoder = new CountingDecoder();
+	private final AtomicInteger conversions = new AtomicInteger();
+	private final ReactiveJWTClaimsSetAuthenticationManager manager = new ReactiveJWTClaimsSetAuthenticationManager(
+			claims -> Optional.of(opProperties()),
+			(jwkSetUri, issuer, audience) -> decoder,
+			jwt -> Mono.fromSupplier(() -> {
+				conversions.incrementAndGet();
+				return new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList("NICE"), jwt.getSubject());
+			}),
+			Optional.of(cache),
+			ReactiveJwtAuthenticationManagerRegistry.unbounded());
+
+	@Test
+	public void givenTokenWasAuthenticated_whenAuthenticatedAgain_thenItIsNotDecodedAgainAndANewAuthenticationIsBuilt() {
+		final var token = token("ch4mp", 300);
+
+		final var first = manager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+		final var second = manager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+
+		assertThat(decoder.count.get()).isEqualTo(1);
+		assertThat(conversions.get()).isEqualTo(2);
+		assertThat(cache.hitCount()).isEqualTo(1);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getName()).isEqualTo("ch4mp");
+		assertThat(second.getAuthorities()).isEqualTo(first.getAuthorities());
+	}
+
+	@Test
+	public void givenTokenWasAuthenticated_whenItReachesItsExpiry_thenItIsDecodedAgain() {
+		final var token = token("ch4mp", 300);
+
+		manager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+		clock.now = clock.now.plusSeconds(299);
+		manager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+		assertThat(decoder.count.get()).isEqualTo(1);
+
+		clock.now = clock.now.plusSeconds(1);
+		manager.authenticate(new BearerTokenAuthenticationToken(token)).block();
+		assertThat(decoder.count.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void givenDecodingFails_whenAuthenticatedAgain_thenTokenIsDecodedAgain() {
+		final var token = token("ch4mp", 300);
+		decoder.failing.set(true);
+
+		assertThatThrownBy(() -> manager.authenticate(new BearerTokenAuthenticationToken(token)).block())
+				.isInstanceOf(InvalidBearerTokenException.class);
+		assertThat(cache.size()).isZero();
+
+		decoder.failing.set(false);
+		assertThat(manager.authenticate(new BearerTokenAuthenticationToken(token)).block().isAuthenticated()).isTrue();
+		assertThat(decoder.count.get()).isEqualTo(2);
+	}
+
+	private String token(String subject, long secondsToLive) {
+		return new PlainJWT(
+				new JWTClaimsSet.Builder()
+						.issuer(ISSUER.toString())
+						.subject(subject)
+						.issueTime(Date.from(clock.now))
+						.expirationTime(Date.from(clock.now.plusSeconds(secondsToLive)))
+						.build())
+				.serialize();
+	}
+
+	private static OpenidProviderProperties opProperties() {
+		final var op = new OpenidProviderProperties();
+		op.setIss(ISSUER);
+		return op;
+	}
+
+	/**
+	 * Trusts the claims of the JWTs it is given, and counts them
+	 */
+	static class CountingDecoder implements SpringAddonsReactiveJwtDecoder {
+		final AtomicInteger count = new AtomicInteger();
+		final AtomicBoolean failing = new AtomicBoolean();
+
+		@Override
+		public Mono<Jwt> decode(String token) {
+			return Mono.error(new UnsupportedOperationException("the JWT should have been parsed by the authentication manager"));
+		}
+
+		@Override
+		public Mono<Jwt> decode(JWT jwt) {
+			return Mono.fromCallable(() -> {
+				count.incrementAndGet();
+				if (failing.get()) {
+					throw new BadJwtException("Invalid signature");
+				}
+				try {
+					final var claims = jwt.getJWTClaimsSet();
+					return Jwt
+							.withTokenValue(jwt.getParsedString())
+							.header("alg", "none")
+							.claims(c -> c.putAll(claims.toJSONObject()))
+							.issuedAt(claims.getIssueTime().toInstant())
+							.expiresAt(claims.getExpirationTime().toInstant())
+							.build();
+				} catch (ParseException e) {
+					throw new BadJwtException(e.getMessage(), e);
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package com.c4_soft.springaddons.security.oidc.starter.session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.core.oidc.user.OidcUserAuthority;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+class OAuth2SessionSerializerTest {
+	static final String SECURITY_CONTEXT = "SPRING_SECURITY_CONTEXT";
+	static final String AUTHORIZED_CLIENTS = "org.springframework.security.oauth2.client.web.server.WebSessionServerOAuth2AuthorizedClientRepository.AUTHORIZED_CLIENTS";
+	static final String PRINCIPALS = "com.c4-soft.spring-addons.oauth2.client.principal-by-client-registration-id";
+
+	static final ClientRegistration KEYCLOAK = ClientRegistration
+			.withRegistrationId("keycloak")
+			.clientId("bff")
+			.clientSecret("secret")
+			.authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+			.redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+			.scope("openid", "profile", "email", "offline_access")
+			.authorizationUri("https://localhost:8443/realms/master/protocol/openid-connect/auth")
+			.tokenUri("https://localhost:8443/realms/master/protocol/openid-connect/token")
+			.jwkSetUri("https://localhost:8443/realms/master/protocol/openid-connect/certs")
+			.userInfoUri("https://localhost:8443/realms/master/protocol/openid-connect/userinfo")
+			.userNameAttributeName("preferred_username")
+			.issuerUri("https://localhost:8443/realms/master")
+			.build();
+
+	/**
+	 * A local session store with the same layout as Spring Session Redis: a hash per session, with an entry per attribute serialized on its own
+	 */
+	static class LocalSessionStore {
+		private final Map<String, Map<String, byte[]>> sessions = new ConcurrentHashMap<>();
+		private final RedisSerializer<Object> serializer;
+
+		LocalSessionStore(RedisSerializer<Object> serializer) {
+			this.serializer = serializer;
+		}
+
+		void save(String sessionId, Map<String, Object> attributes) {
+			final var hash = new HashMap<String, byte[]>();
+			attributes.forEach((name, value) -> hash.put("sessionAttr:" + name, serializer.serialize(value)));
+			sessions.put(sessionId, hash);
+		}
+
+		Map<String, Object> load(String sessionId) {
+			final var attributes = new HashMap<String, Object>();
+			sessions.get(sessionId).forEach((key, bytes) -> {
+				final var value = serializer.deserialize(bytes);
+				if (value != null) {
+					attributes.put(key.substring("sessionAttr:".length()), value);
+				}
+			});
+			return attributes;
+		}
+
+		int size(String sessionId) {
+			return sessions.get(sessionId).values().stream().mapToInt(bytes -> bytes.length).sum();
+		}
+
+		void putRaw(String sessionId, String attribute, byte[] bytes) {
+			sessions.computeIfAbsent(sessionId, id -> new HashMap<>()).put("sessionAttr:" + attribute, bytes);
+		}
+	}
+
+	@Test
+	void givenBffSession_whenSavedAndLoaded_thenAttributesAreEqualAndPayloadIsMuchSmallerThanJavaSerialization() throws Exception {
+		final var store = new LocalSessionStore(new OAuth2SessionRedisSerializer(new OAuth2SessionSerializer(id -> KEYCLOAK)));
+		final var jdkStore = new LocalSessionStore(new JdkSerializationRedisSerializer());
+		final var attributes = bffSessionAttributes();
+
+		store.save("session", attributes);
+		jdkStore.save("session", attributes);
+		final var loaded = store.load("session");
+
+		final var expectedContext = (SecurityContextImpl) attributes.get(SECURITY_CONTEXT);
+		final var actualContext = (SecurityContextImpl) loaded.get(SECURITY_CONTEXT);
+		assertThat(actualContext).isEqualTo(expectedContext);
+		final var actualAuth = (OAuth2AuthenticationToken) actualContext.getAuthentication();
+		assertThat(actualAuth.isAuthenticated()).isTrue();
+		assertThat(actualAuth.getName()).isEqualTo("ch4mp");
+		assertThat(actualAuth.getAuthorizedClientRegistrationId()).isEqualTo("keycloak");
+		assertThat(actualAuth.getDetails()).isEqualTo(expectedContext.getAuthentication().getDetails());
+		final var actualUser = (DefaultOidcUser) actualAuth.getPrincipal();
+		assertThat(actualUser.getIdToken().getClaims()).isEqualTo(((DefaultOidcUser) expectedContext.getAuthentication().getPrincipal()).getIdToken().getClaims());
+		assertThat(actualUser.getIdToken().getIssuer()).isEqualTo(new URL("https://localhost:8443/realms/master"));
+		assertThat(actualUser.getAuthorities()).anySatisfy(authority -> assertThat(authority).isInstanceOf(OidcUserAuthority.class));
+
+		@SuppressWarnings("unchecked")
+		final var authorizedClients = (Map<String, OAuth2AuthorizedClient>) loaded.get(AUTHORIZED_CLIENTS);
+		assertThat(authorizedClients).containsOnlyKeys("keycloak");
+		final var expectedClient = authorizedClient();
+		final var actualClient = authorizedClients.get("keycloak");
+		assertThat(actualClient.getClientRegistration()).isSameAs(KEYCLOAK);
+		assertThat(actualClient.getPrincipalName()).isEqualTo(expectedClient.getPrincipalName());
+		assertThat(actualClient.getAccessToken()).isEqualTo(expectedClient.getAccessToken());
+		assertThat(actualClient.getAccessToken().getTokenType()).isEqualTo(OAuth2AccessToken.TokenType.BEARER);
+		assertThat(actualClient.getAccessToken().getScopes()).isEqualTo(expectedClient.getAccessToken().getScopes());
+		assertThat(actualClient.getRefreshToken()).isEqualTo(expectedClient.getRefreshToken());
+
+		assertThat(loaded.get(PRINCIPALS)).isInstanceOf(ConcurrentMap.class).isEqualTo(attributes.get(PRINCIPALS));
+
+		assertThat(store.size("session")).isLessThan(jdkStore.size("session") / 2);
+	}
+
+	@Test
+	void givenSessionSavedWithJavaSerialization_whenLoaded_thenAttributesAreRead() {
+		final var jdkSerializer = new JdkSerializationRedisSerializer();
+		final var store = new LocalSessionStore(new OAuth2SessionRedisSerializer(new OAuth2SessionSerializer(id -> KEYCLOAK)));
+		final var attributes = bffSessionAttributes();
+		attributes.forEach((name, value) -> store.putRaw("legacy", name, jdkSerializer.serialize(value)));
+
+		final var loaded = store.load("legacy");
+
+		assertThat(loaded.get(SECURITY_CONTEXT)).isEqualTo(attributes.get(SECURITY_CONTEXT));
+		assertThat(loaded.get(PRINCIPALS)).isEqualTo(attributes.get(PRINCIPALS));
+	}
+
+	@Test
+	void givenClientRegistrationWasRemoved_whenLoaded_thenAuthorizedClientIsDropped() {
+		final var writer = new LocalSessionStore(new OAuth2SessionRedisSerializer(new OAuth2SessionSerializer(id -> KEYCLOAK)));
+		writer.save("session", bffSessionAttributes());
+		final var reader = new LocalSessionStore(new OAuth2SessionRedisSerializer(new OAuth2SessionSerializer(id -> null)));
+		reader.sessions.putAll(writer.sessions);
+
+		final var loaded = reader.load("session");
+
+		assertThat((Map<?, ?>) loaded.get(AUTHORIZED_CLIENTS)).isEmpty();
+		assertThat(loaded.get(SECURITY_CONTEXT)).isNotNull();
+	}
+
+	@Test
+	void givenUnsupportedTypes_whenSerialized_thenJavaSerializationIsUsedForThem() throws Exception {
+		final var serializer = new OAuth2SessionSerializer(id -> KEYCLOAK);
+		final var sorted = new TreeMap<String, Object>(Map.of("b", 2, "a", new CustomAttribute("custom")));
+		final var value = new LinkedHashMap<String, Object>();
+		value.put("sorted", sorted);
+		value.put("custom", new CustomAttribute("top-level"));
+		value.put("null", null);
+
+		final var actual = serializer.deserializeFromByteArray(serializer.serializeToByteArray(value));
+
+		assertThat(actual).isEqualTo(value);
+		assertThat(((Map<?, ?>) actual).get("sorted")).isInstanceOf(TreeMap.class);
+	}
+
+	static record CustomAttribute(String value) implements Serializable {
+	}
+
+	static Map<String, Object> bffSessionAttributes() {
+		final var idToken = idToken();
+		final var userInfo = new OidcUserInfo(Map.of("sub", idToken.getSubject(), "preferred_username", "ch4mp", "email", "ch4mp@c4-soft.com"));
+		final var user = new DefaultOidcUser(
+				List.of(
+						new OidcUserAuthority(idToken, userInfo),
+						new SimpleGrantedAuthority("SCOPE_openid"),
+						new SimpleGrantedAuthority("SCOPE_profile"),
+						new SimpleGrantedAuthority("SCOPE_email"),
+						new SimpleGrantedAuthority("SCOPE_offline_access")),
+				idToken,
+				userInfo,
+				"preferred_username");
+		final var authentication = new OAuth2AuthenticationToken(user, user.getAuthorities(), "keycloak");
+		authentication.setDetails(new WebAuthenticationDetails("127.0.0.1", "6f1c8a3e-2b7d-4c9e-8f0a-1d2e3c4b5a69"));
+
+		final var principals = new ConcurrentHashMap<String, Authentication>();
+		principals.put("keycloak", authentication);
+
+		final var authorizedClients = new HashMap<String, OAuth2AuthorizedClient>();
+		authorizedClients.put("keycloak", authorizedClient());
+
+		final var attributes = new HashMap<String, Object>();
+		attributes.put(SECURITY_CONTEXT, new SecurityContextImpl(authentication));
+		attributes.put(AUTHORIZED_CLIENTS, authorizedClients);
+		attributes.put(PRINCIPALS, principals);
+		return attributes;
+	}
+
+	static OidcIdToken idToken() {
+		final var iat = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+		final var claims = new LinkedHashMap<String, Object>();
+		claims.put("exp", iat.plusSeconds(300));
+		claims.put("iat", iat);
+		claims.put("auth_time", iat);
+		claims.put("jti", "8d4b7d5c-0a6e-4a8f-9d6b-5a2c1f4e3b70");
+		claims.put("iss", url("https://localhost:8443/realms/master"));
+		claims.put("aud", List.of("bff"));
+		claims.put("sub", "0b16e8ba-5c79-4c05-9b4a-7d8b0d5f3e51");
+		claims.put("typ", "ID");
+		claims.put("azp", "bff");
+		claims.put("nonce", "x2b8YQn0lXlSJFb5g0m0fO4bS2P0kVqf8L9h4nq3Jk0");
+		claims.put("sid", "6f1c8a3e-2b7d-4c9e-8f0a-1d2e3c4b5a69");
+		claims.put("at_hash", "Pq7r3HcZg8Zl3Xw2qzC1uA");
+		claims.put("acr", "1");
+		claims.put("email_verified", true);
+		claims.put("realm_access", Map.of("roles", List.of("offline_access", "uma_authorization", "default-roles-master", "NICE")));
+		claims.put("name", "Jérôme Wacongne");
+		claims.put("preferred_username", "ch4mp");
+		claims.put("given_name", "Jérôme");
+		claims.put("family_name", "Wacongne");
+		claims.put("email", "ch4mp@c4-soft.com");
+		return new OidcIdToken(jwt(900), iat, iat.plusSeconds(300), claims);
+	}
+
+	static OAuth2AuthorizedClient authorizedClient() {
+		final var iat = Instant.parse("2024-01-01T00:00:00Z");
+		return new OAuth2AuthorizedClient(
+				KEYCLOAK,
+				"ch4mp",
+				new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, jwt(1200), iat, iat.plusSeconds(300), Set.of("openid", "profile", "email", "offline_access")),
+				new OAuth2RefreshToken(jwt(600), iat, null));
+	}
+
+	/**
+	 * @param  length number of random characters in the payload
+	 * @return        a string looking like a signed JWT (only the size matters)
+	 */
+	static String jwt(int length) {
+		final var payload = new byte[length * 3 / 4];
+		for (var i = 0; i < payload.length; ++i) {
+			payload[i] = (byte) (i * 31);
+		}
+		final var encoder = Base64.getUrlEncoder().withoutPadding();
+		return "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9." + encoder.encodeToString(payload) + "." + encoder.encodeToString(new byte[256]);
+	}
+
+	static URL url(String url) {
+		try {
+			return new URL(url);
+		} catch (Exception e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+}
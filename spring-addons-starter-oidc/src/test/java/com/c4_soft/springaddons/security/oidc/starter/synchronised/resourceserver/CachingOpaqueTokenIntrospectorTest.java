@@ -0,0 +1,108 @@
+package com.c4_soft.springaddons.security.oidc.starter.synchronised.resourceserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.DefaultOAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2AuthenticatedPrincipal;
+import org.springframework.security.oauth2.core.OAuth2TokenIntrospectionClaimNames;
+import org.springframework.security.oauth2.server.resource.introspection.BadOpaqueTokenException;
+
+import com.c4_soft.springaddons.security.oidc.starter.cache.OpaqueTokenIntrospectionCache;
+
+public class CachingOpaqueTokenIntrospectorTest {
+
+	@Test
+	public void givenConcurrentIntrospectionsOfSameToken_whenIntrospect_thenDelegateIsCalledOnce() throws Exception {
+		final var calls = new AtomicInteger();
+		final var release = new CountDownLatch(1);
+		final var introspector = new CachingOpaqueTokenIntrospector(token -> {
+			calls.incrementAndGet();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return principal(Instant.now().plusSeconds(60));
+		}, cache());
+
+		final var executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<OAuth2AuthenticatedPrincipal>> results = List
+				.of(
+					executor.submit(() -> introspector.introspect("token")),
+					executor.submit(() -> introspector.introspect("token")),
+					executor.submit(() -> introspector.introspect("token")),
+					executor.submit(() -> introspector.introspect("token")));
+			Thread.sleep(200);
+			release.countDown();
+			for (var result : results) {
+				assertThat(result.get().getName()).isEqualTo("ch4mp");
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(introspector.introspect("token").getName()).isEqualTo("ch4mp");
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void givenTokenIsInactive_whenIntrospectTwice_thenDelegateIsCalledOnce() {
+		final var calls = new AtomicInteger();
+		final var introspector = new CachingOpaqueTokenIntrospector(token -> {
+			calls.incrementAndGet();
+			throw new BadOpaqueTokenException("Provided token isn't active");
+		}, cache());
+
+		assertThatThrownBy(() -> introspector.introspect("token")).isInstanceOf(BadOpaqueTokenException.class);
+		assertThatThrownBy(() -> introspector.introspect("token")).isInstanceOf(BadOpaqueTokenException.class);
+		assertThat(calls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void givenPrincipalAttributesWeighMoreThanTheLimit_whenIntrospectTwice_thenDelegateIsCalledTwice() {
+		final var calls = new AtomicInteger();
+		final var introspector = new CachingOpaqueTokenIntrospector(token -> {
+			calls.incrementAndGet();
+			return new DefaultOAuth2AuthenticatedPrincipal(
+				"ch4mp",
+				Map
+					.of(
+						OAuth2TokenIntrospectionClaimNames.SUB,
+						"ch4mp",
+						OAuth2TokenIntrospectionClaimNames.EXP,
+						Instant.now().plusSeconds(60),
+						"groups",
+						List.of("a".repeat(600), "b".repeat(600))),
+				List.of());
+		}, new OpaqueTokenIntrospectionCache(100, Optional.empty(), Duration.ofSeconds(10), 1024, Clock.systemUTC()));
+
+		assertThat(introspector.introspect("token").getName()).isEqualTo("ch4mp");
+		assertThat(introspector.introspect("token").getName()).isEqualTo("ch4mp");
+		assertThat(calls.get()).isEqualTo(2);
+	}
+
+	private static OpaqueTokenIntrospectionCache cache() {
+		return new OpaqueTokenIntrospectionCache(100, Optional.empty(), Duration.ofSeconds(10), Clock.systemUTC());
+	}
+
+	private static OAuth2AuthenticatedPrincipal principal(Instant exp) {
+		return new DefaultOAuth2AuthenticatedPrincipal(
+			"ch4mp",
+			Map.of(OAuth2TokenIntrospectionClaimNames.SUB, "ch4mp", OAuth2TokenIntrospectionClaimNames.EXP, exp),
+			List.of());
+	}
+}
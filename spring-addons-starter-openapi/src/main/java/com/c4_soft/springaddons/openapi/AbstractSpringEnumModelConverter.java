@@ -0,0 +1,267 @@
+package com.c4_soft.springaddons.openapi;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springdoc.core.providers.ObjectMapperProvider;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.lang.NonNull;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.swagger.v3.core.converter.AnnotatedType;
+import io.swagger.v3.core.converter.ModelConverter;
+import io.swagger.v3.core.converter.ModelConverterContext;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Common part of the servlet and reactive enum {@link ModelConverter model converters}: choice between the values written in HTTP messages and the values
+ * produced by the {@link FormattingConversionService}, and a cache of these values per enum class.
+ * </p>
+ * <p>
+ * Possible values are computed once per enum class (serializing each constant with each HTTP message converter is what makes OpenAPI spec generation
+ * slow).
+ * </p>
+ * <p>
+ * Values can also be computed at build time: when com.c4-soft.springaddons.openapi.enum-possible-values-export-path is set (in a test generating
+ * the OpenAPI spec), the values computed during the run are written to a file which, packaged as {@value #PRECOMPUTED_POSSIBLE_VALUES_RESOURCE}, is
+ * loaded by the converters when instantiated. Enums missing from this resource, or which constants changed since it was generated, are still computed at
+ * runtime.
+ * </p>
+ *
+ * @author ch4mp&#64;c4-soft.com
+ * @see    SpringServletEnumModelConverter
+ * @see    SpringReactiveEnumModelConverter
+ */
+@Slf4j
+public abstract class AbstractSpringEnumModelConverter implements ModelConverter, DisposableBean {
+	/**
+	 * Possible values computed at build time (see {@link SpringAddonsOpenapiProperties})
+	 */
+	public static final String PRECOMPUTED_POSSIBLE_VALUES_RESOURCE = "META-INF/spring-addons/openapi-enum-possible-values.json";
+
+	private static final TypeReference<Map<String, EnumPossibleValues>> POSSIBLE_VALUES_TYPE = new TypeReference<>() {
+	};
+
+	private final FormattingConversionService formattingConversionService;
+	private final ObjectMapperProvider springDocObjectMapper;
+	private final Optional<Path> possibleValuesExportPath;
+
+	/**
+	 * Possible values loaded from {@link #PRECOMPUTED_POSSIBLE_VALUES_RESOURCE}, by enum class name
+	 */
+	private final Map<String, EnumPossibleValues> precomputedPossibleValues;
+
+	private final Map<Class<?>, EnumPossibleValues> possibleValuesByEnum = new ConcurrentHashMap<>();
+
+	/**
+	 * @param formattingConversionService
+	 * @param springDocObjectMapper
+	 * @param possibleValuesExportPath    if present, precomputed values are ignored and the computed ones are written to this file when the bean is
+	 *                                    destroyed
+	 */
+	protected AbstractSpringEnumModelConverter(
+			FormattingConversionService formattingConversionService,
+			ObjectMapperProvider springDocObjectMapper,
+			Optional<Path> possibleValuesExportPath) {
+		this.formattingConversionService = formattingConversionService;
+		this.springDocObjectMapper = springDocObjectMapper;
+		this.possibleValuesExportPath = possibleValuesExportPath;
+		this.precomputedPossibleValues = possibleValuesExportPath.isPresent() ? Map.of() : loadPrecomputedPossibleValues(springDocObjectMapper);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Schema<?> resolve(AnnotatedType type, ModelConverterContext context, Iterator<ModelConverter> chain) {
+
+		final var mapper = springDocObjectMapper.jsonMapper();
+		final var javaType = mapper.constructType(type.getType());
+
+		if (javaType == null || !javaType.isEnumType()) {
+			return chain.hasNext() ? chain.next().resolve(type, context, chain) : null;
+		}
+
+		final var possibleValues = getPossibleValues((Class<Enum<?>>) javaType.getRawClass());
+		final var httpMessagePossibleWrittenValues = possibleValues.httpMessageWrittenValues();
+
+		if (context.getDefinedModels().size() > 0 && httpMessagePossibleWrittenValues.size() > 0) {
+			// Case of an enum part of a @RequestBody or @ResponseBody: use HttpMessageConverter::write
+			return schemaOf(httpMessagePossibleWrittenValues);
+		}
+
+		// Case of an enum as @RequestParam, @RequestHeader, @PathVariable, @MatrixVariable, and @CookieValue
+
+		// FormattingConversionService provides with converters working only one way and there is no guaranty that Converter<E, String> and
+		// Converter<String, E> are bijective
+
+		// So, to find the the possible inputs for Converter<String, E>, the best we can do is trying the different possible collections of
+		// serialized values we have for an enum (using the formatter from FormattingConversionService or or the HttpMessageConverter) and select
+		// the 1st for which all values are successfully deserialized
+		if (httpMessagePossibleWrittenValues.size() > 0 && possibleValues.isHttpMessageWrittenValuesFormattable()) {
+			return schemaOf(httpMessagePossibleWrittenValues);
+		}
+
+		// If the output of HttpMessageConverter can't be deserialized using FormattingConversionService, use the output of
+		// FormattingConversionService serialization
+		return schemaOf(possibleValues.formattedValues());
+	}
+
+	EnumPossibleValues getPossibleValues(Class<Enum<?>> enumClass) {
+		return possibleValuesByEnum.computeIfAbsent(enumClass, key -> getPrecomputedPossibleValues(enumClass).orElseGet(() -> computePossibleValues(enumClass)));
+	}
+
+	/**
+	 * @param  enumClass
+	 * @return           the values loaded from {@value #PRECOMPUTED_POSSIBLE_VALUES_RESOURCE}, unless they were not computed for the current enum constants (the
+	 *                   resource is stale: constants were added, removed, renamed or re-ordered since it was generated)
+	 */
+	private Optional<EnumPossibleValues> getPrecomputedPossibleValues(Class<Enum<?>> enumClass) {
+		final var precomputed = precomputedPossibleValues.get(enumClass.getName());
+		if (precomputed == null) {
+			return Optional.empty();
+		}
+		final var constantNames = constantNames(enumClass);
+		if (!constantNames.equals(precomputed.constantNames())
+				|| precomputed.formattedValues() == null
+				|| precomputed.httpMessageWrittenValues() == null
+				|| precomputed.formattedValues().size() != constantNames.size()
+				|| precomputed.httpMessageWrittenValues().size() > constantNames.size()) {
+			log.warn("Precomputed possible values of {} don't match its constants, they are computed at runtime", enumClass.getName());
+			return Optional.empty();
+		}
+		return Optional.of(precomputed);
+	}
+
+	private EnumPossibleValues computePossibleValues(Class<Enum<?>> enumClass) {
+		final var httpMessagePossibleWrittenValues = getHttpMessagePossibleWrittenValuesFor(enumClass);
+		final var formattedPossibleValues = Stream.of(enumClass.getEnumConstants()).map(e -> formattingConversionService.convert(e, String.class)).toList();
+		return new EnumPossibleValues(
+				constantNames(enumClass),
+				httpMessagePossibleWrittenValues,
+				formattedPossibleValues,
+				formattingConversionServiceAcceptsAll(httpMessagePossibleWrittenValues, enumClass));
+	}
+
+	/**
+	 * Writes the possible values of all the enums resolved so far to the export path, if any
+	 */
+	@Override
+	public void destroy() throws IOException {
+		if (possibleValuesExportPath.isEmpty()) {
+			return;
+		}
+		final var path = possibleValuesExportPath.get();
+		final var possibleValues = new TreeMap<String, EnumPossibleValues>();
+		possibleValuesByEnum.forEach((enumClass, values) -> possibleValues.put(enumClass.getName(), values));
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		springDocObjectMapper.jsonMapper().writerWithDefaultPrettyPrinter().writeValue(path.toFile(), possibleValues);
+		log.info("Possible values of {} enums written to {}", possibleValues.size(), path);
+	}
+
+	private static Map<String, EnumPossibleValues> loadPrecomputedPossibleValues(ObjectMapperProvider springDocObjectMapper) {
+		final var resource = new ClassPathResource(PRECOMPUTED_POSSIBLE_VALUES_RESOURCE);
+		if (!resource.exists()) {
+			return Map.of();
+		}
+		try (var is = resource.getInputStream()) {
+			return springDocObjectMapper.jsonMapper().readValue(is, POSSIBLE_VALUES_TYPE);
+		} catch (IOException e) {
+			log.warn("Failed to read {}, enums possible values are computed at runtime", PRECOMPUTED_POSSIBLE_VALUES_RESOURCE, e);
+			return Map.of();
+		}
+	}
+
+	/**
+	 * @param  enumClass
+	 * @return           an extractor for each of the HTTP message converters (or writers) able to serialize the enum
+	 */
+	protected abstract Collection<EnumPossibleValuesExtractor> getWrittingExtractorsFor(Class<Enum<?>> enumClass);
+
+	private Set<String> getHttpMessagePossibleWrittenValuesFor(Class<Enum<?>> enumClass) {
+		final var extractors = getWrittingExtractorsFor(enumClass).iterator();
+		if (!extractors.hasNext()) {
+			return Set.of();
+		}
+		final var firstExtractor = extractors.next();
+		final var possibleValues = firstExtractor.getValues(enumClass);
+		while (extractors.hasNext()) {
+			final var otherExtractor = extractors.next();
+			final var other = otherExtractor.getValues(enumClass);
+			if (!possibleValues.equals(other)) {
+				throw new RuntimeException(
+						"%s and %s provide with different possible values for enum %s (%s VS %s). Can't build OpenAPI spec. Please uniformize enums serilaization accross HttpMessageConverters."
+								.formatted(
+										firstExtractor.getClass().getName(),
+										otherExtractor.getClass().getName(),
+										enumClass.getName(),
+										possibleValues,
+										other));
+			}
+		}
+		return possibleValues;
+	}
+
+	private boolean formattingConversionServiceAcceptsAll(Collection<String> possibleValues, @NonNull Class<Enum<?>> enumClass) {
+		for (var v : possibleValues) {
+			try {
+				if (formattingConversionService.convert(v, enumClass) == null) {
+					return false;
+				}
+			} catch (Exception e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param  serialized an enum value written in an HTTP message
+	 * @return            the serialized value without the double quotes Jackson (at least) adds
+	 */
+	protected static String unquote(String serialized) {
+		if (serialized.startsWith("\"") && serialized.endsWith("\"")) {
+			return serialized.substring(1, serialized.length() - 1);
+		}
+		return serialized;
+	}
+
+	private static List<String> constantNames(Class<Enum<?>> enumClass) {
+		return Stream.of(enumClass.getEnumConstants()).map(Enum::name).toList();
+	}
+
+	private static StringSchema schemaOf(Collection<String> possibleValues) {
+		final var schema = new StringSchema();
+		possibleValues.forEach(schema::addEnumItem);
+		return schema;
+	}
+
+	/**
+	 * @param constantNames                         the {@link Enum#name() names} of the constants the values were computed for, in declaration order
+	 * @param httpMessageWrittenValues              the values written in HTTP messages
+	 * @param formattedValues                       the values produced by the {@link FormattingConversionService}, in declaration order
+	 * @param isHttpMessageWrittenValuesFormattable whether the {@link FormattingConversionService} accepts all the values written in HTTP messages
+	 */
+	static record EnumPossibleValues(
+			List<String> constantNames,
+			Set<String> httpMessageWrittenValues,
+			List<String> formattedValues,
+			boolean isHttpMessageWrittenValuesFormattable) {
+	}
+}
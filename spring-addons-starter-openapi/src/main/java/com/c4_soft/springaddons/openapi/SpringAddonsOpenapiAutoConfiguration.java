@@ -1,17 +1,22 @@
 package com.c4_soft.springaddons.openapi;
 
 import java.io.IOException;
+import java.nio.file.Path;
 
 import org.springdoc.core.providers.ObjectMapperProvider;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.format.support.FormattingConversionService;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 
 @AutoConfiguration
+@ImportRuntimeHints(SpringAddonsOpenapiAutoConfiguration.PrecomputedPossibleValuesRuntimeHints.class)
 public class SpringAddonsOpenapiAutoConfiguration {
 
 	@ConditionalOnWebApplication(type = Type.SERVLET)
@@ -19,20 +24,37 @@ public class SpringAddonsOpenapiAutoConfiguration {
 	SpringServletEnumModelConverter springServletEnumModelConverter(
 			ApplicationContext applicationContext,
 			FormattingConversionService formattingConversionService,
-			ObjectMapperProvider springDocObjectMapper)
+			ObjectMapperProvider springDocObjectMapper,
+			SpringAddonsOpenapiProperties addonsProperties)
 			throws HttpMessageNotWritableException,
 			IOException {
-		return new SpringServletEnumModelConverter(applicationContext, formattingConversionService, springDocObjectMapper);
+		return new SpringServletEnumModelConverter(
+				applicationContext,
+				formattingConversionService,
+				springDocObjectMapper,
+				addonsProperties.getEnumPossibleValuesExportPath().map(Path::of));
 	}
 
 	@ConditionalOnWebApplication(type = Type.REACTIVE)
-	// @Bean
+	@Bean
 	SpringReactiveEnumModelConverter springReactiveEnumModelConverter(
 			ApplicationContext applicationContext,
 			FormattingConversionService formattingConversionService,
-			ObjectMapperProvider springDocObjectMapper)
+			ObjectMapperProvider springDocObjectMapper,
+			SpringAddonsOpenapiProperties addonsProperties)
 			throws HttpMessageNotWritableException,
 			IOException {
-		return new SpringReactiveEnumModelConverter(applicationContext, formattingConversionService, springDocObjectMapper);
+		return new SpringReactiveEnumModelConverter(
+				applicationContext,
+				formattingConversionService,
+				springDocObjectMapper,
+				addonsProperties.getEnumPossibleValuesExportPath().map(Path::of));
+	}
+
+	static class PrecomputedPossibleValuesRuntimeHints implements RuntimeHintsRegistrar {
+		@Override
+		public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+			hints.resources().registerPattern(AbstractSpringEnumModelConverter.PRECOMPUTED_POSSIBLE_VALUES_RESOURCE);
+		}
 	}
 }
@@ -0,0 +1,29 @@
+package com.c4_soft.springaddons.openapi;
+
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * @author ch4mp&#64;c4-soft.com
+ */
+@Data
+@AutoConfiguration
+@ConfigurationProperties(prefix = "com.c4-soft.springaddons.openapi")
+public class SpringAddonsOpenapiProperties {
+
+	/**
+	 * <p>
+	 * If set, the enum model converters ignore the possible values computed at build time, and write the ones they computed to this file when the
+	 * application context is closed.
+	 * </p>
+	 * <p>
+	 * Intended for the build: set it to target/classes/META-INF/spring-addons/openapi-enum-possible-values.json in a test fetching the OpenAPI spec
+	 * (/v3/api-docs) and the packaged application loads the enums possible values instead of computing it.
+	 * </p>
+	 */
+	private Optional<String> enumPossibleValuesExportPath = Optional.empty();
+}
@@ -1,9 +1,10 @@
 package com.c4_soft.springaddons.openapi;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -13,7 +14,6 @@ import org.springframework.core.ResolvableType;
 import org.springframework.format.support.FormattingConversionService;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotWritableException;
-import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.MatrixVariable;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -21,13 +21,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import io.swagger.v3.core.converter.AnnotatedType;
 import io.swagger.v3.core.converter.ModelConverter;
-import io.swagger.v3.core.converter.ModelConverterContext;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
-import io.swagger.v3.oas.models.media.Schema;
-import io.swagger.v3.oas.models.media.StringSchema;
-import lombok.RequiredArgsConstructor;
 
 /**
  * <p>
@@ -41,6 +36,9 @@ import lombok.RequiredArgsConstructor;
  * is found, use the enum name() (which is what the default converter does). If a custom converter is registered as a bean, then try to give
  * it as input in the following order: the Jackson converter output, the value of toString() and enum name()</li>
  * </ul>
+ * <p>
+ * The {@link HttpMessageConverter} beans are looked up once, and the possible values are cached per enum class.
+ * </p>
  * 
  * @author ch4mp&#64;c4-soft.com
  * @see    <a href="https://docs.spring.io/spring-framework/reference/web/webmvc/mvc-controller/ann-methods/typeconversion.html">Spring doc
@@ -48,133 +46,74 @@ import lombok.RequiredArgsConstructor;
  * @see    <a href="https://docs.spring.io/spring-framework/reference/integration/rest-clients.html#rest-message-conversion">Spring doc for
  *         HTTP Message Conversion</a>
  */
-@RequiredArgsConstructor
-public class SpringServletEnumModelConverter implements ModelConverter {
+public class SpringServletEnumModelConverter extends AbstractSpringEnumModelConverter {
 
 	private final ApplicationContext applicationContext;
-	private final FormattingConversionService formattingConversionService;
-	private final ObjectMapperProvider springDocObjectMapper;
-
-	@SuppressWarnings("unchecked")
-	@Override
-	public Schema<?> resolve(AnnotatedType type, ModelConverterContext context, Iterator<ModelConverter> chain) {
-
-		final var mapper = springDocObjectMapper.jsonMapper();
-		final var javaType = mapper.constructType(type.getType());
-
-		if (javaType == null || !javaType.isEnumType()) {
-			return chain.hasNext() ? chain.next().resolve(type, context, chain) : null;
-		}
-
-		final var enumClass = (Class<Enum<?>>) javaType.getRawClass();
-		final var httpMessagePossibleWrittenValues = getHttpMessagePossibleWrittenValuesFor(enumClass);
-		final var formattedPossibleValues = Stream.of(enumClass.getEnumConstants()).map(e -> formattingConversionService.convert(e, String.class)).toList();
-
-		if (context.getDefinedModels().size() > 0 && httpMessagePossibleWrittenValues.size() > 0) {
-			// Case of an enum part of a @RequestBody or @ResponseBody: use HttpMessageConverter::write
-			return schemaOf(httpMessagePossibleWrittenValues);
-		}
 
-		// Case of an enum as @RequestParam, @RequestHeader, @PathVariable, @MatrixVariable, and @CookieValue
-
-		// FormattingConversionService provides with converters working only one way and there is no guaranty that Converter<E, String> and
-		// Converter<String, E> are bijective
-
-		// So, to find the the possible inputs for Converter<String, E>, the best we can do is trying the different possible collections of
-		// serialized values we have for an enum (using the formatter from FormattingConversionService or or the HttpMessageConverter) and select
-		// the 1st for which all values are successfully deserialized
-		if (httpMessagePossibleWrittenValues.size() > 0 && formattingConversionServiceAcceptsAll(httpMessagePossibleWrittenValues, enumClass)) {
-			return schemaOf(httpMessagePossibleWrittenValues);
-		}
+	private volatile List<HttpMessageConverter<Object>> httpMessageConverters;
 
-		// If the output of HttpMessageConverter can't be deserialized using FormattingConversionService, use the output of
-		// FormattingConversionService serialization
-		return schemaOf(formattedPossibleValues);
+	public SpringServletEnumModelConverter(
+			ApplicationContext applicationContext,
+			FormattingConversionService formattingConversionService,
+			ObjectMapperProvider springDocObjectMapper) {
+		this(applicationContext, formattingConversionService, springDocObjectMapper, Optional.empty());
+	}
 
+	public SpringServletEnumModelConverter(
+			ApplicationContext applicationContext,
+			FormattingConversionService formattingConversionService,
+			ObjectMapperProvider springDocObjectMapper,
+			Optional<Path> possibleValuesExportPath) {
+		super(formattingConversionService, springDocObjectMapper, possibleValuesExportPath);
+		this.applicationContext = applicationContext;
 	}
 
-	private Set<String> getHttpMessagePossibleWrittenValuesFor(Class<Enum<?>> enumClass) {
-		if (enumClass == null) {
-			return Set.of();
-		}
-		final var extractors = getWrittingExtractorsFor(enumClass).iterator();
-		if (!extractors.hasNext()) {
-			return Set.of();
-		}
-		final var firstExtractor = extractors.next();
-		final var possibleValues = firstExtractor.getValues(enumClass);
-		while (extractors.hasNext()) {
-			final var otherExtractor = extractors.next();
-			final var other = otherExtractor.getValues(enumClass);
-			if (!possibleValues.equals(other)) {
-				throw new RuntimeException(
-						"%s and %s provide with different possible values for enum %s (%s VS %s). Can't build OpenAPI spec. Please uniformize enums serilaization accross HttpMessageConverters."
-								.formatted(
-										firstExtractor.getClass().getName(),
-										otherExtractor.getClass().getName(),
-										enumClass.getName(),
-										possibleValues,
-										other));
-			}
+	@SuppressWarnings("unchecked")
+	private List<HttpMessageConverter<Object>> getHttpMessageConverters() {
+		// resolved on first use: the converters might not be instantiated yet when this bean is
+		var converters = httpMessageConverters;
+		if (converters == null) {
+			// @formatter:off
+			converters = Stream.of(applicationContext.getBeanNamesForType(ResolvableType.forClassWithGenerics(HttpMessageConverter.class, Object.class)))
+					.map(name -> (HttpMessageConverter<Object>) applicationContext.getBean(name))
+					.toList();
+			// @formatter:on
+			httpMessageConverters = converters;
 		}
-		return possibleValues;
+		return converters;
 	}
 
-	@SuppressWarnings("unchecked")
 	private Stream<HttpMessageConverter<Object>> getConvertersFor(Class<Enum<?>> enumClass) {
 		if (enumClass == null) {
 			return Stream.empty();
 		}
 		// @formatter:off
-		return Stream.of(applicationContext.getBeanNamesForType(ResolvableType.forClassWithGenerics(HttpMessageConverter.class, Object.class)))
-				.map(name -> (HttpMessageConverter<Object>) applicationContext.getBean(name))
+		return getHttpMessageConverters().stream()
 				.filter(converter -> converter.getSupportedMediaTypes(enumClass)
 						.stream()
 						.anyMatch(mediaType -> converter.canWrite(enumClass, mediaType)));
 		// @formatter:on
 	}
 
-	private Collection<EnumPossibleValuesExtractor> getWrittingExtractorsFor(Class<Enum<?>> enumClass) {
+	@Override
+	protected Collection<EnumPossibleValuesExtractor> getWrittingExtractorsFor(Class<Enum<?>> enumClass) {
 		return getConvertersFor(enumClass).map(SpringServletEnumModelConverter::toWrittingExtractor).toList();
 	}
 
 	@SuppressWarnings("null")
 	private static EnumPossibleValuesExtractor toWrittingExtractor(HttpMessageConverter<Object> converter) {
-		return enumClass -> Stream.of(enumClass.getEnumConstants()).map(e -> {
-			final var msg = new MockHttpOutputMessage();
-			try {
-				converter.write(
-						e,
-						converter.getSupportedMediaTypes(enumClass).stream().filter(mediaType -> converter.canWrite(enumClass, mediaType)).findAny().get(),
-						msg);
-				final var serialized = msg.getBody().toString();
-				if (serialized.startsWith("\"") && serialized.endsWith("\"")) {
-					// at least Jackson serializes values with double quotes, strip it if present
-					return serialized.substring(1, serialized.length() - 1);
+		return enumClass -> {
+			final var mediaType =
+					converter.getSupportedMediaTypes(enumClass).stream().filter(candidate -> converter.canWrite(enumClass, candidate)).findAny().get();
+			return Stream.of(enumClass.getEnumConstants()).map(e -> {
+				final var msg = new MockHttpOutputMessage();
+				try {
+					converter.write(e, mediaType, msg);
+					return unquote(msg.getBodyAsString());
+				} catch (HttpMessageNotWritableException | IOException e1) {
+					throw new RuntimeException(e1);
 				}
-				return serialized;
-			} catch (HttpMessageNotWritableException | IOException e1) {
-				throw new RuntimeException(e1);
-			}
-		}).collect(Collectors.toSet());
-	}
-
-	private boolean formattingConversionServiceAcceptsAll(Collection<String> possibleValues, @NonNull Class<Enum<?>> enumClass) {
-		for (var v : possibleValues) {
-			try {
-				if (formattingConversionService.convert(v, enumClass) == null) {
-					return false;
-				}
-			} catch (Exception e) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private StringSchema schemaOf(Collection<String> possibleValues) {
-		final var schema = new StringSchema();
-		possibleValues.forEach(schema::addEnumItem);
-		return schema;
+			}).collect(Collectors.toSet());
+		};
 	}
 }
@@ -0,0 +1,105 @@
+package com.c4_soft.springaddons.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springdoc.core.providers.ObjectMapperProvider;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.http.codec.ServerCodecConfigurer;
+
+/**
+ * Possible values loaded from the {@value AbstractSpringEnumModelConverter#PRECOMPUTED_POSSIBLE_VALUES_RESOURCE} in src/test/resources
+ */
+public class AbstractSpringEnumModelConverterTest {
+
+	static enum Precomputed {
+		A, B
+	}
+
+	/**
+	 * A constant was added since the precomputed values were generated
+	 */
+	static enum Stale {
+		A, B, C
+	}
+
+	/**
+	 * B was renamed to C since the precomputed values were generated: the number of constants is the same
+	 */
+	static enum Renamed {
+		A, C
+	}
+
+	/**
+	 * Generated before the constant names were stored in the precomputed resource
+	 */
+	static enum Unnamed {
+		A, B
+	}
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenEnumIsInPrecomputedResource_whenGetPossibleValues_thenPrecomputedValuesAreUsed() {
+		final var possibleValues = converter(Optional.empty()).getPossibleValues((Class) Precomputed.class);
+
+		assertThat(possibleValues.httpMessageWrittenValues()).containsExactlyInAnyOrder("precomputed-a", "precomputed-b");
+		assertThat(possibleValues.formattedValues()).containsExactly("PRECOMPUTED_A", "PRECOMPUTED_B");
+		assertThat(possibleValues.isHttpMessageWrittenValuesFormattable()).isTrue();
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenPrecomputedValuesDontMatchEnumConstants_whenGetPossibleValues_thenValuesAreComputedAtRuntime() {
+		final var possibleValues = converter(Optional.empty()).getPossibleValues((Class) Stale.class);
+
+		assertThat(possibleValues.httpMessageWrittenValues()).containsExactlyInAnyOrder("A", "B", "C");
+		assertThat(possibleValues.formattedValues()).containsExactly("A", "B", "C");
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenAConstantWasRenamedSincePrecomputation_whenGetPossibleValues_thenValuesAreComputedAtRuntime() {
+		final var possibleValues = converter(Optional.empty()).getPossibleValues((Class) Renamed.class);
+
+		assertThat(possibleValues.httpMessageWrittenValues()).containsExactlyInAnyOrder("A", "C");
+		assertThat(possibleValues.formattedValues()).containsExactly("A", "C");
+		assertThat(possibleValues.constantNames()).containsExactly("A", "C");
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenPrecomputedValuesHaveNoConstantNames_whenGetPossibleValues_thenValuesAreComputedAtRuntime() {
+		final var possibleValues = converter(Optional.empty()).getPossibleValues((Class) Unnamed.class);
+
+		assertThat(possibleValues.constantNames()).containsExactly("A", "B");
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenExportPathIsSet_whenGetPossibleValues_thenPrecomputedValuesAreIgnored() {
+		final var possibleValues = converter(Optional.of(tmp.resolve("possible-values.json"))).getPossibleValues((Class) Precomputed.class);
+
+		assertThat(possibleValues.httpMessageWrittenValues()).containsExactlyInAnyOrder("A", "B");
+		assertThat(possibleValues.formattedValues()).containsExactly("A", "B");
+	}
+
+	private static SpringReactiveEnumModelConverter converter(Optional<Path> exportPath) {
+		final var applicationContext = new GenericApplicationContext();
+		applicationContext.registerBean(ServerCodecConfigurer.class, ServerCodecConfigurer::create);
+		applicationContext.refresh();
+		return new SpringReactiveEnumModelConverter(
+				applicationContext,
+				new DefaultFormattingConversionService(),
+				new ObjectMapperProvider(new SpringDocConfigProperties()),
+				exportPath);
+	}
+}
@@ -0,0 +1,62 @@
+package com.c4_soft.springaddons.openapi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springdoc.core.properties.SpringDocConfigProperties;
+import org.springdoc.core.providers.ObjectMapperProvider;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.http.codec.ServerCodecConfigurer;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+public class SpringReactiveEnumModelConverterTest {
+
+	static enum Color {
+		RED, DARK_BLUE;
+
+		@JsonValue
+		String json() {
+			return name().toLowerCase().replace('_', '-');
+		}
+
+		static Color fromJson(String json) {
+			return valueOf(json.toUpperCase().replace('-', '_'));
+		}
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenEnumHasJsonValue_whenGetPossibleValues_thenWrittenValuesAreTheOnesOfTheJsonEncoder() {
+		final var converter = converter(new DefaultFormattingConversionService());
+
+		final var possibleValues = converter.getPossibleValues((Class) Color.class);
+
+		assertThat(possibleValues.httpMessageWrittenValues()).containsExactlyInAnyOrder("red", "dark-blue");
+		assertThat(possibleValues.formattedValues()).containsExactly("RED", "DARK_BLUE");
+		assertThat(possibleValues.isHttpMessageWrittenValuesFormattable()).isFalse();
+	}
+
+	@Test
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public void givenAConverterAcceptsTheJsonValues_whenGetPossibleValues_thenWrittenValuesAreFormattable() {
+		final var conversionService = new DefaultFormattingConversionService();
+		conversionService.addConverter(String.class, Color.class, Color::fromJson);
+		final var converter = converter(conversionService);
+
+		final var possibleValues = converter.getPossibleValues((Class) Color.class);
+
+		assertThat(possibleValues.httpMessageWrittenValues()).containsExactlyInAnyOrder("red", "dark-blue");
+		assertThat(possibleValues.isHttpMessageWrittenValuesFormattable()).isTrue();
+		assertThat(converter.getPossibleValues((Class) Color.class)).as("possible values are cached").isSameAs(possibleValues);
+	}
+
+	private static SpringReactiveEnumModelConverter converter(FormattingConversionService conversionService) {
+		final var applicationContext = new GenericApplicationContext();
+		applicationContext.registerBean(ServerCodecConfigurer.class, ServerCodecConfigurer::create);
+		applicationContext.refresh();
+		return new SpringReactiveEnumModelConverter(applicationContext, conversionService, new ObjectMapperProvider(new SpringDocConfigProperties()));
+	}
+}
@@ -3,7 +3,9 @@ package com.c4_soft.springaddons.rest;
 import java.net.URL;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
@@ -16,13 +18,16 @@ import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
 import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.AuthorizationProperties;
 
+import reactor.netty.http.HttpResources;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.transport.ProxyProvider;
 
 /**
  * @author Jerome Wacongne chl4mp&#64;c4-soft.com
  */
-public abstract class AbstractSpringAddonsWebClientSupport {
+public abstract class AbstractSpringAddonsWebClientSupport implements DisposableBean {
 
 	private final ProxySupport proxySupport;
 
@@ -33,24 +38,68 @@ public abstract class AbstractSpringAddonsWebClientSupport {
 	 */
 	private final BearerProvider forwardingBearerProvider;
 
+	/**
+	 * Event loops shared by the connectors of all clients
+	 */
+	private final LoopResources loopResources;
+
+	/**
+	 * Connection pools by client name, created once and shared by all the {@link WebClient} instances built for a name
+	 */
+	private final Map<String, ConnectionProvider> connectionProviders = new ConcurrentHashMap<>();
+
+	private final Map<String, ReactorClientHttpConnector> connectors = new ConcurrentHashMap<>();
+
+	/**
+	 * Connector of the unnamed client: WebClient default one (Reactor Netty global resources) if there is no proxy
+	 */
+	private final Optional<ReactorClientHttpConnector> defaultConnector;
+
+	/**
+	 * Clients built from {@link SpringAddonsRestProperties} by name, and the proxy factories and {@link HttpExchange @HttpExchange} proxies using it
+	 */
+	private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+
+	private final Map<String, HttpServiceProxyFactory> proxyFactories = new ConcurrentHashMap<>();
+
+	private final Map<ServiceKey, Object> services = new ConcurrentHashMap<>();
+
 	public AbstractSpringAddonsWebClientSupport(
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties addonsRestProperties,
 			BearerProvider forwardingBearerProvider) {
+		this(systemProxyProperties, addonsRestProperties, forwardingBearerProvider, HttpResources.get());
+	}
+
+	public AbstractSpringAddonsWebClientSupport(
+			SystemProxyProperties systemProxyProperties,
+			SpringAddonsRestProperties addonsRestProperties,
+			BearerProvider forwardingBearerProvider,
+			LoopResources loopResources) {
 		super();
 		this.proxySupport = new ProxySupport(systemProxyProperties, addonsRestProperties);
 		this.restClientProperties = addonsRestProperties.getClient();
 		this.forwardingBearerProvider = forwardingBearerProvider;
+		this.loopResources = loopResources;
+		this.defaultConnector = proxySupport
+				.getHostname()
+				.map(proxyHost -> new ReactorClientHttpConnector(ReactorClientHttpConnectorSupport.proxy(HttpClient.create(), proxySupport)));
 	}
 
+	/**
+	 * @return a {@link WebClient} Builder with WebClient defaults (Reactor Netty global connection pool and event loops) and the proxy configuration, if any.
+	 *         The pooling properties of named clients do not apply.
+	 */
 	public WebClient.Builder client() {
 		final var clientBuilder = WebClient.builder();
-
-		httpConnector(proxySupport).ifPresent(clientBuilder::clientConnector);
-
+		defaultConnector.ifPresent(clientBuilder::clientConnector);
 		return clientBuilder;
 	}
 
+	private WebClient.Builder client(String clientName, SpringAddonsRestProperties.RestClientProperties.HttpProperties httpProperties) {
+		return WebClient.builder().clientConnector(connectors.computeIfAbsent(clientName, name -> httpConnector(name, httpProperties)));
+	}
+
 	/**
 	 * @param  clientName key in "com.c4-soft.springaddons.rest.client" entries of {@link SpringAddonsRestProperties}
 	 * @return            A {@link WebClient} Builder pre-configured with a base-URI and (optionally) with a Bearer Authorization
@@ -58,7 +107,7 @@ public abstract class AbstractSpringAddonsWebClientSupport {
 	public WebClient.Builder client(String clientName) {
 		final var clientProps = Optional.ofNullable(restClientProperties.get(clientName)).orElseThrow(() -> new RestConfigurationNotFoundException(clientName));
 
-		final var clientBuilder = client();
+		final var clientBuilder = client(clientName, clientProps.getHttp());
 
 		clientProps.getBaseUrl().map(URL::toString).ifPresent(clientBuilder::baseUrl);
 
@@ -80,8 +129,17 @@ public abstract class AbstractSpringAddonsWebClientSupport {
 	}
 
 	/**
-	 * Builds a {@link WebClient} with just the provided spring-addons {@link SpringAddonsRestProperties} and uses it to proxy the
-	 * httpServiceClass.
+	 * @param  clientName key in "com.c4-soft.springaddons.rest.client" entries of {@link SpringAddonsRestProperties}
+	 * @return            the {@link WebClient} built from the spring-addons {@link SpringAddonsRestProperties} for this name, created on first call and
+	 *                    then shared
+	 */
+	public WebClient webClient(String clientName) {
+		return webClients.computeIfAbsent(clientName, name -> client(name).build());
+	}
+
+	/**
+	 * Proxies the httpServiceClass with the {@link WebClient} built from the spring-addons {@link SpringAddonsRestProperties} for clientName. Proxies
+	 * are created on first call and then shared.
 	 *
 	 * @param  <T>
 	 * @param  httpServiceClass class of the #64;Service (with {@link HttpExchange} methods) to proxy with a {@link WebClient}
@@ -89,18 +147,33 @@ public abstract class AbstractSpringAddonsWebClientSupport {
 	 * @return                  a #64;Service proxy with a {@link WebClient}
 	 */
 	public <T> T service(String clientName, Class<T> httpServiceClass) {
-		return this.service(this.client(clientName).build(), httpServiceClass);
+		return httpServiceClass.cast(
+				services.computeIfAbsent(
+						new ServiceKey(clientName, httpServiceClass),
+						key -> proxyFactories
+								.computeIfAbsent(clientName, name -> HttpServiceProxyFactory.builderFor(WebClientAdapter.create(webClient(name))).build())
+								.createClient(httpServiceClass)));
 	}
 
-	protected Optional<ReactorClientHttpConnector> httpConnector(ProxySupport proxySupport) {
-		return proxySupport.getHostname().map(proxyHost -> {
-			return new ReactorClientHttpConnector(
-					HttpClient.create().proxy(
-							proxy -> proxy.type(protocoleToProxyType(proxySupport.getProtocol())).host(proxyHost).port(proxySupport.getPort())
-									.username(proxySupport.getUsername()).password(username -> proxySupport.getPassword())
-									.nonProxyHosts(proxySupport.getNoProxy()).connectTimeoutMillis(proxySupport.getConnectTimeoutMillis())));
+	/**
+	 * @param  clientName     key in "com.c4-soft.springaddons.rest.client" entries of {@link SpringAddonsRestProperties}
+	 * @param  httpProperties transport configuration
+	 * @return                a connector with its own connection pool, running on the shared event loops
+	 */
+	protected ReactorClientHttpConnector httpConnector(String clientName, SpringAddonsRestProperties.RestClientProperties.HttpProperties httpProperties) {
+		final var connectionProvider = connectionProviders
+				.computeIfAbsent(clientName, name -> ReactorClientHttpConnectorSupport.connectionProvider("spring-addons." + name, httpProperties));
+		return ReactorClientHttpConnectorSupport.connector(connectionProvider, proxySupport, httpProperties, loopResources);
+	}
 
-		});
+	@Override
+	public void destroy() {
+		services.clear();
+		proxyFactories.clear();
+		webClients.clear();
+		connectors.clear();
+		connectionProviders.values().forEach(ConnectionProvider::dispose);
+		connectionProviders.clear();
 	}
 
 	protected void authorize(Builder clientBuilder, AuthorizationProperties authProps, String clientName) {
@@ -182,4 +255,7 @@ public abstract class AbstractSpringAddonsWebClientSupport {
 		}
 		return ProxyProvider.Proxy.SOCKS5;
 	}
+
+	private static record ServiceKey(String clientName, Class<?> httpServiceClass) {
+	}
 }
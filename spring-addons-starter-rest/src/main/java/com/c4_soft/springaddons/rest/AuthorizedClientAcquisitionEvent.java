@@ -0,0 +1,37 @@
+package com.c4_soft.springaddons.rest;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for each authorized client requested to the {@link org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager} by an
+ * {@link AuthorizedClientBearerProvider} (or a {@link ReactiveAuthorizedClientBearerProvider}). When the token cache is enabled, only the cache misses and
+ * refreshes reach the authorized client manager and are recorded.
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Name(AuthorizedClientAcquisitionEvent.NAME)
+@Label("Authorized Client Acquisition")
+@Category({ "Spring Addons", "REST" })
+@Description("Authorized client (and access token) requested to the OAuth2 authorized client manager")
+@StackTrace(false)
+@Setter
+public class AuthorizedClientAcquisitionEvent extends Event {
+	public static final String NAME = "com.c4_soft.springaddons.rest.AuthorizedClientAcquisition";
+
+	@Label("Registration ID")
+	private String registrationId;
+
+	@Label("Authorized")
+	@Description("Whether the authorized client manager returned an authorized client")
+	private boolean authorized;
+
+	@Label("Success")
+	@Description("False if the authorized client manager threw an exception")
+	private boolean success;
+}
@@ -34,10 +34,26 @@ public class AuthorizedClientBearerProvider implements BearerProvider {
 
     @Override
     public Optional<String> getBearer() {
+        return getAuthorizedClient().map(OAuth2AuthorizedClient::getAccessToken).map(OAuth2AccessToken::getTokenValue);
+    }
+
+    /**
+     * @return the authorized client for the configured registration ID and the principal in the security context (anonymous if none). Each call is recorded
+     *         as an {@link AuthorizedClientAcquisitionEvent} JFR event.
+     */
+    public Optional<OAuth2AuthorizedClient> getAuthorizedClient() {
         final var authentication = Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication()).orElse(ANONYMOUS);
         OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest.withClientRegistrationId(registrationId).principal(authentication).build();
-        final var authorizedClient = Optional.ofNullable(authorizedClientManager.authorize(authorizeRequest));
-        final var token = authorizedClient.map(OAuth2AuthorizedClient::getAccessToken);
-        return token.map(OAuth2AccessToken::getTokenValue);
+        final var event = new AuthorizedClientAcquisitionEvent();
+        event.begin();
+        try {
+            final var authorizedClient = Optional.ofNullable(authorizedClientManager.authorize(authorizeRequest));
+            event.setAuthorized(authorizedClient.isPresent());
+            event.setSuccess(true);
+            return authorizedClient;
+        } finally {
+            event.setRegistrationId(registrationId);
+            event.commit();
+        }
     }
 }
@@ -0,0 +1,226 @@
+package com.c4_soft.springaddons.rest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * A {@link BearerProvider} caching the access token an {@link AuthorizedClientBearerProvider} gets with client credentials:
+ * </p>
+ * <ul>
+ * <li>as long as the cached token is not about to expire, the {@link OAuth2AuthorizedClientManager} is not called at all</li>
+ * <li>when the cached token enters the refresh-ahead window, a new one is fetched in the background and the cached one is served until it is
+ * replaced</li>
+ * <li>when there is no valid token, a single caller fetches one and the concurrent ones wait for its result instead of all racing to the token
+ * endpoint</li>
+ * </ul>
+ * <p>
+ * Background refreshes run outside of any request, so they need a manager which does not depend on one, like
+ * {@link AuthorizedClientServiceOAuth2AuthorizedClientManager} (the DefaultOAuth2AuthorizedClientManager requires a servlet request). Without such
+ * a refresher, there is no refresh-ahead: the cached token is served until it expires, and then a single caller fetches a new one. A background
+ * refresh which fails, or which returns the cached token, is not retried before {@value #REFRESH_RETRY_DELAY_SECONDS} seconds.
+ * </p>
+ * <p>
+ * Tokens obtained with any other grant type depend on the user in the security context: as soon as the registration turns out not to use
+ * client credentials, each call is delegated to the {@link AuthorizedClientBearerProvider}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Slf4j
+public class CachingAuthorizedClientBearerProvider implements BearerProvider {
+	static final long REFRESH_RETRY_DELAY_SECONDS = 5;
+
+	private static final Executor DEFAULT_EXECUTOR = Executors.newCachedThreadPool(new DaemonThreadFactory());
+
+	private final AuthorizedClientBearerProvider delegate;
+	private final Optional<AuthorizedClientBearerProvider> refresher;
+	private final Duration refreshAhead;
+	private final Executor executor;
+	private final Clock clock;
+
+	private final AtomicReference<OAuth2AccessToken> token = new AtomicReference<>();
+	private final AtomicReference<CompletableFuture<Optional<OAuth2AuthorizedClient>>> pending = new AtomicReference<>();
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+	private volatile Instant nextRefreshAttempt = Instant.MIN;
+	private volatile boolean cacheable = true;
+
+	/**
+	 * @param delegate     provides with authorized clients when there is no valid token in cache. Also used for background refreshes if its manager is an
+	 *                     {@link AuthorizedClientServiceOAuth2AuthorizedClientManager}.
+	 * @param refreshAhead how long before expiry a new token is fetched in the background
+	 */
+	public CachingAuthorizedClientBearerProvider(AuthorizedClientBearerProvider delegate, Duration refreshAhead) {
+		this(
+				delegate,
+				delegate.getAuthorizedClientManager() instanceof AuthorizedClientServiceOAuth2AuthorizedClientManager ? Optional.of(delegate)
+						: Optional.empty(),
+				refreshAhead);
+	}
+
+	/**
+	 * @param delegate     provides with authorized clients when there is no valid token in cache
+	 * @param refresher    provides with authorized clients for background refreshes. Its manager must not depend on a request. If empty, there is no
+	 *                     refresh-ahead.
+	 * @param refreshAhead how long before expiry a new token is fetched in the background
+	 */
+	public CachingAuthorizedClientBearerProvider(
+			AuthorizedClientBearerProvider delegate,
+			Optional<AuthorizedClientBearerProvider> refresher,
+			Duration refreshAhead) {
+		this(delegate, refresher, refreshAhead, DEFAULT_EXECUTOR, Clock.systemUTC());
+	}
+
+	CachingAuthorizedClientBearerProvider(
+			AuthorizedClientBearerProvider delegate,
+			Optional<AuthorizedClientBearerProvider> refresher,
+			Duration refreshAhead,
+			Executor executor,
+			Clock clock) {
+		this.delegate = delegate;
+		this.refresher = refresher;
+		this.refreshAhead = refreshAhead;
+		this.executor = executor;
+		this.clock = clock;
+	}
+
+	@Override
+	public Optional<String> getBearer() {
+		if (!cacheable) {
+			return delegate.getBearer();
+		}
+		final var now = clock.instant();
+		final var current = token.get();
+		if (current != null && now.isBefore(current.getExpiresAt())) {
+			if (!now.isBefore(current.getExpiresAt().minus(refreshAhead))) {
+				refresh(now);
+			}
+			return Optional.of(current.getTokenValue());
+		}
+
+		final Optional<OAuth2AuthorizedClient> authorizedClient;
+		try {
+			authorizedClient = fetch().join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+		if (!cacheable) {
+			// the result was obtained for the principal of the thread which fetched it
+			return delegate.getBearer();
+		}
+		return authorizedClient.map(OAuth2AuthorizedClient::getAccessToken).map(OAuth2AccessToken::getTokenValue);
+	}
+
+	/**
+	 * @return the cached access token, if any
+	 */
+	public Optional<OAuth2AccessToken> getCachedToken() {
+		return Optional.ofNullable(token.get());
+	}
+
+	/**
+	 * @return the pending fetch if there is one, a new one run by the current thread otherwise
+	 */
+	private CompletableFuture<Optional<OAuth2AuthorizedClient>> fetch() {
+		final var created = new CompletableFuture<Optional<OAuth2AuthorizedClient>>();
+		final var existing = pending.compareAndExchange(null, created);
+		if (existing != null) {
+			return existing;
+		}
+		try {
+			final var authorizedClient = delegate.getAuthorizedClient();
+			authorizedClient.ifPresent(this::update);
+			pending.set(null);
+			created.complete(authorizedClient);
+		} catch (RuntimeException e) {
+			pending.set(null);
+			created.completeExceptionally(e);
+		}
+		return created;
+	}
+
+	/**
+	 * Submits a background refresh, unless there is no refresher, a refresh is already running, or the last attempt was not conclusive and is too
+	 * recent
+	 */
+	private void refresh(Instant now) {
+		if (refresher.isEmpty() || now.isBefore(nextRefreshAttempt) || !refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				final var previous = token.get();
+				try {
+					refresher.get().getAuthorizedClient().ifPresent(this::update);
+					final var refreshed = token.get();
+					if (refreshed == null
+							|| previous != null && Objects.equals(previous.getTokenValue(), refreshed.getTokenValue())) {
+						postponeRefresh();
+					}
+				} catch (RuntimeException e) {
+					postponeRefresh();
+					log.warn(
+							"Failed to refresh the access token for {}, the cached one is served until it expires: {}",
+							delegate.getRegistrationId(),
+							e.getMessage());
+					log.debug("Access token refresh failure for {}", delegate.getRegistrationId(), e);
+				} finally {
+					refreshing.set(false);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			postponeRefresh();
+			refreshing.set(false);
+		}
+	}
+
+	private void postponeRefresh() {
+		nextRefreshAttempt = clock.instant().plusSeconds(REFRESH_RETRY_DELAY_SECONDS);
+	}
+
+	private void update(OAuth2AuthorizedClient authorizedClient) {
+		if (!AuthorizationGrantType.CLIENT_CREDENTIALS.equals(authorizedClient.getClientRegistration().getAuthorizationGrantType())) {
+			cacheable = false;
+			token.set(null);
+			return;
+		}
+		final var accessToken = authorizedClient.getAccessToken();
+		if (accessToken.getExpiresAt() != null) {
+			token.set(accessToken);
+		}
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			final var thread = new Thread(r, "spring-addons-token-refresh-%d".formatted(count.incrementAndGet()));
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.c4_soft.springaddons.rest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.security.oauth2.client.AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>
+ * A {@link ReactiveBearerProvider} caching the access token a {@link ReactiveAuthorizedClientBearerProvider} gets with client credentials:
+ * </p>
+ * <ul>
+ * <li>as long as the cached token is not about to expire, the {@link ReactiveOAuth2AuthorizedClientManager} is not called at all</li>
+ * <li>when the cached token enters the refresh-ahead window, a new one is fetched in the background and the cached one is served until it is
+ * replaced</li>
+ * <li>when there is no valid token, all the concurrent subscribers share a single authorization</li>
+ * </ul>
+ * <p>
+ * Background refreshes are detached from the subscriber which triggers them, so they need a manager which does not depend on a
+ * ServerWebExchange, like {@link AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager}. Without such a refresher, there is no
+ * refresh-ahead: the cached token is served until it expires, and then a single authorization is shared by the concurrent subscribers. A background
+ * refresh which fails, or which returns the cached token, is not retried before
+ * {@value CachingAuthorizedClientBearerProvider#REFRESH_RETRY_DELAY_SECONDS} seconds.
+ * </p>
+ * <p>
+ * Tokens obtained with any other grant type depend on the user: as soon as the registration turns out not to use client credentials, each call is
+ * delegated to the {@link ReactiveAuthorizedClientBearerProvider}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Slf4j
+public class CachingReactiveAuthorizedClientBearerProvider implements ReactiveBearerProvider {
+	private final ReactiveAuthorizedClientBearerProvider delegate;
+	private final Optional<ReactiveAuthorizedClientBearerProvider> refresher;
+	private final Duration refreshAhead;
+	private final Clock clock;
+
+	private final AtomicReference<OAuth2AccessToken> token = new AtomicReference<>();
+	private final AtomicReference<Mono<Optional<OAuth2AuthorizedClient>>> pending = new AtomicReference<>();
+	private final AtomicBoolean refreshing = new AtomicBoolean();
+	private volatile Instant nextRefreshAttempt = Instant.MIN;
+	private volatile boolean cacheable = true;
+
+	/**
+	 * @param delegate     provides with authorized clients when there is no valid token in cache. Also used for background refreshes if its manager is an
+	 *                     {@link AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager}.
+	 * @param refreshAhead how long before expiry a new token is fetched in the background
+	 */
+	public CachingReactiveAuthorizedClientBearerProvider(ReactiveAuthorizedClientBearerProvider delegate, Duration refreshAhead) {
+		this(
+				delegate,
+				delegate.getAuthorizedClientManager() instanceof AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager ? Optional.of(delegate)
+						: Optional.empty(),
+				refreshAhead);
+	}
+
+	/**
+	 * @param delegate     provides with authorized clients when there is no valid token in cache
+	 * @param refresher    provides with authorized clients for background refreshes. Its manager must not depend on a ServerWebExchange. If empty,
+	 *                     there is no refresh-ahead.
+	 * @param refreshAhead how long before expiry a new token is fetched in the background
+	 */
+	public CachingReactiveAuthorizedClientBearerProvider(
+			ReactiveAuthorizedClientBearerProvider delegate,
+			Optional<ReactiveAuthorizedClientBearerProvider> refresher,
+			Duration refreshAhead) {
+		this(delegate, refresher, refreshAhead, Clock.systemUTC());
+	}
+
+	CachingReactiveAuthorizedClientBearerProvider(
+			ReactiveAuthorizedClientBearerProvider delegate,
+			Optional<ReactiveAuthorizedClientBearerProvider> refresher,
+			Duration refreshAhead,
+			Clock clock) {
+		this.delegate = delegate;
+		this.refresher = refresher;
+		this.refreshAhead = refreshAhead;
+		this.clock = clock;
+	}
+
+	@Override
+	public Mono<String> getBearer() {
+		return Mono.defer(() -> {
+			if (!cacheable) {
+				return delegate.getBearer();
+			}
+			final var now = clock.instant();
+			final var current = token.get();
+			if (current != null && now.isBefore(current.getExpiresAt())) {
+				if (!now.isBefore(current.getExpiresAt().minus(refreshAhead))) {
+					refresh(now);
+				}
+				return Mono.just(current.getTokenValue());
+			}
+			return fetch().flatMap(authorizedClient -> {
+				if (!cacheable) {
+					// the result was obtained for the principal of the subscriber which triggered the fetch
+					return delegate.getBearer();
+				}
+				return Mono.justOrEmpty(authorizedClient.map(OAuth2AuthorizedClient::getAccessToken).map(OAuth2AccessToken::getTokenValue));
+			});
+		});
+	}
+
+	/**
+	 * @return the cached access token, if any
+	 */
+	public Optional<OAuth2AccessToken> getCachedToken() {
+		return Optional.ofNullable(token.get());
+	}
+
+	/**
+	 * @return the pending fetch if there is one, a new one otherwise. The authorization happens once, whatever the number of subscribers.
+	 */
+	private Mono<Optional<OAuth2AuthorizedClient>> fetch() {
+		final var created = delegate
+				.getAuthorizedClient()
+				.map(Optional::of)
+				.defaultIfEmpty(Optional.empty())
+				.doOnNext(authorizedClient -> authorizedClient.ifPresent(this::update))
+				.doFinally(signal -> pending.set(null))
+				.cache();
+		final var existing = pending.compareAndExchange(null, created);
+		return existing == null ? created : existing;
+	}
+
+	/**
+	 * Subscribes to a background refresh, unless there is no refresher, a refresh is already running, or the last attempt was not conclusive and is
+	 * too recent
+	 */
+	private void refresh(Instant now) {
+		if (refresher.isEmpty() || now.isBefore(nextRefreshAttempt) || !refreshing.compareAndSet(false, true)) {
+			return;
+		}
+		final var previous = token.get();
+		refresher
+				.get()
+				.getAuthorizedClient()
+				.doOnNext(this::update)
+				.doFinally(signal -> refreshing.set(false))
+				.subscribe(authorizedClient -> {}, e -> {
+					postponeRefresh();
+					log.warn(
+							"Failed to refresh the access token for {}, the cached one is served until it expires: {}",
+							delegate.getRegistrationId(),
+							e.getMessage());
+					log.debug("Access token refresh failure for {}", delegate.getRegistrationId(), e);
+				}, () -> {
+					final var refreshed = token.get();
+					if (refreshed == null || previous != null && Objects.equals(previous.getTokenValue(), refreshed.getTokenValue())) {
+						postponeRefresh();
+					}
+				});
+	}
+
+	private void postponeRefresh() {
+		nextRefreshAttempt = clock.instant().plusSeconds(CachingAuthorizedClientBearerProvider.REFRESH_RETRY_DELAY_SECONDS);
+	}
+
+	private void update(OAuth2AuthorizedClient authorizedClient) {
+		if (!AuthorizationGrantType.CLIENT_CREDENTIALS.equals(authorizedClient.getClientRegistration().getAuthorizationGrantType())) {
+			cacheable = false;
+			token.set(null);
+			return;
+		}
+		final var accessToken = authorizedClient.getAccessToken();
+		if (accessToken.getExpiresAt() != null) {
+			token.set(accessToken);
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package com.c4_soft.springaddons.rest;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.routing.SystemDefaultRoutePlanner;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.util.ClassUtils;
+
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties.Transport;
+
+/**
+ * <p>
+ * Builds the {@link ClientHttpRequestFactory} (HTTP transport) of a {@link org.springframework.web.client.RestClient}. The factories built here are meant
+ * to be created once per client configuration and shared: they hold a pool of connections.
+ * </p>
+ * <ul>
+ * <li>{@link Transport#URL_CONNECTION}: a plain {@link HttpURLConnection} (connections reused by the JDK keep-alive cache). This is the default, and
+ * the only one supporting SOCKS proxies: it is used whatever the requested transport when a SOCKS proxy is configured.</li>
+ * <li>{@link Transport#APACHE}: Apache HttpClient 5 with a pooling connection manager</li>
+ * <li>{@link Transport#JDK}: the JDK {@link HttpClient} (connections pool managed by the JDK, HTTP/2 support)</li>
+ * <li>{@link Transport#AUTO}: {@link Transport#APACHE} when it is on the class-path, {@link Transport#JDK} otherwise</li>
+ * </ul>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class ClientHttpRequestFactorySupport {
+	private static final boolean IS_APACHE_HTTP_CLIENT_PRESENT = ClassUtils
+			.isPresent("org.apache.hc.client5.http.impl.classic.HttpClients", ClientHttpRequestFactorySupport.class.getClassLoader());
+
+	private ClientHttpRequestFactorySupport() {
+	}
+
+	/**
+	 * @param  proxySupport   proxy configuration
+	 * @param  httpProperties transport configuration
+	 * @return                a new HTTP transport, to be shared by all the clients with the same configuration
+	 */
+	public static ClientHttpRequestFactory create(ProxySupport proxySupport, HttpProperties httpProperties) {
+		final var proxySelector = new SpringAddonsProxySelector(proxySupport);
+		final var connectTimeout = httpProperties.getConnectTimeout().orElse(Duration.ofMillis(proxySupport.getConnectTimeoutMillis()));
+		return switch (resolveTransport(httpProperties.getTransport(), proxySelector)) {
+		case APACHE -> ApacheHttpClient.create(proxySelector, connectTimeout, httpProperties);
+		case JDK -> jdk(proxySelector, connectTimeout, httpProperties);
+		default -> urlConnection(proxySelector, connectTimeout, httpProperties);
+		};
+	}
+
+	static Transport resolveTransport(Transport requested, SpringAddonsProxySelector proxySelector) {
+		if (proxySelector.getType() == Proxy.Type.SOCKS) {
+			return Transport.URL_CONNECTION;
+		}
+		if (requested == Transport.AUTO) {
+			return IS_APACHE_HTTP_CLIENT_PRESENT ? Transport.APACHE : Transport.JDK;
+		}
+		return requested;
+	}
+
+	static ClientHttpRequestFactory jdk(SpringAddonsProxySelector proxySelector, Duration connectTimeout, HttpProperties httpProperties) {
+		final var httpClient = HttpClient
+				.newBuilder()
+				.version(httpProperties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+				.connectTimeout(connectTimeout)
+				.proxy(proxySelector)
+				.build();
+		final var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+		httpProperties.getReadTimeout().ifPresent(requestFactory::setReadTimeout);
+		return requestFactory;
+	}
+
+	static ClientHttpRequestFactory urlConnection(SpringAddonsProxySelector proxySelector, Duration connectTimeout, HttpProperties httpProperties) {
+		final var requestFactory = new UrlConnectionClientHttpRequestFactory(proxySelector);
+		requestFactory.setConnectTimeout(connectTimeout);
+		httpProperties.getReadTimeout().ifPresent(requestFactory::setReadTimeout);
+		return requestFactory;
+	}
+
+	/**
+	 * Isolates Apache HttpClient 5 classes so that nothing fails when it is not on the class-path
+	 */
+	static final class ApacheHttpClient {
+		private ApacheHttpClient() {
+		}
+
+		static ClientHttpRequestFactory create(SpringAddonsProxySelector proxySelector, Duration connectTimeout, HttpProperties httpProperties) {
+			final var connectionConfig = ConnectionConfig.custom().setConnectTimeout(Timeout.of(connectTimeout));
+			httpProperties.getReadTimeout().map(Timeout::of).ifPresent(connectionConfig::setSocketTimeout);
+			final var connectionManager = PoolingHttpClientConnectionManagerBuilder.create().setDefaultConnectionConfig(connectionConfig.build());
+			httpProperties.getMaxConnections().ifPresent(connectionManager::setMaxConnTotal);
+			httpProperties.getMaxConnectionsPerRoute().ifPresent(connectionManager::setMaxConnPerRoute);
+			final var requestConfig = RequestConfig.custom();
+			httpProperties.getKeepAlive().map(TimeValue::of).ifPresent(requestConfig::setConnectionKeepAlive);
+			httpProperties.getReadTimeout().map(Timeout::of).ifPresent(requestConfig::setResponseTimeout);
+			final var httpClient = HttpClients
+					.custom()
+					.setConnectionManager(connectionManager.build())
+					.setDefaultRequestConfig(requestConfig.build())
+					.setRoutePlanner(new SystemDefaultRoutePlanner(proxySelector))
+					.evictExpiredConnections();
+			httpProperties.getKeepAlive().map(TimeValue::of).ifPresent(httpClient::evictIdleConnections);
+			return new HttpComponentsClientHttpRequestFactory(httpClient.build());
+		}
+	}
+
+	/**
+	 * A {@link SimpleClientHttpRequestFactory} selecting the proxy for each request without mutating the (shared) factory
+	 */
+	static class UrlConnectionClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
+		private final SpringAddonsProxySelector proxySelector;
+
+		UrlConnectionClientHttpRequestFactory(SpringAddonsProxySelector proxySelector) {
+			this.proxySelector = proxySelector;
+		}
+
+		@Override
+		protected @NonNull HttpURLConnection openConnection(@NonNull URL url, Proxy proxy) throws IOException {
+			try {
+				return super.openConnection(url, proxySelector.proxyFor(url.toURI()));
+			} catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.c4_soft.springaddons.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * <p>
+ * A {@link ClientHttpRequestFactory} decorator recording a {@link RestClientCallEvent} JFR event for each request executed with the transports created by
+ * {@link SpringAddonsRestClientSupport} (named clients, and the unnamed one when a proxy is configured).
+ * </p>
+ * <p>
+ * Unlike a request interceptor, it does not make the {@link org.springframework.web.client.RestClient} buffer request bodies: the requests of the decorated
+ * factory are wrapped only when the event is enabled, and the wrapper keeps streaming bodies if the decorated request does. The request attributes are read
+ * only when the event is actually recorded.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@RequiredArgsConstructor
+public class FlightRecordingClientHttpRequestFactory implements ClientHttpRequestFactory {
+	private final ClientHttpRequestFactory delegate;
+
+	@Nullable
+	private final String clientName;
+
+	@Override
+	public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		final var request = delegate.createRequest(uri, httpMethod);
+		if (!new RestClientCallEvent().isEnabled()) {
+			return request;
+		}
+		return request instanceof StreamingHttpOutputMessage ? new StreamingRecordingRequest(request, clientName) : new RecordingRequest(request, clientName);
+	}
+
+	@RequiredArgsConstructor
+	private static class RecordingRequest implements ClientHttpRequest {
+		protected final ClientHttpRequest delegate;
+		private final String clientName;
+
+		@Override
+		public ClientHttpResponse execute() throws IOException {
+			final var event = new RestClientCallEvent();
+			event.begin();
+			try {
+				final var response = delegate.execute();
+				event.setStatus(response.getStatusCode().value());
+				return response;
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					event.setClientName(clientName);
+					event.setMethod(delegate.getMethod().name());
+					event.setHost(delegate.getURI().getHost());
+					event.setPath(delegate.getURI().getPath());
+					event.commit();
+				}
+			}
+		}
+
+		@Override
+		public OutputStream getBody() throws IOException {
+			return delegate.getBody();
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return delegate.getHeaders();
+		}
+
+		@Override
+		public HttpMethod getMethod() {
+			return delegate.getMethod();
+		}
+
+		@Override
+		public URI getURI() {
+			return delegate.getURI();
+		}
+	}
+
+	private static class StreamingRecordingRequest extends RecordingRequest implements StreamingHttpOutputMessage {
+
+		StreamingRecordingRequest(ClientHttpRequest delegate, String clientName) {
+			super(delegate, clientName);
+		}
+
+		@Override
+		public void setBody(Body body) {
+			((StreamingHttpOutputMessage) delegate).setBody(body);
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package com.c4_soft.springaddons.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.service.annotation.HttpExchange;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * <p>
+ * Registers a bean for each {@link HttpExchange @HttpExchange} interface listed in the "services" of a com.c4-soft.springaddons.rest.client entry.
+ * </p>
+ * <p>
+ * Proxies are built with {@link SpringAddonsRestClientSupport} (a {@link RestClient}) in servlet applications and with
+ * {@link ReactiveSpringAddonsWebClientSupport} (a {@link WebClient}) in reactive ones. All the proxies for a client name share the same client, and are
+ * created at startup unless the client is "lazy".
+ * </p>
+ * <p>
+ * Beans already defined with the same name (by the application, for instance) are not overridden. But listing the same interface (or two interfaces with the
+ * same simple name) under several clients is a misconfiguration: it fails the startup with a {@link RestMisconfigurationConfigurationException}.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class HttpServiceProxiesBeanDefinitionRegistryPostProcessor implements BeanDefinitionRegistryPostProcessor {
+	private final Environment environment;
+
+	@Override
+	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+		if (!(registry instanceof ListableBeanFactory beanFactory)) {
+			return;
+		}
+		final Map<String, SpringAddonsRestProperties.RestClientProperties> clients = Binder
+				.get(environment)
+				.bind("com.c4-soft.springaddons.rest", SpringAddonsRestProperties.class)
+				.map(SpringAddonsRestProperties::getClient)
+				.orElse(Map.of());
+
+		final var isServlet = beanFactory.getBeanNamesForType(SpringAddonsRestClientSupport.class, true, false).length > 0;
+		final var isReactive = beanFactory.getBeanNamesForType(ReactiveSpringAddonsWebClientSupport.class, true, false).length > 0;
+
+		// bean name => client name and service, for the proxies registered here
+		final var registered = new HashMap<String, Map.Entry<String, Class<?>>>();
+		for (final var client : clients.entrySet()) {
+			for (final var serviceClass : client.getValue().getServices()) {
+				final var beanName = StringUtils.uncapitalize(serviceClass.getSimpleName());
+				final var previous = registered.get(beanName);
+				if (previous != null) {
+					throw new RestMisconfigurationConfigurationException(
+							"Can't register a %s bean for %s with the %s client: it is already registered for %s with the %s client. Each @HttpExchange interface can be listed in the services of only one client, and their simple names must be unique."
+									.formatted(beanName, serviceClass.getName(), client.getKey(), previous.getValue().getName(), previous.getKey()));
+				}
+				if (registry.containsBeanDefinition(beanName)) {
+					log.debug("{} bean is already defined, skipping the registration of a proxy with the {} client", beanName, client.getKey());
+					continue;
+				}
+				if (!isServlet && !isReactive) {
+					log.warn("Can't register a proxy for {}: neither SpringAddonsRestClientSupport nor ReactiveSpringAddonsWebClientSupport is defined", beanName);
+					continue;
+				}
+				registry.registerBeanDefinition(beanName, serviceDefinition(beanFactory, isServlet, client.getKey(), serviceClass, client.getValue().isLazy()));
+				registered.put(beanName, Map.entry(client.getKey(), serviceClass));
+			}
+		}
+	}
+
+	@Override
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+	}
+
+	private static <T> AbstractBeanDefinition serviceDefinition(
+			BeanFactory beanFactory,
+			boolean isServlet,
+			String clientName,
+			Class<T> serviceClass,
+			boolean isLazy) {
+		final Supplier<T> supplier = isServlet
+				? () -> beanFactory.getBean(SpringAddonsRestClientSupport.class).service(clientName, serviceClass)
+				: () -> beanFactory.getBean(ReactiveSpringAddonsWebClientSupport.class).service(clientName, serviceClass);
+		return BeanDefinitionBuilder.genericBeanDefinition(serviceClass, supplier).setLazyInit(isLazy).getBeanDefinition();
+	}
+}
@@ -36,10 +36,30 @@ public class ReactiveAuthorizedClientBearerProvider implements ReactiveBearerPro
 
     @Override
     public Mono<String> getBearer() {
+        return getAuthorizedClient().map(OAuth2AuthorizedClient::getAccessToken).map(OAuth2AccessToken::getTokenValue);
+    }
+
+    /**
+     * @return the authorized client for the configured registration ID and the principal in the security context (anonymous if none). Each subscription is
+     *         recorded as an {@link AuthorizedClientAcquisitionEvent} JFR event.
+     */
+    public Mono<OAuth2AuthorizedClient> getAuthorizedClient() {
         final var authentication = Optional.ofNullable(SecurityContextHolder.getContext().getAuthentication()).orElse(ANONYMOUS);
         OAuth2AuthorizeRequest authorizeRequest = OAuth2AuthorizeRequest.withClientRegistrationId(registrationId).principal(authentication).build();
-        final var authorizedClient = authorizedClientManager.authorize(authorizeRequest);
-        final var token = authorizedClient.map(OAuth2AuthorizedClient::getAccessToken);
-        return token.map(OAuth2AccessToken::getTokenValue);
+        return Mono.defer(() -> {
+            final var event = new AuthorizedClientAcquisitionEvent();
+            event.begin();
+            return authorizedClientManager
+                .authorize(authorizeRequest)
+                .doOnSuccess(authorizedClient -> commit(event, authorizedClient != null, true))
+                .doOnError(e -> commit(event, false, false));
+        });
+    }
+
+    private void commit(AuthorizedClientAcquisitionEvent event, boolean authorized, boolean success) {
+        event.setRegistrationId(registrationId);
+        event.setAuthorized(authorized);
+        event.setSuccess(success);
+        event.commit();
     }
 }
\ No newline at end of file
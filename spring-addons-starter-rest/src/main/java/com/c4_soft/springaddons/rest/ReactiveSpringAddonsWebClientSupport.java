@@ -1,6 +1,8 @@
 package com.c4_soft.springaddons.rest;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
 import org.springframework.util.StringUtils;
@@ -36,20 +38,43 @@ public class ReactiveSpringAddonsWebClientSupport extends AbstractSpringAddonsWe
 
 	private final Optional<ReactiveOAuth2AuthorizedClientManager> authorizedClientManager;
 
+	/**
+	 * A manager which does not depend on a ServerWebExchange, used to refresh cached client credentials tokens in the background
+	 */
+	private final Optional<ReactiveOAuth2AuthorizedClientManager> refreshAuthorizedClientManager;
+
+	private final SpringAddonsRestProperties.TokenCacheProperties tokenCacheProperties;
+
+	/**
+	 * Bearer providers by OAuth2 registration ID, shared by all the clients using a registration (and its cached client credentials token)
+	 */
+	private final Map<String, ReactiveBearerProvider> authorizedClientBearerProviders = new ConcurrentHashMap<>();
+
 	public ReactiveSpringAddonsWebClientSupport(
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties addonsProperties,
 			BearerProvider forwardingBearerProvider,
 			Optional<ReactiveOAuth2AuthorizedClientManager> authorizedClientManager) {
+		this(systemProxyProperties, addonsProperties, forwardingBearerProvider, authorizedClientManager, Optional.empty());
+	}
+
+	public ReactiveSpringAddonsWebClientSupport(
+			SystemProxyProperties systemProxyProperties,
+			SpringAddonsRestProperties addonsProperties,
+			BearerProvider forwardingBearerProvider,
+			Optional<ReactiveOAuth2AuthorizedClientManager> authorizedClientManager,
+			Optional<ReactiveOAuth2AuthorizedClientManager> refreshAuthorizedClientManager) {
 		super(systemProxyProperties, addonsProperties, forwardingBearerProvider);
 		this.authorizedClientManager = authorizedClientManager;
+		this.refreshAuthorizedClientManager = refreshAuthorizedClientManager;
+		this.tokenCacheProperties = addonsProperties.getTokenCache();
 	}
 
 	@Override
 	protected ExchangeFilterFunction oauth2RegistrationFilter(String registrationId) {
+		final var provider = authorizedClientManager.map(acm -> authorizedClientBearerProvider(acm, registrationId));
 		return (ClientRequest request, ExchangeFunction next) -> {
-			final var provider = Mono.justOrEmpty(authorizedClientManager.map(acm -> new ReactiveAuthorizedClientBearerProvider(acm, registrationId)));
-			return provider.flatMap(ReactiveAuthorizedClientBearerProvider::getBearer).defaultIfEmpty("").flatMap(bearer -> {
+			return Mono.justOrEmpty(provider).flatMap(ReactiveBearerProvider::getBearer).defaultIfEmpty("").flatMap(bearer -> {
 				if (StringUtils.hasText(bearer)) {
 					final var modified = ClientRequest.from(request).headers(headers -> headers.setBearerAuth(bearer)).build();
 					return next.exchange(modified);
@@ -58,4 +83,26 @@ public class ReactiveSpringAddonsWebClientSupport extends AbstractSpringAddonsWe
 			});
 		};
 	}
+
+	/**
+	 * @param  authorizedClientManager
+	 * @param  registrationId
+	 * @return                         the {@link ReactiveBearerProvider} for the registration, caching client credentials tokens unless
+	 *                                 com.c4-soft.springaddons.rest.token-cache.enabled is false
+	 */
+	protected ReactiveBearerProvider authorizedClientBearerProvider(ReactiveOAuth2AuthorizedClientManager authorizedClientManager, String registrationId) {
+		return authorizedClientBearerProviders.computeIfAbsent(registrationId, id -> {
+			final var provider = new ReactiveAuthorizedClientBearerProvider(authorizedClientManager, id);
+			if (!tokenCacheProperties.isEnabled()) {
+				return provider;
+			}
+			return refreshAuthorizedClientManager
+					.map(
+							refreshManager -> new CachingReactiveAuthorizedClientBearerProvider(
+									provider,
+									Optional.of(new ReactiveAuthorizedClientBearerProvider(refreshManager, id)),
+									tokenCacheProperties.getRefreshAhead()))
+					.orElseGet(() -> new CachingReactiveAuthorizedClientBearerProvider(provider, tokenCacheProperties.getRefreshAhead()));
+		});
+	}
 }
@@ -0,0 +1,96 @@
+package com.c4_soft.springaddons.rest;
+
+import java.time.Duration;
+
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties;
+
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * <p>
+ * Builds the {@link ReactorClientHttpConnector} (HTTP transport) of a {@link org.springframework.web.reactive.function.client.WebClient}. Connectors are
+ * meant to be created once per client configuration and shared, each with its own {@link ConnectionProvider} configured from {@link HttpProperties}, and all
+ * running on the same {@link LoopResources} so that event-loop threads are not multiplied.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public final class ReactorClientHttpConnectorSupport {
+
+	private ReactorClientHttpConnectorSupport() {
+	}
+
+	/**
+	 * @param  name           the connection provider name (used in Reactor Netty metrics and logs)
+	 * @param  httpProperties transport configuration
+	 * @return                a new connection provider, to be disposed by the caller when the connectors using it are not used anymore
+	 */
+	public static ConnectionProvider connectionProvider(String name, HttpProperties httpProperties) {
+		final var builder = ConnectionProvider.builder(name).pendingAcquireTimeout(httpProperties.getPendingAcquireTimeout());
+		httpProperties.getMaxConnectionsPerRoute().ifPresent(builder::maxConnections);
+		httpProperties.getKeepAlive().ifPresent(builder::maxIdleTime);
+		httpProperties.getPendingAcquireMaxCount().ifPresent(builder::pendingAcquireMaxCount);
+		httpProperties.getMaxLifeTime().ifPresent(builder::maxLifeTime);
+		httpProperties.getEvictionInterval().ifPresent(builder::evictInBackground);
+		return builder.build();
+	}
+
+	/**
+	 * @param  connectionProvider the connections pool
+	 * @param  proxySupport       proxy configuration
+	 * @param  httpProperties     transport configuration
+	 * @param  loopResources      event loops shared by all connectors ({@link HttpResources#get()} to use the Reactor Netty global ones)
+	 * @return                    a connector using the provided connection pool and event loops
+	 */
+	public static ReactorClientHttpConnector connector(
+			ConnectionProvider connectionProvider,
+			ProxySupport proxySupport,
+			HttpProperties httpProperties,
+			LoopResources loopResources) {
+		return new ReactorClientHttpConnector(httpClient(connectionProvider, proxySupport, httpProperties).runOn(loopResources));
+	}
+
+	static HttpClient httpClient(ConnectionProvider connectionProvider, ProxySupport proxySupport, HttpProperties httpProperties) {
+		final var connectTimeout = httpProperties.getConnectTimeout().orElse(Duration.ofMillis(proxySupport.getConnectTimeoutMillis()));
+		var httpClient = HttpClient
+				.create(connectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+				.compress(httpProperties.isCompression());
+		if (httpProperties.isHttp2()) {
+			// H2 is negotiated with ALPN over TLS, clear-text connections stay HTTP/1.1
+			httpClient = httpClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2);
+		}
+		if (httpProperties.getReadTimeout().isPresent()) {
+			httpClient = httpClient.responseTimeout(httpProperties.getReadTimeout().get());
+		}
+		return proxy(httpClient, proxySupport);
+	}
+
+	/**
+	 * @param  httpClient   the client to configure
+	 * @param  proxySupport proxy configuration
+	 * @return              the client, configured with the proxy if one is set
+	 */
+	static HttpClient proxy(HttpClient httpClient, ProxySupport proxySupport) {
+		if (proxySupport.getHostname().isEmpty()) {
+			return httpClient;
+		}
+		final var proxyHost = proxySupport.getHostname().get();
+		return httpClient.proxy(
+				proxy -> proxy
+						.type(AbstractSpringAddonsWebClientSupport.protocoleToProxyType(proxySupport.getProtocol()))
+						.host(proxyHost)
+						.port(proxySupport.getPort())
+						.username(proxySupport.getUsername())
+						.password(username -> proxySupport.getPassword())
+						.nonProxyHosts(proxySupport.getNoProxy())
+						.connectTimeoutMillis(proxySupport.getConnectTimeoutMillis()));
+	}
+}
@@ -0,0 +1,42 @@
+package com.c4_soft.springaddons.rest;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * JFR event recorded for each request sent with a {@link org.springframework.web.client.RestClient} built by {@link SpringAddonsRestClientSupport} (see
+ * {@link FlightRecordingClientHttpRequestFactory}).
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+@Name(RestClientCallEvent.NAME)
+@Label("REST Client Call")
+@Category({ "Spring Addons", "REST" })
+@Description("Request sent with a RestClient built by spring-addons")
+@StackTrace(false)
+@Setter
+public class RestClientCallEvent extends Event {
+	public static final String NAME = "com.c4_soft.springaddons.rest.RestClientCall";
+
+	@Label("Client Name")
+	@Description("Key in the com.c4-soft.springaddons.rest.client properties (not set for the clients built without properties)")
+	private String clientName;
+
+	@Label("Method")
+	private String method;
+
+	@Label("Host")
+	private String host;
+
+	@Label("Path")
+	private String path;
+
+	@Label("Status")
+	@Description("The response status code (0 when no response was received)")
+	private int status;
+}
@@ -0,0 +1,63 @@
+package com.c4_soft.springaddons.rest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ * Immutable (hence thread-safe) {@link ProxySelector} built from {@link ProxySupport}: the proxy is used for all hosts but the ones matching the non-proxy
+ * hosts pattern.
+ * </p>
+ *
+ * @author Jérôme Wacongne &lt;ch4mp#64;c4-soft.com&gt;
+ */
+public class SpringAddonsProxySelector extends ProxySelector {
+	private static final List<Proxy> NO_PROXY = List.of(Proxy.NO_PROXY);
+
+	private final Optional<Pattern> nonProxyHostsPattern;
+	private final List<Proxy> proxies;
+
+	public SpringAddonsProxySelector(ProxySupport proxySupport) {
+		this.nonProxyHostsPattern = Optional.ofNullable(proxySupport.getNoProxy()).map(Pattern::compile);
+		this.proxies = proxySupport.getHostname().map(proxyHostname -> {
+			final var address = InetSocketAddress.createUnresolved(proxyHostname, proxySupport.getPort());
+			return List.of(new Proxy(SpringAddonsRestClientSupport.protocoleToProxyType(proxySupport.getProtocol()), address));
+		}).orElse(NO_PROXY);
+	}
+
+	/**
+	 * @return the proxy type, or {@link Proxy.Type#DIRECT} if no proxy is configured
+	 */
+	public Proxy.Type getType() {
+		return proxies.get(0).type();
+	}
+
+	@Override
+	public List<Proxy> select(URI uri) {
+		final var host = uri.getHost();
+		if (host != null && nonProxyHostsPattern.map(pattern -> pattern.matcher(host).matches()).orElse(false)) {
+			return NO_PROXY;
+		}
+		return proxies;
+	}
+
+	/**
+	 * @param uri target URI
+	 * @return the proxy to use for this URI ({@link Proxy#NO_PROXY} for a direct connection)
+	 */
+	public Proxy proxyFor(URI uri) {
+		return select(uri).get(0);
+	}
+
+	@Override
+	public void connectFailed(URI uri, SocketAddress sa, IOException ioe) {
+		// no alternate proxy to try
+	}
+}
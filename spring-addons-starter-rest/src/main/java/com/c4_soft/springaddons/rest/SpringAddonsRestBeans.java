@@ -2,18 +2,33 @@ package com.c4_soft.springaddons.rest;
 
 import java.util.Optional;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Conditional;
+import org.springframework.core.env.Environment;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.ClientCredentialsOAuth2AuthorizedClientProvider;
+import org.springframework.security.oauth2.client.ClientCredentialsReactiveOAuth2AuthorizedClientProvider;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
 import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.ReactiveClientRegistrationRepository;
 
 @AutoConfiguration
 public class SpringAddonsRestBeans {
 
+	@Bean
+	static HttpServiceProxiesBeanDefinitionRegistryPostProcessor httpServiceProxiesBeanDefinitionRegistryPostProcessor(Environment environment) {
+		return new HttpServiceProxiesBeanDefinitionRegistryPostProcessor(environment);
+	}
+
 	@ConditionalOnMissingBean
 	@Bean
 	BearerProvider bearerProvider() {
@@ -26,8 +41,15 @@ public class SpringAddonsRestBeans {
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties restProperties,
 			BearerProvider forwardingBearerProvider,
-			Optional<OAuth2AuthorizedClientManager> authorizedClientManager) {
-		return new SpringAddonsRestClientSupport(systemProxyProperties, restProperties, forwardingBearerProvider, authorizedClientManager);
+			Optional<OAuth2AuthorizedClientManager> authorizedClientManager,
+			ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository,
+			ObjectProvider<OAuth2AuthorizedClientService> authorizedClientService) {
+		return new SpringAddonsRestClientSupport(
+				systemProxyProperties,
+				restProperties,
+				forwardingBearerProvider,
+				authorizedClientManager,
+				refreshAuthorizedClientManager(restProperties, clientRegistrationRepository, authorizedClientService));
 	}
 
 	@Conditional(IsServletWithWebClientCondition.class)
@@ -36,8 +58,15 @@ public class SpringAddonsRestBeans {
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties addonsProperties,
 			BearerProvider forwardingBearerProvider,
-			Optional<OAuth2AuthorizedClientManager> authorizedClientManager) {
-		return new SpringAddonsWebClientSupport(systemProxyProperties, addonsProperties, forwardingBearerProvider, authorizedClientManager);
+			Optional<OAuth2AuthorizedClientManager> authorizedClientManager,
+			ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository,
+			ObjectProvider<OAuth2AuthorizedClientService> authorizedClientService) {
+		return new SpringAddonsWebClientSupport(
+				systemProxyProperties,
+				addonsProperties,
+				forwardingBearerProvider,
+				authorizedClientManager,
+				refreshAuthorizedClientManager(addonsProperties, clientRegistrationRepository, authorizedClientService));
 	}
 
 	@ConditionalOnWebApplication(type = Type.REACTIVE)
@@ -46,7 +75,53 @@ public class SpringAddonsRestBeans {
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties addonsProperties,
 			BearerProvider forwardingBearerProvider,
-			Optional<ReactiveOAuth2AuthorizedClientManager> authorizedClientManager) {
-		return new ReactiveSpringAddonsWebClientSupport(systemProxyProperties, addonsProperties, forwardingBearerProvider, authorizedClientManager);
+			Optional<ReactiveOAuth2AuthorizedClientManager> authorizedClientManager,
+			ObjectProvider<ReactiveClientRegistrationRepository> clientRegistrationRepository,
+			ObjectProvider<ReactiveOAuth2AuthorizedClientService> authorizedClientService) {
+		return new ReactiveSpringAddonsWebClientSupport(
+				systemProxyProperties,
+				addonsProperties,
+				forwardingBearerProvider,
+				authorizedClientManager,
+				reactiveRefreshAuthorizedClientManager(addonsProperties, clientRegistrationRepository, authorizedClientService));
+	}
+
+	/**
+	 * The manager used to refresh cached client credentials tokens in the background: it does not depend on a request, and its clock skew is the
+	 * refresh-ahead duration, so that it fetches a new token as soon as the cached one enters the refresh-ahead window.
+	 */
+	private static Optional<OAuth2AuthorizedClientManager> refreshAuthorizedClientManager(
+			SpringAddonsRestProperties restProperties,
+			ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository,
+			ObjectProvider<OAuth2AuthorizedClientService> authorizedClientService) {
+		final var registrations = clientRegistrationRepository.getIfAvailable();
+		final var clientService = authorizedClientService.getIfAvailable();
+		if (registrations == null || clientService == null) {
+			return Optional.empty();
+		}
+		final var provider = new ClientCredentialsOAuth2AuthorizedClientProvider();
+		provider.setClockSkew(restProperties.getTokenCache().getRefreshAhead());
+		final var manager = new AuthorizedClientServiceOAuth2AuthorizedClientManager(registrations, clientService);
+		manager.setAuthorizedClientProvider(provider);
+		return Optional.of(manager);
+	}
+
+	/**
+	 * The reactive equivalent of {@link #refreshAuthorizedClientManager(SpringAddonsRestProperties, ObjectProvider, ObjectProvider)}
+	 */
+	private static Optional<ReactiveOAuth2AuthorizedClientManager> reactiveRefreshAuthorizedClientManager(
+			SpringAddonsRestProperties restProperties,
+			ObjectProvider<ReactiveClientRegistrationRepository> clientRegistrationRepository,
+			ObjectProvider<ReactiveOAuth2AuthorizedClientService> authorizedClientService) {
+		final var registrations = clientRegistrationRepository.getIfAvailable();
+		final var clientService = authorizedClientService.getIfAvailable();
+		if (registrations == null || clientService == null) {
+			return Optional.empty();
+		}
+		final var provider = new ClientCredentialsReactiveOAuth2AuthorizedClientProvider();
+		provider.setClockSkew(restProperties.getTokenCache().getRefreshAhead());
+		final var manager = new AuthorizedClientServiceReactiveOAuth2AuthorizedClientManager(registrations, clientService);
+		manager.setAuthorizedClientProvider(provider);
+		return Optional.of(manager);
 	}
 }
@@ -1,22 +1,16 @@
 package com.c4_soft.springaddons.rest;
 
-import java.io.IOException;
-import java.net.InetSocketAddress;
 import java.net.Proxy;
-import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.lang.NonNull;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.server.resource.authentication.BearerTokenAuthentication;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
@@ -28,7 +22,11 @@ import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
 import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.AuthorizationProperties;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -40,6 +38,9 @@ import lombok.extern.slf4j.Slf4j;
  * {@link OAuth2AuthorizedClientManager} for a given registration-id or by a {@link BearerProvider} (taking the Bearer from the security
  * context to forward it)</li>
  * <li>providing with helper methods to get a HTTP service from the {@link HttpServiceProxyFactory} and application properties</li>
+ * <li>sharing an HTTP transport per client name (see {@link ClientHttpRequestFactorySupport})</li>
+ * <li>recording each request of the transports it creates as a {@link RestClientCallEvent} JFR event (see
+ * {@link FlightRecordingClientHttpRequestFactory})</li>
  * </ul>
  * <p>
  * <p>
@@ -57,7 +58,6 @@ import lombok.extern.slf4j.Slf4j;
 @Data
 @Slf4j
 public class SpringAddonsRestClientSupport {
-
 	private final ProxySupport proxySupport;
 
 	private final Map<String, SpringAddonsRestProperties.RestClientProperties> restClientProperties;
@@ -69,21 +69,108 @@ public class SpringAddonsRestClientSupport {
 
 	private final Optional<OAuth2AuthorizedClientManager> authorizedClientManager;
 
+	/**
+	 * A manager which does not depend on a servlet request, used to refresh cached client credentials tokens in the background
+	 */
+	private final Optional<OAuth2AuthorizedClientManager> refreshAuthorizedClientManager;
+
+	/**
+	 * Transport of the unnamed client: RestClient default one if there is no proxy
+	 */
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final Optional<ClientHttpRequestFactory> defaultRequestFactory;
+
+	/**
+	 * HTTP transports (and their connections pool) by client name, created once and shared by all the {@link RestClient} instances built for a name
+	 */
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final Map<String, ClientHttpRequestFactory> requestFactories = new ConcurrentHashMap<>();
+
+	private final SpringAddonsRestProperties.TokenCacheProperties tokenCacheProperties;
+
+	/**
+	 * Bearer providers by OAuth2 registration ID, shared by all the clients using a registration (and its cached client credentials token)
+	 */
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final Map<String, BearerProvider> authorizedClientBearerProviders = new ConcurrentHashMap<>();
+
+	/**
+	 * Clients built from {@link SpringAddonsRestProperties} by name, and the proxy factories and {@link HttpExchange @HttpExchange} proxies using it
+	 */
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final Map<String, RestClient> restClients = new ConcurrentHashMap<>();
+
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final Map<String, HttpServiceProxyFactory> proxyFactories = new ConcurrentHashMap<>();
+
+	@Getter(AccessLevel.NONE)
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
+	private final Map<ServiceKey, Object> services = new ConcurrentHashMap<>();
+
 	public SpringAddonsRestClientSupport(
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties restProperties,
 			BearerProvider forwardingBearerProvider,
 			Optional<OAuth2AuthorizedClientManager> authorizedClientManager) {
+		this(systemProxyProperties, restProperties, forwardingBearerProvider, authorizedClientManager, Optional.empty());
+	}
+
+	public SpringAddonsRestClientSupport(
+			SystemProxyProperties systemProxyProperties,
+			SpringAddonsRestProperties restProperties,
+			BearerProvider forwardingBearerProvider,
+			Optional<OAuth2AuthorizedClientManager> authorizedClientManager,
+			Optional<OAuth2AuthorizedClientManager> refreshAuthorizedClientManager) {
 		super();
 		this.proxySupport = new ProxySupport(systemProxyProperties, restProperties);
 		this.restClientProperties = restProperties.getClient();
 		this.forwardingBearerProvider = forwardingBearerProvider;
 		this.authorizedClientManager = authorizedClientManager;
+		this.refreshAuthorizedClientManager = refreshAuthorizedClientManager;
+		this.tokenCacheProperties = restProperties.getTokenCache();
+		this.defaultRequestFactory = proxySupport
+				.getHostname()
+				.map(
+						proxyHost -> new FlightRecordingClientHttpRequestFactory(
+								ClientHttpRequestFactorySupport.create(proxySupport, new SpringAddonsRestProperties.RestClientProperties.HttpProperties()),
+								null));
 	}
 
+	/**
+	 * @return a {@link RestClient} Builder with RestClient defaults (request factory detected by Spring) and the proxy configuration, if any. The transport
+	 *         properties of named clients do not apply.
+	 */
 	public RestClient.Builder client() {
 		final var builder = RestClient.builder();
-		proxySupport.getHostname().map(proxyHostname -> new SpringAddonsClientHttpRequestFactory(proxySupport)).ifPresent(builder::requestFactory);
+		defaultRequestFactory.ifPresent(builder::requestFactory);
+		return proxyAuthorization(builder);
+	}
+
+	/**
+	 * @param clientName     key in "client" entries of {@link SpringAddonsRestProperties}
+	 * @param httpProperties the transport properties, used only when the transport for this client name is created
+	 */
+	private RestClient.Builder client(String clientName, SpringAddonsRestProperties.RestClientProperties.HttpProperties httpProperties) {
+		final var builder = RestClient.builder();
+		builder.requestFactory(
+				requestFactories.computeIfAbsent(
+						clientName,
+						name -> new FlightRecordingClientHttpRequestFactory(ClientHttpRequestFactorySupport.create(proxySupport, httpProperties), name)));
+		return proxyAuthorization(builder);
+	}
+
+	private RestClient.Builder proxyAuthorization(RestClient.Builder builder) {
 		if (proxySupport.getAddonsProperties().isEnabled()
 				&& StringUtils.hasText(proxySupport.getAddonsProperties().getUsername())
 				&& StringUtils.hasText(proxySupport.getAddonsProperties().getPassword())) {
@@ -103,7 +190,7 @@ public class SpringAddonsRestClientSupport {
 	public RestClient.Builder client(String clientName) {
 		final var clientProps = Optional.ofNullable(restClientProperties.get(clientName)).orElseThrow(() -> new RestConfigurationNotFoundException(clientName));
 
-		final var clientBuilder = client();
+		final var clientBuilder = client(clientName, clientProps.getHttp());
 
 		clientProps.getBaseUrl().map(URL::toString).ifPresent(clientBuilder::baseUrl);
 
@@ -125,8 +212,17 @@ public class SpringAddonsRestClientSupport {
 	}
 
 	/**
-	 * Builds a {@link RestClient} with just the provided spring-addons {@link SpringAddonsRestProperties} and uses it to proxy the
-	 * httpServiceClass.
+	 * @param  clientName key in "client" entries of {@link SpringAddonsRestProperties}
+	 * @return            the {@link RestClient} built from the spring-addons {@link SpringAddonsRestProperties} for this name, created on first call and
+	 *                    then shared
+	 */
+	public RestClient restClient(String clientName) {
+		return restClients.computeIfAbsent(clientName, name -> client(name).build());
+	}
+
+	/**
+	 * Proxies the httpServiceClass with the {@link RestClient} built from the spring-addons {@link SpringAddonsRestProperties} for clientName. Proxies
+	 * are created on first call and then shared.
 	 *
 	 * @param  <T>
 	 * @param  httpServiceClass class of the #64;Service (with {@link HttpExchange} methods) to proxy with a {@link RestClient}
@@ -134,7 +230,12 @@ public class SpringAddonsRestClientSupport {
 	 * @return                  a #64;Service proxy with a {@link RestClient}
 	 */
 	public <T> T service(String clientName, Class<T> httpServiceClass) {
-		return this.service(this.client(clientName).build(), httpServiceClass);
+		return httpServiceClass.cast(
+				services.computeIfAbsent(
+						new ServiceKey(clientName, httpServiceClass),
+						key -> proxyFactories
+								.computeIfAbsent(clientName, name -> HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient(name))).build())
+								.createClient(httpServiceClass)));
 	}
 
 	protected void authorize(RestClient.Builder clientBuilder, AuthorizationProperties authProps, String clientName) {
@@ -170,12 +271,36 @@ public class SpringAddonsRestClientSupport {
 		if (authorizedClientManager.isEmpty()) {
 			log.warn("OAuth2 client missconfiguration. Can't setup an OAuth2 Bearer request interceptor because there is no authorizedClientManager bean.");
 		}
-		return authorizedClientManager.map(acm -> (request, body, execution) -> {
-			final var provider = new AuthorizedClientBearerProvider(acm, registrationId);
-			provider.getBearer().ifPresent(bearer -> {
-				request.getHeaders().setBearerAuth(bearer);
-			});
-			return execution.execute(request, body);
+		return authorizedClientManager.map(acm -> {
+			final var provider = authorizedClientBearerProvider(acm, registrationId);
+			return (request, body, execution) -> {
+				provider.getBearer().ifPresent(bearer -> {
+					request.getHeaders().setBearerAuth(bearer);
+				});
+				return execution.execute(request, body);
+			};
+		});
+	}
+
+	/**
+	 * @param  authorizedClientManager
+	 * @param  registrationId
+	 * @return                         the {@link BearerProvider} for the registration, caching client credentials tokens unless
+	 *                                 com.c4-soft.springaddons.rest.token-cache.enabled is false
+	 */
+	protected BearerProvider authorizedClientBearerProvider(OAuth2AuthorizedClientManager authorizedClientManager, String registrationId) {
+		return authorizedClientBearerProviders.computeIfAbsent(registrationId, id -> {
+			final var provider = new AuthorizedClientBearerProvider(authorizedClientManager, id);
+			if (!tokenCacheProperties.isEnabled()) {
+				return provider;
+			}
+			return refreshAuthorizedClientManager
+					.map(
+							refreshManager -> new CachingAuthorizedClientBearerProvider(
+									provider,
+									Optional.of(new AuthorizedClientBearerProvider(refreshManager, id)),
+									tokenCacheProperties.getRefreshAhead()))
+					.orElseGet(() -> new CachingAuthorizedClientBearerProvider(provider, tokenCacheProperties.getRefreshAhead()));
 		});
 	}
 
@@ -202,6 +327,9 @@ public class SpringAddonsRestClientSupport {
 		});
 	}
 
+	private static record ServiceKey(String clientName, Class<?> httpServiceClass) {
+	}
+
 	static Proxy.Type protocoleToProxyType(String protocol) {
 		if (protocol == null) {
 			return null;
@@ -215,30 +343,4 @@ public class SpringAddonsRestClientSupport {
 		}
 		return null;
 	}
-
-	static class SpringAddonsClientHttpRequestFactory extends SimpleClientHttpRequestFactory {
-		private final Optional<Pattern> nonProxyHostsPattern;
-		private final Optional<Proxy> proxyOpt;
-
-		public SpringAddonsClientHttpRequestFactory(ProxySupport proxySupport) {
-			super();
-			this.nonProxyHostsPattern = Optional.ofNullable(proxySupport.getNoProxy()).map(Pattern::compile);
-
-			this.proxyOpt = proxySupport.getHostname().map(proxyHostname -> {
-				final var address = new InetSocketAddress(proxyHostname, proxySupport.getPort());
-				return new Proxy(protocoleToProxyType(proxySupport.getProtocol()), address);
-			});
-
-			setConnectTimeout(proxySupport.getConnectTimeoutMillis());
-		}
-
-		@Override
-		public @NonNull ClientHttpRequest createRequest(@NonNull URI uri, @NonNull HttpMethod httpMethod) throws IOException {
-			super.setProxy(proxyOpt.filter(proxy -> {
-				return nonProxyHostsPattern.map(pattern -> !pattern.matcher(uri.getHost()).matches()).orElse(true);
-			}).orElse(null));
-			return super.createRequest(uri, httpMethod);
-		}
-
-	}
 }
@@ -3,7 +3,10 @@ package com.c4_soft.springaddons.rest;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -12,6 +15,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.service.annotation.HttpExchange;
 
 import lombok.Data;
 
@@ -34,6 +38,8 @@ public class SpringAddonsRestProperties {
 
 	private Map<String, RestClientProperties> client = new HashMap<>();
 
+	private TokenCacheProperties tokenCache = new TokenCacheProperties();
+
 	@Data
 	@ConfigurationProperties
 	public static class ProxyProperties {
@@ -49,6 +55,26 @@ public class SpringAddonsRestProperties {
 		private String nonProxyHostsPattern;
 	}
 
+	/**
+	 * Cache of the access tokens obtained with client credentials by the {@link OAuth2AuthorizedClientManager}, shared by all the clients using the same
+	 * registration ID. Tokens obtained with other grant types (authorization code, ...) are per user and never cached.
+	 */
+	@Data
+	@ConfigurationProperties
+	public static class TokenCacheProperties {
+		/**
+		 * If false, the {@link OAuth2AuthorizedClientManager} is called for each request
+		 */
+		private boolean enabled = true;
+
+		/**
+		 * How long before expiry a new token is fetched in the background (the current one being served in the meantime). Background refreshes use an
+		 * authorized client manager which does not depend on a request, built from the ClientRegistrationRepository and OAuth2AuthorizedClientService
+		 * beans (or their reactive equivalents). Without these beans, tokens are not refreshed ahead of expiry.
+		 */
+		private Duration refreshAhead = Duration.ofSeconds(30);
+	}
+
 	@Data
 	@ConfigurationProperties
 	public static class RestClientProperties {
@@ -59,6 +85,23 @@ public class SpringAddonsRestProperties {
 
 		private AuthorizationProperties authorization = new AuthorizationProperties();
 
+		/**
+		 * HTTP transport: connections pool, timeouts and protocol version
+		 */
+		private HttpProperties http = new HttpProperties();
+
+		/**
+		 * {@link HttpExchange @HttpExchange} interfaces to proxy with this client and to register as beans (named after the interface simple name with a
+		 * lower-case first letter). Interfaces for which a bean with the same name is already defined are skipped. An interface can't be listed under
+		 * several clients.
+		 */
+		private List<Class<?>> services = new ArrayList<>();
+
+		/**
+		 * If false, the proxies of the services above are created at startup (along with the client they share). If true, when first used.
+		 */
+		private boolean lazy = false;
+
 		public Optional<URL> getBaseUrl() {
 			return baseUrl.map(t -> {
 				try {
@@ -69,6 +112,92 @@ public class SpringAddonsRestProperties {
 			});
 		}
 
+		/**
+		 * <p>
+		 * Configuration of the HTTP transport (connections pool) shared by all the {@link RestClient} or {@link WebClient} instances built for a client
+		 * name.
+		 * </p>
+		 * <p>
+		 * For {@link RestClient}, the default transport is a {@link java.net.HttpURLConnection} (as before the other transports were available): pooling
+		 * and HTTP/2 are opt-in. Pool sizing and keep-alive apply to Apache HttpClient 5 only: the JDK HttpClient pool is managed by the JDK (see the
+		 * jdk.httpclient.keepalive.timeout system property), and HTTP/2 is supported by the JDK HttpClient only. For {@link WebClient}, all the properties
+		 * but "transport" apply to the Reactor Netty connection provider and HTTP client.
+		 * </p>
+		 * <p>
+		 * Properties left empty keep the defaults of the underlying library.
+		 * </p>
+		 */
+		@Data
+		@ConfigurationProperties
+		public static class HttpProperties {
+			/**
+			 * Which HTTP client library to use. URL_CONNECTION is a plain {@link java.net.HttpURLConnection}, which connections are reused by the JDK
+			 * keep-alive cache. AUTO selects Apache HttpClient 5 when it is on the class-path and the JDK HttpClient otherwise.
+			 */
+			private Transport transport = Transport.URL_CONNECTION;
+
+			/**
+			 * Timeout for establishing connections. Defaults to com.c4-soft.springaddons.rest.proxy.connect-timeout-millis.
+			 */
+			private Optional<Duration> connectTimeout = Optional.empty();
+
+			/**
+			 * Timeout for reading responses (no timeout if empty)
+			 */
+			private Optional<Duration> readTimeout = Optional.empty();
+
+			/**
+			 * Whether to negotiate HTTP/2 (JDK HttpClient and Reactor Netty)
+			 */
+			private boolean http2 = false;
+
+			/**
+			 * Maximum number of pooled connections (Apache HttpClient 5 only: Reactor Netty pools are per remote host)
+			 */
+			private Optional<Integer> maxConnections = Optional.empty();
+
+			/**
+			 * Maximum number of pooled connections to a given host (Apache HttpClient 5 and Reactor Netty)
+			 */
+			private Optional<Integer> maxConnectionsPerRoute = Optional.empty();
+
+			/**
+			 * How long idle connections are kept in the pool (Apache HttpClient 5 and Reactor Netty)
+			 */
+			private Optional<Duration> keepAlive = Optional.empty();
+
+			/**
+			 * Maximum life time of a pooled connection, whatever its activity (Reactor Netty only, no limit if empty)
+			 */
+			private Optional<Duration> maxLifeTime = Optional.empty();
+
+			/**
+			 * Maximum number of requests waiting for a connection when the pool is exhausted (Reactor Netty only, twice max-connections-per-route if
+			 * empty, -1 for no limit)
+			 */
+			private Optional<Integer> pendingAcquireMaxCount = Optional.empty();
+
+			/**
+			 * How long a request can wait for a connection when the pool is exhausted (Reactor Netty only)
+			 */
+			private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+
+			/**
+			 * Interval at which idle and expired connections are evicted from the pool in the background (Reactor Netty only, eviction happens only when
+			 * connections are acquired or released if empty)
+			 */
+			private Optional<Duration> evictionInterval = Optional.empty();
+
+			/**
+			 * Whether to request compressed responses (Reactor Netty only)
+			 */
+			private boolean compression = false;
+
+			public static enum Transport {
+				AUTO, APACHE, JDK, URL_CONNECTION
+			}
+		}
+
 		@Data
 		@ConfigurationProperties
 		public static class AuthorizationProperties {
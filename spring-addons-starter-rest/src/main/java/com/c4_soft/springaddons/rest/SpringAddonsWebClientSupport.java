@@ -1,6 +1,8 @@
 package com.c4_soft.springaddons.rest;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.web.reactive.function.client.ClientRequest;
@@ -33,24 +35,70 @@ public class SpringAddonsWebClientSupport extends AbstractSpringAddonsWebClientS
 
 	private final Optional<OAuth2AuthorizedClientManager> authorizedClientManager;
 
+	/**
+	 * A manager which does not depend on a servlet request, used to refresh cached client credentials tokens in the background
+	 */
+	private final Optional<OAuth2AuthorizedClientManager> refreshAuthorizedClientManager;
+
+	private final SpringAddonsRestProperties.TokenCacheProperties tokenCacheProperties;
+
+	/**
+	 * Bearer providers by OAuth2 registration ID, shared by all the clients using a registration (and its cached client credentials token)
+	 */
+	private final Map<String, BearerProvider> authorizedClientBearerProviders = new ConcurrentHashMap<>();
+
 	public SpringAddonsWebClientSupport(
 			SystemProxyProperties systemProxyProperties,
 			SpringAddonsRestProperties addonsProperties,
 			BearerProvider forwardingBearerProvider,
 			Optional<OAuth2AuthorizedClientManager> authorizedClientManager) {
+		this(systemProxyProperties, addonsProperties, forwardingBearerProvider, authorizedClientManager, Optional.empty());
+	}
+
+	public SpringAddonsWebClientSupport(
+			SystemProxyProperties systemProxyProperties,
+			SpringAddonsRestProperties addonsProperties,
+			BearerProvider forwardingBearerProvider,
+			Optional<OAuth2AuthorizedClientManager> authorizedClientManager,
+			Optional<OAuth2AuthorizedClientManager> refreshAuthorizedClientManager) {
 		super(systemProxyProperties, addonsProperties, forwardingBearerProvider);
 		this.authorizedClientManager = authorizedClientManager;
+		this.refreshAuthorizedClientManager = refreshAuthorizedClientManager;
+		this.tokenCacheProperties = addonsProperties.getTokenCache();
 	}
 
 	@Override
 	protected ExchangeFilterFunction oauth2RegistrationFilter(String registrationId) {
+		final var provider = authorizedClientManager.map(acm -> authorizedClientBearerProvider(acm, registrationId));
 		return (ClientRequest request, ExchangeFunction next) -> {
-			final var provider = authorizedClientManager.map(acm -> new AuthorizedClientBearerProvider(acm, registrationId));
-			if (provider.flatMap(AuthorizedClientBearerProvider::getBearer).isPresent()) {
-				final var modified = ClientRequest.from(request).headers(headers -> headers.setBearerAuth(provider.get().getBearer().get())).build();
+			final var bearer = provider.flatMap(BearerProvider::getBearer);
+			if (bearer.isPresent()) {
+				final var modified = ClientRequest.from(request).headers(headers -> headers.setBearerAuth(bearer.get())).build();
 				return next.exchange(modified);
 			}
 			return next.exchange(request);
 		};
 	}
+
+	/**
+	 * @param  authorizedClientManager
+	 * @param  registrationId
+	 * @return                         the {@link BearerProvider} for the registration, caching client credentials tokens unless
+	 *                                 com.c4-soft.springaddons.rest.token-cache.enabled is false
+	 */
+	protected BearerProvider authorizedClientBearerProvider(OAuth2AuthorizedClientManager authorizedClientManager, String registrationId) {
+		return authorizedClientBearerProviders.computeIfAbsent(registrationId, id -> {
+			final var provider = new AuthorizedClientBearerProvider(authorizedClientManager, id);
+			if (!tokenCacheProperties.isEnabled()) {
+				return provider;
+			}
+			return refreshAuthorizedClientManager
+					.map(
+							refreshManager -> new CachingAuthorizedClientBearerProvider(
+									provider,
+									Optional.of(new AuthorizedClientBearerProvider(refreshManager, id)),
+									tokenCacheProperties.getRefreshAhead()))
+					.orElseGet(() -> new CachingAuthorizedClientBearerProvider(provider, tokenCacheProperties.getRefreshAhead()));
+		});
+	}
 }
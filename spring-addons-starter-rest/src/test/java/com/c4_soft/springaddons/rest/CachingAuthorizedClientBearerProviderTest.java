@@ -0,0 +1,219 @@
+package com.c4_soft.springaddons.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+class CachingAuthorizedClientBearerProviderTest {
+	private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+	private static final Duration REFRESH_AHEAD = Duration.ofSeconds(30);
+
+	private final MutableClock clock = new MutableClock(NOW);
+
+	@Test
+	void givenTokenIsCached_whenGetBearer_thenManagerIsNotCalledAgain() {
+		final var manager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		final var provider = caching(manager, Optional.empty());
+
+		assertThat(provider.getBearer()).contains("token-1");
+		clock.set(NOW.plusSeconds(200));
+		assertThat(provider.getBearer()).contains("token-1");
+
+		assertThat(manager.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	void givenNoValidToken_whenConcurrentCallersGetBearer_thenASingleAuthorizationIsShared() throws Exception {
+		final var release = new CountDownLatch(1);
+		final var manager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS) {
+			@Override
+			public OAuth2AuthorizedClient authorize(OAuth2AuthorizeRequest authorizeRequest) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.authorize(authorizeRequest);
+			}
+		};
+		final var provider = caching(manager, Optional.empty());
+		final var pool = Executors.newFixedThreadPool(8);
+		try {
+			final var results = new ArrayList<Future<Optional<String>>>();
+			for (var i = 0; i < 8; ++i) {
+				results.add(pool.submit(provider::getBearer));
+			}
+			Thread.sleep(100);
+			release.countDown();
+			for (var result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS)).contains("token-1");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(manager.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	void givenTokenEntersRefreshAheadWindow_whenGetBearer_thenRefresherFetchesANewTokenAndCachedOneIsServedInTheMeantime() {
+		final var manager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		final var refreshManager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS, "refreshed");
+		final var provider = caching(manager, Optional.of(new AuthorizedClientBearerProvider(refreshManager, "machin")));
+
+		assertThat(provider.getBearer()).contains("token-1");
+		clock.set(NOW.plusSeconds(280));
+		assertThat(provider.getBearer()).contains("token-1");
+		assertThat(provider.getBearer()).contains("refreshed-1");
+
+		assertThat(manager.count.get()).isEqualTo(1);
+		assertThat(refreshManager.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	void givenNoRefresher_whenTokenEntersRefreshAheadWindow_thenItIsServedUntilExpiry() {
+		final var manager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		final var provider = caching(manager, Optional.empty());
+
+		assertThat(provider.getBearer()).contains("token-1");
+		clock.set(NOW.plusSeconds(299));
+		assertThat(provider.getBearer()).contains("token-1");
+		assertThat(manager.count.get()).isEqualTo(1);
+
+		clock.set(NOW.plusSeconds(300));
+		assertThat(provider.getBearer()).contains("token-2");
+		assertThat(manager.count.get()).isEqualTo(2);
+	}
+
+	@Test
+	void givenBackgroundRefreshFails_whenGetBearer_thenCachedTokenIsServedAndRefreshIsNotRetriedImmediately() {
+		final var manager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		final var refreshManager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS, "refreshed");
+		refreshManager.failing = true;
+		final var provider = caching(manager, Optional.of(new AuthorizedClientBearerProvider(refreshManager, "machin")));
+
+		assertThat(provider.getBearer()).contains("token-1");
+		clock.set(NOW.plusSeconds(280));
+		assertThat(provider.getBearer()).contains("token-1");
+		assertThat(provider.getBearer()).contains("token-1");
+		assertThat(refreshManager.count.get()).isEqualTo(1);
+
+		refreshManager.failing = false;
+		clock.set(NOW.plusSeconds(280 + CachingAuthorizedClientBearerProvider.REFRESH_RETRY_DELAY_SECONDS));
+		assertThat(provider.getBearer()).contains("token-1");
+		assertThat(provider.getBearer()).contains("refreshed-2");
+		assertThat(refreshManager.count.get()).isEqualTo(2);
+	}
+
+	@Test
+	void givenAuthorizationFails_whenGetBearer_thenErrorIsThrownAndNextCallRetries() {
+		final var manager = new CountingManager(AuthorizationGrantType.CLIENT_CREDENTIALS);
+		manager.failing = true;
+		final var provider = caching(manager, Optional.empty());
+
+		assertThatThrownBy(provider::getBearer).isInstanceOf(IllegalStateException.class);
+		assertThat(provider.getCachedToken()).isEmpty();
+
+		manager.failing = false;
+		assertThat(provider.getBearer()).contains("token-2");
+	}
+
+	@Test
+	void givenAuthorizationCodeRegistration_whenGetBearer_thenEachCallIsDelegated() {
+		final var manager = new CountingManager(AuthorizationGrantType.AUTHORIZATION_CODE);
+		final var provider = caching(manager, Optional.empty());
+
+		assertThat(provider.getBearer()).isPresent();
+		assertThat(provider.getBearer()).isPresent();
+
+		assertThat(provider.getCachedToken()).isEmpty();
+		assertThat(manager.count.get()).isEqualTo(3);
+	}
+
+	private CachingAuthorizedClientBearerProvider caching(OAuth2AuthorizedClientManager manager, Optional<AuthorizedClientBearerProvider> refresher) {
+		return new CachingAuthorizedClientBearerProvider(new AuthorizedClientBearerProvider(manager, "machin"), refresher, REFRESH_AHEAD, Runnable::run, clock);
+	}
+
+	private class CountingManager implements OAuth2AuthorizedClientManager {
+		final AtomicInteger count = new AtomicInteger();
+		final ClientRegistration registration;
+		final String tokenPrefix;
+		volatile boolean failing = false;
+
+		CountingManager(AuthorizationGrantType grantType) {
+			this(grantType, "token");
+		}
+
+		CountingManager(AuthorizationGrantType grantType, String tokenPrefix) {
+			this.registration = ClientRegistration
+					.withRegistrationId("machin")
+					.authorizationGrantType(grantType)
+					.clientId("machin")
+					.redirectUri("https://localhost/login/oauth2/code/machin")
+					.authorizationUri("https://localhost/authorize")
+					.tokenUri("https://localhost/token")
+					.build();
+			this.tokenPrefix = tokenPrefix;
+		}
+
+		@Override
+		public OAuth2AuthorizedClient authorize(OAuth2AuthorizeRequest authorizeRequest) {
+			final var i = count.incrementAndGet();
+			if (failing) {
+				throw new IllegalStateException("token endpoint is down");
+			}
+			final var issuedAt = clock.instant();
+			return new OAuth2AuthorizedClient(
+					registration,
+					"anonymous",
+					new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "%s-%d".formatted(tokenPrefix, i), issuedAt, issuedAt.plusSeconds(300)));
+		}
+	}
+
+	static class MutableClock extends Clock {
+		private volatile Instant instant;
+
+		MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		void set(Instant instant) {
+			this.instant = instant;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.c4_soft.springaddons.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.ReactiveOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import com.c4_soft.springaddons.rest.CachingAuthorizedClientBearerProviderTest.MutableClock;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class CachingReactiveAuthorizedClientBearerProviderTest {
+	private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+	private static final Duration REFRESH_AHEAD = Duration.ofSeconds(30);
+
+	private final MutableClock clock = new MutableClock(NOW);
+
+	@Test
+	void givenTokenIsCached_whenGetBearer_thenManagerIsNotCalledAgain() {
+		final var manager = new CountingManager("token");
+		final var provider = caching(manager, Optional.empty());
+
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		clock.set(NOW.plusSeconds(200));
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+
+		assertThat(manager.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	void givenNoValidToken_whenConcurrentSubscribersGetBearer_thenASingleAuthorizationIsShared() {
+		final var manager = new CountingManager("token");
+		manager.delay = Duration.ofMillis(100);
+		final var provider = caching(manager, Optional.empty());
+
+		final var bearers = Flux.range(0, 8).flatMap(i -> provider.getBearer()).collectList().block(Duration.ofSeconds(5));
+
+		assertThat(bearers).hasSize(8).containsOnly("token-1");
+		assertThat(manager.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	void givenTokenEntersRefreshAheadWindow_whenGetBearer_thenRefresherFetchesANewTokenAndCachedOneIsServedInTheMeantime() {
+		final var manager = new CountingManager("token");
+		final var refreshManager = new CountingManager("refreshed");
+		final var provider = caching(manager, Optional.of(new ReactiveAuthorizedClientBearerProvider(refreshManager, "machin")));
+
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		clock.set(NOW.plusSeconds(280));
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		assertThat(provider.getBearer().block()).isEqualTo("refreshed-1");
+
+		assertThat(manager.count.get()).isEqualTo(1);
+		assertThat(refreshManager.count.get()).isEqualTo(1);
+	}
+
+	@Test
+	void givenNoRefresher_whenTokenEntersRefreshAheadWindow_thenItIsServedUntilExpiry() {
+		final var manager = new CountingManager("token");
+		final var provider = caching(manager, Optional.empty());
+
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		clock.set(NOW.plusSeconds(299));
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		assertThat(manager.count.get()).isEqualTo(1);
+
+		clock.set(NOW.plusSeconds(300));
+		assertThat(provider.getBearer().block()).isEqualTo("token-2");
+		assertThat(manager.count.get()).isEqualTo(2);
+	}
+
+	@Test
+	void givenBackgroundRefreshFails_whenGetBearer_thenCachedTokenIsServedAndRefreshIsNotRetriedImmediately() {
+		final var manager = new CountingManager("token");
+		final var refreshManager = new CountingManager("refreshed");
+		refreshManager.failing = true;
+		final var provider = caching(manager, Optional.of(new ReactiveAuthorizedClientBearerProvider(refreshManager, "machin")));
+
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		clock.set(NOW.plusSeconds(280));
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		assertThat(refreshManager.count.get()).isEqualTo(1);
+
+		refreshManager.failing = false;
+		clock.set(NOW.plusSeconds(280 + CachingAuthorizedClientBearerProvider.REFRESH_RETRY_DELAY_SECONDS));
+		assertThat(provider.getBearer().block()).isEqualTo("token-1");
+		assertThat(provider.getBearer().block()).isEqualTo("refreshed-2");
+		assertThat(refreshManager.count.get()).isEqualTo(2);
+	}
+
+	@Test
+	void givenAuthorizationFails_whenGetBearer_thenErrorIsEmittedAndNextSubscriptionRetries() {
+		final var manager = new CountingManager("token");
+		manager.failing = true;
+		final var provider = caching(manager, Optional.empty());
+
+		assertThatThrownBy(() -> provider.getBearer().block()).isInstanceOf(IllegalStateException.class);
+		assertThat(provider.getCachedToken()).isEmpty();
+
+		manager.failing = false;
+		assertThat(provider.getBearer().block()).isEqualTo("token-2");
+	}
+
+	private CachingReactiveAuthorizedClientBearerProvider caching(
+			ReactiveOAuth2AuthorizedClientManager manager,
+			Optional<ReactiveAuthorizedClientBearerProvider> refresher) {
+		return new CachingReactiveAuthorizedClientBearerProvider(new ReactiveAuthorizedClientBearerProvider(manager, "machin"), refresher, REFRESH_AHEAD, clock);
+	}
+
+	private class CountingManager implements ReactiveOAuth2AuthorizedClientManager {
+		final AtomicInteger count = new AtomicInteger();
+		final ClientRegistration registration = ClientRegistration
+				.withRegistrationId("machin")
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.clientId("machin")
+				.tokenUri("https://localhost/token")
+				.build();
+		final String tokenPrefix;
+		volatile boolean failing = false;
+		volatile Duration delay = Duration.ZERO;
+
+		CountingManager(String tokenPrefix) {
+			this.tokenPrefix = tokenPrefix;
+		}
+
+		@Override
+		public Mono<OAuth2AuthorizedClient> authorize(OAuth2AuthorizeRequest authorizeRequest) {
+			return Mono.defer(() -> {
+				final var i = count.incrementAndGet();
+				if (failing) {
+					return Mono.error(new IllegalStateException("token endpoint is down"));
+				}
+				final var issuedAt = clock.instant();
+				final var authorizedClient = new OAuth2AuthorizedClient(
+						registration,
+						"anonymous",
+						new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "%s-%d".formatted(tokenPrefix, i), issuedAt, issuedAt.plusSeconds(300)));
+				return delay.isZero() ? Mono.just(authorizedClient) : Mono.just(authorizedClient).delayElement(delay);
+			});
+		}
+	}
+}
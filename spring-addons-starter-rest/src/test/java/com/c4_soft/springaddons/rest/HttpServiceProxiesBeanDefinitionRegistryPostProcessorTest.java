@@ -0,0 +1,75 @@
+package com.c4_soft.springaddons.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+class HttpServiceProxiesBeanDefinitionRegistryPostProcessorTest {
+
+	@HttpExchange
+	interface GreetApi {
+		@GetExchange("/greet")
+		String greet();
+	}
+
+	@HttpExchange
+	interface OtherApi {
+		@GetExchange("/other")
+		String other();
+	}
+
+	@Test
+	void givenServicesListedUnderDistinctClients_whenPostProcess_thenAProxyIsRegisteredForEach() {
+		final var registry = servletRegistry();
+
+		new HttpServiceProxiesBeanDefinitionRegistryPostProcessor(
+				environment().withProperty("com.c4-soft.springaddons.rest.client.greet-client.services[0]", GreetApi.class.getName())
+						.withProperty("com.c4-soft.springaddons.rest.client.other-client.services[0]", OtherApi.class.getName()))
+				.postProcessBeanDefinitionRegistry(registry);
+
+		assertThat(registry.getBeanDefinition("greetApi").getResolvableType().resolve()).isEqualTo(GreetApi.class);
+		assertThat(registry.getBeanDefinition("otherApi").getResolvableType().resolve()).isEqualTo(OtherApi.class);
+	}
+
+	@Test
+	void givenBeanIsAlreadyDefined_whenPostProcess_thenItIsNotOverridden() {
+		final var registry = servletRegistry();
+		final var existing = new RootBeanDefinition(GreetApi.class);
+		registry.registerBeanDefinition("greetApi", existing);
+
+		new HttpServiceProxiesBeanDefinitionRegistryPostProcessor(
+				environment().withProperty("com.c4-soft.springaddons.rest.client.greet-client.services[0]", GreetApi.class.getName()))
+				.postProcessBeanDefinitionRegistry(registry);
+
+		assertThat(registry.getBeanDefinition("greetApi")).isSameAs(existing);
+	}
+
+	@Test
+	void givenSameServiceListedUnderTwoClients_whenPostProcess_thenStartupFails() {
+		final var registry = servletRegistry();
+		final var postProcessor = new HttpServiceProxiesBeanDefinitionRegistryPostProcessor(
+				environment().withProperty("com.c4-soft.springaddons.rest.client.first-client.services[0]", GreetApi.class.getName())
+						.withProperty("com.c4-soft.springaddons.rest.client.second-client.services[0]", GreetApi.class.getName()));
+
+		assertThatThrownBy(() -> postProcessor.postProcessBeanDefinitionRegistry(registry))
+				.isInstanceOf(RestMisconfigurationConfigurationException.class)
+				.hasMessageContaining("first-client")
+				.hasMessageContaining("second-client");
+	}
+
+	private static MockEnvironment environment() {
+		return new MockEnvironment();
+	}
+
+	private static DefaultListableBeanFactory servletRegistry() {
+		final var registry = new DefaultListableBeanFactory();
+		registry.registerBeanDefinition("restClientSupport", new RootBeanDefinition(SpringAddonsRestClientSupport.class));
+		return registry;
+	}
+}
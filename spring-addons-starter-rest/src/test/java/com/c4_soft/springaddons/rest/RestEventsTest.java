@@ -0,0 +1,127 @@
+package com.c4_soft.springaddons.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class RestEventsTest {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void givenSpringAddonsSettings_whenRequestsAreSent_thenCallsAreRecorded() throws Exception {
+		final var factory = new FlightRecordingClientHttpRequestFactory((uri, method) -> {
+			if ("unreachable".equals(uri.getHost())) {
+				return new MockClientHttpRequest(method, uri) {
+					@Override
+					protected ClientHttpResponse executeInternal() throws IOException {
+						throw new IOException("unreachable");
+					}
+				};
+			}
+			final var request = new MockClientHttpRequest(method, uri);
+			request.setResponse(new MockClientHttpResponse(new byte[0], HttpStatus.NOT_FOUND));
+			return request;
+		}, "machin");
+
+		final var events = record(() -> {
+			factory.createRequest(URI.create("https://localhost:8080/users/ch4mp?details=true"), HttpMethod.GET).execute();
+			assertThatThrownBy(() -> factory.createRequest(URI.create("https://unreachable/users"), HttpMethod.POST).execute())
+					.isInstanceOf(IOException.class);
+			return null;
+		}).stream().filter(e -> e.getEventType().getName().equals(RestClientCallEvent.NAME)).toList();
+
+		assertThat(events).hasSize(2);
+		assertThat(events.get(0).getString("clientName")).isEqualTo("machin");
+		assertThat(events.get(0).getString("method")).isEqualTo("GET");
+		assertThat(events.get(0).getString("host")).isEqualTo("localhost");
+		assertThat(events.get(0).getString("path")).isEqualTo("/users/ch4mp");
+		assertThat(events.get(0).getInt("status")).isEqualTo(404);
+		assertThat(events.get(1).getString("method")).isEqualTo("POST");
+		assertThat(events.get(1).getInt("status")).isZero();
+	}
+
+	@Test
+	void givenStreamingRequestFactory_whenRequestIsCreated_thenItIsWrappedOnlyWhileRecordingAndKeepsStreaming() throws Exception {
+		final var jdkFactory = new JdkClientHttpRequestFactory();
+		final var factory = new FlightRecordingClientHttpRequestFactory(jdkFactory, null);
+		final var uri = URI.create("https://localhost:8080/users");
+
+		assertThat(factory.createRequest(uri, HttpMethod.POST).getClass()).isEqualTo(jdkFactory.createRequest(uri, HttpMethod.POST).getClass());
+		record(() -> {
+			final var recorded = factory.createRequest(uri, HttpMethod.POST);
+			assertThat(recorded.getClass()).isNotEqualTo(jdkFactory.createRequest(uri, HttpMethod.POST).getClass());
+			assertThat(recorded).isInstanceOf(StreamingHttpOutputMessage.class);
+			return null;
+		});
+	}
+
+	@Test
+	void givenSpringAddonsSettings_whenAuthorizedClientsAreRequested_thenAcquisitionsAreRecorded() throws Exception {
+		final var registration = ClientRegistration
+				.withRegistrationId("machin")
+				.authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+				.clientId("machin")
+				.tokenUri("https://localhost:8443/realms/test/protocol/openid-connect/token")
+				.build();
+		final var authorizedClient = new OAuth2AuthorizedClient(
+				registration,
+				"machin",
+				new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "token", Instant.now(), Instant.now().plusSeconds(300)));
+		final var provider = new AuthorizedClientBearerProvider(request -> authorizedClient, "machin");
+		final var unauthorizedProvider = new AuthorizedClientBearerProvider(request -> null, "bidule");
+
+		final var events = record(() -> {
+			assertThat(provider.getBearer()).contains("token");
+			assertThat(unauthorizedProvider.getBearer()).isEmpty();
+			return null;
+		}).stream().filter(e -> e.getEventType().getName().equals(AuthorizedClientAcquisitionEvent.NAME)).toList();
+
+		assertThat(events.stream().map(e -> e.getString("registrationId"))).containsExactly("machin", "bidule");
+		assertThat(events.stream().map(e -> e.getBoolean("authorized"))).containsExactly(true, false);
+		assertThat(events.stream().map(e -> e.getBoolean("success"))).containsOnly(true);
+	}
+
+	private List<RecordedEvent> record(Callable<?> scenario) throws Exception {
+		final Configuration configuration;
+		try (var settings = new InputStreamReader(getClass().getResourceAsStream("/jfr/spring-addons-rest.jfc"), StandardCharsets.UTF_8)) {
+			configuration = Configuration.create(settings);
+		}
+		final var dump = tmp.resolve("recording.jfr");
+		try (var recording = new Recording(configuration)) {
+			recording.start();
+			scenario.call();
+			recording.stop();
+			recording.dump(dump);
+		}
+		return RecordingFile.readAllEvents(dump);
+	}
+}
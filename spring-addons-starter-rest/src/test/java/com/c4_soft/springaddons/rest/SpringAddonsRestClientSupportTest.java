@@ -0,0 +1,73 @@
+package com.c4_soft.springaddons.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties;
+
+class SpringAddonsRestClientSupportTest {
+
+	@Test
+	void givenClientIsBuiltOnce_whenRestClient_thenItIsSharedAndCachesAreNotPartOfHashCodeNorToString() {
+		final var properties = new SpringAddonsRestProperties();
+		properties.getClient().put("machin", new SpringAddonsRestProperties.RestClientProperties());
+		final var support = support(properties);
+		final var hashCode = support.hashCode();
+
+		final var restClient = support.restClient("machin");
+
+		assertThat(support.restClient("machin")).isSameAs(restClient);
+		assertThat(support.hashCode()).isEqualTo(hashCode);
+		assertThat(support.toString()).doesNotContain("restClients", "requestFactories");
+	}
+
+	@Test
+	void givenDefaultHttpProperties_whenNamedClient_thenUrlConnectionTransportIsSharedWithoutHttp2NorPoolSettings() {
+		final var properties = new SpringAddonsRestProperties();
+		properties.getClient().put("machin", new SpringAddonsRestProperties.RestClientProperties());
+		final var support = support(properties);
+		final var httpProperties = new HttpProperties();
+
+		final var requestFactory = (FlightRecordingClientHttpRequestFactory) requestFactory(support.client("machin"));
+
+		assertThat(requestFactory(support.client("machin"))).isSameAs(requestFactory);
+		assertThat(ReflectionTestUtils.getField(requestFactory, "delegate"))
+				.isInstanceOf(ClientHttpRequestFactorySupport.UrlConnectionClientHttpRequestFactory.class);
+		assertThat(httpProperties.isHttp2()).isFalse();
+		assertThat(httpProperties.getMaxConnections()).isEmpty();
+		assertThat(httpProperties.getMaxConnectionsPerRoute()).isEmpty();
+		assertThat(httpProperties.getKeepAlive()).isEmpty();
+	}
+
+	@Test
+	void givenNoProxy_whenUnnamedClient_thenRestClientDefaultRequestFactoryIsKept() {
+		final var properties = new SpringAddonsRestProperties();
+		properties.getProxy().setEnabled(false);
+
+		assertThat(requestFactory(support(properties).client())).isNull();
+	}
+
+	@Test
+	void givenProxy_whenUnnamedClient_thenASharedTransportWithTheProxyIsUsed() {
+		final var properties = new SpringAddonsRestProperties();
+		properties.getProxy().setHost(Optional.of("proxy.c4-soft.com"));
+		final var support = support(properties);
+
+		final var requestFactory = requestFactory(support.client());
+
+		assertThat(requestFactory).isInstanceOf(FlightRecordingClientHttpRequestFactory.class);
+		assertThat(requestFactory(support.client())).isSameAs(requestFactory);
+	}
+
+	private static SpringAddonsRestClientSupport support(SpringAddonsRestProperties properties) {
+		return new SpringAddonsRestClientSupport(new SystemProxyProperties(), properties, new DefaultBearerProvider(), Optional.empty());
+	}
+
+	private static Object requestFactory(Object builder) {
+		return ReflectionTestUtils.getField(builder, "requestFactory");
+	}
+}
@@ -1,6 +1,7 @@
 package com.c4_soft.springaddons.starter.recaptcha;
 
 import java.net.URL;
+import java.time.Duration;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -16,4 +17,7 @@ public class C4ReCaptchaSettings {
 	@Value("${siteverify-url:https://www.google.com/recaptcha/api/siteverify}")
 	private URL siteverifyUrl;
 	private double v3Threshold = .5;
+	private Duration connectTimeout = Duration.ofSeconds(5);
+	private Duration readTimeout = Duration.ofSeconds(5);
+	private int maxConcurrentValidations = 50;
 }
@@ -1,7 +1,11 @@
 package com.c4_soft.springaddons.starter.recaptcha;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
@@ -12,10 +16,10 @@ import com.c4_soft.springaddons.rest.SpringAddonsRestClientSupport;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Usage:
+ * Blocking reCAPTCHA validation, auto-configured in servlet applications (see {@link ReactiveC4ReCaptchaValidationService} for reactive ones). Usage:
  *
  * <pre>
- * if (Boolean.FALSE.equals(captcha.checkV2(reCaptcha).block())) {
+ * if (Boolean.FALSE.equals(captcha.checkV2(reCaptcha))) {
  *     throw new RuntimeException("Are you a robot?");
  * }
  * </pre>
@@ -23,6 +27,7 @@ import lombok.extern.slf4j.Slf4j;
  * @author Jérôme Wacongne ch4mp&#64;c4-soft.com
  */
 @Service
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @Slf4j
 public class C4ReCaptchaValidationService {
 
@@ -58,9 +63,13 @@ public class C4ReCaptchaValidationService {
     public Double checkV3(String response) throws ReCaptchaValidationException {
         final var dto = response(response, V3ValidationResponseDto.class);
         log.debug("reCaptcha result : {}", dto);
+        return score(response, dto, v3Threshold);
+    }
+
+    static Double score(String response, V3ValidationResponseDto dto, double v3Threshold) throws ReCaptchaValidationException {
         if (!dto.isSuccess()) {
             throw new ReCaptchaValidationException(
-                String.format("Failed to validate reCaptcha: %s %s", response, dto.getErrorCodes().stream().collect(Collectors.joining("[", ", ", "]"))));
+                String.format("Failed to validate reCaptcha: %s %s", response, Optional.ofNullable(dto.getErrorCodes()).orElse(List.of()).stream().collect(Collectors.joining(", ", "[", "]"))));
         }
         if (dto.getScore() < v3Threshold) {
             throw new ReCaptchaValidationException(String.format("Failed to validate reCaptcha: %s. Score is %f", response, dto.getScore()));
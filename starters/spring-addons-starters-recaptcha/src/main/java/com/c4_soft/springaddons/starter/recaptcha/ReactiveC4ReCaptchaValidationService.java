@@ -0,0 +1,118 @@
+package com.c4_soft.springaddons.starter.recaptcha;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.c4_soft.springaddons.rest.ProxySupport;
+import com.c4_soft.springaddons.rest.ReactorClientHttpConnectorSupport;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties.RestClientProperties.HttpProperties;
+import com.c4_soft.springaddons.rest.SystemProxyProperties;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * <p>
+ * Non-blocking reCAPTCHA validation, auto-configured in reactive applications (see {@link C4ReCaptchaValidationService} for servlet ones). Usage:
+ * </p>
+ *
+ * <pre>
+ * return captcha.checkV2(reCaptcha).map(isHuman -&gt; Boolean.TRUE.equals(isHuman) ? "Hi %s".formatted(who) : "Hello Mr. Robot");
+ * </pre>
+ * <p>
+ * Requests to the siteverify end-point are sent with a {@link WebClient} having its own connection pool (and the spring-addons proxy configuration):
+ * </p>
+ * <ul>
+ * <li>at most "max-concurrent-validations" requests are in flight (HTTP/1.1, one request per connection), the others wait for a free connection</li>
+ * <li>"connect-timeout" applies to new connections and "read-timeout" to both the responses and the wait for a free connection</li>
+ * </ul>
+ *
+ * @author Jérôme Wacongne ch4mp&#64;c4-soft.com
+ */
+@Service
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@Slf4j
+public class ReactiveC4ReCaptchaValidationService implements DisposableBean {
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient client;
+    private final String googleRecaptchaSecret;
+    private final double v3Threshold;
+
+    public ReactiveC4ReCaptchaValidationService(
+            C4ReCaptchaSettings settings,
+            SystemProxyProperties systemProxyProperties,
+            SpringAddonsRestProperties restProperties) {
+        final var httpProperties = httpProperties(settings);
+        this.connectionProvider = ReactorClientHttpConnectorSupport.connectionProvider("spring-addons.recaptcha", httpProperties);
+        this.client = WebClient
+            .builder()
+            .clientConnector(
+                ReactorClientHttpConnectorSupport
+                    .connector(connectionProvider, new ProxySupport(systemProxyProperties, restProperties), httpProperties, HttpResources.get()))
+            .baseUrl(settings.getSiteverifyUrl().toString())
+            .build();
+        this.googleRecaptchaSecret = settings.getSecretKey();
+        this.v3Threshold = settings.getV3Threshold();
+    }
+
+    /**
+     * Checks a reCaptcha V2 challenge response
+     *
+     * @param response answer provided by the client
+     * @return true / false
+     */
+    public Mono<Boolean> checkV2(String response) {
+        return response(response, V2ValidationResponseDto.class).map(dto -> {
+            log.debug("reCaptcha result : {}", dto);
+            return dto.isSuccess();
+        });
+    }
+
+    /**
+     * Checks a reCaptcha V3 challenge response
+     *
+     * @param response answer provided by the client
+     * @return a score between 0 and 1, or a {@link ReCaptchaValidationException} error if response wasn't a valid reCAPTCHA token for your site or score is
+     *         below configured threshold
+     */
+    public Mono<Double> checkV3(String response) {
+        return response(response, V3ValidationResponseDto.class).map(dto -> {
+            log.debug("reCaptcha result : {}", dto);
+            return C4ReCaptchaValidationService.score(response, dto, v3Threshold);
+        });
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+
+    private <T> Mono<T> response(String response, Class<T> dtoType) {
+        return client
+            .post()
+            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+            .body(BodyInserters.fromFormData("secret", googleRecaptchaSecret).with("response", response))
+            .retrieve()
+            .bodyToMono(dtoType);
+    }
+
+    static HttpProperties httpProperties(C4ReCaptchaSettings settings) {
+        final var httpProperties = new HttpProperties();
+        httpProperties.setConnectTimeout(Optional.of(settings.getConnectTimeout()));
+        httpProperties.setReadTimeout(Optional.of(settings.getReadTimeout()));
+        httpProperties.setPendingAcquireTimeout(settings.getReadTimeout());
+        httpProperties.setMaxConnectionsPerRoute(Optional.of(settings.getMaxConcurrentValidations()));
+        return httpProperties;
+    }
+}
@@ -4,7 +4,7 @@ import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Import;
 
 @AutoConfiguration
-@Import({ C4ReCaptchaSettings.class, C4ReCaptchaValidationService.class })
+@Import({ C4ReCaptchaSettings.class, C4ReCaptchaValidationService.class, ReactiveC4ReCaptchaValidationService.class })
 public class SpringBootAutoConfiguration {
 
 }
@@ -3,6 +3,8 @@ package com.c4_soft.springaddons.starter.recaptcha;
 import java.io.Serializable;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,6 +26,7 @@ public class V2ValidationResponseDto implements Serializable {
 	/**
 	 * timestamp of the challenge load (ISO format yyyy-MM-dd'T'HH:mm:ssZZ)
 	 */
+	@JsonProperty("challenge_ts")
 	private String challengeTs;
 
 	/**
@@ -34,6 +37,7 @@ public class V2ValidationResponseDto implements Serializable {
 	/**
 	 * optional
 	 */
+	@JsonProperty("error-codes")
 	private List<String> errorCodes;
 
 }
@@ -0,0 +1,152 @@
+package com.c4_soft.springaddons.starter.recaptcha;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.MalformedURLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.c4_soft.springaddons.rest.SpringAddonsRestBeans;
+import com.c4_soft.springaddons.rest.SpringAddonsRestProperties;
+import com.c4_soft.springaddons.rest.SystemProxyProperties;
+
+import reactor.core.publisher.Flux;
+
+class ReactiveC4ReCaptchaValidationServiceTest {
+	private static final Duration SLOW_DELAY = Duration.ofMillis(300);
+
+	private SiteverifyStandIn siteverify;
+
+	@BeforeEach
+	void setUp() {
+		siteverify = new SiteverifyStandIn(SLOW_DELAY);
+	}
+
+	@AfterEach
+	void tearDown() {
+		siteverify.close();
+	}
+
+	@Test
+	void whenCheckV2_thenSuccessIsEmitted() {
+		final var service = service(settings());
+		try {
+			assertThat(service.checkV2(SiteverifyStandIn.HUMAN).block()).isTrue();
+			assertThat(service.checkV2("forged").block()).isFalse();
+		} finally {
+			service.destroy();
+		}
+	}
+
+	@Test
+	void whenCheckV3_thenScoreIsEmittedOnlyAboveThreshold() {
+		final var service = service(settings());
+		try {
+			assertThat(service.checkV3(SiteverifyStandIn.HUMAN).block()).isEqualTo(.9);
+			assertThatThrownBy(() -> service.checkV3(SiteverifyStandIn.ROBOT).block()).isInstanceOf(ReCaptchaValidationException.class);
+			assertThatThrownBy(() -> service.checkV3("forged").block())
+					.isInstanceOf(ReCaptchaValidationException.class)
+					.hasMessageContaining("[invalid-input-response]");
+		} finally {
+			service.destroy();
+		}
+	}
+
+	@Test
+	void givenMaxConcurrentValidations_whenMoreValidationsAreRequested_thenTheOthersWaitForAFreeConnection() {
+		final var settings = settings();
+		settings.setMaxConcurrentValidations(2);
+		settings.setReadTimeout(Duration.ofSeconds(5));
+		final var service = service(settings);
+		try {
+			final var results = Flux
+					.merge(Collections.nCopies(6, SiteverifyStandIn.SLOW).stream().map(service::checkV2).toList())
+					.collectList()
+					.block(Duration.ofSeconds(10));
+			assertThat(results).hasSize(6).containsOnly(true);
+			assertThat(siteverify.getMaxInFlight()).isEqualTo(2);
+		} finally {
+			service.destroy();
+		}
+	}
+
+	@Test
+	void givenSiteverifyIsSlowerThanReadTimeout_whenCheckV2_thenErrorIsEmitted() {
+		final var settings = settings();
+		settings.setReadTimeout(SLOW_DELAY.dividedBy(3));
+		final var service = service(settings);
+		try {
+			assertThatThrownBy(() -> service.checkV2(SiteverifyStandIn.SLOW).block(Duration.ofSeconds(5))).isInstanceOf(WebClientRequestException.class);
+		} finally {
+			service.destroy();
+		}
+	}
+
+	@Test
+	void whenWebApplicationIsReactive_thenOnlyReactiveServiceIsAutoConfigured() {
+		new ReactiveWebApplicationContextRunner()
+				.withUserConfiguration(RestProperties.class)
+				.withConfiguration(AutoConfigurations.of(SpringAddonsRestBeans.class, SpringBootAutoConfiguration.class))
+				.withPropertyValues(properties())
+				.run(context -> {
+					assertThat(context).hasSingleBean(ReactiveC4ReCaptchaValidationService.class);
+					assertThat(context).doesNotHaveBean(C4ReCaptchaValidationService.class);
+					assertThat(context.getBean(ReactiveC4ReCaptchaValidationService.class).checkV2(SiteverifyStandIn.HUMAN).block()).isTrue();
+				});
+	}
+
+	@Test
+	void whenWebApplicationIsServlet_thenOnlyBlockingServiceIsAutoConfigured() {
+		new WebApplicationContextRunner()
+				.withUserConfiguration(RestProperties.class)
+				.withConfiguration(AutoConfigurations.of(SpringAddonsRestBeans.class, SpringBootAutoConfiguration.class))
+				.withPropertyValues(properties())
+				.run(context -> {
+					assertThat(context).hasSingleBean(C4ReCaptchaValidationService.class);
+					assertThat(context).doesNotHaveBean(ReactiveC4ReCaptchaValidationService.class);
+					assertThat(context.getBean(C4ReCaptchaValidationService.class).checkV2(SiteverifyStandIn.HUMAN)).isTrue();
+				});
+	}
+
+	private C4ReCaptchaSettings settings() {
+		final var settings = new C4ReCaptchaSettings();
+		settings.setSecretKey("machin");
+		try {
+			settings.setSiteverifyUrl(siteverify.getSiteverifyUri().toURL());
+		} catch (MalformedURLException e) {
+			throw new IllegalStateException(e);
+		}
+		settings.setV3Threshold(.5);
+		return settings;
+	}
+
+	private String[] properties() {
+		return List
+				.of(
+						"com.c4-soft.springaddons.recaptcha.secret-key=machin",
+						"com.c4-soft.springaddons.recaptcha.siteverify-url=" + siteverify.getSiteverifyUri(),
+						"com.c4-soft.springaddons.recaptcha.v3-threshold=0.5")
+				.toArray(String[]::new);
+	}
+
+	private static ReactiveC4ReCaptchaValidationService service(C4ReCaptchaSettings settings) {
+		return new ReactiveC4ReCaptchaValidationService(settings, new SystemProxyProperties(), new SpringAddonsRestProperties());
+	}
+
+	@Configuration
+	@EnableConfigurationProperties({ SystemProxyProperties.class, SpringAddonsRestProperties.class })
+	static class RestProperties {
+	}
+}
@@ -0,0 +1,105 @@
+package com.c4_soft.springaddons.starter.recaptcha;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>
+ * Local stand-in for Google siteverify end-point, answering according to the submitted "response":
+ * </p>
+ * <ul>
+ * <li>{@value #HUMAN}: success with a 0.9 score</li>
+ * <li>{@value #ROBOT}: success with a 0.1 score</li>
+ * <li>{@value #SLOW}: same as {@value #HUMAN}, after the configured delay</li>
+ * <li>anything else: failure with an "invalid-input-response" error code</li>
+ * </ul>
+ * <p>
+ * It keeps track of the maximum number of requests it handled concurrently.
+ * </p>
+ *
+ * @author Jérôme Wacongne ch4mp&#64;c4-soft.com
+ */
+class SiteverifyStandIn implements AutoCloseable {
+	static final String PATH = "/recaptcha/api/siteverify";
+	static final String HUMAN = "human";
+	static final String ROBOT = "robot";
+	static final String SLOW = "slow";
+
+	private final HttpServer server;
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final Duration slowDelay;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+
+	SiteverifyStandIn(Duration slowDelay) {
+		this.slowDelay = slowDelay;
+		try {
+			this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		server.createContext(PATH, this::siteverify);
+		server.setExecutor(executor);
+		server.start();
+	}
+
+	URI getSiteverifyUri() {
+		return URI.create("http://%s:%d%s".formatted(server.getAddress().getHostString(), server.getAddress().getPort(), PATH));
+	}
+
+	int getMaxInFlight() {
+		return maxInFlight.get();
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	private void siteverify(HttpExchange exchange) throws IOException {
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try (exchange) {
+			final var form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			final var response = response(form);
+			if (SLOW.equals(response)) {
+				Thread.sleep(slowDelay.toMillis());
+			}
+			final var body = switch (response) {
+			case HUMAN, SLOW -> "{\"success\":true,\"score\":0.9,\"action\":\"submit\",\"hostname\":\"localhost\"}";
+			case ROBOT -> "{\"success\":true,\"score\":0.1,\"action\":\"submit\",\"hostname\":\"localhost\"}";
+			default -> "{\"success\":false,\"error-codes\":[\"invalid-input-response\"]}";
+			};
+			final var bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, bytes.length);
+			exchange.getResponseBody().write(bytes);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			inFlight.decrementAndGet();
+		}
+	}
+
+	private static String response(String form) {
+		for (final var param : form.split("&")) {
+			final var keyValue = param.split("=", 2);
+			if ("response".equals(keyValue[0]) && keyValue.length == 2) {
+				return URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8);
+			}
+		}
+		return "";
+	}
+}
@@ -22,6 +22,11 @@ public class C4WebClientBuilderFactoryService {
 
 	private final C4ProxySettings settings;
 
+	/**
+	 * Built once and shared by all the builders: Reactor Netty connection pool and event loops are not multiplied
+	 */
+	private volatile ReactorClientHttpConnector connector;
+
 	public WebClient.Builder get() {
 		return get(null);
 	}
@@ -32,13 +37,25 @@ public class C4WebClientBuilderFactoryService {
 		if (Boolean.FALSE.equals(settings.getEnabled()) || !StringUtils.hasText(settings.getHostname())) {
 			return builder;
 		}
-		log.debug("Building ReactorClientHttpConnector with {}", settings);
-		final var connector = new ReactorClientHttpConnector(
-				HttpClient.create().proxy(
-						proxy -> proxy.type(settings.getType()).host(settings.getHostname()).port(settings.getPort()).username(settings.getUsername())
-								.password(username -> settings.getPassword()).nonProxyHosts(settings.getNoProxy())
-								.connectTimeoutMillis(settings.getConnectTimeoutMillis())));
-
-		return builder.clientConnector(connector);
+		return builder.clientConnector(getConnector());
+	}
+
+	private ReactorClientHttpConnector getConnector() {
+		var current = connector;
+		if (current == null) {
+			synchronized (this) {
+				current = connector;
+				if (current == null) {
+					log.debug("Building ReactorClientHttpConnector with {}", settings);
+					current = new ReactorClientHttpConnector(
+							HttpClient.create().proxy(
+									proxy -> proxy.type(settings.getType()).host(settings.getHostname()).port(settings.getPort()).username(settings.getUsername())
+											.password(username -> settings.getPassword()).nonProxyHosts(settings.getNoProxy())
+											.connectTimeoutMillis(settings.getConnectTimeoutMillis())));
+					connector = current;
+				}
+			}
+		}
+		return current;
 	}
 }